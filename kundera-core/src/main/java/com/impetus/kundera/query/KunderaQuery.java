@@ -69,6 +69,10 @@ public class KunderaQuery
     private static final Pattern INTRA_CLAUSE_PATTERN = Pattern.compile("=|\\blike\\b|\\bin\\b|>=|>|<=|<|set",
             Pattern.CASE_INSENSITIVE);
 
+    /** The aggregate function pattern, e.g. COUNT(p.age). */
+    static final Pattern AGGREGATE_PATTERN = Pattern.compile("^\\s*(COUNT|SUM|AVG|MIN|MAX)\\s*\\(\\s*([\\w.]*)\\s*\\)\\s*$",
+            Pattern.CASE_INSENSITIVE);
+
     /** The logger. */
     private static Logger logger = LoggerFactory.getLogger(KunderaQuery.class);
 
@@ -96,6 +100,9 @@ public class KunderaQuery
     /** The sort orders. */
     private List<SortOrdering> sortOrders;
 
+    /** The grouping columns. */
+    private String[] grouping;
+
     /** Persistence Unit(s). */
     private String persistenceUnit;
 
@@ -128,6 +135,72 @@ public class KunderaQuery
      */
     public void setGrouping(String groupingClause)
     {
+        StringTokenizer tokenizer = new StringTokenizer(groupingClause, ",");
+        List<String> columns = new ArrayList<String>();
+        while (tokenizer.hasMoreTokens())
+        {
+            String column = tokenizer.nextToken().trim();
+            // strip entity alias.
+            columns.add(column.indexOf(".") > 0 ? column.substring(column.indexOf(".") + 1) : column);
+        }
+        this.grouping = columns.toArray(new String[columns.size()]);
+    }
+
+    /**
+     * Gets the grouping columns, without entity alias.
+     * 
+     * @return the grouping columns or null if query has no GROUP BY clause.
+     */
+    public final String[] getGrouping()
+    {
+        return grouping;
+    }
+
+    /**
+     * Returns true if query has a GROUP BY clause or aggregate functions in
+     * its result.
+     * 
+     * @return true, if query is an aggregation.
+     */
+    public boolean isAggregated()
+    {
+        if (grouping != null)
+        {
+            return true;
+        }
+        if (result != null)
+        {
+            for (int i = 1; i < result.length; i++)
+            {
+                if (getAggregation(result[i]) != null)
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns aggregation held by given result column, in the form
+     * FUNCTION(property) as set by parser, or null if it is a plain column.
+     * 
+     * @param column
+     *            result column.
+     * @return aggregation or null.
+     */
+    public static Aggregation getAggregation(String column)
+    {
+        if (column != null)
+        {
+            Matcher matcher = AGGREGATE_PATTERN.matcher(column);
+            if (matcher.matches())
+            {
+                String property = matcher.group(2);
+                return new Aggregation(matcher.group(1).toUpperCase(), property.isEmpty() ? null : property);
+            }
+        }
+        return null;
     }
 
     /**
@@ -1043,6 +1116,52 @@ public class KunderaQuery
         }
     }
 
+    /**
+     * Aggregate function over a property in result clause.
+     */
+    public static final class Aggregation
+    {
+        /** The function, one of COUNT, SUM, AVG, MIN or MAX. */
+        private final String function;
+
+        /** The property, null in case of COUNT over entity. */
+        private final String property;
+
+        /**
+         * Instantiates a new aggregation.
+         * 
+         * @param function
+         *            the function
+         * @param property
+         *            the property
+         */
+        Aggregation(String function, String property)
+        {
+            this.function = function;
+            this.property = property;
+        }
+
+        /**
+         * Gets the function.
+         * 
+         * @return the function
+         */
+        public String getFunction()
+        {
+            return function;
+        }
+
+        /**
+         * Gets the property.
+         * 
+         * @return the property, null in case of COUNT over entity.
+         */
+        public String getProperty()
+        {
+            return property;
+        }
+    }
+
     /**
      * The Enum SortOrder.
      */
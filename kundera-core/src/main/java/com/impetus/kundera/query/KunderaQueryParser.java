@@ -16,6 +16,7 @@
 package com.impetus.kundera.query;
 
 import java.util.StringTokenizer;
+import java.util.regex.Matcher;
 
 /**
  * Parser for handling JPQL Single-String queries. Takes a JPQLQuery and the
@@ -233,7 +234,18 @@ public class KunderaQueryParser
                 while (stringTokenizer.hasMoreTokens())
                 {
                     String property = stringTokenizer.nextToken();
-                    if (property.indexOf(".") > 0)
+                    Matcher aggregate = KunderaQuery.AGGREGATE_PATTERN.matcher(property);
+                    if (aggregate.matches())
+                    {
+                        // Kept as FUNCTION(fieldName), or FUNCTION() for a
+                        // count over entity alias.
+                        String argument = aggregate.group(2);
+                        int index = argument.indexOf(".");
+                        result[0] = index > 0 ? argument.substring(0, index) : argument;
+                        result[++count] = aggregate.group(1).toUpperCase() + "("
+                                + (index > 0 ? argument.substring(index + 1) : "") + ")";
+                    }
+                    else if (property.indexOf(".") > 0)
                     {
                         result[0] = property.substring(0, property.indexOf("."));
                         String fieldName = property.substring(property.indexOf(".") + 1, property.length());
@@ -373,14 +385,8 @@ public class KunderaQueryParser
             {
                 throw new JPQLParseException("keyword without value: HAVING");
             }
-            if (groupingClause != null)
-            {
-                groupingClause = groupingClause.trim() + content;
-            }
-            else
-            {
-                groupingClause = content;
-            }
+            // HAVING is not supported yet, must not end up in grouping.
+            throw new QueryHandlerException("HAVING clause " + content + " is not supported");
         }
 
         /**
@@ -416,6 +416,38 @@ public class KunderaQueryTest
 
     }
 
+    @Test
+    public void testAggregateQuery()
+    {
+        String query = "Select p.personName, count(p), avg(p.age) from Person p where p.age > 10 group by p.personName order by p.personName";
+        KunderaQuery kunderaQuery = new KunderaQuery();
+        KunderaQueryParser queryParser = new KunderaQueryParser(kunderaQuery, query);
+        queryParser.parse();
+        kunderaQuery.postParsingInit();
+
+        Assert.assertTrue(kunderaQuery.isAggregated());
+        Assert.assertArrayEquals(new String[] { "personName" }, kunderaQuery.getGrouping());
+        Assert.assertEquals(4, kunderaQuery.getResult().length);
+        Assert.assertEquals("personName", kunderaQuery.getResult()[1]);
+        Assert.assertNull(KunderaQuery.getAggregation(kunderaQuery.getResult()[1]));
+
+        KunderaQuery.Aggregation count = KunderaQuery.getAggregation(kunderaQuery.getResult()[2]);
+        Assert.assertEquals("COUNT", count.getFunction());
+        Assert.assertNull(count.getProperty());
+
+        KunderaQuery.Aggregation avg = KunderaQuery.getAggregation(kunderaQuery.getResult()[3]);
+        Assert.assertEquals("AVG", avg.getFunction());
+        Assert.assertEquals("age", avg.getProperty());
+        Assert.assertEquals(1, kunderaQuery.getFilterClauseQueue().size());
+
+        query = "Select p from Person p where p.age > 10";
+        kunderaQuery = new KunderaQuery();
+        queryParser = new KunderaQueryParser(kunderaQuery, query);
+        queryParser.parse();
+        kunderaQuery.postParsingInit();
+        Assert.assertFalse(kunderaQuery.isAggregated());
+        Assert.assertNull(kunderaQuery.getGrouping());
+    }
 
     private class JPAParameter implements Parameter<String>
     {
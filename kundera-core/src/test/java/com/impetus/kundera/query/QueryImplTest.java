@@ -612,8 +612,15 @@ public class QueryImplTest
             queryStr = "Select p from Person p where p.personId = :personId GROUP BY personId HAVING 1";
             kunderaQuery = new KunderaQuery();
             queryParser = new KunderaQueryParser(kunderaQuery, queryStr);
-            queryParser.parse();
-            kunderaQuery.postParsingInit();
+            try
+            {
+                queryParser.parse();
+                Assert.fail("HAVING must be rejected");
+            }
+            catch (QueryHandlerException qhex)
+            {
+                Assert.assertEquals("HAVING clause 1 is not supported", qhex.getMessage());
+            }
             
             queryStr = "Select p from Person p where p.personId = :personId GROUP BY personId ORDER BY personName";
             kunderaQuery = new KunderaQuery();
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+import javax.persistence.PersistenceException;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Buffers index, update and delete requests into bulk requests bounded by
+ * number of actions and estimated size in bytes. Bulk requests are sent as
+ * soon as a bound is reached, either synchronously or, if concurrent requests
+ * are allowed, asynchronously with at most that many bulk requests in flight;
+ * adding to a full writer then blocks until a bulk request completes.
+ *
+ * @author impetus
+ */
+class ESBulkWriter
+{
+    /** log for this class. */
+    private static Logger log = LoggerFactory.getLogger(ESBulkWriter.class);
+
+    /**
+     * When indexes are refreshed, so that writes are visible to searches.
+     */
+    enum RefreshPolicy
+    {
+        /** left to index refresh interval. */
+        NONE,
+
+        /** indexes written are refreshed once all requests are flushed. */
+        COMMIT,
+
+        /** each bulk request refreshes shards it wrote to. */
+        WAIT;
+
+        static RefreshPolicy getPolicy(String policy)
+        {
+            return policy != null ? valueOf(policy.trim().toUpperCase()) : NONE;
+        }
+    }
+
+    private final Client client;
+
+    private final int bulkActions;
+
+    private final long bulkSize;
+
+    private final int concurrentRequests;
+
+    private final RefreshPolicy refreshPolicy;
+
+    private final Semaphore semaphore;
+
+    private final List<Throwable> failures = new ArrayList<Throwable>();
+
+    private final Set<String> indexes = new HashSet<String>();
+
+    private BulkRequest bulkRequest = new BulkRequest();
+
+    private int actions;
+
+    /**
+     * @param client
+     *            elastic search client.
+     * @param bulkActions
+     *            maximum number of actions per bulk request.
+     * @param bulkSize
+     *            maximum estimated size of a bulk request, in bytes.
+     * @param concurrentRequests
+     *            number of bulk requests which may be in flight, 0 to send
+     *            them synchronously.
+     * @param refreshPolicy
+     *            refresh policy.
+     */
+    ESBulkWriter(Client client, int bulkActions, long bulkSize, int concurrentRequests, RefreshPolicy refreshPolicy)
+    {
+        this.client = client;
+        this.bulkActions = bulkActions;
+        this.bulkSize = bulkSize;
+        this.concurrentRequests = concurrentRequests;
+        this.refreshPolicy = refreshPolicy;
+        this.semaphore = concurrentRequests > 0 ? new Semaphore(concurrentRequests) : null;
+    }
+
+    /**
+     * Adds a request, sends buffered requests if a bound is reached.
+     *
+     * @param request
+     *            index, update or delete request.
+     * @param index
+     *            index written by request.
+     */
+    void add(ActionRequest request, String index)
+    {
+        bulkRequest.add(request);
+        indexes.add(index);
+        if ((bulkActions > 0 && bulkRequest.numberOfActions() >= bulkActions)
+                || (bulkSize > 0 && bulkRequest.estimatedSizeInBytes() >= bulkSize))
+        {
+            execute();
+        }
+    }
+
+    /**
+     * Sends buffered requests, waits for bulk requests in flight and applies
+     * refresh policy.
+     *
+     * @return number of actions sent since last flush.
+     */
+    int flush()
+    {
+        if (bulkRequest.numberOfActions() > 0)
+        {
+            execute();
+        }
+
+        if (semaphore != null)
+        {
+            semaphore.acquireUninterruptibly(concurrentRequests);
+            semaphore.release(concurrentRequests);
+        }
+
+        try
+        {
+            synchronized (failures)
+            {
+                if (!failures.isEmpty())
+                {
+                    Throwable failure = failures.get(0);
+                    failures.clear();
+                    throw new PersistenceException(failure);
+                }
+            }
+
+            if (refreshPolicy == RefreshPolicy.COMMIT && !indexes.isEmpty())
+            {
+                client.admin().indices().prepareRefresh(indexes.toArray(new String[indexes.size()])).execute()
+                        .actionGet();
+            }
+            return actions;
+        }
+        finally
+        {
+            indexes.clear();
+            actions = 0;
+        }
+    }
+
+    /**
+     * Discards requests not sent yet.
+     */
+    void clear()
+    {
+        bulkRequest = new BulkRequest();
+        indexes.clear();
+        actions = 0;
+    }
+
+    /**
+     * @return whether each single write should refresh index.
+     */
+    boolean isRefreshOnWrite()
+    {
+        return refreshPolicy != RefreshPolicy.NONE;
+    }
+
+    private void execute()
+    {
+        final BulkRequest request = bulkRequest;
+        bulkRequest = new BulkRequest();
+        actions += request.numberOfActions();
+        request.refresh(refreshPolicy == RefreshPolicy.WAIT);
+
+        if (semaphore == null)
+        {
+            BulkResponse response = client.bulk(request).actionGet();
+            if (response.hasFailures())
+            {
+                throw new PersistenceException(response.buildFailureMessage());
+            }
+            return;
+        }
+
+        // blocks while concurrent requests are in flight.
+        semaphore.acquireUninterruptibly();
+        client.bulk(request, new ActionListener<BulkResponse>()
+        {
+            @Override
+            public void onResponse(BulkResponse response)
+            {
+                if (response.hasFailures())
+                {
+                    addFailure(new PersistenceException(response.buildFailureMessage()));
+                }
+                semaphore.release();
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                addFailure(t);
+                semaphore.release();
+            }
+        });
+    }
+
+    /**
+     * Keeps failure of an asynchronous bulk request, thrown on next flush.
+     */
+    private void addFailure(Throwable t)
+    {
+        log.error("Error while executing bulk request, Caused by :.", t);
+        synchronized (failures)
+        {
+            failures.add(t);
+        }
+    }
+}
@@ -15,10 +15,12 @@
  ******************************************************************************/
 package com.impetus.client.es;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,18 +36,27 @@ import org.apache.lucene.search.FilteredQuery;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
-import org.elasticsearch.action.bulk.BulkRequestBuilder;
-import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.deletebyquery.DeleteByQueryRequestBuilder;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetRequestBuilder;
+import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.transport.TransportClient;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MappingMetaData;
 import org.elasticsearch.common.lucene.search.TermFilter;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.get.GetField;
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.FilterBuilders;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -54,6 +65,7 @@ import org.elasticsearch.index.query.TermQueryBuilder;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHitField;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.facet.FacetBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,6 +84,9 @@ import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.persistence.EntityReader;
+import com.impetus.kundera.persistence.KunderaTransactionException;
+import com.impetus.kundera.persistence.TransactionBinder;
+import com.impetus.kundera.persistence.TransactionResource;
 import com.impetus.kundera.persistence.api.Batcher;
 import com.impetus.kundera.persistence.context.jointable.JoinTableData;
 import com.impetus.kundera.property.PropertyAccessorHelper;
@@ -82,7 +97,8 @@ import com.impetus.kundera.utils.KunderaCoreUtils;
  * @author vivek.mishra Elastic search client implementation on {@link Client}
  * 
  */
-public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, ClientPropertiesSetter
+public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, ClientPropertiesSetter,
+        TransactionBinder
 {
 
     private ESClientFactory factory;
@@ -101,17 +117,34 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     private int batchSize;
 
     private Map clientProperties;
+
+    /** bulk requests of batches, join tables and writes within transaction. */
+    private ESBulkWriter bulkWriter;
+
+    private TransactionResource resource;
     
     private static final String KEY_SEPERATOR = "\001";
 
+    /** How long a scroll is kept alive between two pages. */
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    /** Keep alive a scroll is renewed with when released before its end. */
+    private static final TimeValue SCROLL_RELEASE = TimeValue.timeValueMillis(1);
 
-    ESClient(final ESClientFactory factory, final TransportClient client, final Map<String, Object> externalProperties)
+    /** Hits per shard and scroll page, for relation lookups and iteration. */
+    static final int SCROLL_SIZE = 100;
+
+
+    ESClient(final ESClientFactory factory, final TransportClient client, final Map<String, Object> externalProperties,
+            final String persistenceUnit)
     {
         this.factory = factory;
         this.clientMetadata = factory.getClientMetadata();
         this.txClient = client;
         this.reader = new ESEntityReader();
+        this.persistenceUnit = persistenceUnit;
         setBatchSize(getPersistenceUnit(), externalProperties);
+        setBulkWriter(getPersistenceUnit(), externalProperties);
     }
 
     @Override
@@ -132,16 +165,19 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
             addRelations(rlHolders, values);
 
-            IndexResponse response = txClient
-                    .prepareIndex(entityMetadata.getSchema().toLowerCase(),
-                            entityMetadata.getEntityClazz().getSimpleName(), keyAsString).setSource(values).execute()
-                    .actionGet();
+            String index = entityMetadata.getSchema().toLowerCase();
+            IndexRequest request = new IndexRequest(index, entityMetadata.getEntityClazz().getSimpleName(),
+                    keyAsString).source(values);
 
-            // IndexRequest request = new
-            // IndexRequest(entityMetadata.getSchema().toLowerCase(),
-            // entityMetadata.getEntityClazz().getSimpleName(), keyAsString);
-            // txClient.prepareBulk().add(request)
-            assert response.getId() != null;
+            if (isTransactionInProgress())
+            {
+                bulkWriter.add(request, index);
+            }
+            else
+            {
+                IndexResponse response = txClient.index(request.refresh(bulkWriter.isRefreshOnWrite())).actionGet();
+                assert response.getId() != null;
+            }
         }
         finally
         {
@@ -236,9 +272,162 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         return result;
     }
 
-    List executeQuery(FilterBuilder filter, final EntityMetadata entityMetadata)
+    /**
+     * Executes filter and returns page of matching entities.
+     * 
+     * @param filter
+     *            filter, null to match all.
+     * @param entityMetadata
+     *            entity metadata.
+     * @param firstResult
+     *            offset of first hit.
+     * @param maxResult
+     *            maximum number of hits.
+     * @return entities.
+     */
+    List executeQuery(FilterBuilder filter, final EntityMetadata entityMetadata, int firstResult, int maxResult)
     {
+        List results = new ArrayList();
+
+        SearchResponse response = txClient.prepareSearch(entityMetadata.getSchema().toLowerCase())
+                .setTypes(entityMetadata.getEntityClazz().getSimpleName()).setFilter(filter).setFrom(firstResult)
+                .setSize(maxResult).execute().actionGet();
+        SearchHits hits = response.getHits();
+
+        for (SearchHit hit : hits.getHits())
+        {
+            results.add(getEntity(hit, entityMetadata));
+        }
+
+        return results;
+    }
+
+    /**
+     * Executes facets over entities matching filter, without fetching any
+     * hit.
+     * 
+     * @param filter
+     *            filter, null to match all.
+     * @param entityMetadata
+     *            entity metadata.
+     * @param facets
+     *            facets to compute.
+     * @return search response holding facets and total hits.
+     */
+    SearchResponse executeAggregation(FilterBuilder filter, final EntityMetadata entityMetadata,
+            List<FacetBuilder> facets)
+    {
+        // facets are computed over query, not over filter.
+        SearchRequestBuilder search = txClient.prepareSearch(entityMetadata.getSchema().toLowerCase())
+                .setTypes(entityMetadata.getEntityClazz().getSimpleName()).setSearchType(SearchType.COUNT)
+                .setQuery(filter != null ? QueryBuilders.constantScoreQuery(filter) : QueryBuilders.matchAllQuery());
+        for (FacetBuilder facet : facets)
+        {
+            search.addFacet(facet);
+        }
+        return search.execute().actionGet();
+    }
+
+    /**
+     * Checks whether field of entity is analyzed, i.e. indexed as tokens
+     * rather than as whole value. String fields are analyzed unless mapped as
+     * not_analyzed, which Kundera never does on its own.
+     * 
+     * @param entityMetadata
+     *            entity metadata.
+     * @param field
+     *            field name in document.
+     * @return false if field is mapped as not_analyzed.
+     */
+    boolean isAnalyzed(final EntityMetadata entityMetadata, String field)
+    {
+        String index = entityMetadata.getSchema().toLowerCase();
+        IndexMetaData indexMetaData = txClient.admin().cluster().prepareState().setFilterIndices(index).execute()
+                .actionGet().getState().getMetaData().index(index);
+        MappingMetaData mapping = indexMetaData != null ? indexMetaData.mapping(entityMetadata.getEntityClazz()
+                .getSimpleName()) : null;
+        if (mapping == null)
+        {
+            return true;
+        }
+
+        try
+        {
+            Map<String, Object> properties = (Map<String, Object>) mapping.sourceAsMap().get("properties");
+            Map<String, Object> fieldMapping = properties != null ? (Map<String, Object>) properties.get(field) : null;
+            return fieldMapping == null || !"not_analyzed".equals(fieldMapping.get("index"));
+        }
+        catch (IOException e)
+        {
+            log.error("Error while reading mapping of {}, Caused by: ", index, e);
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Opens a scroll over entities matching filter. First response holds no
+     * hit but scroll id, hits are read through {@link #scroll(String)}.
+     * 
+     * @param filter
+     *            filter, null to match all.
+     * @param entityMetadata
+     *            entity metadata.
+     * @param pageSize
+     *            number of hits per shard in each page.
+     * @return search response.
+     */
+    SearchResponse openScroll(FilterBuilder filter, final EntityMetadata entityMetadata, int pageSize)
+    {
+        return txClient.prepareSearch(entityMetadata.getSchema().toLowerCase())
+                .setTypes(entityMetadata.getEntityClazz().getSimpleName()).setFilter(filter)
+                .setSearchType(SearchType.SCAN).setScroll(SCROLL_KEEP_ALIVE).setSize(pageSize).execute().actionGet();
+    }
 
+    /**
+     * Returns next page of a scroll, empty once all hits are read.
+     * 
+     * @param scrollId
+     *            scroll id of previous response.
+     * @return search response.
+     */
+    SearchResponse scroll(String scrollId)
+    {
+        return txClient.prepareSearchScroll(scrollId).setScroll(SCROLL_KEEP_ALIVE).execute().actionGet();
+    }
+
+    /**
+     * Releases a scroll before all of its hits are read. There is no clear
+     * scroll request in this elastic search version, so scroll is renewed
+     * with shortest keep alive instead, for its search contexts to be freed
+     * on next reaping rather than after {@link #SCROLL_KEEP_ALIVE}.
+     * 
+     * @param scrollId
+     *            scroll id of previous response.
+     */
+    void clearScroll(String scrollId)
+    {
+        try
+        {
+            txClient.prepareSearchScroll(scrollId).setScroll(SCROLL_RELEASE).execute().actionGet();
+        }
+        catch (ElasticSearchException e)
+        {
+            log.warn("Error while releasing scroll {}, Caused by: {}.", scrollId, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns entity held by a search hit, wrapped along with its relations if
+     * any.
+     * 
+     * @param hit
+     *            search hit.
+     * @param entityMetadata
+     *            entity metadata.
+     * @return entity.
+     */
+    Object getEntity(SearchHit hit, final EntityMetadata entityMetadata)
+    {
         Class clazz = entityMetadata.getEntityClazz();
 
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
@@ -246,21 +435,37 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
         EntityType entityType = metaModel.entity(clazz);
 
-        List results = new ArrayList();
-
-        SearchResponse response = txClient.prepareSearch(entityMetadata.getSchema().toLowerCase())
-                .setTypes(entityMetadata.getEntityClazz().getSimpleName()).setFilter(filter).execute().actionGet();
-        SearchHits hits = response.getHits();
-
         Object entity = null;
+        entity = getInstance(clazz, entity);
+        return wrap(hit.sourceAsMap(), entityType, entity);
+    }
 
-        for (SearchHit hit : hits.getHits())
+    /**
+     * Returns all hits of given search, read over a scroll so that results
+     * are not limited to a single page.
+     * 
+     * @param search
+     *            search request.
+     * @return hits.
+     */
+    private List<SearchHit> searchAll(SearchRequestBuilder search)
+    {
+        List<SearchHit> results = new ArrayList<SearchHit>();
+        SearchResponse response = search.setSearchType(SearchType.SCAN).setScroll(SCROLL_KEEP_ALIVE)
+                .setSize(SCROLL_SIZE).execute().actionGet();
+        while (true)
         {
-            entity = getInstance(clazz, entity);
-            Map<String, Object> hitResult = hit.sourceAsMap();
-            results.add(wrap(hitResult, entityType, entity));
+            response = scroll(response.getScrollId());
+            SearchHit[] hits = response.getHits().getHits();
+            if (hits.length == 0)
+            {
+                break;
+            }
+            for (SearchHit hit : hits)
+            {
+                results.add(hit);
+            }
         }
-
         return results;
     }
 
@@ -300,10 +505,98 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         return relations.isEmpty() ? result : new EnhanceEntity(result, key, relations);
     }
 
+    /**
+     * Fetches all keys in a single multi get request. If columns to select
+     * are given, only those (and id) are read out of source.
+     */
     @Override
     public <E> List<E> findAll(Class<E> entityClass, String[] columnsToSelect, Object... keys)
     {
-        return null;
+        List results = new ArrayList();
+        if (keys == null || keys.length == 0)
+        {
+            return results;
+        }
+
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(entityClass);
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+
+        EntityType entityType = metaModel.entity(metadata.getEntityClazz());
+
+        String[] fields = getFields(metadata, columnsToSelect);
+        String index = metadata.getSchema().toLowerCase();
+        String type = metadata.getEntityClazz().getSimpleName();
+
+        Map<String, Object> keysById = new HashMap<String, Object>();
+        MultiGetRequestBuilder multiGet = txClient.prepareMultiGet();
+        for (Object key : keys)
+        {
+            String keyAsString = getKeyAsString(key, metadata, metaModel);
+            if (keysById.put(keyAsString, key) == null)
+            {
+                multiGet.add(new MultiGetRequest.Item(index, type, keyAsString).fields(fields));
+            }
+        }
+
+        MultiGetResponse response = multiGet.execute().actionGet();
+
+        for (MultiGetItemResponse item : response.getResponses())
+        {
+            if (item.isFailed())
+            {
+                log.error("Error while find record of {}, Caused by :{}.", entityClass.getSimpleName(), item
+                        .getFailure().getMessage());
+                throw new PersistenceException(item.getFailure().getMessage());
+            }
+
+            GetResponse get = item.getResponse();
+            if (get.isExists())
+            {
+                Object result = null;
+                result = getInstance(entityClass, result);
+                PropertyAccessorHelper.setId(result, metadata, keysById.get(get.getId()));
+                result = wrap(fields != null ? getValues(get) : get.getSource(), entityType, result);
+                results.add(result);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns fields to read out of source, null to read whole source.
+     */
+    private String[] getFields(EntityMetadata metadata, String[] columnsToSelect)
+    {
+        if (columnsToSelect == null || columnsToSelect.length == 0)
+        {
+            return null;
+        }
+        Set<String> fields = new LinkedHashSet<String>();
+        fields.add(((AbstractAttribute) metadata.getIdAttribute()).getJPAColumnName());
+        for (String column : columnsToSelect)
+        {
+            if (column != null)
+            {
+                fields.add(column);
+            }
+        }
+        return fields.toArray(new String[fields.size()]);
+    }
+
+    private Map<String, Object> getValues(GetResponse get)
+    {
+        Map<String, Object> values = new HashMap<String, Object>();
+        if (get.getFields() != null)
+        {
+            for (GetField field : get.getFields().values())
+            {
+                values.put(field.getName(), field.getValue());
+            }
+        }
+        return values;
     }
 
     @Override
@@ -333,10 +626,18 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
             String keyAsString = getKeyAsString(pKey, metadata, metaModel);
 
+            if (isTransactionInProgress())
+            {
+                bulkWriter.add(new DeleteRequest(metadata.getSchema().toLowerCase(), metadata.getEntityClazz()
+                        .getSimpleName(), keyAsString), metadata.getSchema().toLowerCase());
+                return;
+            }
+
             try
             {
                 txClient.prepareDelete(metadata.getSchema().toLowerCase(), metadata.getEntityClazz().getSimpleName(),
-                        keyAsString.toString()/* index, type, id */).setOperationThreaded(false).execute().get();
+                        keyAsString.toString()/* index, type, id */).setOperationThreaded(false)
+                        .setRefresh(bulkWriter.isRefreshOnWrite()).execute().get();
             }
             catch (InterruptedException iex)
             {
@@ -367,8 +668,6 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
         Set<Object> joinKeys = joinTableRecords.keySet();
 
-        BulkRequestBuilder bulkRequest = txClient.prepareBulk();
-
         /**
          * 1_p => 1_a1,1_a2
          * 1_a1=> 1_p,1_p1
@@ -390,7 +689,6 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
          * embeddable keys over many to many does not work.
         */
         
-        boolean found=false;
         for(Object key : joinKeys)
         {
             Set<Object> inversejoinTableRecords = joinTableRecords.get(key);
@@ -407,15 +705,14 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
                 
                 String keyAsString = joinKeyAsStr+KEY_SEPERATOR+inverseKeyAsStr;
                 IndexRequest request = new IndexRequest(schemaName.toLowerCase(), tableName, keyAsString).source(source);
-                found=true;
-                bulkRequest.add(request);
+                bulkWriter.add(request, schemaName.toLowerCase());
             }
         }
 
-        // check made, as bulk request throws an error, in case no request is present.
-        if(found)
+        // sent on commit, if in transaction.
+        if (!isTransactionInProgress())
         {
-            bulkRequest.execute().actionGet();
+            bulkWriter.flush();
         }
 
     }
@@ -427,13 +724,11 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         // fetch list ADDRESS_ID for given PERSON_ID
         FilterBuilder filterBuilder = new TermFilterBuilder(pKeyColumnName,pKeyColumnValue);
 
-        SearchResponse response = txClient.prepareSearch(schemaName.toLowerCase()).setTypes(tableName).setFilter(filterBuilder).addField(columnName)
-                .execute().actionGet();
-        
-        SearchHits hits = response.getHits();
+        List<SearchHit> hits = searchAll(txClient.prepareSearch(schemaName.toLowerCase()).setTypes(tableName)
+                .setFilter(filterBuilder).addField(columnName));
         
         List columns = new ArrayList();
-        for (SearchHit hit : hits.getHits())
+        for (SearchHit hit : hits)
         {
             Map<String,SearchHitField> fields = hit.getFields();
             columns.add(fields.get(columnName).getValue());
@@ -449,17 +744,13 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         
         TermFilterBuilder filter = FilterBuilders.termFilter(columnName, columnValue);
         
-        SearchResponse response = txClient.prepareSearch(schemaName.toLowerCase())
-                .setTypes(tableName).addField(pKeyName).setFilter(filter).execute().actionGet();
-        
-        SearchHits hits = response.getHits();
+        List<SearchHit> hits = searchAll(txClient.prepareSearch(schemaName.toLowerCase()).setTypes(tableName)
+                .addField(pKeyName).setFilter(filter));
 
-        Long length = hits.getTotalHits();
-        int absoluteLength = length.intValue();
-        Object[] ids = new Object[absoluteLength];
+        Object[] ids = new Object[hits.size()];
         
         int counter=0;
-        for (SearchHit hit : hits.getHits())
+        for (SearchHit hit : hits)
         {
             Map<String,SearchHitField> fields = hit.getFields();
             ids[counter++]= fields.get(pKeyName).getValue();
@@ -482,51 +773,21 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     @Override
     public List<Object> findByRelation(String colName, Object colValue, Class entityClazz)
     {
-        GetResponse get = null;
-
         List results = new ArrayList();
 
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(entityClazz);
 
-        try
-        {
-            SearchResponse response = txClient.prepareSearch(metadata.getSchema().toLowerCase())/*
-                                                                                                 * .
-                                                                                                 * addFields
-                                                                                                 * (
-                                                                                                 * "*"
-                                                                                                 * )
-                                                                                                 */
-            .setTypes(entityClazz.getSimpleName()).setQuery(QueryBuilders.termQuery(colName, colValue)).execute().get();
+        List<SearchHit> hits = searchAll(txClient.prepareSearch(metadata.getSchema().toLowerCase())
+                .setTypes(entityClazz.getSimpleName()).setQuery(QueryBuilders.termQuery(colName, colValue)));
 
-            SearchHits hits = response.getHits();
-            for (SearchHit hit : hits)
+        for (SearchHit hit : hits)
+        {
+            Object result = getEntity(hit, metadata);
+            if (result != null)
             {
-                MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata()
-                        .getMetamodel(metadata.getPersistenceUnit());
-
-                EntityType entityType = metaModel.entity(entityClazz);
-                Map<String, Object> searchResults = hit.getSource();
-                // hit
-                Object result = null;
-                result = getInstance(entityClazz, result);
-                result = wrap(searchResults, entityType, result);
-                if (result != null)
-                {
-                    results.add(result);
-                }
+                results.add(result);
             }
         }
-        catch (InterruptedException iex)
-        {
-            log.error("Error while find record of {}, Caused by :.", entityClazz.getSimpleName(), iex);
-            throw new PersistenceException(iex);
-        }
-        catch (ExecutionException eex)
-        {
-            log.error("Error while find record of {}, Caused by :.", entityClazz.getSimpleName(), eex);
-            throw new PersistenceException(eex);
-        }
 
         return results;
     }
@@ -571,7 +832,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     @Override
     public int executeBatch()
     {
-        BulkRequestBuilder bulkRequest = txClient.prepareBulk();
+        int count = 0;
 
         try
         {
@@ -597,7 +858,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
                         DeleteRequest request = new DeleteRequest(metadata.getSchema().toLowerCase(), metadata
                                 .getEntityClazz().getSimpleName(), key);
-                        bulkRequest.add(request);
+                        bulkWriter.add(request, metadata.getSchema().toLowerCase());
 
                     }
                     else if (node.isUpdate())
@@ -611,7 +872,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
                         UpdateRequest request = new UpdateRequest(metadata.getSchema().toLowerCase(), metadata
                                 .getEntityClazz().getSimpleName(), key).doc(values);
-                        bulkRequest.add(request);
+                        bulkWriter.add(request, metadata.getSchema().toLowerCase());
                     }
                     else
                     {
@@ -625,20 +886,16 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
                         IndexRequest request = new IndexRequest(metadata.getSchema().toLowerCase(), metadata
                                 .getEntityClazz().getSimpleName(), key).source(values);
-                        bulkRequest.add(request);
+                        bulkWriter.add(request, metadata.getSchema().toLowerCase());
 
                     }
-
+                    count++;
                 }
             }
 
-            BulkResponse response = null;
-            if (nodes != null && !nodes.isEmpty())
-            {
-                // bulkRequest.setRefresh(true);
-                response = bulkRequest.execute().actionGet();
-            }
-            return response != null ? response.getItems().length : 0;
+            // bulk requests are bounded by writer, remaining ones are sent now
+            // or on commit, if in transaction.
+            return isTransactionInProgress() ? count : bulkWriter.flush();
         }
         finally
         {
@@ -709,6 +966,58 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         }
     }
 
+    /**
+     * Initializes bulk writer out of persistence unit properties.
+     */
+    private void setBulkWriter(String persistenceUnit, Map<String, Object> puProperties)
+    {
+        String bulkActions = getProperty(persistenceUnit, puProperties, ESConstants.KUNDERA_ES_BULK_ACTIONS);
+        String bulkSize = getProperty(persistenceUnit, puProperties, ESConstants.KUNDERA_ES_BULK_SIZE);
+        String concurrentRequests = getProperty(persistenceUnit, puProperties,
+                ESConstants.KUNDERA_ES_BULK_CONCURRENT_REQUESTS);
+        String refreshPolicy = getProperty(persistenceUnit, puProperties, ESConstants.KUNDERA_ES_REFRESH_POLICY);
+
+        bulkWriter = new ESBulkWriter(txClient, bulkActions != null ? Integer.parseInt(bulkActions)
+                : ESConstants.DEFAULT_BULK_ACTIONS, bulkSize != null ? Long.parseLong(bulkSize)
+                : ESConstants.DEFAULT_BULK_SIZE, concurrentRequests != null ? Integer.parseInt(concurrentRequests) : 0,
+                ESBulkWriter.RefreshPolicy.getPolicy(refreshPolicy));
+    }
+
+    /**
+     * Returns property out of external properties, else out of persistence
+     * unit.
+     */
+    private String getProperty(String persistenceUnit, Map<String, Object> puProperties, String name)
+    {
+        Object value = puProperties != null ? puProperties.get(name) : null;
+        if (value == null && persistenceUnit != null)
+        {
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(persistenceUnit);
+            value = puMetadata != null ? puMetadata.getProperty(name) : null;
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    private boolean isTransactionInProgress()
+    {
+        return resource != null && resource.isActive();
+    }
+
+    @Override
+    public void bind(TransactionResource resource)
+    {
+        if (resource != null && resource instanceof ESTransaction)
+        {
+            this.resource = resource;
+            ((ESTransaction) resource).bindResource(bulkWriter);
+        }
+        else
+        {
+            throw new KunderaTransactionException("Invalid transaction resource provided:" + resource
+                    + " Should have been an instance of :" + ESTransaction.class);
+        }
+    }
+
     @Override
     public void populateClientProperties(Client client, Map<String, Object> properties)
     {
@@ -734,7 +1043,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
     private Object onEnum(Attribute attribute, Object fieldValue)
     {
-        if (((Field) attribute.getJavaMember()).getType().isEnum())
+        if (fieldValue != null && ((Field) attribute.getJavaMember()).getType().isEnum())
         {
             EnumAccessor accessor = new EnumAccessor();
             fieldValue = accessor.fromString(((AbstractAttribute) attribute).getBindableJavaType(),
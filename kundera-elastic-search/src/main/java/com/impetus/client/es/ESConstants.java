@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+/**
+ * Persistence unit properties specific to elastic search client.
+ *
+ * @author impetus
+ */
+public final class ESConstants
+{
+    /** Maximum number of actions per bulk request. */
+    public static final String KUNDERA_ES_BULK_ACTIONS = "kundera.es.bulk.actions";
+
+    /** Maximum estimated size of a bulk request, in bytes. */
+    public static final String KUNDERA_ES_BULK_SIZE = "kundera.es.bulk.size";
+
+    /**
+     * Number of bulk requests which may be in flight, 0 (default) sends them
+     * synchronously.
+     */
+    public static final String KUNDERA_ES_BULK_CONCURRENT_REQUESTS = "kundera.es.bulk.concurrent.requests";
+
+    /** Refresh policy: none (default), commit or wait. */
+    public static final String KUNDERA_ES_REFRESH_POLICY = "kundera.es.refresh.policy";
+
+    static final int DEFAULT_BULK_ACTIONS = 1000;
+
+    static final long DEFAULT_BULK_SIZE = 5 * 1024 * 1024;
+
+    private ESConstants()
+    {
+    }
+}
@@ -15,27 +15,46 @@
  ******************************************************************************/
 package com.impetus.client.es;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.Query;
 import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EntityType;
 
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.AndFilterBuilder;
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.OrFilterBuilder;
 import org.elasticsearch.index.query.RangeFilterBuilder;
 import org.elasticsearch.index.query.TermFilterBuilder;
+import org.elasticsearch.search.facet.FacetBuilder;
+import org.elasticsearch.search.facet.FacetBuilders;
+import org.elasticsearch.search.facet.Facets;
+import org.elasticsearch.search.facet.statistical.StatisticalFacet;
+import org.elasticsearch.search.facet.terms.TermsFacet;
+import org.elasticsearch.search.facet.termsstats.TermsStatsFacet;
 
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
 import com.impetus.kundera.metadata.model.MetamodelImpl;
+import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.PersistenceDelegator;
+import com.impetus.kundera.property.PropertyAccessorFactory;
 import com.impetus.kundera.query.KunderaQuery;
+import com.impetus.kundera.query.KunderaQuery.Aggregation;
 import com.impetus.kundera.query.KunderaQuery.FilterClause;
+import com.impetus.kundera.query.KunderaQuery.SortOrder;
+import com.impetus.kundera.query.KunderaQuery.SortOrdering;
+import com.impetus.kundera.query.QueryHandlerException;
 import com.impetus.kundera.query.QueryImpl;
 
 /**
@@ -44,6 +63,17 @@ import com.impetus.kundera.query.QueryImpl;
 
 public class ESQuery<E> extends QueryImpl
 {
+    /** Number of results to skip. */
+    private int firstResult;
+
+    /** Iterators whose scroll is yet to be released. */
+    private List<ResultIterator<E>> iterators = new ArrayList<ResultIterator<E>>();
+
+    /** Name of terms facet over grouping column. */
+    private static final String GROUP_FACET = "g";
+
+    /** Prefix of facets computing result columns. */
+    private static final String RESULT_FACET = "c";
 
     /**
      * Constructor using fields.
@@ -65,6 +95,29 @@ public class ESQuery<E> extends QueryImpl
 
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#setFirstResult(int)
+     */
+    @Override
+    public Query setFirstResult(int startPosition)
+    {
+        this.firstResult = startPosition;
+        return this;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#getFirstResult()
+     */
+    @Override
+    public int getFirstResult()
+    {
+        return firstResult;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -75,7 +128,22 @@ public class ESQuery<E> extends QueryImpl
     @Override
     protected List<Object> populateEntities(EntityMetadata m, Client client)
     {
-        
+        if (getKunderaQuery().isAggregated())
+        {
+            return aggregate(m, (ESClient) client);
+        }
+        return ((ESClient) client).executeQuery(getFilter(m), m, firstResult, maxResult);
+    }
+
+    /**
+     * Builds filter out of filter clauses of query.
+     * 
+     * @param m
+     *            entity metadata.
+     * @return filter, null if query has no where clause.
+     */
+    private FilterBuilder getFilter(EntityMetadata m)
+    {
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                 m.getPersistenceUnit());
         EntityType entity = metaModel.entity(m.getEntityClazz());
@@ -110,11 +178,8 @@ public class ESQuery<E> extends QueryImpl
                 interFilter=opr;
             }
         }
-        
-        
-        return ((ESClient)client).executeQuery(preInterFilter != null ? preInterFilter : preIntraFilter, m);
-        
-//        return null;
+
+        return preInterFilter != null ? preInterFilter : preIntraFilter;
     }
 
     /*
@@ -128,6 +193,10 @@ public class ESQuery<E> extends QueryImpl
     @Override
     protected List<Object> recursivelyPopulateEntities(EntityMetadata m, Client client)
     {
+        if (getKunderaQuery().isAggregated())
+        {
+            return aggregate(m, (ESClient) client);
+        }
         List result = populateEntities(m, client);
         return setRelationEntities(result, client, m);
 //        return null;
@@ -158,13 +227,349 @@ public class ESQuery<E> extends QueryImpl
     @Override
     public void close()
     {
-
+        // Iterators remove themselves from list as they close.
+        for (ResultIterator<E> iterator : new ArrayList<ResultIterator<E>>(iterators))
+        {
+            iterator.close();
+        }
+        iterators.clear();
     }
 
+    /**
+     * Returns an iterator scrolling over matching hits, skipping first result
+     * and up to max results. Hits are fetched fetch size per shard at a time,
+     * by default enough to cover both limits within one page. Scroll is
+     * released once read, or along with this query.
+     */
     @Override
     public Iterator<E> iterate()
     {
-        return null;
+        EntityMetadata m = getEntityMetadata();
+        Client client = persistenceDelegeator.getClient(m);
+        int pageSize = getFetchSize() != null ? getFetchSize() : (int) Math.min((long) firstResult + maxResult,
+                ESClient.SCROLL_SIZE);
+        ResultIterator<E> iterator = new ResultIterator<E>(this, (ESClient) client, m, getFilter(m),
+                persistenceDelegeator, pageSize, firstResult, maxResult);
+        iterators.add(iterator);
+        return iterator;
+    }
+
+    /**
+     * Forgets iterator once its scroll is released.
+     */
+    void onClose(ResultIterator<E> iterator)
+    {
+        iterators.remove(iterator);
+    }
+
+    /**
+     * Translates aggregate query into facets and runs it. Aggregates are
+     * computed with statistical facets, or with terms stats facets keyed by
+     * GROUP BY column. Each row is returned as scalar value in case of single
+     * result column, else as Object[].
+     * 
+     * @param m
+     *            the entity metadata
+     * @param client
+     *            the client
+     * @return list of rows.
+     */
+    private List<Object> aggregate(EntityMetadata m, ESClient client)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        EntityType entityType = metaModel.entity(m.getEntityClazz());
+        String[] columns = getKunderaQuery().getResult();
+        String[] grouping = getKunderaQuery().getGrouping();
+
+        if (grouping != null && grouping.length > 1)
+        {
+            throw new QueryHandlerException("Grouping by more than one column is not supported in query: "
+                    + getJPAQuery());
+        }
+        String groupColumn = grouping != null ? getColumnName(entityType, grouping[0]) : null;
+        if (groupColumn != null && isString(entityType.getAttribute(grouping[0]).getJavaType())
+                && client.isAnalyzed(m, groupColumn))
+        {
+            // terms of an analyzed field are tokens, not whole values.
+            throw new QueryHandlerException("GROUP BY column " + grouping[0]
+                    + " must be mapped as not_analyzed in query: " + getJPAQuery());
+        }
+        List<SortOrdering> orders = getKunderaQuery().getOrdering();
+
+        List<String> resultColumns = new ArrayList<String>();
+        List<FacetBuilder> facets = new ArrayList<FacetBuilder>();
+        for (int i = 1; columns != null && i < columns.length; i++)
+        {
+            if (columns[i] == null)
+            {
+                continue;
+            }
+            String facet = RESULT_FACET + resultColumns.size();
+            Aggregation aggregation = KunderaQuery.getAggregation(columns[i]);
+            if (aggregation != null && aggregation.getProperty() != null)
+            {
+                String field = getColumnName(entityType, aggregation.getProperty());
+                // size 0 returns all terms of a terms stats facet.
+                facets.add(groupColumn != null ? FacetBuilders.termsStatsFacet(facet).keyField(groupColumn)
+                        .valueField(field).size(0) : FacetBuilders.statisticalFacet(facet).field(field));
+            }
+            else if (aggregation != null && !"COUNT".equals(aggregation.getFunction()))
+            {
+                throw new QueryHandlerException(aggregation.getFunction() + " requires a column in query: "
+                        + getJPAQuery());
+            }
+            else if (aggregation == null && (grouping == null || !grouping[0].equals(columns[i])))
+            {
+                throw new QueryHandlerException("Column " + columns[i]
+                        + " must either be aggregated or be part of GROUP BY clause in query: " + getJPAQuery());
+            }
+            resultColumns.add(columns[i]);
+        }
+
+        if (resultColumns.isEmpty())
+        {
+            throw new QueryHandlerException("Aggregate query must select aggregates or grouped columns: "
+                    + getJPAQuery());
+        }
+
+        if (groupColumn != null)
+        {
+            // all groups are needed to sort them on other than count. Size 0
+            // would keep no group at all, sizes above 5000 are collected in a
+            // growing set rather than a preallocated queue.
+            int groups = orders == null ? (int) Math.min((long) firstResult + maxResult, Integer.MAX_VALUE)
+                    : Integer.MAX_VALUE;
+            facets.add(FacetBuilders.termsFacet(GROUP_FACET).field(groupColumn).size(groups));
+        }
+
+        SearchResponse response = client.executeAggregation(getFilter(m), m, facets);
+        Facets result = response.getFacets();
+
+        List<Object[]> rows = new ArrayList<Object[]>();
+        if (groupColumn == null)
+        {
+            Object[] row = new Object[resultColumns.size()];
+            for (int i = 0; i < row.length; i++)
+            {
+                Aggregation aggregation = KunderaQuery.getAggregation(resultColumns.get(i));
+                if (aggregation.getProperty() == null)
+                {
+                    row[i] = response.getHits().getTotalHits();
+                }
+                else
+                {
+                    StatisticalFacet stats = result.facet(RESULT_FACET + i);
+                    row[i] = getAggregateValue(entityType, aggregation, stats.getCount(), stats.getTotal(),
+                            stats.getMean(), stats.getMin(), stats.getMax());
+                }
+            }
+            rows.add(row);
+        }
+        else
+        {
+            List<Map<String, TermsStatsFacet.Entry>> stats = new ArrayList<Map<String, TermsStatsFacet.Entry>>();
+            for (int i = 0; i < resultColumns.size(); i++)
+            {
+                Map<String, TermsStatsFacet.Entry> entries = new HashMap<String, TermsStatsFacet.Entry>();
+                TermsStatsFacet facet = result.facet(RESULT_FACET + i);
+                if (facet != null)
+                {
+                    for (TermsStatsFacet.Entry entry : facet)
+                    {
+                        entries.put(entry.getTerm().string(), entry);
+                    }
+                }
+                stats.add(entries);
+            }
+
+            TermsFacet groups = result.facet(GROUP_FACET);
+            for (TermsFacet.Entry group : groups)
+            {
+                String term = group.getTerm().string();
+                Object[] row = new Object[resultColumns.size()];
+                for (int i = 0; i < row.length; i++)
+                {
+                    Aggregation aggregation = KunderaQuery.getAggregation(resultColumns.get(i));
+                    if (aggregation == null)
+                    {
+                        row[i] = getGroupValue(entityType, grouping[0], term);
+                    }
+                    else if (aggregation.getProperty() == null)
+                    {
+                        row[i] = (long) group.getCount();
+                    }
+                    else
+                    {
+                        TermsStatsFacet.Entry entry = stats.get(i).get(term);
+                        row[i] = entry != null ? getAggregateValue(entityType, aggregation, entry.getTotalCount(),
+                                entry.getTotal(), entry.getMean(), entry.getMin(), entry.getMax())
+                                : getAggregateValue(entityType, aggregation, 0, 0, 0, 0, 0);
+                    }
+                }
+                rows.add(row);
+            }
+        }
+
+        if (orders != null)
+        {
+            sort(rows, resultColumns, orders);
+        }
+
+        List<Object> results = new ArrayList<Object>();
+        for (int i = firstResult; i < rows.size() && results.size() < maxResult; i++)
+        {
+            Object[] row = rows.get(i);
+            results.add(row.length == 1 ? row[0] : row);
+        }
+        return results;
+    }
+
+    /**
+     * Converts facet statistics to JPA result type, i.e. Long for COUNT,
+     * Double for AVG, Long for SUM of integral column else Double, and column
+     * type for MIN and MAX, null if there was no value to aggregate.
+     */
+    private Object getAggregateValue(EntityType entityType, Aggregation aggregation, long count, double total,
+            double mean, double min, double max)
+    {
+        String function = aggregation.getFunction();
+        if ("COUNT".equals(function))
+        {
+            return count;
+        }
+        else if (count == 0)
+        {
+            return null;
+        }
+        else if ("AVG".equals(function))
+        {
+            return mean;
+        }
+
+        Class<?> type = entityType.getAttribute(aggregation.getProperty()).getJavaType();
+        if ("SUM".equals(function))
+        {
+            return isIntegral(type) ? (Object) (long) total : (Object) total;
+        }
+
+        double value = "MIN".equals(function) ? min : max;
+        if (type.equals(int.class) || type.equals(Integer.class))
+        {
+            return (int) value;
+        }
+        else if (type.equals(long.class) || type.equals(Long.class))
+        {
+            return (long) value;
+        }
+        else if (type.equals(short.class) || type.equals(Short.class))
+        {
+            return (short) value;
+        }
+        else if (type.equals(float.class) || type.equals(Float.class))
+        {
+            return (float) value;
+        }
+        else if (Date.class.isAssignableFrom(type))
+        {
+            return new Date((long) value);
+        }
+        return value;
+    }
+
+    /**
+     * Checks whether values of type are summed as Long.
+     */
+    private boolean isIntegral(Class<?> type)
+    {
+        return type.equals(int.class) || type.equals(Integer.class) || type.equals(long.class)
+                || type.equals(Long.class) || type.equals(short.class) || type.equals(Short.class)
+                || type.equals(byte.class) || type.equals(Byte.class);
+    }
+
+    /**
+     * Checks whether values of type are indexed as strings.
+     */
+    private boolean isString(Class<?> type)
+    {
+        return String.class.equals(type) || type.isEnum() || type.equals(char.class) || type.equals(Character.class);
+    }
+
+    /**
+     * Converts term of a group to type of grouping column.
+     */
+    private Object getGroupValue(EntityType entityType, String property, String term)
+    {
+        Class<?> type = entityType.getAttribute(property).getJavaType();
+        return type.isEnum() || String.class.equals(type) ? term : PropertyAccessorFactory.getPropertyAccessor(type)
+                .fromString(type, term);
+    }
+
+    /**
+     * Sorts aggregated rows as per order by clause, which may only refer to
+     * result columns.
+     */
+    private void sort(List<Object[]> rows, List<String> resultColumns, List<SortOrdering> orders)
+    {
+        final int[] indexes = new int[orders.size()];
+        final boolean[] ascending = new boolean[orders.size()];
+        for (int i = 0; i < indexes.length; i++)
+        {
+            SortOrdering order = orders.get(i);
+            String column = order.getColumnName();
+            Aggregation aggregation = KunderaQuery.getAggregation(column);
+            if (aggregation != null)
+            {
+                // e.g. count(p.age) to COUNT(age), as kept in result.
+                String property = aggregation.getProperty();
+                int index = property != null ? property.indexOf(".") : -1;
+                column = aggregation.getFunction() + "(" + (index > 0 ? property.substring(index + 1) : "") + ")";
+            }
+            else if (column.indexOf(".") > 0)
+            {
+                column = column.substring(column.indexOf(".") + 1);
+            }
+
+            indexes[i] = resultColumns.indexOf(column);
+            if (indexes[i] < 0)
+            {
+                throw new QueryHandlerException("Order by column " + order.getColumnName()
+                        + " must be part of result in query: " + getJPAQuery());
+            }
+            ascending[i] = SortOrder.ASC.equals(order.getOrder());
+        }
+
+        Collections.sort(rows, new Comparator<Object[]>()
+        {
+            @Override
+            public int compare(Object[] o1, Object[] o2)
+            {
+                for (int i = 0; i < indexes.length; i++)
+                {
+                    Comparable v1 = (Comparable) o1[indexes[i]];
+                    Comparable v2 = (Comparable) o2[indexes[i]];
+                    int result = v1 == null ? (v2 == null ? 0 : -1) : (v2 == null ? 1 : v1.compareTo(v2));
+                    if (result != 0)
+                    {
+                        return ascending[i] ? result : -result;
+                    }
+                }
+                return 0;
+            }
+        });
+    }
+
+    /**
+     * Returns document field name for given entity property.
+     */
+    private String getColumnName(EntityType entityType, String property)
+    {
+        Attribute attribute = entityType.getAttribute(property);
+        if (attribute == null)
+        {
+            throw new QueryHandlerException("column type is null for: " + property);
+        }
+        return ((AbstractAttribute) attribute).getJPAColumnName();
     }
 
     private FilterBuilder getFilter(FilterClause clause ,final EntityMetadata metadata, final EntityType entityType)
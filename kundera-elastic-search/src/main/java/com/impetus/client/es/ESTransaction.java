@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.impetus.kundera.persistence.TransactionResource;
+
+/**
+ * Defines transaction boundaries for elastic search client, if user opted for
+ * transaction support(kundera.transaction.resource). Writes within a
+ * transaction are buffered into bulk requests, remaining ones are sent on
+ * commit and discarded on rollback. Bulk requests already sent, because a
+ * bulk bound was reached, are not rolled back.
+ *
+ * @author impetus
+ */
+public class ESTransaction implements TransactionResource
+{
+    private List<ESBulkWriter> resources = new ArrayList<ESBulkWriter>();
+
+    private boolean isTransactionInProgress;
+
+    /**
+     * Default constructor
+     */
+    public ESTransaction()
+    {
+
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.impetus.kundera.persistence.TransactionResource#onBegin()
+     */
+    @Override
+    public void onBegin()
+    {
+        isTransactionInProgress = true;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.impetus.kundera.persistence.TransactionResource#onCommit()
+     */
+    @Override
+    public void onCommit()
+    {
+        try
+        {
+            onFlush();
+        }
+        finally
+        {
+            isTransactionInProgress = false;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.impetus.kundera.persistence.TransactionResource#onRollback()
+     */
+    @Override
+    public void onRollback()
+    {
+        for (ESBulkWriter resource : resources)
+        {
+            resource.clear();
+        }
+        isTransactionInProgress = false;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.impetus.kundera.persistence.TransactionResource#onFlush()
+     */
+    @Override
+    public void onFlush()
+    {
+        for (ESBulkWriter resource : resources)
+        {
+            resource.flush();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.impetus.kundera.persistence.TransactionResource#prepare()
+     */
+    @Override
+    public Response prepare()
+    {
+        return Response.YES;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.impetus.kundera.persistence.TransactionResource#isActive()
+     */
+    @Override
+    public boolean isActive()
+    {
+        return isTransactionInProgress;
+    }
+
+    void bindResource(ESBulkWriter resource)
+    {
+        if (!resources.contains(resource))
+        {
+            resources.add(resource);
+        }
+    }
+}
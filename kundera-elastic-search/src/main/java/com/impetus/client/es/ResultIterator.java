@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.search.SearchHit;
+
+import com.impetus.kundera.client.EnhanceEntity;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.persistence.PersistenceDelegator;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.query.IResultIterator;
+
+/**
+ * Implementation of elastic search result iteration. Hits are read page by
+ * page over a scroll, so that only one page is held in memory at a time.
+ * Scroll is released once first and max results are read, or along with its
+ * query.
+ * 
+ * @author impetus
+ * 
+ * @param <E>
+ */
+class ResultIterator<E> implements IResultIterator<E>
+{
+    private ESQuery query;
+
+    private ESClient client;
+
+    private EntityMetadata m;
+
+    private PersistenceDelegator persistenceDelegator;
+
+    private String scrollId;
+
+    private SearchHit[] page = new SearchHit[0];
+
+    private int position;
+
+    private boolean exhausted;
+
+    /** Number of hits yet to skip. */
+    private int firstResult;
+
+    private int maxResults;
+
+    /** Number of entities returned so far. */
+    private int count;
+
+    /**
+     * @param query
+     *            query, notified once scroll is released.
+     * @param client
+     *            elastic search client.
+     * @param m
+     *            entity metadata.
+     * @param filter
+     *            filter, null to match all.
+     * @param pd
+     *            persistence delegator.
+     * @param pageSize
+     *            number of hits fetched per shard in each page.
+     * @param firstResult
+     *            number of hits to skip.
+     * @param maxResults
+     *            maximum number of entities to return.
+     */
+    ResultIterator(ESQuery query, ESClient client, EntityMetadata m, FilterBuilder filter, PersistenceDelegator pd,
+            int pageSize, int firstResult, int maxResults)
+    {
+        this.query = query;
+        this.client = client;
+        this.m = m;
+        this.persistenceDelegator = pd;
+        this.firstResult = firstResult;
+        this.maxResults = maxResults;
+        if (pageSize > 0 && maxResults > 0)
+        {
+            scrollId = client.openScroll(filter, m, pageSize).getScrollId();
+        }
+        else
+        {
+            exhausted = true;
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (position >= page.length && !exhausted && count < maxResults)
+        {
+            SearchResponse response = client.scroll(scrollId);
+            scrollId = response.getScrollId();
+            page = response.getHits().getHits();
+            exhausted = page.length == 0;
+            position = Math.min(firstResult, page.length);
+            firstResult -= position;
+        }
+        if (position < page.length && count < maxResults)
+        {
+            return true;
+        }
+        close();
+        return false;
+    }
+
+    @Override
+    public E next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException("Nothing to scroll further for:" + m.getEntityClazz());
+        }
+        // release hit once read.
+        SearchHit hit = page[position];
+        page[position++] = null;
+        count++;
+        return setRelationEntities(client.getEntity(hit, m));
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException("remove method is not supported over pagination");
+    }
+
+    @Override
+    public List<E> next(int chunkSize)
+    {
+        List<E> results = new ArrayList<E>(chunkSize);
+        while (results.size() < chunkSize && hasNext())
+        {
+            results.add(next());
+        }
+        return results;
+    }
+
+    /**
+     * Releases scroll, unless all of its hits are read, in which case search
+     * contexts are already freed.
+     */
+    void close()
+    {
+        if (scrollId != null)
+        {
+            if (!exhausted)
+            {
+                client.clearScroll(scrollId);
+            }
+            scrollId = null;
+            exhausted = true;
+            page = new SearchHit[0];
+            position = 0;
+            query.onClose(this);
+        }
+    }
+
+    private E setRelationEntities(Object enhanceEntity)
+    {
+        if (enhanceEntity == null || (!(enhanceEntity instanceof EnhanceEntity) && !m.isRelationViaJoinTable()))
+        {
+            return (E) enhanceEntity;
+        }
+        if (!(enhanceEntity instanceof EnhanceEntity))
+        {
+            enhanceEntity = new EnhanceEntity(enhanceEntity, PropertyAccessorHelper.getId(enhanceEntity, m), null);
+        }
+        EnhanceEntity ee = (EnhanceEntity) enhanceEntity;
+        return (E) client.getReader().recursivelyFindEntities(ee.getEntity(), ee.getRelations(), m,
+                persistenceDelegator, false);
+    }
+}
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.PersistenceException;
+
+import junit.framework.Assert;
+
+import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.Client;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.es.ESBulkWriter.RefreshPolicy;
+
+/**
+ * @author impetus
+ * junit for {@link ESBulkWriter} and {@link ESTransaction}, against a client
+ * which records bulk requests instead of sending them.
+ */
+public class ESBulkWriterTest
+{
+    /** bulk requests sent to client. */
+    private List<BulkRequest> sent;
+
+    /** whether client reports a failed item for each bulk request. */
+    private boolean failItems;
+
+    /** whether client fails asynchronous bulk requests. */
+    private boolean failRequests;
+
+    private Client client;
+
+    @Before
+    public void setup()
+    {
+        sent = new ArrayList<BulkRequest>();
+        failItems = false;
+        failRequests = false;
+        client = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class[] { Client.class },
+                new BulkHandler());
+    }
+
+    @Test
+    public void testFlushOnBulkActions()
+    {
+        ESBulkWriter writer = new ESBulkWriter(client, 2, 0, 0, RefreshPolicy.NONE);
+        for (int i = 0; i < 5; i++)
+        {
+            writer.add(indexRequest(i), "es-pu");
+        }
+
+        // two full bulk requests sent, last action still buffered.
+        Assert.assertEquals(2, sent.size());
+        Assert.assertEquals(2, sent.get(0).numberOfActions());
+        Assert.assertEquals(2, sent.get(1).numberOfActions());
+
+        Assert.assertEquals(5, writer.flush());
+        Assert.assertEquals(3, sent.size());
+        Assert.assertEquals(1, sent.get(2).numberOfActions());
+
+        // nothing left to send.
+        Assert.assertEquals(0, writer.flush());
+        Assert.assertEquals(3, sent.size());
+    }
+
+    @Test
+    public void testFlushOnBulkSize()
+    {
+        IndexRequest request = indexRequest(0);
+        ESBulkWriter writer = new ESBulkWriter(client, 0, new BulkRequest().add(request).estimatedSizeInBytes(), 0,
+                RefreshPolicy.NONE);
+        writer.add(request, "es-pu");
+        writer.add(indexRequest(1), "es-pu");
+        Assert.assertEquals(2, sent.size());
+        Assert.assertEquals(2, writer.flush());
+    }
+
+    @Test
+    public void testRefreshPolicy()
+    {
+        ESBulkWriter writer = new ESBulkWriter(client, 0, 0, 0, RefreshPolicy.WAIT);
+        writer.add(indexRequest(0), "es-pu");
+        writer.flush();
+        Assert.assertTrue(sent.get(0).refresh());
+        Assert.assertTrue(writer.isRefreshOnWrite());
+
+        Assert.assertFalse(new ESBulkWriter(client, 0, 0, 0, RefreshPolicy.NONE).isRefreshOnWrite());
+        Assert.assertEquals(RefreshPolicy.COMMIT, RefreshPolicy.getPolicy(" commit "));
+        Assert.assertEquals(RefreshPolicy.NONE, RefreshPolicy.getPolicy(null));
+    }
+
+    @Test
+    public void testSynchronousFailure()
+    {
+        failItems = true;
+        ESBulkWriter writer = new ESBulkWriter(client, 0, 0, 0, RefreshPolicy.NONE);
+        writer.add(indexRequest(0), "es-pu");
+        try
+        {
+            writer.flush();
+            Assert.fail("Failed bulk item must be propagated");
+        }
+        catch (PersistenceException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("mapping failure"));
+        }
+    }
+
+    @Test
+    public void testAsynchronousFailureRaisedOnFlush()
+    {
+        failRequests = true;
+        ESBulkWriter writer = new ESBulkWriter(client, 1, 0, 1, RefreshPolicy.NONE);
+
+        // failure of a bulk request in flight does not fail add.
+        writer.add(indexRequest(0), "es-pu");
+        writer.add(indexRequest(1), "es-pu");
+        Assert.assertEquals(2, sent.size());
+
+        try
+        {
+            writer.flush();
+            Assert.fail("Failure of asynchronous bulk request must be raised on flush");
+        }
+        catch (PersistenceException e)
+        {
+            Assert.assertEquals("node disconnected", e.getCause().getMessage());
+        }
+
+        // failures are reported once.
+        failRequests = false;
+        writer.add(indexRequest(2), "es-pu");
+        Assert.assertEquals(1, writer.flush());
+    }
+
+    @Test
+    public void testTransaction()
+    {
+        ESBulkWriter writer = new ESBulkWriter(client, 0, 0, 0, RefreshPolicy.NONE);
+        ESTransaction transaction = new ESTransaction();
+        transaction.bindResource(writer);
+        transaction.bindResource(writer);
+
+        transaction.onBegin();
+        Assert.assertTrue(transaction.isActive());
+        writer.add(indexRequest(0), "es-pu");
+        transaction.onRollback();
+        Assert.assertFalse(transaction.isActive());
+        Assert.assertEquals(0, writer.flush());
+        Assert.assertTrue(sent.isEmpty());
+
+        transaction.onBegin();
+        writer.add(indexRequest(1), "es-pu");
+        writer.add(indexRequest(2), "es-pu");
+        Assert.assertTrue(sent.isEmpty());
+        transaction.onCommit();
+        Assert.assertFalse(transaction.isActive());
+        Assert.assertEquals(1, sent.size());
+        Assert.assertEquals(2, sent.get(0).numberOfActions());
+    }
+
+    @Test
+    public void testTransactionCommitFailure()
+    {
+        failItems = true;
+        ESBulkWriter writer = new ESBulkWriter(client, 0, 0, 0, RefreshPolicy.NONE);
+        ESTransaction transaction = new ESTransaction();
+        transaction.bindResource(writer);
+
+        transaction.onBegin();
+        writer.add(indexRequest(0), "es-pu");
+        try
+        {
+            transaction.onCommit();
+            Assert.fail("Failed bulk item must fail commit");
+        }
+        catch (PersistenceException e)
+        {
+            Assert.assertFalse(transaction.isActive());
+        }
+    }
+
+    private IndexRequest indexRequest(int id)
+    {
+        return new IndexRequest("es-pu", "PERSON", String.valueOf(id)).source("{\"PERSON_NAME\":\"vivek\"}");
+    }
+
+    private BulkResponse response(BulkRequest request)
+    {
+        BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+        for (int i = 0; i < items.length; i++)
+        {
+            items[i] = new BulkItemResponse(i, "index", failItems ? new BulkItemResponse.Failure("es-pu", "PERSON",
+                    String.valueOf(i), "mapping failure") : null);
+        }
+        return new BulkResponse(items, 1);
+    }
+
+    /**
+     * Records bulk requests, answers them synchronously.
+     */
+    private class BulkHandler implements InvocationHandler
+    {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            if (!method.getName().equals("bulk"))
+            {
+                throw new UnsupportedOperationException(method.getName());
+            }
+
+            BulkRequest request = (BulkRequest) args[0];
+            sent.add(request);
+            final BulkResponse response = response(request);
+            if (args.length == 1)
+            {
+                return Proxy.newProxyInstance(ActionFuture.class.getClassLoader(),
+                        new Class[] { ActionFuture.class }, new InvocationHandler()
+                        {
+                            @Override
+                            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+                            {
+                                return response;
+                            }
+                        });
+            }
+
+            ActionListener<BulkResponse> listener = (ActionListener<BulkResponse>) args[1];
+            if (failRequests)
+            {
+                listener.onFailure(new IllegalStateException("node disconnected"));
+            }
+            else
+            {
+                listener.onResponse(response);
+            }
+            return null;
+        }
+    }
+}
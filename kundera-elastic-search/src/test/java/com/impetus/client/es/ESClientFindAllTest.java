@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.es.PersonES.Day;
+import com.impetus.kundera.client.Client;
+
+/**
+ * @author impetus
+ * junit for multi-get based {@link ESClient#findAll(Class, String[], Object...)}.
+ */
+public class ESClientFindAllTest
+{
+
+    /** The emf. */
+    private EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    private ESClient client;
+
+    @Before
+    public void setup() throws InterruptedException
+    {
+        emf = Persistence.createEntityManagerFactory("es-pu");
+        em = emf.createEntityManager();
+
+        persist("1", "vivek", 10);
+        persist("2", "kuldeep", 20);
+        persist("3", "amresh", 30);
+        waitThread();
+
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        client = (ESClient) clients.get("es-pu");
+    }
+
+    @Test
+    public void testFindAllWithDuplicateKeys()
+    {
+        List<PersonES> results = client.findAll(PersonES.class, null, "1", "2", "1", "invalid", "2");
+
+        // each existing key once, missing keys skipped.
+        Assert.assertEquals(2, results.size());
+        Map<String, PersonES> byId = new HashMap<String, PersonES>();
+        for (PersonES person : results)
+        {
+            Assert.assertNull(byId.put(person.getPersonId(), person));
+        }
+        Assert.assertEquals("vivek", byId.get("1").getPersonName());
+        Assert.assertEquals(Integer.valueOf(10), byId.get("1").getAge());
+        Assert.assertEquals(Day.FRIDAY, byId.get("1").getDay());
+        Assert.assertEquals("kuldeep", byId.get("2").getPersonName());
+    }
+
+    @Test
+    public void testFindAllWithColumns()
+    {
+        List<PersonES> results = client.findAll(PersonES.class, new String[] { "PERSON_NAME" }, "3");
+        Assert.assertEquals(1, results.size());
+        PersonES person = results.get(0);
+        Assert.assertEquals("3", person.getPersonId());
+        Assert.assertEquals("amresh", person.getPersonName());
+
+        // columns not selected are not read.
+        Assert.assertNull(person.getAge());
+        Assert.assertNull(person.getDay());
+    }
+
+    @Test
+    public void testFindAllWithoutKeys()
+    {
+        Assert.assertTrue(client.findAll(PersonES.class, null).isEmpty());
+        Assert.assertTrue(client.findAll(PersonES.class, null, "invalid").isEmpty());
+    }
+
+    @After
+    public void tearDown() throws InterruptedException
+    {
+        em.remove(em.find(PersonES.class, "1"));
+        em.remove(em.find(PersonES.class, "2"));
+        em.remove(em.find(PersonES.class, "3"));
+        waitThread();
+        em.close();
+        emf.close();
+    }
+
+    private void persist(String id, String name, int age)
+    {
+        PersonES person = new PersonES();
+        person.setPersonId(id);
+        person.setPersonName(name);
+        person.setAge(age);
+        person.setDay(Day.FRIDAY);
+        em.persist(person);
+    }
+
+    private void waitThread() throws InterruptedException
+    {
+        Thread.sleep(2000);
+    }
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.Query;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.es.PersonES.Day;
+import com.impetus.kundera.query.QueryHandlerException;
+
+/**
+ * @author impetus
+ * junit for aggregate and GROUP BY queries of {@link ESQuery}.
+ */
+public class ESQueryAggregateTest
+{
+
+    /** The emf. */
+    private EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    @Before
+    public void setup() throws InterruptedException
+    {
+        emf = Persistence.createEntityManagerFactory("es-pu");
+        em = emf.createEntityManager();
+
+        persist("1", "vivek", 10, Day.FRIDAY);
+        persist("2", "kuldeep", 20, Day.FRIDAY);
+        persist("3", "amresh", 20, Day.MONDAY);
+        waitThread();
+    }
+
+    @Test
+    public void testAggregates()
+    {
+        Query query = em.createQuery("Select COUNT(p), SUM(p.age), AVG(p.age), MIN(p.age), MAX(p.age) from PersonES p");
+        List results = query.getResultList();
+        Assert.assertEquals(1, results.size());
+
+        Object[] row = (Object[]) results.get(0);
+        Assert.assertEquals(3L, row[0]);
+        // SUM of an integral column is a Long, as in JPA.
+        Assert.assertEquals(50L, row[1]);
+        Assert.assertEquals(50.0 / 3, (Double) row[2], 0.0001);
+        Assert.assertEquals(10, row[3]);
+        Assert.assertEquals(20, row[4]);
+
+        query = em.createQuery("Select SUM(p.age) from PersonES p where p.personName = 'vivek'");
+        results = query.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(10L, results.get(0));
+    }
+
+    @Test
+    public void testGroupBy()
+    {
+        Query query = em.createQuery("Select p.age, COUNT(p) from PersonES p GROUP BY p.age ORDER BY p.age");
+        List results = query.getResultList();
+        Assert.assertEquals(2, results.size());
+
+        Object[] row = (Object[]) results.get(0);
+        Assert.assertEquals(10, row[0]);
+        Assert.assertEquals(1L, row[1]);
+
+        row = (Object[]) results.get(1);
+        Assert.assertEquals(20, row[0]);
+        Assert.assertEquals(2L, row[1]);
+
+        query = em.createQuery("Select p.age, SUM(p.age) from PersonES p GROUP BY p.age ORDER BY p.age DESC");
+        results = query.getResultList();
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals(20, ((Object[]) results.get(0))[0]);
+        Assert.assertEquals(40L, ((Object[]) results.get(0))[1]);
+        Assert.assertEquals(10, ((Object[]) results.get(1))[0]);
+        Assert.assertEquals(10L, ((Object[]) results.get(1))[1]);
+    }
+
+    @Test
+    public void testGroupByWithMaxResults()
+    {
+        Query query = em.createQuery("Select p.age, COUNT(p) from PersonES p GROUP BY p.age ORDER BY p.age");
+        query.setMaxResults(1);
+        List results = query.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(10, ((Object[]) results.get(0))[0]);
+
+        // without ORDER BY, groups come by descending count.
+        query = em.createQuery("Select p.age, COUNT(p) from PersonES p GROUP BY p.age");
+        query.setMaxResults(1);
+        results = query.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(20, ((Object[]) results.get(0))[0]);
+        Assert.assertEquals(2L, ((Object[]) results.get(0))[1]);
+    }
+
+    @Test
+    public void testGroupByAnalyzedColumn()
+    {
+        // enum is indexed as analyzed string, terms would be lower cased
+        // tokens instead of values.
+        Query query = em.createQuery("Select p.day, COUNT(p) from PersonES p GROUP BY p.day");
+        try
+        {
+            query.getResultList();
+            Assert.fail("GROUP BY on analyzed column must be rejected");
+        }
+        catch (QueryHandlerException e)
+        {
+            Assert.assertTrue(e.getMessage().startsWith("GROUP BY column day must be mapped as not_analyzed"));
+        }
+    }
+
+    @After
+    public void tearDown() throws InterruptedException
+    {
+        em.remove(em.find(PersonES.class, "1"));
+        em.remove(em.find(PersonES.class, "2"));
+        em.remove(em.find(PersonES.class, "3"));
+        waitThread();
+        em.close();
+        emf.close();
+    }
+
+    private void persist(String id, String name, int age, Day day)
+    {
+        PersonES person = new PersonES();
+        person.setPersonId(id);
+        person.setPersonName(name);
+        person.setAge(age);
+        person.setDay(day);
+        em.persist(person);
+    }
+
+    private void waitThread() throws InterruptedException
+    {
+        Thread.sleep(2000);
+    }
+}
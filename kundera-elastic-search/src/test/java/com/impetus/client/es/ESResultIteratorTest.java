@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.es.PersonES.Day;
+import com.impetus.kundera.query.IResultIterator;
+import com.impetus.kundera.query.Query;
+
+/**
+ * @author impetus
+ * junit for paging of {@link ESQuery} and scroll based {@link ResultIterator}.
+ */
+public class ESResultIteratorTest
+{
+    private static final int ROWS = 12;
+
+    /** The emf. */
+    private EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    @Before
+    public void setup() throws InterruptedException
+    {
+        emf = Persistence.createEntityManagerFactory("es-pu");
+        em = emf.createEntityManager();
+
+        for (int i = 1; i <= ROWS; i++)
+        {
+            PersonES person = new PersonES();
+            person.setPersonId(i + "");
+            person.setPersonName("vivek" + i);
+            person.setAge(i);
+            person.setDay(Day.FRIDAY);
+            em.persist(person);
+        }
+        waitThread();
+    }
+
+    @Test
+    public void testScrollPastFirstPage()
+    {
+        Query query = (Query) em.createQuery("Select p from PersonES p");
+
+        // hits are fetched a few per shard, so all rows take several pages.
+        assertOnScroll(query, 1);
+        assertOnScroll(query, 2);
+        assertOnScroll(query, ROWS + 1);
+    }
+
+    @Test
+    public void testScrollInChunks()
+    {
+        Query query = (Query) em.createQuery("Select p from PersonES p");
+        query.setFetchSize(1);
+        Iterator<PersonES> scroll = query.iterate();
+        IResultIterator<PersonES> iter = (IResultIterator<PersonES>) scroll;
+
+        Set<String> ids = new HashSet<String>();
+        List<PersonES> chunk = iter.next(5);
+        while (!chunk.isEmpty())
+        {
+            Assert.assertTrue(chunk.size() <= 5);
+            for (PersonES person : chunk)
+            {
+                Assert.assertTrue(ids.add(person.getPersonId()));
+            }
+            chunk = iter.next(5);
+        }
+        Assert.assertEquals(ROWS, ids.size());
+        Assert.assertFalse(iter.hasNext());
+    }
+
+    @Test
+    public void testFirstAndMaxResults()
+    {
+        javax.persistence.Query query = em.createQuery("Select p from PersonES p");
+        query.setMaxResults(5);
+        Set<String> ids = new HashSet<String>();
+        for (int first = 0; first < ROWS; first += 5)
+        {
+            query.setFirstResult(first);
+            List<PersonES> results = query.getResultList();
+            Assert.assertEquals(Math.min(5, ROWS - first), results.size());
+            for (PersonES person : results)
+            {
+                Assert.assertTrue(ids.add(person.getPersonId()));
+            }
+        }
+        Assert.assertEquals(ROWS, ids.size());
+    }
+
+    @Test
+    public void testIterateFirstAndMaxResults() throws Exception
+    {
+        Query query = (Query) em.createQuery("Select p from PersonES p");
+        ((javax.persistence.Query) query).setMaxResults(5);
+        Set<String> ids = new HashSet<String>();
+        for (int first = 0; first < ROWS; first += 5)
+        {
+            ((javax.persistence.Query) query).setFirstResult(first);
+            query.setFetchSize(2);
+            Iterator<PersonES> iter = query.iterate();
+            int count = 0;
+            while (iter.hasNext())
+            {
+                Assert.assertTrue(ids.add(iter.next().getPersonId()));
+                count++;
+            }
+            Assert.assertEquals(Math.min(5, ROWS - first), count);
+        }
+        Assert.assertEquals(ROWS, ids.size());
+        Assert.assertTrue(getIterators(query).isEmpty());
+    }
+
+    @Test
+    public void testCloseBeforeEnd() throws Exception
+    {
+        Query query = (Query) em.createQuery("Select p from PersonES p");
+        query.setFetchSize(1);
+        Iterator<PersonES> iter = query.iterate();
+        Assert.assertTrue(iter.hasNext());
+        Assert.assertNotNull(iter.next());
+        Assert.assertEquals(1, getIterators(query).size());
+
+        ((ESQuery) query).close();
+        Assert.assertFalse(iter.hasNext());
+        Assert.assertTrue(getIterators(query).isEmpty());
+    }
+
+    private List getIterators(Query query) throws Exception
+    {
+        Field f = ESQuery.class.getDeclaredField("iterators");
+        f.setAccessible(true);
+        return (List) f.get(query);
+    }
+
+    private void assertOnScroll(Query query, int fetchSize)
+    {
+        query.setFetchSize(fetchSize);
+        Iterator<PersonES> iter = query.iterate();
+
+        Set<String> ids = new HashSet<String>();
+        while (iter.hasNext())
+        {
+            PersonES person = iter.next();
+            Assert.assertNotNull(person);
+            Assert.assertTrue(ids.add(person.getPersonId()));
+        }
+        Assert.assertEquals(ROWS, ids.size());
+
+        try
+        {
+            iter.next();
+            Assert.fail();
+        }
+        catch (NoSuchElementException nsex)
+        {
+            Assert.assertNotNull(nsex.getMessage());
+        }
+    }
+
+    @After
+    public void tearDown() throws InterruptedException
+    {
+        for (int i = 1; i <= ROWS; i++)
+        {
+            PersonES person = em.find(PersonES.class, i + "");
+            if (person != null)
+            {
+                em.remove(person);
+            }
+        }
+        waitThread();
+        em.close();
+        emf.close();
+    }
+
+    private void waitThread() throws InterruptedException
+    {
+        Thread.sleep(2000);
+    }
+}
@@ -28,4 +28,7 @@ public final class HBaseConstants
     public static final String ZOOKEEPER_PORT = "zookeeper.port";
 
     public static final String ZOOKEEPER_HOST = "zookeeper.host";
+
+    /** Table property holding number of row key salt buckets for an entity. */
+    public static final String ROW_KEY_SALT_BUCKETS = "rowkey.salt.buckets";
 }
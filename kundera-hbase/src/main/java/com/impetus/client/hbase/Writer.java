@@ -128,6 +128,25 @@ public interface Writer
     public void writeForeignKeys(HTableInterface hTable, String rowKey, Map<String, Set<String>> foreignKeyMap)
             throws IOException;
 
+    /**
+     * Writes foreign keys into row of given entity table(column family), row
+     * key is salted if configured for it.
+     * 
+     * @param hTable
+     *            the h table
+     * @param columnFamily
+     *            entity table(column family) name.
+     * @param rowKey
+     *            the row key
+     * @param foreignKeyMap
+     *            the foreign key map
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @deprecated
+     */
+    public void writeForeignKeys(HTableInterface hTable, String columnFamily, String rowKey,
+            Map<String, Set<String>> foreignKeyMap) throws IOException;
+
     /**
      * Writes columns data to HBase table, supplied as a map in Key/ value pair;
      * key and value representing column name and value respectively.
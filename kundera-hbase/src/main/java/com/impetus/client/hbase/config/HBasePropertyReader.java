@@ -16,16 +16,20 @@
 package com.impetus.client.hbase.config;
 
 import java.util.Map;
+import java.util.Properties;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.impetus.client.hbase.HBaseConstants;
+import com.impetus.client.hbase.utils.RowKeySalter;
 import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.configure.AbstractPropertyReader;
 import com.impetus.kundera.configure.ClientProperties;
 import com.impetus.kundera.configure.ClientProperties.DataStore;
 import com.impetus.kundera.configure.ClientProperties.DataStore.Connection;
+import com.impetus.kundera.configure.ClientProperties.DataStore.Schema;
+import com.impetus.kundera.configure.ClientProperties.DataStore.Schema.Table;
 import com.impetus.kundera.configure.PropertyReader;
 
 /**
@@ -145,6 +149,57 @@ public class HBasePropertyReader extends AbstractPropertyReader implements Prope
             return zookeeperHost;
         }
 
+        /**
+         * Returns row key salter for given entity table, as configured via
+         * {@link HBaseConstants#ROW_KEY_SALT_BUCKETS} table property.
+         * 
+         * @param schemaName
+         *            hbase table name.
+         * @param tableName
+         *            entity table(column family) name.
+         * @return row key salter or null, if row keys are not salted.
+         */
+        public RowKeySalter getRowKeySalter(String schemaName, String tableName)
+        {
+            DataStore ds = getDataStore();
+            if (ds != null && ds.getSchemas() != null)
+            {
+                for (Schema schema : ds.getSchemas())
+                {
+                    if (schema.getName() != null && schema.getName().equalsIgnoreCase(schemaName)
+                            && schema.getTables() != null)
+                    {
+                        for (Table table : schema.getTables())
+                        {
+                            Properties tableProperties = table.getProperties();
+                            if (table.getName() != null && table.getName().equalsIgnoreCase(tableName)
+                                    && tableProperties != null)
+                            {
+                                String buckets = tableProperties.getProperty(HBaseConstants.ROW_KEY_SALT_BUCKETS);
+                                return buckets != null ? onSaltBuckets(tableName, buckets) : null;
+                            }
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        private RowKeySalter onSaltBuckets(String tableName, String buckets)
+        {
+            try
+            {
+                return new RowKeySalter(Integer.parseInt(buckets.trim()));
+            }
+            catch (NumberFormatException nfe)
+            {
+                log.error("Invalid value {} of property {} for table {}.", new Object[] { buckets,
+                        HBaseConstants.ROW_KEY_SALT_BUCKETS, tableName });
+                throw new IllegalArgumentException(HBaseConstants.ROW_KEY_SALT_BUCKETS + " property must be numeric",
+                        nfe);
+            }
+        }
+
         public DataStore getDataStore()
         {
             if (getClientProperties() != null && getClientProperties().getDatastores() != null)
@@ -171,10 +171,13 @@ public class HBaseQuery extends QueryImpl
             }
             return results;
         }
-        if (translator.isFindById && filter == null && columns != null)
+        if (translator.isFindById && columns != null)
         {
+            // Row key equality is read as a get on salted row key, along with
+            // filters on other columns.
+            Filter f = filter != null ? filter.values().iterator().next() : null;
             return ((HBaseClient) client).findByRange(m.getEntityClazz(), m, translator.rowKey, translator.rowKey,
-                    columns.toArray(new String[columns.size()]), null);
+                    columns.toArray(new String[columns.size()]), f);
         }
         
 //        MetadataUtils.useSecondryIndex(((ClientBase) client).getClientMetadata());
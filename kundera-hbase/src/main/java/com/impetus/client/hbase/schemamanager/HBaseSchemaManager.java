@@ -33,7 +33,10 @@ import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.impetus.client.hbase.HBaseConstants;
 import com.impetus.client.hbase.config.HBasePropertyReader;
+import com.impetus.client.hbase.utils.HBaseUtils;
+import com.impetus.client.hbase.utils.RowKeySalter;
 import com.impetus.kundera.configure.ClientProperties.DataStore.Schema;
 import com.impetus.kundera.configure.ClientProperties.DataStore.Schema.Table;
 import com.impetus.kundera.configure.schema.SchemaGenerationException;
@@ -240,7 +243,41 @@ public class HBaseSchemaManager extends AbstractSchemaManager implements SchemaM
     private void createTable(List<TableInfo> tableInfos) throws IOException
     {
         HTableDescriptor hTableDescriptor = getTableMetaData(tableInfos);
-        admin.createTable(hTableDescriptor);
+        RowKeySalter salter = getRowKeySalter(tableInfos);
+        if (salter != null)
+        {
+            // pre-split table into one region per salt bucket.
+            admin.createTable(hTableDescriptor, salter.getSplitKeys());
+        }
+        else
+        {
+            admin.createTable(hTableDescriptor);
+        }
+    }
+
+    /**
+     * Returns row key salter with maximum number of buckets among salted
+     * entity tables(column families) of this hbase table.
+     * 
+     * @param tableInfos
+     *            list of TableInfos.
+     * @return row key salter or null, if none of the tables is salted.
+     */
+    private RowKeySalter getRowKeySalter(List<TableInfo> tableInfos)
+    {
+        RowKeySalter salter = null;
+        for (TableInfo tableInfo : tableInfos)
+        {
+            if (tableInfo != null)
+            {
+                RowKeySalter tableSalter = HBaseUtils.getRowKeySalter(databaseName, tableInfo.getTableName());
+                if (tableSalter != null && (salter == null || tableSalter.getBuckets() > salter.getBuckets()))
+                {
+                    salter = tableSalter;
+                }
+            }
+        }
+        return salter;
     }
 
     /**
@@ -438,8 +475,13 @@ public class HBaseSchemaManager extends AbstractSchemaManager implements SchemaM
                     {
                         for (Object o : columnProperties.keySet())
                         {
-                            columnDescriptor.setValue(Bytes.toBytes(o.toString()),
-                                    Bytes.toBytes(columnProperties.get(o).toString()));
+                            // row key salting is handled by kundera, not a
+                            // column family attribute.
+                            if (!HBaseConstants.ROW_KEY_SALT_BUCKETS.equals(o))
+                            {
+                                columnDescriptor.setValue(Bytes.toBytes(o.toString()),
+                                        Bytes.toBytes(columnProperties.get(o).toString()));
+                            }
                         }
                     }
                 }
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.HTableInterface;
@@ -32,6 +33,7 @@ import org.apache.hadoop.hbase.util.Bytes;
 import com.impetus.client.hbase.HBaseData;
 import com.impetus.client.hbase.Reader;
 import com.impetus.client.hbase.utils.HBaseUtils;
+import com.impetus.client.hbase.utils.RowKeySalter;
 
 /**
  * Implmentation class for HBase for <code>Reader</code> interface.
@@ -48,6 +50,8 @@ public class HBaseReader implements Reader
 
     private Integer counter = 0;
 
+    private RowKeySalter salter;
+
     /*
      * (non-Javadoc)
      * 
@@ -90,12 +94,17 @@ public class HBaseReader implements Reader
         List<HBaseData> results = new ArrayList<HBaseData>();
         if (scanner == null)
         {
+            salter = HBaseUtils.getRowKeySalter(Bytes.toString(hTable.getTableName()), columnFamily);
 
             // only in case of find by id
             Scan scan = null;
             if (rowKey != null)
             {
                 byte[] rowKeyBytes = HBaseUtils.getBytes(rowKey);
+                if (salter != null)
+                {
+                    rowKeyBytes = salter.salt(rowKeyBytes);
+                }
                 Get g = new Get(rowKeyBytes);
                 //TODO: After more than one column family for 1 table. this should work. currently failing for embeddable entities.
 //                if(columnFamily != null)
@@ -115,7 +124,7 @@ public class HBaseReader implements Reader
                     for (KeyValue value : result.list())
                     {
                         data = new HBaseData(columnFamily != null ? columnFamily : new String(value.getFamily()),
-                                value.getRow());
+                                getRowKey(value));
                         break;
                     }
 
@@ -169,12 +178,20 @@ public class HBaseReader implements Reader
         List<HBaseData> results = null;
         if (scanner == null)
         {
+            salter = HBaseUtils.getRowKeySalter(Bytes.toString(hTable.getTableName()), columnFamily);
             Scan s = null;
             if (startRow != null && endRow != null && startRow.equals(endRow))
             {
-                Get g = new Get(startRow);
+                Get g = new Get(salter != null ? salter.salt(startRow) : startRow);
                 s = new Scan(g);
             }
+            else if (salter != null)
+            {
+                // fan out over all salt buckets and merge.
+                scanner = scanBuckets(hTable, filter, startRow, endRow, columnFamily, qualifier, columns);
+                resultsIter = scanner.iterator();
+                return scanResults(null, results);
+            }
             else if (startRow != null && endRow != null)
             {
                 s = new Scan(startRow, endRow);
@@ -255,7 +272,7 @@ public class HBaseReader implements Reader
                 for (KeyValue value : values)
                 {
                     data = new HBaseData(columnFamily != null ? columnFamily : new String(value.getFamily()),
-                            value.getRow());
+                            getRowKey(value));
                     break;
                 }
                 data.setColumns(values);
@@ -280,6 +297,7 @@ public class HBaseReader implements Reader
 
         if (scanner == null)
         {
+            salter = HBaseUtils.getRowKeySalter(Bytes.toString(hTable.getTableName()), columnFamilyName);
             Scan s = new Scan();
             s.setFilter(filter);
             s.addColumn(Bytes.toBytes(columnFamilyName), Bytes.toBytes(columnName));
@@ -293,7 +311,7 @@ public class HBaseReader implements Reader
             {
                 for (KeyValue keyValue : result.list())
                 {
-                    rowKeys.add(HBaseUtils.fromBytes(keyValue.getRow(), rowKeyClazz));
+                    rowKeys.add(HBaseUtils.fromBytes(getRowKey(keyValue), rowKeyClazz));
                 }
             }
         }
@@ -311,12 +329,17 @@ public class HBaseReader implements Reader
 
         HBaseData data = null;
 
+        salter = HBaseUtils.getRowKeySalter(Bytes.toString(hTable.getTableName()), columnFamily);
         List<Get> getRequest = new ArrayList<Get>();
         for (Object rowKey : rows)
         {
             if (rowKey != null)
             {
                 byte[] rowKeyBytes = HBaseUtils.getBytes(rowKey);
+                if (salter != null)
+                {
+                    rowKeyBytes = salter.salt(rowKeyBytes);
+                }
                 Get request = new Get(rowKeyBytes);
                 getRequest.add(request);
             }
@@ -332,7 +355,7 @@ public class HBaseReader implements Reader
                 for (KeyValue value : values)
                 {
                     data = new HBaseData(columnFamily != null ? columnFamily : new String(value.getFamily()),
-                            value.getRow());
+                            getRowKey(value));
                     break;
                 }
 
@@ -363,7 +386,7 @@ public class HBaseReader implements Reader
         List<KeyValue> values = result.list();
         for (KeyValue value : values)
         {
-            data = new HBaseData(new String(value.getFamily()), value.getRow());
+            data = new HBaseData(new String(value.getFamily()), getRowKey(value));
             break;
         }
         data.setColumns(values);
@@ -417,5 +440,62 @@ public class HBaseReader implements Reader
         fetchSize = null;
         resultsIter = null;
         counter = 0;
+        salter = null;
+    }
+
+    /**
+     * Opens one scanner per salt bucket for given row key range and returns
+     * them as a single scanner, merging results in row key order.
+     * 
+     * @param hTable
+     *            h table.
+     * @param filter
+     *            filter.
+     * @param startRow
+     *            unsalted start row, may be null.
+     * @param endRow
+     *            unsalted end row, may be null.
+     * @param columnFamily
+     *            column family.
+     * @param qualifier
+     *            qualifier.
+     * @param columns
+     *            columns.
+     * @return merged result scanner.
+     * @throws IOException
+     */
+    private ResultScanner scanBuckets(HTableInterface hTable, Filter filter, byte[] startRow, byte[] endRow,
+            String columnFamily, String qualifier, String[] columns) throws IOException
+    {
+        List<ResultScanner> scanners = new ArrayList<ResultScanner>(salter.getBuckets());
+        for (int bucket = 0; bucket < salter.getBuckets(); bucket++)
+        {
+            byte[] stopRow = null;
+            if (endRow != null)
+            {
+                stopRow = salter.withBucket(bucket, endRow);
+            }
+            else
+            {
+                stopRow = bucket + 1 < RowKeySalter.MAX_BUCKETS ? salter.withBucket(bucket + 1, null)
+                        : HConstants.EMPTY_END_ROW;
+            }
+            Scan s = new Scan(salter.withBucket(bucket, startRow), stopRow);
+            setScanCriteria(filter, columnFamily, qualifier, s, columns);
+            scanners.add(hTable.getScanner(s));
+        }
+        return new SaltedResultScanner(scanners, salter);
+    }
+
+    /**
+     * Returns row key of given key value, stripped of salt if any.
+     * 
+     * @param value
+     *            key value.
+     * @return row key bytes.
+     */
+    private byte[] getRowKey(KeyValue value)
+    {
+        return salter != null ? salter.unsalt(value.getRow()) : value.getRow();
     }
 }
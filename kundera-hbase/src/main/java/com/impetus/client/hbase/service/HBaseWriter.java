@@ -78,7 +78,7 @@ public class HBaseWriter implements Writer
 
             Map<String, Object> values, Object columnFamilyObj) throws IOException
     {
-        Put p = preparePut(columnFamily, rowKey, columns, values);
+        Put p = preparePut(htable, columnFamily, rowKey, columns, values);
         htable.put(p);
     }
 
@@ -94,7 +94,7 @@ public class HBaseWriter implements Writer
     public void writeColumn(HTableInterface htable, String columnFamily, Object rowKey, Attribute column,
             Object columnObj) throws IOException
     {
-        Put p = new Put(HBaseUtils.getBytes(rowKey));
+        Put p = new Put(getRowKeyBytes(htable, columnFamily, rowKey));
         p.add(Bytes.toBytes(columnFamily), Bytes.toBytes(((AbstractAttribute) column).getJPAColumnName()),
                 Bytes.toBytes(columnObj.toString()));
 
@@ -112,7 +112,7 @@ public class HBaseWriter implements Writer
     public void writeColumns(HTableInterface htable, Object rowKey, Map<String, Attribute> columns, Object entity,
             String columnFamilyName) throws IOException
     {
-        Put p = new Put(HBaseUtils.getBytes(rowKey));
+        Put p = new Put(getRowKeyBytes(htable, columnFamilyName, rowKey));
 
         boolean present = false;
         for (String columnName : columns.keySet())
@@ -156,7 +156,7 @@ public class HBaseWriter implements Writer
             throws IOException
     {
 
-        Put p = new Put(HBaseUtils.getBytes(rowKey));
+        Put p = new Put(getRowKeyBytes(htable, columnFamilyName, rowKey));
 
         boolean isPresent = false;
         for (String columnName : columns.keySet())
@@ -182,7 +182,7 @@ public class HBaseWriter implements Writer
     public void writeRelations(HTableInterface htable, Object rowKey, boolean containsEmbeddedObjectsOnly,
             List<RelationHolder> relations, String columnFamilyName) throws IOException
     {
-        Put p = new Put(HBaseUtils.getBytes(rowKey));
+        Put p = new Put(getRowKeyBytes(htable, columnFamilyName, rowKey));
 
         boolean isPresent = false;
         for (RelationHolder r : relations)
@@ -222,10 +222,25 @@ public class HBaseWriter implements Writer
     public void writeForeignKeys(HTableInterface hTable, String rowKey, Map<String, Set<String>> foreignKeyMap)
             throws IOException
     {
-        Put p = new Put(Bytes.toBytes(rowKey));
+        writeForeignKeys(hTable, null, rowKey, foreignKeyMap);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.client.hbase.Writer#writeForeignKeys(org.apache.hadoop.hbase
+     * .client.HTable, java.lang.String, java.lang.String, java.util.Map)
+     */
+    @Override
+    public void writeForeignKeys(HTableInterface hTable, String columnFamily, String rowKey,
+            Map<String, Set<String>> foreignKeyMap) throws IOException
+    {
+        byte[] rowKeyBytes = getRowKeyBytes(hTable, columnFamily, rowKey);
+        Put p = new Put(rowKeyBytes);
 
         // Checking if foreign key column family exists
-        Get g = new Get(Bytes.toBytes(rowKey));
+        Get g = new Get(rowKeyBytes);
         Result r = hTable.get(g);
 
         boolean isPresent = false;
@@ -282,7 +297,7 @@ public class HBaseWriter implements Writer
     {
         try
         {
-            byte[] rowBytes = HBaseUtils.getBytes(rowKey);
+            byte[] rowBytes = getRowKeyBytes(hTable, columnFamily, rowKey);
             Delete delete = new Delete(rowBytes);
 
             hTable.delete(delete);
@@ -308,7 +323,8 @@ public class HBaseWriter implements Writer
             List<HBaseDataWrapper> row = rows.get(hTable);
             for (HBaseDataWrapper data : row)
             {
-                dataSet.add(preparePut(data.getColumnFamily(), data.getRowKey(), data.getColumns(), data.getValues()));
+                dataSet.add(preparePut(hTable, data.getColumnFamily(), data.getRowKey(), data.getColumns(),
+                        data.getValues()));
             }
             hTable.put(dataSet);
             dataSet.clear();
@@ -318,6 +334,8 @@ public class HBaseWriter implements Writer
     /**
      * Prepare put.
      * 
+     * @param hTable
+     *            the h table
      * @param columnFamily
      *            the column family
      * @param rowKey
@@ -331,10 +349,10 @@ public class HBaseWriter implements Writer
      * @throws IOException
      *             Signals that an I/O exception has occurred.
      */
-    private Put preparePut(String columnFamily, Object rowKey, Map<String, Attribute> columns, Map<String, Object> values)
-            throws IOException
+    private Put preparePut(HTableInterface hTable, String columnFamily, Object rowKey, Map<String, Attribute> columns,
+            Map<String, Object> values) throws IOException
     {
-        Put p = new Put(HBaseUtils.getBytes(rowKey));
+        Put p = new Put(getRowKeyBytes(hTable, columnFamily, rowKey));
         for (String columnName : columns.keySet())
         {
             Attribute column = columns.get(columnName);
@@ -359,4 +377,20 @@ public class HBaseWriter implements Writer
         }
         return p;
     }
+
+    /**
+     * Returns row key bytes, salted if configured for given column family.
+     * 
+     * @param hTable
+     *            the h table
+     * @param columnFamily
+     *            the column family
+     * @param rowKey
+     *            the row key
+     * @return row key bytes.
+     */
+    private byte[] getRowKeyBytes(HTableInterface hTable, String columnFamily, Object rowKey)
+    {
+        return HBaseUtils.getRowKeyBytes(Bytes.toString(hTable.getTableName()), columnFamily, rowKey);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import javax.persistence.PersistenceException;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+
+import com.impetus.client.hbase.utils.RowKeySalter;
+
+/**
+ * {@link ResultScanner} over a salted table, which merges results of one
+ * scanner per salt bucket in order of unsalted row keys.
+ *
+ * @author impetus
+ */
+class SaltedResultScanner implements ResultScanner
+{
+    private final List<ResultScanner> scanners;
+
+    private final PriorityQueue<BucketHead> heads;
+
+    private boolean initialized;
+
+    /**
+     * @param scanners
+     *            one scanner per salt bucket.
+     * @param salter
+     *            row key salter.
+     */
+    SaltedResultScanner(List<ResultScanner> scanners, final RowKeySalter salter)
+    {
+        this.scanners = scanners;
+        this.heads = new PriorityQueue<BucketHead>(Math.max(1, scanners.size()), new Comparator<BucketHead>()
+        {
+            @Override
+            public int compare(BucketHead o1, BucketHead o2)
+            {
+                return salter.compareUnsalted(o1.result.getRow(), o2.result.getRow());
+            }
+        });
+    }
+
+    @Override
+    public Result next() throws IOException
+    {
+        if (!initialized)
+        {
+            for (ResultScanner scanner : scanners)
+            {
+                advance(scanner);
+            }
+            initialized = true;
+        }
+
+        BucketHead head = heads.poll();
+        if (head == null)
+        {
+            return null;
+        }
+        advance(head.scanner);
+        return head.result;
+    }
+
+    @Override
+    public Result[] next(int nbRows) throws IOException
+    {
+        List<Result> results = new ArrayList<Result>(nbRows);
+        for (int i = 0; i < nbRows; i++)
+        {
+            Result result = next();
+            if (result == null)
+            {
+                break;
+            }
+            results.add(result);
+        }
+        return results.toArray(new Result[results.size()]);
+    }
+
+    @Override
+    public void close()
+    {
+        for (ResultScanner scanner : scanners)
+        {
+            scanner.close();
+        }
+        heads.clear();
+    }
+
+    @Override
+    public Iterator<Result> iterator()
+    {
+        return new Iterator<Result>()
+        {
+            private Result next;
+
+            @Override
+            public boolean hasNext()
+            {
+                if (next == null)
+                {
+                    try
+                    {
+                        next = SaltedResultScanner.this.next();
+                    }
+                    catch (IOException ioex)
+                    {
+                        throw new PersistenceException(ioex);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Result next()
+            {
+                if (!hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+                Result result = next;
+                next = null;
+                return result;
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException("remove is not supported");
+            }
+        };
+    }
+
+    private void advance(ResultScanner scanner) throws IOException
+    {
+        Result result = scanner.next();
+        if (result != null)
+        {
+            heads.add(new BucketHead(scanner, result));
+        }
+    }
+
+    /**
+     * Holds current result of a bucket scanner.
+     */
+    private static final class BucketHead
+    {
+        private final ResultScanner scanner;
+
+        private final Result result;
+
+        private BucketHead(ResultScanner scanner, Result result)
+        {
+            this.scanner = scanner;
+            this.result = result;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.math.BigDecimal;
 import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
 import org.apache.hadoop.hbase.util.Bytes;
 
+import com.impetus.client.hbase.config.HBasePropertyReader;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.property.PropertyAccessorFactory;
 
@@ -84,6 +85,43 @@ public final class HBaseUtils
         return null;
     }
 
+    /**
+     * Returns row key bytes for given row key, prefixed with salt bucket if row
+     * keys of given entity table are salted.
+     * 
+     * @param tableName
+     *            hbase table name.
+     * @param columnFamily
+     *            entity table(column family) name.
+     * @param rowKey
+     *            row key.
+     * @return row key bytes.
+     */
+    public static byte[] getRowKeyBytes(String tableName, String columnFamily, Object rowKey)
+    {
+        byte[] rowKeyBytes = getBytes(rowKey);
+        RowKeySalter salter = getRowKeySalter(tableName, columnFamily);
+        return salter != null ? salter.salt(rowKeyBytes) : rowKeyBytes;
+    }
+
+    /**
+     * Returns row key salter configured for given entity table.
+     * 
+     * @param tableName
+     *            hbase table name.
+     * @param columnFamily
+     *            entity table(column family) name.
+     * @return row key salter or null, if row keys are not salted.
+     */
+    public static RowKeySalter getRowKeySalter(String tableName, String columnFamily)
+    {
+        if (HBasePropertyReader.hsmd == null || tableName == null || columnFamily == null)
+        {
+            return null;
+        }
+        return HBasePropertyReader.hsmd.getRowKeySalter(tableName, columnFamily);
+    }
+
     public static Object fromBytes(EntityMetadata m, byte[] b)
     {
         Class idFieldClass = m.getIdAttribute().getJavaType();
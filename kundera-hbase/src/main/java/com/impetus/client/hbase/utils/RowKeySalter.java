@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.utils;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Row key salting strategy for an entity table. Prefixes row key with a one
+ * byte bucket id derived from hash of row key, so that monotonically
+ * increasing row keys are spread over {@code buckets} regions instead of
+ * hot-spotting a single one.
+ *
+ * @author impetus
+ */
+public final class RowKeySalter
+{
+    /** Maximum number of buckets, as bucket id is stored in a single byte. */
+    public static final int MAX_BUCKETS = 256;
+
+    private final int buckets;
+
+    /**
+     * @param buckets
+     *            number of salt buckets, between 2 and {@link #MAX_BUCKETS}.
+     */
+    public RowKeySalter(int buckets)
+    {
+        if (buckets < 2 || buckets > MAX_BUCKETS)
+        {
+            throw new IllegalArgumentException("Salt buckets must be between 2 and " + MAX_BUCKETS + ", but was "
+                    + buckets);
+        }
+        this.buckets = buckets;
+    }
+
+    /**
+     * @return number of salt buckets.
+     */
+    public int getBuckets()
+    {
+        return buckets;
+    }
+
+    /**
+     * Returns bucket for given (unsalted) row key.
+     *
+     * @param rowKey
+     *            row key bytes.
+     * @return bucket id.
+     */
+    public int getBucket(byte[] rowKey)
+    {
+        return (Bytes.hashCode(rowKey) & Integer.MAX_VALUE) % buckets;
+    }
+
+    /**
+     * Prefixes row key with its bucket id.
+     *
+     * @param rowKey
+     *            row key bytes.
+     * @return salted row key.
+     */
+    public byte[] salt(byte[] rowKey)
+    {
+        return rowKey != null ? withBucket(getBucket(rowKey), rowKey) : null;
+    }
+
+    /**
+     * Strips bucket id from salted row key.
+     *
+     * @param saltedRowKey
+     *            salted row key bytes.
+     * @return original row key.
+     */
+    public byte[] unsalt(byte[] saltedRowKey)
+    {
+        return saltedRowKey != null && saltedRowKey.length > 0 ? Arrays.copyOfRange(saltedRowKey, 1,
+                saltedRowKey.length) : saltedRowKey;
+    }
+
+    /**
+     * Prefixes row key with given bucket id. Used to fan out range scans over
+     * all buckets.
+     *
+     * @param bucket
+     *            bucket id.
+     * @param rowKey
+     *            row key bytes, may be null.
+     * @return row key prefixed with bucket.
+     */
+    public byte[] withBucket(int bucket, byte[] rowKey)
+    {
+        byte[] prefix = new byte[] { (byte) bucket };
+        return rowKey != null ? Bytes.add(prefix, rowKey) : prefix;
+    }
+
+    /**
+     * Returns start row of each bucket except first one, to be used as split
+     * keys for pre-splitting a table into one region per bucket.
+     *
+     * @return split keys.
+     */
+    public byte[][] getSplitKeys()
+    {
+        byte[][] splitKeys = new byte[buckets - 1][];
+        for (int bucket = 1; bucket < buckets; bucket++)
+        {
+            splitKeys[bucket - 1] = new byte[] { (byte) bucket };
+        }
+        return splitKeys;
+    }
+
+    /**
+     * Compares two salted row keys ignoring their bucket prefix.
+     *
+     * @param left
+     *            salted row key.
+     * @param right
+     *            salted row key.
+     * @return comparison result as per {@link Bytes#compareTo(byte[], byte[])}.
+     */
+    public int compareUnsalted(byte[] left, byte[] right)
+    {
+        return Bytes.compareTo(left, 1, left.length - 1, right, 1, right.length - 1);
+    }
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.crud;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.Query;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.hbase.junits.HBaseCli;
+
+/**
+ * Row key queries over a table whose row keys are salted.
+ *
+ * @author impetus
+ */
+public class HBaseSaltedIdQueryTest
+{
+    private static final String PERSISTENCE_UNIT = "hbaseSaltedTest";
+
+    /** The emf. */
+    private EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    private HBaseCli cli;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        cli = new HBaseCli();
+        cli.startCluster();
+        emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT);
+        em = emf.createEntityManager();
+
+        em.persist(prepareData("1", "vivek", 10));
+        em.persist(prepareData("2", "kuldeep", 10));
+        em.persist(prepareData("3", "amresh", 20));
+        em.clear();
+    }
+
+    /**
+     * Row key equality is looked up on salted row key.
+     */
+    @Test
+    public void testFindByIdEQ()
+    {
+        Query q = em.createQuery("Select p.personName from PersonSaltedHBase p where p.personId = 2");
+        List<PersonSaltedHBase> persons = q.getResultList();
+        Assert.assertEquals(1, persons.size());
+        Assert.assertEquals("2", persons.get(0).getPersonId());
+        Assert.assertEquals("kuldeep", persons.get(0).getPersonName());
+
+        Assert.assertEquals("amresh", em.find(PersonSaltedHBase.class, "3").getPersonName());
+    }
+
+    /**
+     * Row key equality along with a filter on another column only returns
+     * that row.
+     */
+    @Test
+    public void testFindByIdAndAge()
+    {
+        Query q = em.createQuery("Select p.personName, p.age from PersonSaltedHBase p where p.personId = 1 and p.age = 10");
+        List<PersonSaltedHBase> persons = q.getResultList();
+        Assert.assertEquals(1, persons.size());
+        Assert.assertEquals("1", persons.get(0).getPersonId());
+        Assert.assertEquals("vivek", persons.get(0).getPersonName());
+
+        q = em.createQuery("Select p.personName, p.age from PersonSaltedHBase p where p.personId = 3 and p.age = 10");
+        Assert.assertTrue(q.getResultList().isEmpty());
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception
+    {
+        em.close();
+        emf.close();
+        if (cli != null)
+        {
+            cli.dropTable("KunderaSaltedExamples");
+        }
+    }
+
+    private PersonSaltedHBase prepareData(String id, String name, int age)
+    {
+        PersonSaltedHBase person = new PersonSaltedHBase();
+        person.setPersonId(id);
+        person.setPersonName(name);
+        person.setAge(age);
+        return person;
+    }
+}
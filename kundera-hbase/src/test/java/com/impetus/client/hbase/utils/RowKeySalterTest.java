@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.Assert;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+/**
+ * Test case for {@link RowKeySalter}.
+ *
+ * @author impetus
+ */
+public class RowKeySalterTest
+{
+    @Test
+    public void testSaltAndUnsalt()
+    {
+        RowKeySalter salter = new RowKeySalter(8);
+        byte[] rowKey = Bytes.toBytes(1234567890L);
+        byte[] salted = salter.salt(rowKey);
+
+        Assert.assertEquals(rowKey.length + 1, salted.length);
+        Assert.assertEquals(salter.getBucket(rowKey), salted[0]);
+        Assert.assertTrue(Bytes.equals(rowKey, salter.unsalt(salted)));
+        Assert.assertTrue(Bytes.equals(salted, salter.salt(rowKey)));
+    }
+
+    @Test
+    public void testSequentialKeysAreSpread()
+    {
+        RowKeySalter salter = new RowKeySalter(16);
+        Set<Integer> buckets = new HashSet<Integer>();
+        for (long id = 0; id < 1000; id++)
+        {
+            int bucket = salter.getBucket(Bytes.toBytes(id));
+            Assert.assertTrue(bucket >= 0 && bucket < 16);
+            buckets.add(bucket);
+        }
+        Assert.assertEquals(16, buckets.size());
+    }
+
+    @Test
+    public void testSplitKeys()
+    {
+        RowKeySalter salter = new RowKeySalter(4);
+        byte[][] splitKeys = salter.getSplitKeys();
+        Assert.assertEquals(3, splitKeys.length);
+        for (int i = 0; i < splitKeys.length; i++)
+        {
+            Assert.assertTrue(Bytes.equals(new byte[] { (byte) (i + 1) }, splitKeys[i]));
+        }
+    }
+
+    @Test
+    public void testCompareUnsalted()
+    {
+        RowKeySalter salter = new RowKeySalter(4);
+        byte[] first = salter.withBucket(3, Bytes.toBytes("a"));
+        byte[] second = salter.withBucket(0, Bytes.toBytes("b"));
+        Assert.assertTrue(salter.compareUnsalted(first, second) < 0);
+        Assert.assertTrue(salter.compareUnsalted(second, first) > 0);
+        Assert.assertEquals(0, salter.compareUnsalted(first, salter.withBucket(1, Bytes.toBytes("a"))));
+    }
+
+    @Test
+    public void testInvalidBuckets()
+    {
+        try
+        {
+            new RowKeySalter(1);
+            Assert.fail("Should have failed for single bucket");
+        }
+        catch (IllegalArgumentException iaex)
+        {
+            Assert.assertNotNull(iaex.getMessage());
+        }
+
+        try
+        {
+            new RowKeySalter(RowKeySalter.MAX_BUCKETS + 1);
+            Assert.fail("Should have failed for too many buckets");
+        }
+        catch (IllegalArgumentException iaex)
+        {
+            Assert.assertNotNull(iaex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.mongodb;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Builds partial update documents ($set, $unset and $push) out of difference
+ * between previously written and current state of a MongoDB document, so that
+ * only changed fields are sent over the wire on merge.
+ *
+ * @author impetus
+ */
+final class DocumentUpdateBuilder
+{
+    /** The id field name. */
+    static final String ID = "_id";
+
+    static final String SET = "$set";
+
+    static final String UNSET = "$unset";
+
+    static final String PUSH = "$push";
+
+    static final String EACH = "$each";
+
+    private DocumentUpdateBuilder()
+    {
+    }
+
+    /**
+     * Returns update document holding changes needed to turn {@code original}
+     * into {@code document}, or null if both are same.
+     *
+     * @param original
+     *            previously written document.
+     * @param document
+     *            current document.
+     * @param retainedFields
+     *            fields which must never be unset, even if missing in current
+     *            document (e.g. relation columns). May be null.
+     * @return update document or null if nothing changed.
+     */
+    static DBObject getUpdate(DBObject original, DBObject document, Collection<String> retainedFields)
+    {
+        BasicDBObject set = new BasicDBObject();
+        BasicDBObject unset = new BasicDBObject();
+        BasicDBObject push = new BasicDBObject();
+
+        for (String key : document.keySet())
+        {
+            if (ID.equals(key))
+            {
+                continue;
+            }
+            Object value = document.get(key);
+            Object originalValue = original.get(key);
+
+            if (!original.containsField(key) || !isEqual(originalValue, value))
+            {
+                if (isAppended(originalValue, value))
+                {
+                    List<?> values = (List<?>) value;
+                    BasicDBList appended = new BasicDBList();
+                    appended.addAll(values.subList(((List<?>) originalValue).size(), values.size()));
+                    push.put(key, new BasicDBObject(EACH, appended));
+                }
+                else
+                {
+                    set.put(key, value);
+                }
+            }
+        }
+
+        for (String key : original.keySet())
+        {
+            if (!ID.equals(key) && !document.containsField(key)
+                    && (retainedFields == null || !retainedFields.contains(key)))
+            {
+                unset.put(key, 1);
+            }
+        }
+
+        return toUpdate(set, unset, push);
+    }
+
+    /**
+     * Returns update document setting all fields of given document, used when
+     * there is no previous state to compare with.
+     *
+     * @param document
+     *            current document.
+     * @return update document or null if document holds nothing but id.
+     */
+    static DBObject getUpdate(DBObject document)
+    {
+        BasicDBObject set = new BasicDBObject();
+        for (String key : document.keySet())
+        {
+            if (!ID.equals(key))
+            {
+                set.put(key, document.get(key));
+            }
+        }
+        return toUpdate(set, null, null);
+    }
+
+    private static DBObject toUpdate(BasicDBObject set, BasicDBObject unset, BasicDBObject push)
+    {
+        BasicDBObject update = new BasicDBObject();
+        if (!set.isEmpty())
+        {
+            update.put(SET, set);
+        }
+        if (unset != null && !unset.isEmpty())
+        {
+            update.put(UNSET, unset);
+        }
+        if (push != null && !push.isEmpty())
+        {
+            update.put(PUSH, push);
+        }
+        return update.isEmpty() ? null : update;
+    }
+
+    /**
+     * Checks whether current list value only has elements appended to original
+     * one.
+     */
+    private static boolean isAppended(Object originalValue, Object value)
+    {
+        if (originalValue instanceof List && value instanceof List)
+        {
+            List<?> originalList = (List<?>) originalValue;
+            List<?> list = (List<?>) value;
+            return list.size() > originalList.size() && originalList.equals(list.subList(0, originalList.size()));
+        }
+        return false;
+    }
+
+    /**
+     * Compares field values, taking care of array values (binary data and
+     * coordinates).
+     */
+    private static boolean isEqual(Object originalValue, Object value)
+    {
+        return Arrays.deepEquals(new Object[] { originalValue }, new Object[] { value });
+    }
+}
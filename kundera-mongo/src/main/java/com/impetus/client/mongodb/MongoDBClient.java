@@ -15,12 +15,20 @@
  ******************************************************************************/
 package com.impetus.client.mongodb;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.persistence.PersistenceException;
 
 import org.apache.commons.lang.NotImplementedException;
 import org.bson.types.ObjectId;
@@ -47,6 +55,7 @@ import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
 import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.api.Batcher;
 import com.impetus.kundera.persistence.context.jointable.JoinTableData;
+import com.mongodb.AggregationOutput;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DB;
 import com.mongodb.DBCollection;
@@ -76,6 +85,22 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
     /** The log. */
     private static Logger log = LoggerFactory.getLogger(MongoDBClient.class);
 
+    /** Key of a batched insert statement, holding document to insert. */
+    private static final String INSERT = "insert";
+
+    /** Key of a batched remove statement, holding id to remove. */
+    private static final String REMOVE = "remove";
+
+    /** Keys of a batched update statement. */
+    private static final String QUERY = "query";
+
+    private static final String UPDATE = "update";
+
+    private static final String UPSERT = "upsert";
+
+    /** Default maximum number of documents sent in one insert or remove. */
+    private static final int DEFAULT_BULK_WRITE_SIZE = 1000;
+
     private List<Node> nodes = new ArrayList<Node>();
 
     private int batchSize;
@@ -86,6 +111,23 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
 
     private Map<String, Object> puProperties;
 
+    /** Node being persisted, if any. */
+    private Node node;
+
+    /**
+     * Last written document per node, used to compute partial updates. Held
+     * as long as node is, that is while in persistence context.
+     */
+    private Map<Node, WrittenDocument> writtenDocuments = new WeakHashMap<Node, WrittenDocument>();
+
+    private int bulkWriteSize = DEFAULT_BULK_WRITE_SIZE;
+
+    /** Whether bulk insert stops at first failing document. */
+    private boolean orderedInsert = true;
+
+    /** Executor to flush independent collections concurrently, may be null. */
+    private ExecutorService flushExecutor;
+
     /**
      * Instantiates a new mongo db client.
      * 
@@ -99,6 +141,26 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
      */
     public MongoDBClient(Object mongo, IndexManager mgr, EntityReader reader, String persistenceUnit,
             Map<String, Object> puProperties, ClientMetadata clientMetadata)
+    {
+        this(mongo, mgr, reader, persistenceUnit, puProperties, clientMetadata, null);
+    }
+
+    /**
+     * Instantiates a new mongo db client, flushing collections of a batch
+     * concurrently over given executor.
+     * 
+     * @param mongo
+     *            the mongo
+     * @param mgr
+     *            the mgr
+     * @param reader
+     *            the reader
+     * @param puProperties
+     * @param flushExecutor
+     *            executor for collection flushes, null to flush sequentially.
+     */
+    public MongoDBClient(Object mongo, IndexManager mgr, EntityReader reader, String persistenceUnit,
+            Map<String, Object> puProperties, ClientMetadata clientMetadata, ExecutorService flushExecutor)
     {
         // TODO: This could be a constly call, see how connection pooling is
         // relevant here
@@ -109,6 +171,7 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
         this.puProperties = puProperties;
         handler = new MongoDBDataHandler();
         this.clientMetadata = clientMetadata;
+        this.flushExecutor = flushExecutor;
 
         populateBatchSize(persistenceUnit, this.puProperties);
 
@@ -308,20 +371,28 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
      * @param orderBy
      *            the order by
      * @param maxResult
+     *            maximum number of results, 0 for no limit.
+     * @param firstResult
+     *            number of results to skip.
+     * @param batchSize
+     *            number of documents per batch fetched from server, 0 for
+     *            server default.
      * @param keys
      * @return the list
      * @throws Exception
      *             the exception
      */
     public <E> List<E> loadData(EntityMetadata entityMetadata, BasicDBObject mongoQuery, List<String> relationNames,
-            BasicDBObject orderBy, int maxResult, BasicDBObject keys, String... results) throws Exception
+            BasicDBObject orderBy, int maxResult, int firstResult, int batchSize, BasicDBObject keys,
+            String... results) throws Exception
     {
         String documentName = entityMetadata.getTableName();
         Class clazz = entityMetadata.getEntityClazz();
 
         List entities = new ArrayList<E>();
 
-        DBCursor cursor = getDBCursorInstance(mongoQuery, orderBy, maxResult, keys, documentName);
+        DBCursor cursor = getDBCursorInstance(mongoQuery, orderBy, maxResult, firstResult, batchSize, keys,
+                documentName);
 
         if (results != null && results.length > 0)
         {
@@ -355,15 +426,71 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
         return entities;
     }
 
+    /**
+     * Returns cursor over documents matching given query. Sort, skip, limit
+     * and batch size are all pushed to server, so that a sorted top-N query
+     * only transfers N documents.
+     * 
+     * @param mongoQuery
+     *            the mongo query
+     * @param orderBy
+     *            the order by, may be null
+     * @param maxResult
+     *            maximum number of results, 0 for no limit.
+     * @param firstResult
+     *            number of results to skip.
+     * @param batchSize
+     *            number of documents per batch, 0 for server default.
+     * @param keys
+     *            the projection
+     * @param documentName
+     *            the collection name
+     * @return the cursor
+     */
     public DBCursor getDBCursorInstance(BasicDBObject mongoQuery, BasicDBObject orderBy, int maxResult,
-            BasicDBObject keys, String documentName)
+            int firstResult, int batchSize, BasicDBObject keys, String documentName)
     {
         DBCollection dbCollection = mongoDb.getCollection(documentName);
-        DBCursor cursor = orderBy != null ? dbCollection.find(mongoQuery, keys).sort(orderBy) : dbCollection.find(
-                mongoQuery, keys).limit(maxResult);
+        DBCursor cursor = dbCollection.find(mongoQuery, keys);
+        if (orderBy != null && !orderBy.isEmpty())
+        {
+            cursor.sort(orderBy);
+        }
+        if (firstResult > 0)
+        {
+            cursor.skip(firstResult);
+        }
+        if (maxResult > 0)
+        {
+            cursor.limit(maxResult);
+        }
+        if (batchSize > 0)
+        {
+            cursor.batchSize(batchSize);
+        }
         return cursor;
     }
 
+    /**
+     * Runs given aggregation pipeline on collection of entity.
+     * 
+     * @param entityMetadata
+     *            the entity metadata
+     * @param pipeline
+     *            aggregation pipeline operators, at least one.
+     * @return aggregated documents.
+     */
+    public Iterable<DBObject> aggregate(EntityMetadata entityMetadata, List<DBObject> pipeline)
+    {
+        DBCollection dbCollection = mongoDb.getCollection(entityMetadata.getTableName());
+        log.debug("Aggregating " + entityMetadata.getTableName() + " with pipeline " + pipeline);
+
+        AggregationOutput output = dbCollection.aggregate(pipeline.get(0),
+                pipeline.subList(1, pipeline.size()).toArray(new DBObject[pipeline.size() - 1]));
+        output.getCommandResult().throwOnError();
+        return output.results();
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -408,6 +535,7 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
         // TODO Once pool is implemented this code should not be there.
         // Workaround for pool
         this.indexManager.flush();
+        writtenDocuments.clear();
         puProperties = null;
     }
 
@@ -530,12 +658,26 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
         return MongoDBQuery.class;
     }
 
+    @Override
+    public void persist(Node node)
+    {
+        this.node = node;
+        try
+        {
+            super.persist(node);
+        }
+        finally
+        {
+            this.node = null;
+        }
+    }
+
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
     {
-        Map<String, List<DBObject>> collections = new HashMap<String, List<DBObject>>();
-        collections = onPersist(collections, entity, id, entityMetadata, rlHolders, isUpdate);
-        onFlushCollection(collections);
+        Map<String, List<DBObject>> statements = new HashMap<String, List<DBObject>>();
+        onPersist(statements, entity, id, entityMetadata, rlHolders, isUpdate, node);
+        onFlushCollection(statements);
     }
 
     /*
@@ -590,57 +732,247 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
     @Override
     public int executeBatch()
     {
-        Map<String, List<DBObject>> collections = new HashMap<String, List<DBObject>>();
+        return flushBatch();
+    }
+
+    /**
+     * Writes all dirty nodes of batch, grouped per collection in order of
+     * nodes.
+     * 
+     * @return number of collections written to.
+     */
+    private int flushBatch()
+    {
+        Map<String, List<DBObject>> statements = new HashMap<String, List<DBObject>>();
         for (Node node : nodes)
         {
             if (node.isDirty())
             {
                 node.handlePreEvent();
-                // delete can not be executed in batch
                 if (node.isInState(RemovedState.class))
                 {
-                    delete(node.getData(), node.getEntityId());
+                    onDelete(statements, node);
                 }
                 else
                 {
 
                     List<RelationHolder> relationHolders = getRelationHolders(node);
                     EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
-                    collections = onPersist(collections, node.getData(), node.getEntityId(), metadata, relationHolders,
-                            node.isUpdate());
+                    onPersist(statements, node.getData(), node.getEntityId(), metadata, relationHolders,
+                            node.isUpdate(), node);
                     indexNode(node, metadata);
                 }
                 node.handlePostEvent();
             }
         }
 
-        if (!collections.isEmpty())
+        if (!statements.isEmpty())
         {
-            onFlushCollection(collections);
+            onFlushCollection(statements);
         }
-        return collections.size();
+        return statements.size();
     }
 
     /**
-     * On collections flush.
+     * Collects id of a removed node, so that consecutive removals of a
+     * collection are sent as a single $in query.
      * 
-     * @param collections
-     *            collection containing records to be inserted in mongo db.
+     * @param statements
+     *            statements to be executed, per collection.
+     * @param node
+     *            removed node.
      */
-    private void onFlushCollection(Map<String, List<DBObject>> collections)
+    private void onDelete(Map<String, List<DBObject>> statements, Node node)
     {
-        for (String tableName : collections.keySet())
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
+        Object pKey = node.getEntityId();
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+
+        Object id = null;
+        if (metaModel.isEmbeddable(metadata.getIdAttribute().getBindableJavaType()))
         {
-            DBCollection dbCollection = mongoDb.getCollection(tableName);
-            dbCollection.insert(collections.get(tableName).toArray(new DBObject[0]), getWriteConcern(), encoder);
+            BasicDBObject compoundKey = new BasicDBObject();
+            MongoDBUtils.populateCompoundKey(compoundKey, metadata, metaModel, pKey);
+            id = compoundKey.get("_id");
+        }
+        else
+        {
+            id = MongoDBUtils.populateValue(pKey, pKey.getClass());
+        }
+
+        addStatement(statements, metadata.getTableName(), new BasicDBObject(REMOVE, id));
+
+        writtenDocuments.remove(node);
+        getIndexManager().remove(metadata, node.getData(), pKey.toString());
+    }
+
+    /**
+     * On collections flush. Collections are independent of each other, so
+     * they are flushed concurrently when an executor is available.
+     * 
+     * @param statements
+     *            insert, update and remove statements to be executed in mongo
+     *            db, per collection.
+     */
+    private void onFlushCollection(final Map<String, List<DBObject>> statements)
+    {
+        // Encoders are not thread safe, so concurrent flush is only possible
+        // when a fresh one can be created per collection.
+        if (flushExecutor == null || statements.size() < 2 || !(encoder instanceof DefaultDBEncoder))
+        {
+            for (Map.Entry<String, List<DBObject>> entry : statements.entrySet())
+            {
+                flushCollection(entry.getKey(), entry.getValue(), encoder);
+            }
+            return;
+        }
+
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(statements.size());
+        for (final Map.Entry<String, List<DBObject>> entry : statements.entrySet())
+        {
+            futures.add(flushExecutor.submit(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    flushCollection(entry.getKey(), entry.getValue(), DefaultDBEncoder.FACTORY.create());
+                    return null;
+                }
+            }));
+        }
+
+        for (Future<Void> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (InterruptedException iex)
+            {
+                Thread.currentThread().interrupt();
+                throw new PersistenceException(iex);
+            }
+            catch (ExecutionException eex)
+            {
+                if (eex.getCause() instanceof RuntimeException)
+                {
+                    throw (RuntimeException) eex.getCause();
+                }
+                throw new PersistenceException(eex.getCause());
+            }
         }
     }
 
+    /**
+     * Flushes statements of a single collection in their order, so that e.g.
+     * an entity removed and persisted again ends up persisted. Consecutive
+     * inserts are sent as bulk inserts and consecutive removals as $in
+     * queries.
+     * 
+     * @param tableName
+     *            collection name.
+     * @param statements
+     *            insert, update and remove statements.
+     * @param encoder
+     *            encoder to use.
+     */
+    private void flushCollection(String tableName, List<DBObject> statements, DBEncoder encoder)
+    {
+        DBCollection dbCollection = mongoDb.getCollection(tableName);
+        List<DBObject> documents = new ArrayList<DBObject>();
+        List<Object> ids = new ArrayList<Object>();
+
+        for (DBObject statement : statements)
+        {
+            if (statement.containsField(INSERT))
+            {
+                remove(dbCollection, ids, encoder);
+                documents.add((DBObject) statement.get(INSERT));
+            }
+            else if (statement.containsField(REMOVE))
+            {
+                insert(dbCollection, documents, encoder);
+                ids.add(statement.get(REMOVE));
+            }
+            else
+            {
+                // Driver has no bulk update, so updates are sent one after
+                // another.
+                insert(dbCollection, documents, encoder);
+                remove(dbCollection, ids, encoder);
+                dbCollection.update((DBObject) statement.get(QUERY), (DBObject) statement.get(UPDATE),
+                        (Boolean) statement.get(UPSERT), false, getWriteConcern(), encoder);
+            }
+        }
+
+        insert(dbCollection, documents, encoder);
+        remove(dbCollection, ids, encoder);
+    }
+
+    /**
+     * Removes documents of given ids in chunks of at most bulk write size ids,
+     * then clears ids.
+     * 
+     * @param dbCollection
+     *            collection to remove from.
+     * @param ids
+     *            ids to remove.
+     * @param encoder
+     *            encoder to use.
+     */
+    private void remove(DBCollection dbCollection, List<Object> ids, DBEncoder encoder)
+    {
+        for (int i = 0; i < ids.size(); i += bulkWriteSize)
+        {
+            List<Object> chunk = ids.subList(i, Math.min(i + bulkWriteSize, ids.size()));
+            BasicDBObject query = new BasicDBObject("_id", new BasicDBObject("$in", new ArrayList<Object>(chunk)));
+            dbCollection.remove(query, getWriteConcern(), encoder);
+        }
+        ids.clear();
+    }
+
+    /**
+     * Inserts documents in chunks of at most bulk write size documents, then
+     * clears documents. Chunks are not bounded by BSON size here: driver
+     * encodes each chunk into insert messages and starts a new message once
+     * one exceeds twice the maximum BSON document size of server, so
+     * measuring documents here would encode each of them twice.
+     * 
+     * @param dbCollection
+     *            collection to insert into.
+     * @param documents
+     *            documents to insert.
+     * @param encoder
+     *            encoder to use.
+     */
+    private void insert(DBCollection dbCollection, List<DBObject> documents, DBEncoder encoder)
+    {
+        if (documents.isEmpty())
+        {
+            return;
+        }
+
+        WriteConcern concern = getWriteConcern();
+        if (!orderedInsert)
+        {
+            concern = (concern != null ? concern : dbCollection.getWriteConcern()).continueOnErrorForInsert(true);
+        }
+
+        for (int from = 0; from < documents.size(); from += bulkWriteSize)
+        {
+            List<DBObject> chunk = documents.subList(from, Math.min(from + bulkWriteSize, documents.size()));
+            dbCollection.insert(chunk.toArray(new DBObject[chunk.size()]), concern, encoder);
+        }
+        documents.clear();
+    }
+
     /**
      * Executes on list of entities to be persisted.
      * 
-     * @param collections
-     *            collection containing list of db objects.
+     * @param statements
+     *            insert and update statements, per collection.
      * @param entity
      *            entity in question.
      * @param id
@@ -651,10 +983,11 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
      *            relation holders.
      * @param isUpdate
      *            if it is an update
-     * @return collection of DB objects.
+     * @param node
+     *            node being persisted, may be null.
      */
-    private Map<String, List<DBObject>> onPersist(Map<String, List<DBObject>> collections, Object entity, Object id,
-            EntityMetadata metadata, List<RelationHolder> relationHolders, boolean isUpdate)
+    private void onPersist(Map<String, List<DBObject>> statements, Object entity, Object id,
+            EntityMetadata metadata, List<RelationHolder> relationHolders, boolean isUpdate, Node node)
     {
         persistenceUnit = metadata.getPersistenceUnit();
         String documentName = metadata.getTableName();
@@ -677,40 +1010,92 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
             {
                 query.put("_id", MongoDBUtils.populateValue(id, id.getClass()));
             }
-            DBCollection dbCollection = mongoDb.getCollection(documentName);
-            // dbCollection.findAndModify(query, document);
 
-            DBObject obj = dbCollection.findOne(query);
-            if (obj != null)
+            DBObject previous = getPreviousDocument(node, metadata);
+            DBObject update = null;
+            boolean upsert = false;
+            if (previous != null)
             {
-                obj.putAll(document);
-
-                dbCollection.save(obj);
+                // Only send changed fields.
+                update = DocumentUpdateBuilder.getUpdate(previous, document, metadata.getRelationNames());
             }
             else
             {
-                dbCollection.save(document);
+                // Nothing to compare with, set all fields and insert if
+                // missing.
+                update = DocumentUpdateBuilder.getUpdate(document);
+                update = update != null ? update : document;
+                upsert = true;
+            }
+
+            if (update != null)
+            {
+                DBObject statement = new BasicDBObject(QUERY, query);
+                statement.put(UPDATE, update);
+                statement.put(UPSERT, upsert);
+                addStatement(statements, documentName, statement);
             }
         }
         else
         {
             // a db collection can have multiple records..
             // and we can have a collection of records as well.
-            List<DBObject> dbStatements = null;
-            if (collections.containsKey(documentName))
-            {
-                dbStatements = collections.get(documentName);
-                dbStatements.add(document);
-            }
-            else
-            {
-                dbStatements = new ArrayList<DBObject>();
-                dbStatements.add(document);
-                collections.put(documentName, dbStatements);
-            }
+            addStatement(statements, documentName, new BasicDBObject(INSERT, document));
+        }
+
+        if (node != null)
+        {
+            // Replace key too, an equal node of an earlier persistence
+            // context may still be held.
+            writtenDocuments.remove(node);
+            writtenDocuments.put(node, new WrittenDocument(node, document));
+        }
+    }
+
+    /**
+     * Adds statement to list of statements of given collection.
+     */
+    private void addStatement(Map<String, List<DBObject>> statements, String documentName, DBObject statement)
+    {
+        List<DBObject> dbStatements = statements.get(documentName);
+        if (dbStatements == null)
+        {
+            dbStatements = new ArrayList<DBObject>();
+            statements.put(documentName, dbStatements);
+        }
+        dbStatements.add(statement);
+    }
+
+    /**
+     * Returns document as last written (or read) for given node, to compute
+     * changed fields against. Document written by this client is used as long
+     * as node's snapshot has not been refreshed since, else one is built out
+     * of node's snapshot.
+     * 
+     * @param node
+     *            node being persisted.
+     * @param metadata
+     *            entity metadata.
+     * @return previous document or null if not known.
+     */
+    private DBObject getPreviousDocument(Node node, EntityMetadata metadata)
+    {
+        if (node == null)
+        {
+            return null;
         }
 
-        return collections;
+        Node originalNode = node.getOriginalNode();
+        WrittenDocument written = writtenDocuments.get(node);
+        if (written != null && !written.isStale(node))
+        {
+            return written.document;
+        }
+        else if (originalNode != null && originalNode.getData() != null)
+        {
+            return handler.getDocumentFromEntity(new BasicDBObject(), metadata, originalNode.getData(), null);
+        }
+        return null;
     }
 
     /**
@@ -720,7 +1105,7 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
     {
         if (batchSize > 0 && batchSize == nodes.size())
         {
-            executeBatch();
+            flushBatch();
             nodes.clear();
         }
     }
@@ -805,6 +1190,29 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
         this.batchSize = batchSize;
     }
 
+    /**
+     * @param bulkWriteSize
+     *            maximum number of documents sent in one insert or remove.
+     */
+    public void setBulkWriteSize(int bulkWriteSize)
+    {
+        if (bulkWriteSize <= 0)
+        {
+            throw new IllegalArgumentException("bulk.write.size must be > 0");
+        }
+        this.bulkWriteSize = bulkWriteSize;
+    }
+
+    /**
+     * @param orderedInsert
+     *            false to continue inserting remaining documents of a batch
+     *            when one of them fails.
+     */
+    public void setOrderedInsert(boolean orderedInsert)
+    {
+        this.orderedInsert = orderedInsert;
+    }
+
     /**
      * @param persistenceUnit
      * @param puProperties
@@ -848,4 +1256,32 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
         Object result = mongoDb.eval(script);
         return result;
     }
+
+    /**
+     * Document written for a node, along with node's snapshot at that time.
+     */
+    private static final class WrittenDocument
+    {
+        /**
+         * Snapshot of node when written, weakly held as it refers back to
+         * node.
+         */
+        private final WeakReference<Node> originalNode;
+
+        private final DBObject document;
+
+        private WrittenDocument(Node node, DBObject document)
+        {
+            this.originalNode = new WeakReference<Node>(node.getOriginalNode());
+            this.document = document;
+        }
+
+        /**
+         * @return true if node's snapshot has been refreshed since written.
+         */
+        private boolean isStale(Node node)
+        {
+            return node.getOriginalNode() != originalNode.get();
+        }
+    }
 }
@@ -20,6 +20,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.SocketFactory;
 
@@ -60,12 +64,17 @@ public class MongoDBClientFactory extends GenericClientFactory
     /** The mongo db. */
     private DB mongoDB;
 
+    /** Executor shared by clients to flush collections concurrently. */
+    private ExecutorService flushExecutor;
+
     @Override
     public void initialize(Map<String, Object> externalProperty)
     {
         reader = new MongoEntityReader();
         initializePropertyReader();
         setExternalProperties(externalProperty);
+        flushExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new FlushThreadFactory());
     }
 
     @Override
@@ -78,7 +87,8 @@ public class MongoDBClientFactory extends GenericClientFactory
     @Override
     protected Client instantiateClient(String persistenceUnit)
     {
-        return new MongoDBClient(mongoDB, indexManager, reader, persistenceUnit, externalProperties, clientMetadata);
+        return new MongoDBClient(mongoDB, indexManager, reader, persistenceUnit, externalProperties, clientMetadata,
+                flushExecutor);
     }
 
     /**
@@ -234,10 +244,32 @@ public class MongoDBClientFactory extends GenericClientFactory
         {
             logger.warn("Can't close connection to MONGODB, it was already disconnected");
         }
+        if (flushExecutor != null)
+        {
+            flushExecutor.shutdown();
+            flushExecutor = null;
+        }
         externalProperties = null;
         schemaManager = null;
     }
 
+    /**
+     * Creates daemon threads for flushing collections, so that an unclosed
+     * factory does not prevent JVM shutdown.
+     */
+    private static class FlushThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread thread = new Thread(r, "kundera-mongo-flush-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     @Override
     public SchemaManager getSchemaManager(Map<String, Object> externalProperty)
     {
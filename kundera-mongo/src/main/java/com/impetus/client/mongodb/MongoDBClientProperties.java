@@ -43,6 +43,12 @@ public class MongoDBClientProperties
 
     public static final String BATCH_SIZE = "batch.size";
 
+    /** Maximum number of documents per bulk insert or remove. */
+    public static final String BULK_WRITE_SIZE = "bulk.write.size";
+
+    /** Whether bulk insert stops at first failing document. */
+    public static final String ORDERED_INSERT = "ordered.insert";
+
     public void populateClientProperties(Client client, Map<String, Object> properties)
     {
         MongoDBClient mongoDBClient = (MongoDBClient) client;
@@ -66,6 +72,14 @@ public class MongoDBClientProperties
                     Integer batchSize = (Integer) value;
                     mongoDBClient.setBatchSize(batchSize);
                 }
+                else if (key.equals(BULK_WRITE_SIZE) && value instanceof Integer)
+                {
+                    mongoDBClient.setBulkWriteSize((Integer) value);
+                }
+                else if (key.equals(ORDERED_INSERT) && value instanceof Boolean)
+                {
+                    mongoDBClient.setOrderedInsert((Boolean) value);
+                }
 
                 // Add more properties as needed
             }
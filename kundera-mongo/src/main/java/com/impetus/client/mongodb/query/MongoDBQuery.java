@@ -19,6 +19,7 @@ import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.Iterator;
@@ -51,12 +52,14 @@ import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.PersistenceDelegator;
 import com.impetus.kundera.property.PropertyAccessorFactory;
 import com.impetus.kundera.query.KunderaQuery;
+import com.impetus.kundera.query.KunderaQuery.Aggregation;
 import com.impetus.kundera.query.KunderaQuery.FilterClause;
 import com.impetus.kundera.query.KunderaQuery.SortOrder;
 import com.impetus.kundera.query.KunderaQuery.SortOrdering;
 import com.impetus.kundera.query.QueryHandlerException;
 import com.impetus.kundera.query.QueryImpl;
 import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
 
 /**
  * Query class for MongoDB data store.
@@ -70,6 +73,15 @@ public class MongoDBQuery extends QueryImpl
 
     private boolean isSingleResult;
 
+    /** Number of results to skip. */
+    private int firstResult;
+
+    /** Prefix of group key fields in $group output. */
+    private static final String GROUP_KEY = "g";
+
+    /** Prefix of result fields in $project output. */
+    private static final String RESULT_KEY = "c";
+
     /**
      * Instantiates a new mongo db query.
      * 
@@ -110,6 +122,29 @@ public class MongoDBQuery extends QueryImpl
         return super.setMaxResults(maxResult);
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#setFirstResult(int)
+     */
+    @Override
+    public Query setFirstResult(int startPosition)
+    {
+        this.firstResult = startPosition;
+        return this;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#getFirstResult()
+     */
+    @Override
+    public int getFirstResult()
+    {
+        return firstResult;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -128,9 +163,14 @@ public class MongoDBQuery extends QueryImpl
             {
                 throw new UnsupportedOperationException("Native query support is not enabled in mongoDB");
             }
-            BasicDBObject orderByClause = getOrderByClause();
-            return ((MongoDBClient) client).loadData(m, createMongoQuery(m, getKunderaQuery().getFilterClauseQueue()),
-                    null, orderByClause, isSingleResult ? 1 : maxResult, getKeys(m, getKunderaQuery().getResult()),
+            if (getKunderaQuery().isAggregated())
+            {
+                return aggregate(m, (MongoDBClient) client);
+            }
+            BasicDBObject orderByClause = getOrderByClause(m);
+            BasicDBObject mongoQuery = createMongoQuery(m, getKunderaQuery().getFilterClauseQueue());
+            return ((MongoDBClient) client).loadData(m, mongoQuery, null, orderByClause, isSingleResult ? 1
+                    : maxResult, firstResult, getBatchSize(), getKeys(m, getKunderaQuery().getResult()),
                     getKunderaQuery().getResult());
         }
         catch (Exception e)
@@ -164,9 +204,14 @@ public class MongoDBQuery extends QueryImpl
             {
                 throw new UnsupportedOperationException("Native query support is not enabled in mongoDB");
             }
-            BasicDBObject orderByClause = getOrderByClause();
-            ls = ((MongoDBClient) client).loadData(m, createMongoQuery(m, getKunderaQuery().getFilterClauseQueue()),
-                    m.getRelationNames(), orderByClause, isSingleResult ? 1 : maxResult,
+            if (getKunderaQuery().isAggregated())
+            {
+                return aggregate(m, (MongoDBClient) client);
+            }
+            BasicDBObject orderByClause = getOrderByClause(m);
+            BasicDBObject mongoQuery = createMongoQuery(m, getKunderaQuery().getFilterClauseQueue());
+            ls = ((MongoDBClient) client).loadData(m, mongoQuery, m.getRelationNames(), orderByClause,
+                    isSingleResult ? 1 : maxResult, firstResult, getBatchSize(),
                     getKeys(m, getKunderaQuery().getResult()), getKunderaQuery().getResult());
         }
         catch (Exception e)
@@ -399,6 +444,240 @@ public class MongoDBQuery extends QueryImpl
         return query;
     }
 
+    /**
+     * Translates aggregate query into an aggregation pipeline ($match, $group,
+     * $project, $sort and $limit) and runs it. Each row is returned as scalar
+     * value in case of single result column, else as Object[].
+     * 
+     * @param m
+     *            the entity metadata
+     * @param client
+     *            the client
+     * @return list of rows.
+     */
+    private List<Object> aggregate(EntityMetadata m, MongoDBClient client)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        EntityType entityType = metaModel.entity(m.getEntityClazz());
+        String[] columns = getKunderaQuery().getResult();
+        String[] grouping = getKunderaQuery().getGrouping();
+
+        List<DBObject> pipeline = new ArrayList<DBObject>();
+        BasicDBObject match = createMongoQuery(m, getKunderaQuery().getFilterClauseQueue());
+        if (!match.isEmpty())
+        {
+            pipeline.add(new BasicDBObject("$match", match));
+        }
+
+        BasicDBObject groupKey = null;
+        if (grouping != null)
+        {
+            groupKey = new BasicDBObject();
+            for (int i = 0; i < grouping.length; i++)
+            {
+                groupKey.put(GROUP_KEY + i, "$" + getColumnName(m, entityType, grouping[i]));
+            }
+        }
+        BasicDBObject group = new BasicDBObject("_id", groupKey);
+        BasicDBObject project = new BasicDBObject("_id", 0);
+
+        List<String> resultColumns = new ArrayList<String>();
+        for (int i = 1; columns != null && i < columns.length; i++)
+        {
+            if (columns[i] == null)
+            {
+                continue;
+            }
+            String field = RESULT_KEY + resultColumns.size();
+            Aggregation aggregation = KunderaQuery.getAggregation(columns[i]);
+            if (aggregation != null)
+            {
+                group.put(field, getAccumulator(m, entityType, aggregation));
+                project.put(field, 1);
+            }
+            else
+            {
+                int index = grouping != null ? Arrays.asList(grouping).indexOf(columns[i]) : -1;
+                if (index < 0)
+                {
+                    throw new QueryHandlerException("Column " + columns[i]
+                            + " must either be aggregated or be part of GROUP BY clause in query: " + getJPAQuery());
+                }
+                project.put(field, "$_id." + GROUP_KEY + index);
+            }
+            resultColumns.add(columns[i]);
+        }
+
+        if (resultColumns.isEmpty())
+        {
+            throw new QueryHandlerException("Aggregate query must select aggregates or grouped columns: "
+                    + getJPAQuery());
+        }
+
+        pipeline.add(new BasicDBObject("$group", group));
+        pipeline.add(new BasicDBObject("$project", project));
+        BasicDBObject orderBy = getAggregateOrderByClause(resultColumns);
+        if (orderBy != null)
+        {
+            pipeline.add(new BasicDBObject("$sort", orderBy));
+        }
+        if (firstResult > 0)
+        {
+            pipeline.add(new BasicDBObject("$skip", firstResult));
+        }
+        pipeline.add(new BasicDBObject("$limit", isSingleResult ? 1 : maxResult));
+
+        List<Object> results = new ArrayList<Object>();
+        for (DBObject row : client.aggregate(m, pipeline))
+        {
+            Object[] values = new Object[resultColumns.size()];
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] = getAggregateValue(entityType, resultColumns.get(i), row.get(RESULT_KEY + i));
+            }
+            results.add(values.length == 1 ? values[0] : values);
+        }
+        return results;
+    }
+
+    /**
+     * Returns $group accumulator for given aggregation.
+     */
+    private DBObject getAccumulator(EntityMetadata m, EntityType entityType, Aggregation aggregation)
+    {
+        String function = aggregation.getFunction();
+        if (aggregation.getProperty() == null)
+        {
+            if (!"COUNT".equals(function))
+            {
+                throw new QueryHandlerException(function + " requires a column in query: " + getJPAQuery());
+            }
+            return new BasicDBObject("$sum", 1);
+        }
+
+        String field = "$" + getColumnName(m, entityType, aggregation.getProperty());
+        if ("COUNT".equals(function))
+        {
+            // count only documents having a value for field.
+            DBObject isNull = new BasicDBObject("$eq", Arrays.asList(
+                    new BasicDBObject("$ifNull", Arrays.asList(field, null)), null));
+            return new BasicDBObject("$sum", new BasicDBObject("$cond", Arrays.asList(isNull, 0, 1)));
+        }
+        return new BasicDBObject("$" + function.toLowerCase(), field);
+    }
+
+    /**
+     * Converts aggregated value to JPA result type, i.e. Long for COUNT,
+     * Double for AVG, Long or Double for SUM and column type otherwise.
+     */
+    private Object getAggregateValue(EntityType entityType, String column, Object value)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+
+        Aggregation aggregation = KunderaQuery.getAggregation(column);
+        String function = aggregation != null ? aggregation.getFunction() : null;
+        if ("COUNT".equals(function))
+        {
+            return ((Number) value).longValue();
+        }
+        else if ("AVG".equals(function))
+        {
+            return ((Number) value).doubleValue();
+        }
+        else if ("SUM".equals(function))
+        {
+            return value instanceof Integer || value instanceof Long ? ((Number) value).longValue()
+                    : ((Number) value).doubleValue();
+        }
+
+        String property = aggregation != null ? aggregation.getProperty() : column;
+        Attribute attribute = property.indexOf(".") < 0 ? entityType.getAttribute(property) : null;
+        if (attribute != null && !attribute.getJavaType().isEnum())
+        {
+            return MongoDBUtils.getTranslatedObject(value, value.getClass(), attribute.getJavaType());
+        }
+        return value;
+    }
+
+    /**
+     * Returns document field name for given entity property.
+     */
+    private String getColumnName(EntityMetadata m, EntityType entityType, String property)
+    {
+        if (m.getIdAttribute().getName().equals(property))
+        {
+            return "_id";
+        }
+        else if (property.indexOf(".") > 0)
+        {
+            // path within an embedded document.
+            return property;
+        }
+        Attribute attribute = entityType.getAttribute(property);
+        if (attribute == null)
+        {
+            throw new QueryHandlerException("column type is null for: " + property);
+        }
+        return ((AbstractAttribute) attribute).getJPAColumnName();
+    }
+
+    /**
+     * Prepare $sort stage of an aggregation over projected result columns.
+     * 
+     * @param resultColumns
+     *            result columns.
+     * @return sort document or null if there is no order by clause.
+     */
+    private BasicDBObject getAggregateOrderByClause(List<String> resultColumns)
+    {
+        List<SortOrdering> orders = kunderaQuery.getOrdering();
+        if (orders == null)
+        {
+            return null;
+        }
+
+        BasicDBObject orderByClause = new BasicDBObject();
+        for (SortOrdering order : orders)
+        {
+            String column = order.getColumnName();
+            Aggregation aggregation = KunderaQuery.getAggregation(column);
+            if (aggregation != null)
+            {
+                // e.g. count(p.age) to COUNT(age), as kept in result.
+                String property = aggregation.getProperty();
+                int index = property != null ? property.indexOf(".") : -1;
+                column = aggregation.getFunction() + "(" + (index > 0 ? property.substring(index + 1) : "") + ")";
+            }
+            else if (column.indexOf(".") > 0)
+            {
+                column = column.substring(column.indexOf(".") + 1);
+            }
+
+            int index = resultColumns.indexOf(column);
+            if (index < 0)
+            {
+                throw new QueryHandlerException("Order by column " + order.getColumnName()
+                        + " must be part of result in query: " + getJPAQuery());
+            }
+            orderByClause.append(RESULT_KEY + index, SortOrder.ASC.equals(order.getOrder()) ? 1 : -1);
+        }
+        return orderByClause;
+    }
+
+    /**
+     * Returns projection for selected columns. _id is always kept, as every
+     * document is read back into an entity keyed by it.
+     * 
+     * @param m
+     *            the entity metadata
+     * @param columns
+     *            selected columns
+     * @return projection keys, empty to fetch whole document.
+     */
     private BasicDBObject getKeys(EntityMetadata m, String[] columns)
     {
         BasicDBObject keys = new BasicDBObject();
@@ -416,29 +695,46 @@ public class MongoDBQuery extends QueryImpl
                     {
                         throw new QueryHandlerException("column type is null for: " + columns);
                     }
-                    keys.put(((AbstractAttribute) col).getJPAColumnName(), 1);
+                    keys.put(col.equals(m.getIdAttribute()) ? "_id" : ((AbstractAttribute) col).getJPAColumnName(), 1);
                 }
             }
         }
         return keys;
     }
 
+    /**
+     * Returns cursor batch size as per fetch size set on query.
+     */
+    private int getBatchSize()
+    {
+        return getFetchSize() != null ? getFetchSize() : 0;
+    }
+
     /**
      * Prepare order by clause.
      * 
+     * @param m
+     *            the entity metadata
      * @return order by clause.
      */
-    private BasicDBObject getOrderByClause()
+    private BasicDBObject getOrderByClause(EntityMetadata m)
     {
         BasicDBObject orderByClause = null;
 
         List<SortOrdering> orders = kunderaQuery.getOrdering();
         if (orders != null)
         {
+            MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                    m.getPersistenceUnit());
+            EntityType entityType = metaModel.entity(m.getEntityClazz());
             orderByClause = new BasicDBObject();
             for (SortOrdering order : orders)
             {
-                orderByClause.append(order.getColumnName(), order.getColumnName().equals(SortOrder.ASC) ? 1 : -1);
+                // strip entity alias, if any.
+                String property = order.getColumnName();
+                property = property.indexOf(".") > 0 ? property.substring(property.indexOf(".") + 1) : property;
+                orderByClause.append(getColumnName(m, entityType, property),
+                        SortOrder.ASC.equals(order.getOrder()) ? 1 : -1);
             }
         }
 
@@ -495,8 +791,9 @@ public class MongoDBQuery extends QueryImpl
     {
         EntityMetadata m = getEntityMetadata();
         Client client = persistenceDelegeator.getClient(m);
-        return new ResultIterator((MongoDBClient) client, m, createMongoQuery(m, getKunderaQuery()
-                .getFilterClauseQueue()), getOrderByClause(), getKeys(m, getKunderaQuery().getResult()),persistenceDelegeator,
-                getFetchSize() != null ? getFetchSize() : this.maxResult);
+        BasicDBObject mongoQuery = createMongoQuery(m, getKunderaQuery().getFilterClauseQueue());
+        return new ResultIterator((MongoDBClient) client, m, mongoQuery, getOrderByClause(m), getKeys(m,
+                getKunderaQuery().getResult()), persistenceDelegeator, maxResult, firstResult,
+                getBatchSize());
     }
 }
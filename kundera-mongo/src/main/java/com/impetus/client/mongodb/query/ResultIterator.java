@@ -46,28 +46,36 @@ class ResultIterator<E> implements IResultIterator<E>
 
     private MongoDBClient client;
 
-    private int fetchSize;
-
     private MongoDBDataHandler handler;
 
     private PersistenceDelegator persistenceDelegator;
 
+    /**
+     * @param maxResult
+     *            maximum number of results, 0 for no limit.
+     * @param firstResult
+     *            number of results to skip.
+     * @param batchSize
+     *            number of documents per batch, 0 for server default.
+     */
     public ResultIterator(MongoDBClient client, EntityMetadata m, BasicDBObject basicDBObject,
-            BasicDBObject orderByClause, BasicDBObject keys, PersistenceDelegator pd, int fetchSize)
+            BasicDBObject orderByClause, BasicDBObject keys, PersistenceDelegator pd, int maxResult,
+            int firstResult, int batchSize)
     {
         this.m = m;
         this.client = client;
-        this.fetchSize = fetchSize;
         this.persistenceDelegator = pd;
         this.handler = new MongoDBDataHandler();
-        onQuery(orderByClause, basicDBObject, keys);
+        onQuery(orderByClause, basicDBObject, keys, maxResult, firstResult, batchSize);
     }
 
-    private void onQuery(BasicDBObject orderByClause, BasicDBObject mongoQuery, BasicDBObject keys)
+    private void onQuery(BasicDBObject orderByClause, BasicDBObject mongoQuery, BasicDBObject keys, int maxResult,
+            int firstResult, int batchSize)
     {
         try
         {
-            cursor = client.getDBCursorInstance(mongoQuery, orderByClause, fetchSize, keys, m.getTableName());
+            cursor = client.getDBCursorInstance(mongoQuery, orderByClause, maxResult, firstResult, batchSize, keys,
+                    m.getTableName());
         }
         catch (Exception e)
         {
@@ -78,23 +86,18 @@ class ResultIterator<E> implements IResultIterator<E>
     @Override
     public boolean hasNext()
     {
-        if (cursor != null && fetchSize != 0)
-        {
-            return cursor.hasNext();
-        }
-        return false;
+        return cursor != null && cursor.hasNext();
     }
 
     @Override
     public E next()
     {
-        if (!cursor.hasNext() || fetchSize == 0)
+        if (!hasNext())
         {
             throw new NoSuchElementException("Nothing to scroll further for:" + m.getEntityClazz());
         }
-        if (cursor.hasNext())
+        else
         {
-            fetchSize--;
             DBObject document = cursor.next();
             E entityFromDocument = (E) handler.getEntityFromDocument(m.getEntityClazz(), m, document,
                     m.getRelationNames());
@@ -109,7 +112,6 @@ class ResultIterator<E> implements IResultIterator<E>
                 return setRelationEntities(ls.get(0), client, m);
             }
         }
-        return null;
     }
 
     @Override
@@ -121,7 +123,12 @@ class ResultIterator<E> implements IResultIterator<E>
     @Override
     public List<E> next(int chunkSize)
     {
-        throw new UnsupportedOperationException("fetch in chunks is not yet supported");
+        List<E> results = new ArrayList<E>(chunkSize);
+        while (results.size() < chunkSize && hasNext())
+        {
+            results.add(next());
+        }
+        return results;
     }
 
     private E setRelationEntities(Object enhanceEntity, Client client, EntityMetadata m)
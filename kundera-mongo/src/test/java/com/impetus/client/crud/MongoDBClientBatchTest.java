@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.crud;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.mongodb.MongoDBClient;
+import com.impetus.client.utils.MongoUtils;
+import com.impetus.kundera.client.Client;
+import com.impetus.kundera.graph.Node;
+import com.impetus.kundera.graph.ObjectGraphUtils;
+import com.impetus.kundera.lifecycle.states.ManagedState;
+import com.impetus.kundera.lifecycle.states.NodeState;
+import com.impetus.kundera.lifecycle.states.RemovedState;
+import com.impetus.kundera.persistence.context.PersistenceCache;
+
+/**
+ * Batch flush of {@link MongoDBClient}: order of statements, bulk write
+ * chunks and inserts beyond maximum message size.
+ * 
+ * @author impetus
+ */
+public class MongoDBClientBatchTest
+{
+
+    /**
+     * persistence unit.
+     */
+    private static final String PERSISTENCE_UNIT = "MongoBatchTest";
+
+    /** The emf. */
+    private EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    private MongoDBClient client;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT);
+        em = emf.createEntityManager();
+        client = getClient(em);
+    }
+
+    /**
+     * Entity removed and persisted again within one batch must end up
+     * persisted, and the other way round removed.
+     */
+    @Test
+    public void testStatementsInNodeOrder()
+    {
+        em.persist(prepareData("1", "vivek"));
+        em.flush();
+        em.clear();
+
+        addBatch(prepareData("1", "vivek"), new RemovedState());
+        addBatch(prepareData("1", "kuldeep"), new ManagedState());
+        addBatch(prepareData("2", "amresh"), new ManagedState());
+        addBatch(prepareData("2", "amresh"), new RemovedState());
+        client.executeBatch();
+        client.clear();
+
+        PersonBatchMongoEntity found = em.find(PersonBatchMongoEntity.class, "1");
+        Assert.assertNotNull(found);
+        Assert.assertEquals("kuldeep", found.getPersonName());
+        Assert.assertNull(em.find(PersonBatchMongoEntity.class, "2"));
+    }
+
+    /**
+     * Inserts and removes more documents than bulk write size.
+     */
+    @Test
+    public void testBulkWriteSize()
+    {
+        client.setBatchSize(100);
+        client.setBulkWriteSize(3);
+        for (int i = 1; i <= 10; i++)
+        {
+            addBatch(prepareData(i + "", "vivek" + i), new ManagedState());
+        }
+        client.executeBatch();
+        client.clear();
+        Assert.assertEquals(10, findAll().size());
+
+        for (int i = 1; i <= 10; i++)
+        {
+            addBatch(prepareData(i + "", "vivek" + i), new RemovedState());
+        }
+        client.executeBatch();
+        client.clear();
+        Assert.assertTrue(findAll().isEmpty());
+    }
+
+    /**
+     * Inserts one batch of documents adding up to more than twice the maximum
+     * BSON document size, driver must split it into several messages.
+     */
+    @Test
+    public void testInsertBeyondMessageSize()
+    {
+        int count = 40;
+        client.setBatchSize(count + 1);
+        for (int i = 1; i <= count; i++)
+        {
+            PersonBatchMongoEntity person = prepareData(i + "", "vivek" + i);
+            person.setA(new byte[1024 * 1024]);
+            addBatch(person, new ManagedState());
+        }
+        client.executeBatch();
+        client.clear();
+
+        em.clear();
+        Assert.assertEquals(count, findAll().size());
+    }
+
+    /**
+     * Writes more entities than bulk write size outside a transaction, each
+     * changed and changed back. Written documents are kept as long as their
+     * nodes are in persistence context, and released along with it.
+     */
+    @Test
+    public void testWrittenDocumentsOutsideTransaction() throws Exception
+    {
+        int count = 10;
+        client.setBatchSize(0);
+        client.setBulkWriteSize(3);
+        for (int i = 1; i <= count; i++)
+        {
+            em.persist(prepareData(i + "", "vivek" + i));
+        }
+        for (int i = 1; i <= count; i++)
+        {
+            PersonBatchMongoEntity person = em.find(PersonBatchMongoEntity.class, i + "");
+            person.setPersonName("kuldeep");
+            em.merge(person);
+            person.setPersonName("vivek" + i);
+            em.merge(person);
+        }
+        Assert.assertEquals(count, getWrittenDocuments(client).size());
+
+        em.clear();
+        for (int i = 0; i < 50 && !getWrittenDocuments(client).isEmpty(); i++)
+        {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Assert.assertTrue(getWrittenDocuments(client).isEmpty());
+
+        for (int i = 1; i <= count; i++)
+        {
+            Assert.assertEquals("vivek" + i, em.find(PersonBatchMongoEntity.class, i + "").getPersonName());
+        }
+    }
+
+    /**
+     * Clients of a factory share one flush executor.
+     */
+    @Test
+    public void testSharedFlushExecutor() throws Exception
+    {
+        EntityManager other = emf.createEntityManager();
+        try
+        {
+            Object executor = getFlushExecutor(client);
+            Assert.assertNotNull(executor);
+            Assert.assertSame(executor, getFlushExecutor(getClient(other)));
+        }
+        finally
+        {
+            other.close();
+        }
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception
+    {
+        MongoUtils.dropDatabase(emf, PERSISTENCE_UNIT);
+        em.close();
+        emf.close();
+    }
+
+    private MongoDBClient getClient(EntityManager em)
+    {
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        return (MongoDBClient) clients.get(PERSISTENCE_UNIT);
+    }
+
+    private Object getFlushExecutor(MongoDBClient client) throws Exception
+    {
+        return getField(client, "flushExecutor");
+    }
+
+    private Map<?, ?> getWrittenDocuments(MongoDBClient client) throws Exception
+    {
+        return (Map<?, ?>) getField(client, "writtenDocuments");
+    }
+
+    private Object getField(MongoDBClient client, String name) throws Exception
+    {
+        Field f = MongoDBClient.class.getDeclaredField(name);
+        if (!f.isAccessible())
+        {
+            f.setAccessible(true);
+        }
+        return f.get(client);
+    }
+
+    private void addBatch(PersonBatchMongoEntity entity, NodeState state)
+    {
+        Node node = new Node(ObjectGraphUtils.getNodeId(entity.getPersonId(), PersonBatchMongoEntity.class),
+                PersonBatchMongoEntity.class, state, new PersistenceCache(), entity.getPersonId());
+        node.setData(entity);
+        node.setDirty(true);
+        client.addBatch(node);
+    }
+
+    private List<PersonBatchMongoEntity> findAll()
+    {
+        em.clear();
+        return em.createQuery("Select p from PersonBatchMongoEntity p").getResultList();
+    }
+
+    private PersonBatchMongoEntity prepareData(String id, String name)
+    {
+        PersonBatchMongoEntity o = new PersonBatchMongoEntity();
+        o.setPersonId(id);
+        o.setPersonName(name);
+        o.setAge(10);
+        return o;
+    }
+}
@@ -255,6 +255,70 @@ public class PersonMongoTest extends BaseTest
         assertOnMerge(em, "PersonMongo", PersonMongo.class, "vivek", "newvivek", "personName");
     }
 
+    /**
+     * On sorted query with limit and skip.
+     */
+    @Test
+    public void onSortedPagedQuery() throws Exception
+    {
+        Object p1 = prepareMongoInstance("1", 10);
+        Object p2 = prepareMongoInstance("2", 20);
+        Object p3 = prepareMongoInstance("3", 15);
+        em.persist(p1);
+        em.persist(p2);
+        em.persist(p3);
+        col.put("1", p1);
+        col.put("2", p2);
+        col.put("3", p3);
+
+        Query query = em.createQuery("Select p from PersonMongo p order by p.age DESC");
+        query.setMaxResults(2);
+        List<PersonMongo> results = query.getResultList();
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals(Integer.valueOf(20), results.get(0).getAge());
+        Assert.assertEquals(Integer.valueOf(15), results.get(1).getAge());
+
+        query = em.createQuery("Select p from PersonMongo p order by p.age ASC");
+        query.setFirstResult(1);
+        query.setMaxResults(1);
+        ((com.impetus.kundera.query.Query) query).setFetchSize(1);
+        results = query.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("3", results.get(0).getPersonId());
+    }
+
+    /**
+     * On aggregate query.
+     */
+    @Test
+    public void onAggregateQuery() throws Exception
+    {
+        Object p1 = prepareMongoInstance("1", 10);
+        Object p2 = prepareMongoInstance("2", 20);
+        Object p3 = prepareMongoInstance("3", 15);
+        em.persist(p1);
+        em.persist(p2);
+        em.persist(p3);
+        col.put("1", p1);
+        col.put("2", p2);
+        col.put("3", p3);
+
+        Query query = em.createQuery("Select count(p) from PersonMongo p where p.age > 10");
+        Assert.assertEquals(2L, query.getSingleResult());
+
+        query = em.createQuery("Select sum(p.age), avg(p.age), max(p.age) from PersonMongo p");
+        Object[] row = (Object[]) query.getSingleResult();
+        Assert.assertEquals(45L, row[0]);
+        Assert.assertEquals(15.0, row[1]);
+        Assert.assertEquals(20, row[2]);
+
+        query = em.createQuery("Select p.personName, count(p) from PersonMongo p group by p.personName order by p.personName");
+        List<Object[]> rows = query.getResultList();
+        Assert.assertEquals(1, rows.size());
+        Assert.assertEquals("vivek", rows.get(0)[0]);
+        Assert.assertEquals(3L, rows.get(0)[1]);
+    }
+
     /**
      * Tear down.
      * 
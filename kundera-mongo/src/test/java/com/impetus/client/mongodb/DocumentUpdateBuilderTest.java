@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.mongodb;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Test case for {@link DocumentUpdateBuilder}.
+ *
+ * @author impetus
+ */
+public class DocumentUpdateBuilderTest
+{
+    @Test
+    public void testNoChange()
+    {
+        DBObject original = newDocument();
+        Assert.assertNull(DocumentUpdateBuilder.getUpdate(original, newDocument(), null));
+    }
+
+    @Test
+    public void testSetAndUnset()
+    {
+        DBObject original = newDocument();
+        DBObject document = newDocument();
+        document.put("status", "INACTIVE");
+        document.put("age", 33);
+        document.removeField("city");
+        document.removeField("address_id");
+
+        DBObject update = DocumentUpdateBuilder.getUpdate(original, document, Arrays.asList("address_id"));
+
+        DBObject set = (DBObject) update.get(DocumentUpdateBuilder.SET);
+        Assert.assertEquals(2, set.keySet().size());
+        Assert.assertEquals("INACTIVE", set.get("status"));
+        Assert.assertEquals(33, set.get("age"));
+
+        DBObject unset = (DBObject) update.get(DocumentUpdateBuilder.UNSET);
+        Assert.assertEquals(1, unset.keySet().size());
+        Assert.assertTrue(unset.containsField("city"));
+        Assert.assertNull(update.get(DocumentUpdateBuilder.PUSH));
+    }
+
+    @Test
+    public void testPushAppendedElements()
+    {
+        DBObject original = newDocument();
+        DBObject document = newDocument();
+        ((BasicDBList) document.get("tags")).add("c");
+        ((BasicDBList) document.get("tags")).add("d");
+
+        DBObject update = DocumentUpdateBuilder.getUpdate(original, document, null);
+
+        Assert.assertNull(update.get(DocumentUpdateBuilder.SET));
+        DBObject push = (DBObject) update.get(DocumentUpdateBuilder.PUSH);
+        BasicDBList each = (BasicDBList) ((DBObject) push.get("tags")).get(DocumentUpdateBuilder.EACH);
+        Assert.assertEquals(Arrays.asList("c", "d"), each);
+    }
+
+    @Test
+    public void testReplacedElementsAreSet()
+    {
+        DBObject original = newDocument();
+        DBObject document = newDocument();
+        BasicDBList tags = new BasicDBList();
+        tags.add("b");
+        tags.add("a");
+        tags.add("c");
+        document.put("tags", tags);
+
+        DBObject update = DocumentUpdateBuilder.getUpdate(original, document, null);
+
+        Assert.assertNull(update.get(DocumentUpdateBuilder.PUSH));
+        Assert.assertEquals(tags, ((DBObject) update.get(DocumentUpdateBuilder.SET)).get("tags"));
+    }
+
+    @Test
+    public void testBinaryValues()
+    {
+        DBObject original = newDocument();
+        original.put("data", new byte[] { 1, 2 });
+        DBObject document = newDocument();
+        document.put("data", new byte[] { 1, 2 });
+        Assert.assertNull(DocumentUpdateBuilder.getUpdate(original, document, null));
+
+        document.put("data", new byte[] { 1, 3 });
+        Assert.assertNotNull(DocumentUpdateBuilder.getUpdate(original, document, null));
+    }
+
+    @Test
+    public void testFullUpdate()
+    {
+        DBObject update = DocumentUpdateBuilder.getUpdate(newDocument());
+        DBObject set = (DBObject) update.get(DocumentUpdateBuilder.SET);
+        Assert.assertFalse(set.containsField(DocumentUpdateBuilder.ID));
+        Assert.assertEquals(6, set.keySet().size());
+
+        Assert.assertNull(DocumentUpdateBuilder.getUpdate(new BasicDBObject(DocumentUpdateBuilder.ID, "1")));
+    }
+
+    private DBObject newDocument()
+    {
+        DBObject document = new BasicDBObject(DocumentUpdateBuilder.ID, "1");
+        document.put("name", "vivek");
+        document.put("age", 32);
+        document.put("status", "ACTIVE");
+        document.put("city", "noida");
+        document.put("address_id", "a1");
+        BasicDBList tags = new BasicDBList();
+        tags.add("a");
+        tags.add("b");
+        document.put("tags", tags);
+        return document;
+    }
+}
@@ -23,6 +23,7 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,6 +36,10 @@ import javax.persistence.metamodel.SingularAttribute;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.TermQuery;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.NotFoundException;
@@ -673,6 +678,76 @@ public final class GraphEntityMapper
         return node;
     }
 
+    /**
+     * Searches nodes for given keys, in as many index queries as there are
+     * chunks of {@link BooleanQuery#getMaxClauseCount()} keys. Proxy nodes
+     * are skipped.
+     * 
+     * @param keys
+     *            primary keys.
+     * @param m
+     *            entity metadata.
+     * @param graphDb
+     *            graph database service.
+     * @return nodes found, keyed by primary key as indexed.
+     */
+    public Map<String, Node> searchNodes(Object[] keys, EntityMetadata m, GraphDatabaseService graphDb)
+    {
+        Map<String, Node> nodes = new LinkedHashMap<String, Node>();
+        String idColumnName = ((AbstractAttribute) m.getIdAttribute()).getJPAColumnName();
+
+        final MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        boolean isEmbeddedId = metaModel.isEmbeddable(m.getIdAttribute().getBindableJavaType());
+
+        ReadableIndex<Node> nodeIndex = indexer.isNodeAutoIndexingEnabled(graphDb) ? graphDb.index()
+                .getNodeAutoIndexer().getAutoIndex() : graphDb.index().forNodes(m.getIndexName());
+
+        int chunkSize = BooleanQuery.getMaxClauseCount();
+        for (int start = 0; start < keys.length; start += chunkSize)
+        {
+            BooleanQuery query = new BooleanQuery();
+            for (int i = start; i < Math.min(start + chunkSize, keys.length); i++)
+            {
+                Object key = isEmbeddedId ? serializeIdAttributeValue(m, metaModel, keys[i]) : keys[i];
+                query.add(new TermQuery(new Term(idColumnName, key.toString())), Occur.SHOULD);
+            }
+
+            IndexHits<Node> hits = nodeIndex.query(query);
+            try
+            {
+                for (Node node : hits)
+                {
+                    if (node != null && !isProxyNode(node))
+                    {
+                        nodes.put(node.getProperty(idColumnName).toString(), node);
+                    }
+                }
+            }
+            finally
+            {
+                hits.close();
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns key of given entity, as used in node index.
+     */
+    public String getIndexedKey(Object key, EntityMetadata m)
+    {
+        final MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        return metaModel.isEmbeddable(m.getIdAttribute().getBindableJavaType()) ? serializeIdAttributeValue(m,
+                metaModel, key) : key.toString();
+    }
+
+    private boolean isProxyNode(Node node)
+    {
+        return PROXY_NODE_VALUE.equals(node.getProperty(PROXY_NODE_TYPE_KEY, null));
+    }
+
     /**
      * Fetches first Non-proxy node from Index Hits
      * 
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.neo4j;
+
+import java.util.Map;
+
+import org.neo4j.graphdb.Node;
+
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.Relation;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.proxy.collection.ProxyCollection;
+import com.impetus.kundera.proxy.collection.ProxyMap;
+
+/**
+ * Map of relationship entities to target entities of a lazily fetched
+ * association, whose relationships are walked from owner's node only once
+ * the map is first accessed. Being a {@link ProxyCollection}, it is neither
+ * copied nor cascaded by Kundera until loaded.
+ * 
+ * @author impetus
+ */
+class LazyRelationshipMap extends ProxyMap
+{
+    private final Neo4JClient client;
+
+    private final EntityMetadata m;
+
+    private final Node node;
+
+    /** Entities already mapped, shared with entities fetched along owner */
+    private final Map<Long, Object> nodeIdToEntityMap;
+
+    private boolean loaded;
+
+    LazyRelationshipMap(Neo4JClient client, EntityMetadata m, Relation relation, Object owner, Node node,
+            Map<Long, Object> nodeIdToEntityMap)
+    {
+        super(null, relation);
+        this.client = client;
+        this.m = m;
+        this.node = node;
+        this.nodeIdToEntityMap = nodeIdToEntityMap;
+        setOwner(owner);
+    }
+
+    @Override
+    public ProxyCollection getCopy()
+    {
+        LazyRelationshipMap copy = new LazyRelationshipMap(client, m, getRelation(), getOwner(), node,
+                nodeIdToEntityMap);
+        copy.dataCollection = dataCollection;
+        copy.loaded = loaded;
+        return copy;
+    }
+
+    /**
+     * Walks relationships of owner's node and replaces this map in owner's
+     * field with the loaded one.
+     */
+    @Override
+    protected void eagerlyLoadDataCollection()
+    {
+        if (!loaded)
+        {
+            dataCollection = client.getTargetEntitiesMap(m, getOwner(), node, getRelation(), nodeIdToEntityMap);
+            loaded = true;
+            PropertyAccessorHelper.set(getOwner(), getRelation().getProperty(), dataCollection);
+        }
+    }
+}
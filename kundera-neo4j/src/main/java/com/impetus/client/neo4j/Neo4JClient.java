@@ -119,7 +119,11 @@ public class Neo4JClient extends Neo4JClientBase implements Client<Neo4JQuery>,
     }
 
     /**
-     * Finds an entity from graph database
+     * Finds an entity from graph database. Unlike {@link #findAll}, all
+     * associations are mapped eagerly: walking one node's relationships costs
+     * the same now or on first access, which callers of a single find mostly
+     * do right away, and a lazy map would keep the node referenced by the
+     * entity.
      */
     @Override
     public Object find(Class entityClass, Object key)
@@ -147,13 +151,35 @@ public class Neo4JClient extends Neo4JClientBase implements Client<Neo4JQuery>,
         return entity;
     }
 
+    /**
+     * Finds entities for all keys, looking their nodes up in one index query.
+     * Entities mapped out of nodes are shared across the batch, so that a
+     * node reached from several entities is mapped only once. Targets of
+     * lazily fetched associations are mapped on first access only, so that
+     * relationships of entities whose associations are never read are not
+     * walked.
+     */
     @Override
     public <E> List<E> findAll(Class<E> entityClass, String[] columnsToSelect, Object... keys)
     {
         List entities = new ArrayList<E>();
+        if (keys == null || keys.length == 0)
+        {
+            return entities;
+        }
+
+        GraphDatabaseService graphDb = getConnection();
+        EntityMetadata m = KunderaMetadataManager.getEntityMetadata(entityClass);
+
+        Map<String, Node> nodes = mapper.searchNodes(keys, m, graphDb);
+        Map<Long, Object> nodeIdToEntityMap = new HashMap<Long, Object>();
         for (Object key : keys)
         {
-            entities.add(find(entityClass, key));
+            Node node = nodes.remove(mapper.getIndexedKey(key, m));
+            if (node != null && (resource == null || !((Neo4JTransaction) resource).containsNodeId(node.getId())))
+            {
+                entities.add(getEntityWithAssociationFromNode(m, node, nodeIdToEntityMap, true));
+            }
         }
         return entities;
     }
@@ -517,9 +543,13 @@ public class Neo4JClient extends Neo4JClientBase implements Client<Neo4JQuery>,
      * @param entity
      * @param relationMap
      * @param node
+     * @param nodeIdToEntityMap
+     * @param isLazy
+     *            whether lazily fetched associations are left to be loaded on
+     *            first access.
      */
     private void populateRelations(EntityMetadata m, Object entity, Map<String, Object> relationMap, Node node,
-            Map<Long, Object> nodeIdToEntityMap)
+            Map<Long, Object> nodeIdToEntityMap, boolean isLazy)
     {
         // Populate all relationship entities that are in Neo4J
         for (Relation relation : m.getRelations())
@@ -529,78 +559,19 @@ public class Neo4JClient extends Neo4JClientBase implements Client<Neo4JQuery>,
             Field property = relation.getProperty();
             if (relation.getPropertyType().isAssignableFrom(Map.class))
             {
-                Map<Object, Object> targetEntitiesMap = new HashMap<Object, Object>();
-
                 // If relationship entity is stored into Neo4J, fetch it
-                // immediately
+                // immediately unless association is lazily fetched
                 if (isEntityForNeo4J(targetEntityMetadata))
                 {
-
-                    for (Relationship relationship : node.getRelationships(Direction.OUTGOING,
-                            DynamicRelationshipType.withName(relation.getJoinColumnName())))
+                    Map<Object, Object> targetEntitiesMap = null;
+                    if (isLazy && FetchType.LAZY.equals(relation.getFetchType()))
                     {
-                        if (relationship == null)
-                        {
-                            continue;
-                        }
-
-                        // Target Entity
-                        Node endNode = relationship.getEndNode();
-                        if (endNode == null)
-                        {
-                            continue;
-                        }
-                        Object targetEntity = nodeIdToEntityMap.get(endNode.getId());
-                        if (targetEntity == null)
-                        {
-                            targetEntity = mapper.getEntityFromNode(endNode, targetEntityMetadata);
-                        }
-
-                        // Relationship Entity
-                        Object relationshipEntity = mapper.getEntityFromRelationship(relationship, m, relation);
-
-                        // If this relationship is bidirectional, put source
-                        // entity into Map field for target entity
-                        Field bidirectionalField = relation.getBiDirectionalField();
-                        Map<Object, Object> sourceEntitiesMap = new HashMap<Object, Object>();
-                        if (bidirectionalField != null)
-                        {
-                            for (Relationship incomingRelationship : endNode.getRelationships(Direction.INCOMING,
-                                    DynamicRelationshipType.withName(relation.getJoinColumnName())))
-                            {
-                                Node startNode = incomingRelationship.getStartNode();
-                                Object sourceEntity = nodeIdToEntityMap.get(startNode.getId());
-                                if (sourceEntity == null)
-                                {
-                                    sourceEntity = mapper.getEntityFromNode(startNode, m);
-                                    nodeIdToEntityMap.put(startNode.getId(), sourceEntity);
-                                }
-                                sourceEntitiesMap.put(relationshipEntity, sourceEntity);
-                            }
-                            PropertyAccessorHelper.set(targetEntity, bidirectionalField, sourceEntitiesMap);
-                        }
-
-                        // Set references to Target and owning entity in
-                        // relationship entity
-                        Class<?> relationshipClass = relation.getMapKeyJoinClass();
-                        for (Field f : relationshipClass.getDeclaredFields())
-                        {
-                            if (!ReflectUtils.isTransientOrStatic(f))
-                            {
-
-                                if (f.getType().equals(m.getEntityClazz()))
-                                {
-                                    PropertyAccessorHelper.set(relationshipEntity, f, entity);
-                                }
-                                else if (f.getType().equals(targetEntityClass))
-                                {
-                                    PropertyAccessorHelper.set(relationshipEntity, f, targetEntity);
-                                }
-                            }
-                        }
-                        targetEntitiesMap.put(relationshipEntity, targetEntity);
+                        targetEntitiesMap = new LazyRelationshipMap(this, m, relation, entity, node, nodeIdToEntityMap);
+                    }
+                    else
+                    {
+                        targetEntitiesMap = getTargetEntitiesMap(m, entity, node, relation, nodeIdToEntityMap);
                     }
-
                     PropertyAccessorHelper.set(entity, property, targetEntitiesMap);
                 }
 
@@ -611,7 +582,7 @@ public class Neo4JClient extends Neo4JClientBase implements Client<Neo4JQuery>,
                  */
                 else
                 {
-
+                    Map<Object, Object> targetEntitiesMap = new HashMap<Object, Object>();
                     for (Relationship relationship : node.getRelationships(Direction.OUTGOING,
                             DynamicRelationshipType.withName(relation.getJoinColumnName())))
                     {
@@ -631,6 +602,99 @@ public class Neo4JClient extends Neo4JClientBase implements Client<Neo4JQuery>,
         }
     }
 
+    /**
+     * Walks outgoing relationships of node for given association into a map of
+     * relationship entities to target entities, reusing entities already
+     * mapped.
+     * 
+     * @param m
+     *            metadata of owning entity.
+     * @param entity
+     *            owning entity.
+     * @param node
+     *            node of owning entity.
+     * @param relation
+     *            association to a Neo4J entity.
+     * @param nodeIdToEntityMap
+     *            entities already mapped, by node id.
+     * @return relationship entities to target entities.
+     */
+    Map<Object, Object> getTargetEntitiesMap(EntityMetadata m, Object entity, Node node, Relation relation,
+            Map<Long, Object> nodeIdToEntityMap)
+    {
+        Class<?> targetEntityClass = relation.getTargetEntity();
+        EntityMetadata targetEntityMetadata = KunderaMetadataManager.getEntityMetadata(targetEntityClass);
+        Map<Object, Object> targetEntitiesMap = new HashMap<Object, Object>();
+
+        for (Relationship relationship : node.getRelationships(Direction.OUTGOING,
+                DynamicRelationshipType.withName(relation.getJoinColumnName())))
+        {
+            if (relationship == null)
+            {
+                continue;
+            }
+
+            // Target Entity
+            Node endNode = relationship.getEndNode();
+            if (endNode == null)
+            {
+                continue;
+            }
+            Object targetEntity = nodeIdToEntityMap.get(endNode.getId());
+            if (targetEntity == null)
+            {
+                targetEntity = mapper.getEntityFromNode(endNode, targetEntityMetadata);
+                nodeIdToEntityMap.put(endNode.getId(), targetEntity);
+            }
+
+            // Relationship Entity
+            Object relationshipEntity = mapper.getEntityFromRelationship(relationship, m, relation);
+
+            // If this relationship is bidirectional, put source
+            // entity into Map field for target entity
+            Field bidirectionalField = relation.getBiDirectionalField();
+            Map<Object, Object> sourceEntitiesMap = new HashMap<Object, Object>();
+            if (bidirectionalField != null)
+            {
+                for (Relationship incomingRelationship : endNode.getRelationships(Direction.INCOMING,
+                        DynamicRelationshipType.withName(relation.getJoinColumnName())))
+                {
+                    Node startNode = incomingRelationship.getStartNode();
+                    Object sourceEntity = nodeIdToEntityMap.get(startNode.getId());
+                    if (sourceEntity == null)
+                    {
+                        sourceEntity = mapper.getEntityFromNode(startNode, m);
+                        nodeIdToEntityMap.put(startNode.getId(), sourceEntity);
+                    }
+                    sourceEntitiesMap.put(relationshipEntity, sourceEntity);
+                }
+                PropertyAccessorHelper.set(targetEntity, bidirectionalField, sourceEntitiesMap);
+            }
+
+            // Set references to Target and owning entity in
+            // relationship entity
+            Class<?> relationshipClass = relation.getMapKeyJoinClass();
+            for (Field f : relationshipClass.getDeclaredFields())
+            {
+                if (!ReflectUtils.isTransientOrStatic(f))
+                {
+
+                    if (f.getType().equals(m.getEntityClazz()))
+                    {
+                        PropertyAccessorHelper.set(relationshipEntity, f, entity);
+                    }
+                    else if (f.getType().equals(targetEntityClass))
+                    {
+                        PropertyAccessorHelper.set(relationshipEntity, f, targetEntity);
+                    }
+                }
+            }
+            targetEntitiesMap.put(relationshipEntity, targetEntity);
+        }
+
+        return targetEntitiesMap;
+    }
+
     /**
      * Returns instance of {@link BatchInserter}
      */
@@ -700,28 +764,85 @@ public class Neo4JClient extends Neo4JClientBase implements Client<Neo4JQuery>,
     }
 
     public List<Object> executeLuceneQuery(EntityMetadata m, String luceneQuery)
+    {
+        return getEntitiesFromIndexHits(m, queryNodes(m, luceneQuery), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Skips first <code>firstResult</code> index hits and maps up to
+     * <code>maxResults</code> following nodes into entities, remaining hits
+     * are never read. Hits are closed before returning.
+     * 
+     * @param m
+     *            entity metadata.
+     * @param hits
+     *            index hits.
+     * @param firstResult
+     *            number of hits to skip.
+     * @param maxResults
+     *            maximum number of entities to map.
+     * @return entities.
+     */
+    public List<Object> getEntitiesFromIndexHits(EntityMetadata m, IndexHits<Node> hits, int firstResult,
+            int maxResults)
+    {
+        List<Object> entities = new ArrayList<Object>();
+        try
+        {
+            for (int i = 0; i < firstResult && hits.hasNext(); i++)
+            {
+                hits.next();
+            }
+            addEntityFromIndexHits(m, entities, hits, maxResults);
+        }
+        finally
+        {
+            hits.close();
+        }
+        return entities;
+    }
+
+    /**
+     * Executes lucene query over node index of given entity. Hits are read
+     * lazily, caller must close them.
+     * 
+     * @param m
+     *            entity metadata.
+     * @param luceneQuery
+     *            lucene query.
+     * @return index hits.
+     */
+    public IndexHits<Node> queryNodes(EntityMetadata m, String luceneQuery)
     {
         log.info("Executing Lucene Query on Neo4J:" + luceneQuery);
 
         GraphDatabaseService graphDb = getConnection();
-        List<Object> entities = new ArrayList<Object>();
 
         if (!indexer.isNodeAutoIndexingEnabled(graphDb) && m.isIndexable())
         {
             Index<Node> nodeIndex = graphDb.index().forNodes(m.getIndexName());
-
-            IndexHits<Node> hits = nodeIndex.query(luceneQuery);
-            addEntityFromIndexHits(m, entities, hits);
+            return nodeIndex.query(luceneQuery);
         }
         else
         {
-
             ReadableIndex<Node> autoNodeIndex = graphDb.index().getNodeAutoIndexer().getAutoIndex();
-            IndexHits<Node> hits = autoNodeIndex.query(luceneQuery);
-            addEntityFromIndexHits(m, entities, hits);
-
+            return autoNodeIndex.query(luceneQuery);
         }
-        return entities;
+    }
+
+    /**
+     * Maps node into entity, along with its relationships.
+     * 
+     * @param m
+     *            entity metadata.
+     * @param node
+     *            node.
+     * @return entity, or {@link EnhanceEntity} holding relations to entities
+     *         in other databases.
+     */
+    public Object getEntityFromNode(EntityMetadata m, Node node)
+    {
+        return getEntityWithAssociationFromNode(m, node);
     }
 
     /**
@@ -730,9 +851,25 @@ public class Neo4JClient extends Neo4JClientBase implements Client<Neo4JQuery>,
      * @param hits
      */
     protected void addEntityFromIndexHits(EntityMetadata m, List<Object> entities, IndexHits<Node> hits)
+    {
+        addEntityFromIndexHits(m, entities, hits, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param m
+     * @param entities
+     * @param hits
+     * @param maxResults
+     */
+    protected void addEntityFromIndexHits(EntityMetadata m, List<Object> entities, IndexHits<Node> hits,
+            int maxResults)
     {
         for (Node node : hits)
         {
+            if (entities.size() >= maxResults)
+            {
+                break;
+            }
             if (node != null)
             {
                 Object entity = getEntityWithAssociationFromNode(m, node);
@@ -753,8 +890,6 @@ public class Neo4JClient extends Neo4JClientBase implements Client<Neo4JQuery>,
      */
     private Object getEntityWithAssociationFromNode(EntityMetadata m, Node node)
     {
-        Map<String, Object> relationMap = new HashMap<String, Object>();
-
         /**
          * Map containing Node ID as key and Entity object as value. Helps cache
          * entity objects found earlier for faster lookup and prevents repeated
@@ -762,12 +897,31 @@ public class Neo4JClient extends Neo4JClientBase implements Client<Neo4JQuery>,
          */
         Map<Long, Object> nodeIdToEntityMap = new HashMap<Long, Object>();
 
-        Object entity = mapper.getEntityFromNode(node, m);
-
-        nodeIdToEntityMap.put(node.getId(), entity);
-        populateRelations(m, entity, relationMap, node, nodeIdToEntityMap);
+        Object entity = getEntityWithAssociationFromNode(m, node, nodeIdToEntityMap, false);
 
         nodeIdToEntityMap.clear();
+        return entity;
+    }
+
+    /**
+     * @param m
+     * @param node
+     * @param nodeIdToEntityMap
+     *            entities already mapped, shared by all nodes of a batch.
+     */
+    private Object getEntityWithAssociationFromNode(EntityMetadata m, Node node, Map<Long, Object> nodeIdToEntityMap,
+            boolean isLazy)
+    {
+        Map<String, Object> relationMap = new HashMap<String, Object>();
+
+        Object entity = nodeIdToEntityMap.get(node.getId());
+        if (entity == null)
+        {
+            entity = mapper.getEntityFromNode(node, m);
+            nodeIdToEntityMap.put(node.getId(), entity);
+        }
+
+        populateRelations(m, entity, relationMap, node, nodeIdToEntityMap, isLazy);
 
         if (!relationMap.isEmpty() && entity != null)
         {
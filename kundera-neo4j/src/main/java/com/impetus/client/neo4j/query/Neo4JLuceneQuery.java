@@ -18,6 +18,9 @@ package com.impetus.client.neo4j.query;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.index.IndexHits;
+
 import com.impetus.client.neo4j.Neo4JClient;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 
@@ -38,4 +41,10 @@ public class Neo4JLuceneQuery implements Neo4JNativeQuery
 
         return entities;
     }
+
+    @Override
+    public IndexHits<Node> queryNodes(String nativeQuery, Neo4JClient client, EntityMetadata m)
+    {
+        return client.queryNodes(m, nativeQuery);
+    }
 }
@@ -17,6 +17,9 @@ package com.impetus.client.neo4j.query;
 
 import java.util.List;
 
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.index.IndexHits;
+
 import com.impetus.client.neo4j.Neo4JClient;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 
@@ -30,4 +33,10 @@ public interface Neo4JNativeQuery
 
     public List<Object> executeNativeQuery(String nativeQuery, Neo4JClient client, EntityMetadata m);
 
+    /**
+     * Executes native query, returning matching nodes to be read lazily.
+     * Returned hits must be closed by caller.
+     */
+    public IndexHits<Node> queryNodes(String nativeQuery, Neo4JClient client, EntityMetadata m);
+
 }
@@ -19,6 +19,11 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import javax.persistence.Query;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.index.IndexHits;
+
 import com.impetus.client.neo4j.Neo4JClient;
 import com.impetus.client.neo4j.Neo4JEntityReader;
 import com.impetus.kundera.client.Client;
@@ -46,6 +51,12 @@ public class Neo4JQuery extends QueryImpl
     /** The reader. */
     private EntityReader reader;
 
+    /** Iterators opened by this query and not yet exhausted. */
+    private List<ResultIterator> iterators = new ArrayList<ResultIterator>();
+
+    /** Number of matching nodes to skip. */
+    private int firstResult;
+
     /**
      * @param query
      * @param persistenceDelegator
@@ -65,6 +76,19 @@ public class Neo4JQuery extends QueryImpl
 
     }
 
+    @Override
+    public Query setFirstResult(int startPosition)
+    {
+        this.firstResult = startPosition;
+        return this;
+    }
+
+    @Override
+    public int getFirstResult()
+    {
+        return firstResult;
+    }
+
     @Override
     protected List<Object> populateEntities(EntityMetadata m, Client client)
     {
@@ -75,20 +99,8 @@ public class Neo4JQuery extends QueryImpl
     @Override
     protected List<Object> recursivelyPopulateEntities(EntityMetadata m, Client client)
     {
-        List<Object> entities = new ArrayList<Object>();
-        ApplicationMetadata appMetadata = KunderaMetadata.INSTANCE.getApplicationMetadata();
-
-        if (appMetadata.isNative(getJPAQuery()))
-        {
-            String nativeQuery = appMetadata.getQuery(getJPAQuery());
-            Neo4JNativeQuery nativeQueryImpl = Neo4JNativeQueryFactory.getNativeQueryImplementation(queryType);
-            entities = nativeQueryImpl.executeNativeQuery(nativeQuery, (Neo4JClient) client, m);
-        }
-        else
-        {
-            String luceneQuery = getLuceneQuery(kunderaQuery);
-            entities = ((Neo4JClient) client).executeLuceneQuery(m, luceneQuery);
-        }
+        IndexHits<Node> hits = queryNodes(m, (Neo4JClient) client);
+        List<Object> entities = ((Neo4JClient) client).getEntitiesFromIndexHits(m, hits, firstResult, maxResult);
         return setRelationEntities(entities, client, m);
     }
 
@@ -201,15 +213,53 @@ public class Neo4JQuery extends QueryImpl
     @Override
     public void close()
     {
-        // TODO Auto-generated method stub
-        
+        // Iterators remove themselves from list as they close.
+        for (ResultIterator iterator : new ArrayList<ResultIterator>(iterators))
+        {
+            iterator.close();
+        }
+        iterators.clear();
     }
 
+    /**
+     * Returns an iterator reading matching nodes out of index as they are
+     * iterated, skipping first result and up to max results. Index hits are
+     * closed once exhausted, or along with this query.
+     */
     @Override
     public Iterator iterate()
     {
-        // TODO Auto-generated method stub
-        return null;
+        EntityMetadata m = getEntityMetadata();
+        Neo4JClient client = (Neo4JClient) persistenceDelegeator.getClient(m);
+
+        ResultIterator iterator = new ResultIterator(this, client, m, queryNodes(m, client), persistenceDelegeator,
+                firstResult, maxResult);
+        iterators.add(iterator);
+        return iterator;
+    }
+
+    /**
+     * Forgets iterator once its index hits are closed.
+     */
+    void onClose(ResultIterator iterator)
+    {
+        iterators.remove(iterator);
+    }
+
+    /**
+     * Runs native or JPA query as lucene query over node index, returning
+     * hits to be read lazily.
+     */
+    private IndexHits<Node> queryNodes(EntityMetadata m, Neo4JClient client)
+    {
+        ApplicationMetadata appMetadata = KunderaMetadata.INSTANCE.getApplicationMetadata();
+        if (appMetadata.isNative(getJPAQuery()))
+        {
+            String nativeQuery = appMetadata.getQuery(getJPAQuery());
+            Neo4JNativeQuery nativeQueryImpl = Neo4JNativeQueryFactory.getNativeQueryImplementation(queryType);
+            return nativeQueryImpl.queryNodes(nativeQuery, client, m);
+        }
+        return client.queryNodes(m, getLuceneQuery(kunderaQuery));
     }
 
 }
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.neo4j.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.index.IndexHits;
+
+import com.impetus.client.neo4j.Neo4JClient;
+import com.impetus.kundera.client.EnhanceEntity;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.persistence.PersistenceDelegator;
+import com.impetus.kundera.query.IResultIterator;
+
+/**
+ * Implementation of Neo4J result iteration. Nodes are read out of live index
+ * hits and mapped into entities only as they are iterated.
+ * 
+ * @author impetus
+ * 
+ * @param <E>
+ */
+class ResultIterator<E> implements IResultIterator<E>
+{
+    private Neo4JQuery query;
+
+    private Neo4JClient client;
+
+    private EntityMetadata m;
+
+    private PersistenceDelegator persistenceDelegator;
+
+    private IndexHits<Node> hits;
+
+    private int firstResult;
+
+    private int maxResults;
+
+    private int count;
+
+    private Node next;
+
+    /**
+     * @param query
+     *            query this iterator is opened by.
+     * @param client
+     *            neo4j client.
+     * @param m
+     *            entity metadata.
+     * @param hits
+     *            index hits, closed once exhausted.
+     * @param pd
+     *            persistence delegator.
+     * @param firstResult
+     *            number of hits to skip.
+     * @param maxResults
+     *            maximum number of entities to iterate.
+     */
+    ResultIterator(Neo4JQuery query, Neo4JClient client, EntityMetadata m, IndexHits<Node> hits,
+            PersistenceDelegator pd, int firstResult, int maxResults)
+    {
+        this.query = query;
+        this.client = client;
+        this.m = m;
+        this.hits = hits;
+        this.persistenceDelegator = pd;
+        this.firstResult = firstResult;
+        this.maxResults = maxResults;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (next == null && hits != null)
+        {
+            for (; firstResult > 0 && hits.hasNext(); firstResult--)
+            {
+                hits.next();
+            }
+
+            if (count < maxResults && hits.hasNext())
+            {
+                next = hits.next();
+            }
+            else
+            {
+                close();
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public E next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException("Nothing to scroll further for:" + m.getEntityClazz());
+        }
+        Node node = next;
+        next = null;
+        count++;
+        return setRelationEntities(client.getEntityFromNode(m, node));
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException("remove method is not supported over pagination");
+    }
+
+    @Override
+    public List<E> next(int chunkSize)
+    {
+        List<E> results = new ArrayList<E>(chunkSize);
+        while (results.size() < chunkSize && hasNext())
+        {
+            results.add(next());
+        }
+        return results;
+    }
+
+    /**
+     * Closes underlying index hits, and lets query forget this iterator.
+     */
+    void close()
+    {
+        if (hits != null)
+        {
+            hits.close();
+            hits = null;
+            query.onClose(this);
+        }
+        next = null;
+    }
+
+    private E setRelationEntities(Object enhanceEntity)
+    {
+        // Relations to entities in other databases are held by enhance
+        // entity.
+        if (enhanceEntity instanceof EnhanceEntity)
+        {
+            EnhanceEntity ee = (EnhanceEntity) enhanceEntity;
+            return (E) client.getReader().recursivelyFindEntities(ee.getEntity(), ee.getRelations(), m,
+                    persistenceDelegator, false);
+        }
+        return (E) enhanceEntity;
+    }
+}
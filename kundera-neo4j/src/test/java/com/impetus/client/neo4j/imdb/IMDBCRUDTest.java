@@ -15,11 +15,24 @@
  */
 package com.impetus.client.neo4j.imdb;
 
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.FetchType;
+
+import org.apache.lucene.search.BooleanQuery;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.impetus.client.neo4j.Neo4JClient;
+import com.impetus.kundera.client.Client;
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.Relation;
+import com.impetus.kundera.proxy.collection.ProxyMap;
+
 /**
  * Test case using IMDB example for CRUD Demonstrates M-2-M Association between
  * two entitites using Map
@@ -56,6 +69,79 @@ public class IMDBCRUDTest extends IMDBTestBase
         delete();
     }
 
+    /**
+     * Nodes of all keys are looked up together, one boolean query per chunk
+     * of max clause count, missing keys being left out.
+     */
+    @Test
+    public void testFindAll()
+    {
+        insert();
+        em.clear();
+
+        int maxClauseCount = BooleanQuery.getMaxClauseCount();
+        BooleanQuery.setMaxClauseCount(1);
+        try
+        {
+            List<Actor> actors = getClient().findAll(Actor.class, null, 1, 2, 3);
+            Assert.assertEquals(2, actors.size());
+            assertActors(actors.get(0), actors.get(1));
+        }
+        finally
+        {
+            BooleanQuery.setMaxClauseCount(maxClauseCount);
+        }
+
+        List<Actor> actors = getClient().findAll(Actor.class, null, 2, 1);
+        Assert.assertEquals(2, actors.size());
+        assertActors(actors.get(1), actors.get(0));
+        Assert.assertTrue(getClient().findAll(Actor.class, null, 3).isEmpty());
+    }
+
+    /**
+     * Lazily fetched associations of entities found together are loaded on
+     * first access, single find still loads them eagerly.
+     */
+    @Test
+    public void testFindAllLazily() throws Exception
+    {
+        insert();
+        em.clear();
+
+        Relation relation = KunderaMetadataManager.getEntityMetadata(Actor.class).getRelation("movies");
+        Field fetchType = Relation.class.getDeclaredField("fetchType");
+        fetchType.setAccessible(true);
+        fetchType.set(relation, FetchType.LAZY);
+        try
+        {
+            List<Actor> actors = getClient().findAll(Actor.class, null, 1, 2);
+            Assert.assertEquals(2, actors.size());
+            for (Actor actor : actors)
+            {
+                Assert.assertTrue(actor.getMovies() instanceof ProxyMap);
+            }
+
+            Assert.assertEquals(2, actors.get(0).getMovies().size());
+            Assert.assertFalse(actors.get(0).getMovies() instanceof ProxyMap);
+            Assert.assertTrue(actors.get(1).getMovies() instanceof ProxyMap);
+            assertActors(actors.get(0), actors.get(1));
+
+            Actor actor = (Actor) getClient().find(Actor.class, 1);
+            Assert.assertFalse(actor.getMovies() instanceof ProxyMap);
+            assertActor1(actor);
+        }
+        finally
+        {
+            fetchType.set(relation, FetchType.EAGER);
+        }
+    }
+
+    private Neo4JClient getClient()
+    {
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        return (Neo4JClient) clients.get(IMDB_PU);
+    }
+
     private void insert()
     {
         populateActors();
@@ -15,7 +15,11 @@
  */
 package com.impetus.client.neo4j.imdb;
 
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import javax.persistence.Query;
 
@@ -90,6 +94,65 @@ public class IMDBJPAQueriesTest extends IMDBTestBase
 
     }
 
+    /**
+     * Iterates actors past first result, exhausted iterator is dropped by
+     * query.
+     */
+    @Test
+    public void testIterate() throws Exception
+    {
+        Query query = em.createQuery("select a from Actor a");
+        Iterator<Actor> iter = ((com.impetus.kundera.query.Query) query).iterate();
+        Set<Integer> ids = new HashSet<Integer>();
+        while (iter.hasNext())
+        {
+            Assert.assertTrue(ids.add(iter.next().getId()));
+        }
+        Assert.assertEquals(2, ids.size());
+        Assert.assertTrue(getIterators(query).isEmpty());
+
+        query = em.createQuery("select a from Actor a");
+        query.setFirstResult(1);
+        iter = ((com.impetus.kundera.query.Query) query).iterate();
+        Assert.assertTrue(iter.hasNext());
+        Assert.assertTrue(ids.remove(iter.next().getId()));
+        Assert.assertFalse(iter.hasNext());
+        Assert.assertTrue(getIterators(query).isEmpty());
+
+        query = em.createQuery("select a from Actor a");
+        query.setFirstResult(1);
+        List<Actor> actors = query.getResultList();
+        Assert.assertEquals(1, actors.size());
+        Assert.assertEquals(1, query.getFirstResult());
+    }
+
+    /**
+     * Stops iterating halfway, closing the query closes its index hits.
+     */
+    @Test
+    public void testCloseBeforeEnd() throws Exception
+    {
+        Query query = em.createQuery("select a from Actor a");
+        query.setMaxResults(1);
+        Iterator<Actor> iter = ((com.impetus.kundera.query.Query) query).iterate();
+        Assert.assertTrue(iter.hasNext());
+        Assert.assertEquals(1, getIterators(query).size());
+
+        ((com.impetus.kundera.query.Query) query).close();
+        Assert.assertTrue(getIterators(query).isEmpty());
+        Assert.assertFalse(iter.hasNext());
+    }
+
+    private List<?> getIterators(Query query) throws Exception
+    {
+        Field f = query.getClass().getDeclaredField("iterators");
+        if (!f.isAccessible())
+        {
+            f.setAccessible(true);
+        }
+        return (List<?>) f.get(query);
+    }
+
     private void findAllActors()
     {
         Query query = em.createQuery("select a from Actor a");
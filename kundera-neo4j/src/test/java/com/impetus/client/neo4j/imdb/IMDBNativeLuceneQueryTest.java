@@ -15,6 +15,7 @@
  */
 package com.impetus.client.neo4j.imdb;
 
+import java.util.Iterator;
 import java.util.List;
 
 import javax.persistence.Query;
@@ -85,6 +86,23 @@ public class IMDBNativeLuceneQueryTest extends IMDBTestBase
 
     }
 
+    @Test
+    public void testIterate()
+    {
+        Query query = em.createNativeQuery("ACTOR_NAME:\"Tom Cruise\"", Actor.class);
+        Iterator<Actor> iter = ((com.impetus.kundera.query.Query) query).iterate();
+        Assert.assertTrue(iter.hasNext());
+        assertActor1(iter.next());
+        Assert.assertFalse(iter.hasNext());
+
+        query = em.createNativeQuery("ACTOR_ID:[1 TO 2]", Actor.class);
+        query.setFirstResult(1);
+        iter = ((com.impetus.kundera.query.Query) query).iterate();
+        Assert.assertTrue(iter.hasNext());
+        Assert.assertNotNull(iter.next());
+        Assert.assertFalse(iter.hasNext());
+    }
+
     private void findAllActors()
     {
         Query query = em.createNativeQuery("ACTOR_ID:*", Actor.class);
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.oraclenosql;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import oracle.kv.Consistency;
+import oracle.kv.KVStore;
+import oracle.kv.Key;
+
+/**
+ * Lazy handle on a LOB held in Oracle KV Store, set into
+ * {@link InputStream} attributes of read entities. The LOB is opened on first
+ * read and streamed from the store, so LOBs never accessed are never fetched.
+ * It must be read before the store is closed.
+ *
+ * @author impetus
+ */
+class LOBInputStream extends InputStream
+{
+    private final KVStore kvStore;
+
+    private final Key key;
+
+    private final Consistency consistency;
+
+    private final long timeout;
+
+    private final TimeUnit timeUnit;
+
+    private InputStream delegate;
+
+    private boolean closed;
+
+    LOBInputStream(KVStore kvStore, Key key, Consistency consistency, long timeout, TimeUnit timeUnit)
+    {
+        this.kvStore = kvStore;
+        this.key = key;
+        this.consistency = consistency;
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+    }
+
+    /**
+     * @return key of the LOB.
+     */
+    Key getKey()
+    {
+        return key;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        return getDelegate().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        return getDelegate().read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        return getDelegate().skip(n);
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        return delegate != null ? delegate.available() : 0;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        if (delegate != null)
+        {
+            delegate.close();
+        }
+    }
+
+    private InputStream getDelegate() throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("LOB stream of key " + key + " is closed.");
+        }
+        if (delegate == null)
+        {
+            delegate = kvStore.getLOB(key, consistency, timeout, timeUnit).getInputStream();
+        }
+        return delegate;
+    }
+}
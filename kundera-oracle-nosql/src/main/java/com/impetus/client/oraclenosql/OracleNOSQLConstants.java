@@ -42,4 +42,16 @@ public interface OracleNOSQLConstants
 
     public static final String SECONDARY_INDEX_SUFFIX = "_idx";
 
+    /** Number of records read concurrently by a findAll call */
+    public static final int DEFAULT_READ_PARALLELISM = 4;
+
+    /** Number of operation groups written concurrently by executeBatch */
+    public static final int DEFAULT_WRITE_PARALLELISM = 4;
+
+    /** Maximum number of operations sent in a single KVStore.execute call */
+    public static final int MAX_EXECUTE_OPERATIONS = 1000;
+
+    /** Number of primary keys handed over to findAll at a time by queries */
+    public static final int KEY_BATCH_SIZE = 100;
+
 }
@@ -18,6 +18,7 @@ package com.impetus.client.oraclenosql;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -25,9 +26,14 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import javax.persistence.PersistenceException;
@@ -83,6 +89,9 @@ import com.impetus.kundera.property.PropertyAccessorHelper;
  */
 public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQuery>, Batcher, ClientPropertiesSetter
 {
+    /** Marks a LOB to be deleted, among LOBs to write. */
+    private static final Object DELETED_LOB = new Object();
+
     /** The kvstore db. */
     private KVStore kvStore;
 
@@ -108,6 +117,13 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
 
     private Consistency consistency = OracleNOSQLConstants.DEFAULT_CONSISTENCY;
 
+    private int readParallelism = OracleNOSQLConstants.DEFAULT_READ_PARALLELISM;
+
+    private int writeParallelism = OracleNOSQLConstants.DEFAULT_WRITE_PARALLELISM;
+
+    /** Executor shared with other clients of the factory. */
+    private ExecutorService executor;
+
     /** The log. */
     private static Logger log = LoggerFactory.getLogger(OracleNoSQLClient.class);
 
@@ -120,9 +136,12 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
      *            the index manager
      * @param reader
      *            the reader
+     * @param executor
+     *            executor running concurrent reads and batched writes
      */
     OracleNoSQLClient(final OracleNoSQLClientFactory factory, EntityReader reader, IndexManager indexManager,
-            final KVStore kvStore, Map<String, Object> puProperties, String persistenceUnit)
+            final KVStore kvStore, Map<String, Object> puProperties, String persistenceUnit,
+            ExecutorService executor)
     {
         this.persistenceUnit = persistenceUnit;
         this.factory = factory;
@@ -131,6 +150,7 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
         this.reader = reader;
         this.indexManager = indexManager;
         this.clientMetadata = factory.getClientMetadata();
+        this.executor = executor;
         setBatchSize(persistenceUnit, puProperties);
     }
 
@@ -168,10 +188,14 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
             relationMap = new HashMap<String, Object>();
         }
 
+        // Only minor keys of selected columns are read, if they can be
+        // addressed by a range over first minor key component
+        KeyRange subRange = getMinorKeyRange(entityMetadata, entityType, metamodel, columnsToSelect);
+
         try
         {
-            Iterator<KeyValueVersion> iterator = kvStore.multiGetIterator(Direction.FORWARD, 0, majorKeyToFind, null,
-                    null);
+            Iterator<KeyValueVersion> iterator = kvStore.multiGetIterator(Direction.FORWARD, 0, majorKeyToFind,
+                    subRange, null);
 
             // Populate non-ID attributes
             while (iterator.hasNext())
@@ -249,6 +273,14 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
                     }
                 }
             }
+
+            // Selected columns may all be null, record still exists if it
+            // holds any other minor key
+            if (entity == null && subRange != null
+                    && kvStore.multiGetKeysIterator(Direction.FORWARD, 1, majorKeyToFind, null, null).hasNext())
+            {
+                entity = initializeEntity(entity, key, entityMetadata);
+            }
         }
         catch (Exception e)
         {
@@ -267,6 +299,56 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
         }
     }
 
+    /**
+     * Returns range of first minor key component spanning selected columns
+     * and relations, or null if whole record is to be read: no columns are
+     * selected, or a selected column is an embedded one whose minor keys are
+     * named after the embedded attribute.
+     * 
+     * @param entityMetadata
+     * @param entityType
+     * @param metamodel
+     * @param columnsToSelect
+     * @return minor key range or null.
+     */
+    private KeyRange getMinorKeyRange(EntityMetadata entityMetadata, EntityType entityType, MetamodelImpl metamodel,
+            List<String> columnsToSelect)
+    {
+        if (columnsToSelect == null || columnsToSelect.isEmpty())
+        {
+            return null;
+        }
+
+        String idColumn = ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName();
+        TreeSet<String> minorKeys = new TreeSet<String>();
+        for (String column : columnsToSelect)
+        {
+            String fieldName = entityMetadata.getFieldName(column);
+            if (fieldName == null
+                    || metamodel.isEmbeddable(((AbstractAttribute) entityType.getAttribute(fieldName))
+                            .getBindableJavaType()))
+            {
+                return null;
+            }
+            if (!column.equals(idColumn))
+            {
+                minorKeys.add(column);
+            }
+        }
+
+        if (minorKeys.isEmpty())
+        {
+            return null;
+        }
+        if (entityMetadata.getRelationNames() != null)
+        {
+            minorKeys.addAll(entityMetadata.getRelationNames());
+        }
+
+        // LOB columns are stored under column name with LOB suffix
+        return new KeyRange(minorKeys.first(), true, minorKeys.last() + OracleNOSQLConstants.LOB_SUFFIX, true);
+    }
+
     /**
      * Populates a field in enclosing class instance from data retrieved from
      * Oracle NoSQL
@@ -286,6 +368,11 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
             File lobFile = handler.getLOBFile(keyValueVersion, minorKey);
             PropertyAccessorHelper.set(object, field, lobFile);
         }
+        else if (field.getType().isAssignableFrom(InputStream.class))
+        {
+            // Streamed from store when read
+            PropertyAccessorHelper.set(object, field, handler.getLOBStream(keyValueVersion.getKey()));
+        }
         else
         {
             PropertyAccessorHelper.set(object, field, keyValueVersion.getValue().getValue());
@@ -323,6 +410,26 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
     public void delete(Object entity, Object pKey)
     {
         EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entity.getClass());
+        Map<Key, Object> lobs = new LinkedHashMap<Key, Object>();
+        handler.execute(getDeleteOperations(entityMetadata, pKey, lobs));
+        writeLOBs(lobs);
+        // kvStore.multiDelete(Key.createKey(majorKeyComponent), null, null);
+        getIndexManager().remove(entityMetadata, entity, pKey.toString());
+    }
+
+    /**
+     * Returns delete operations for minor keys of given record, all of them
+     * sharing the record's major key. LOBs of record are collected to be
+     * deleted once operations are executed.
+     * 
+     * @param entityMetadata
+     * @param pKey
+     * @param lobs
+     *            LOBs to write, by key.
+     * @return delete operations.
+     */
+    private List<Operation> getDeleteOperations(EntityMetadata entityMetadata, Object pKey, Map<Key, Object> lobs)
+    {
         String idString = PropertyAccessorHelper.getString(pKey);
 
         Key key = Key.createKey(entityMetadata.getTableName());
@@ -343,7 +450,7 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
                     && minorKeysComponents.get(minorKeysComponents.size() - 1)
                             .endsWith(OracleNOSQLConstants.LOB_SUFFIX))
             {
-                kvStore.deleteLOB(keyValueVersion.getKey(), durability, timeout, timeUnit);
+                lobs.put(keyValueVersion.getKey(), DELETED_LOB);
             }
             else
             {
@@ -354,9 +461,7 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
                 }
             }
         }
-        handler.execute(deleteOperations);
-        // kvStore.multiDelete(Key.createKey(majorKeyComponent), null, null);
-        getIndexManager().remove(entityMetadata, entity, pKey.toString());
+        return deleteOperations;
     }
 
     /**
@@ -377,6 +482,27 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
      */
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
+    {
+        Map<Key, Object> lobs = new LinkedHashMap<Key, Object>();
+        handler.execute(getPersistOperations(entityMetadata, entity, id, rlHolders, lobs));
+        writeLOBs(lobs);
+    }
+
+    /**
+     * Returns put operations for attributes and relations of given entity,
+     * all of them sharing the record's major key. LOB attributes are
+     * collected to be saved once operations are executed.
+     * 
+     * @param entityMetadata
+     * @param entity
+     * @param id
+     * @param rlHolders
+     * @param lobs
+     *            LOBs to write, by key.
+     * @return put operations.
+     */
+    private List<Operation> getPersistOperations(EntityMetadata entityMetadata, Object entity, Object id,
+            List<RelationHolder> rlHolders, Map<Key, Object> lobs)
     {
         String schema = entityMetadata.getSchema(); // Irrelevant for this
                                                     // datastore
@@ -441,7 +567,7 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
                                 Object valueObj = PropertyAccessorHelper.getObject(embeddedObject, f);
                                 if (valueObj != null)
                                 {
-                                    if (valueObj instanceof File)
+                                    if (valueObj instanceof File || valueObj instanceof InputStream)
                                     {
                                         List<String> minorKeyComponents = new ArrayList<String>();
                                         minorKeyComponents.add(embeddedColumnName);
@@ -457,8 +583,7 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
 
                                         // Key
                                         Key key = Key.createKey(majorKeyComponent, minorKeyComponents);
-                                        File lobFile = (File) valueObj;
-                                        handler.saveLOBFile(key, lobFile);
+                                        lobs.put(key, valueObj);
                                     }
                                     else
                                     {
@@ -501,12 +626,11 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
                     {
                         String columnName = ((AbstractAttribute) attribute).getJPAColumnName();
 
-                        if (valueObj instanceof File)
+                        if (valueObj instanceof File || valueObj instanceof InputStream)
                         {
                             // Key
                             Key key = Key.createKey(majorKeyComponent, columnName + OracleNOSQLConstants.LOB_SUFFIX);
-                            File lobFile = (File) valueObj;
-                            handler.saveLOBFile(key, lobFile);
+                            lobs.put(key, valueObj);
                         }
                         else
                         {
@@ -549,7 +673,33 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
                 }
             }
         }
-        handler.execute(persistOperations);
+        return persistOperations;
+    }
+
+    /**
+     * Saves or deletes LOBs, in order of keys.
+     * 
+     * @param lobs
+     *            {@link File} or {@link InputStream} to save, or
+     *            {@link #DELETED_LOB}, by key.
+     */
+    private void writeLOBs(Map<Key, Object> lobs)
+    {
+        for (Map.Entry<Key, Object> lob : lobs.entrySet())
+        {
+            if (lob.getValue() == DELETED_LOB)
+            {
+                kvStore.deleteLOB(lob.getKey(), durability, timeout, timeUnit);
+            }
+            else if (lob.getValue() instanceof File)
+            {
+                handler.saveLOBFile(lob.getKey(), (File) lob.getValue());
+            }
+            else
+            {
+                handler.saveLOBStream(lob.getKey(), (InputStream) lob.getValue());
+            }
+        }
     }
 
     @Override
@@ -629,28 +779,109 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
         }
     }
 
+    /**
+     * Finds records of given keys, at most {@link #getReadParallelism()} of
+     * them concurrently. Results are in order of keys.
+     */
     @Override
-    public <E> List<E> findAll(Class<E> entityClass, String[] columnsToSelect, Object... keys)
+    public <E> List<E> findAll(final Class<E> entityClass, String[] columnsToSelect, Object... keys)
     {
-        List<E> results = new ArrayList<E>();
+        final List<String> columns = columnsToSelect != null ? Arrays.asList(columnsToSelect) : new ArrayList<String>();
+        final Object[] ids = keys;
+        final Object[] found = new Object[ids.length];
+        final int tasks = Math.min(readParallelism, ids.length);
 
-        if (columnsToSelect == null)
+        if (tasks <= 1 || executor == null)
         {
-            columnsToSelect = new String[0];
+            for (int i = 0; i < ids.length; i++)
+            {
+                found[i] = find(entityClass, ids[i], columns);
+            }
         }
-
-        for (Object key : keys)
+        else
         {
-            results.add((E) find(entityClass, key, Arrays.asList(columnsToSelect)));
+            List<Future<?>> futures = new ArrayList<Future<?>>(tasks);
+            for (int t = 0; t < tasks; t++)
+            {
+                final int offset = t;
+                futures.add(executor.submit(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        for (int i = offset; i < ids.length; i += tasks)
+                        {
+                            found[i] = find(entityClass, ids[i], columns);
+                        }
+                    }
+                }));
+            }
+            awaitTasks(futures);
         }
 
+        List<E> results = new ArrayList<E>(found.length);
+        for (Object entity : found)
+        {
+            results.add((E) entity);
+        }
         return results;
     }
 
+    /**
+     * Waits for all tasks, rethrows first failure.
+     * 
+     * @param futures
+     *            pending tasks.
+     */
+    private void awaitTasks(List<Future<?>> futures)
+    {
+        PersistenceException failure = null;
+        for (Future<?> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new PersistenceException(e);
+            }
+            catch (ExecutionException e)
+            {
+                if (failure == null)
+                {
+                    failure = e.getCause() instanceof PersistenceException ? (PersistenceException) e.getCause()
+                            : new PersistenceException(e.getCause());
+                }
+            }
+        }
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
     public <E> List<E> executeQuery(Class<E> entityClass, OracleNoSQLQueryInterpreter interpreter,
             Set<Object> primaryKeys)
     {
-        List<E> results = new ArrayList<E>();
+        return executeQuery(entityClass, interpreter, primaryKeys, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Executes query, reading at most maxResults records.
+     * 
+     * @param entityClass
+     * @param interpreter
+     * @param primaryKeys
+     *            keys to read along with query results, may be null.
+     * @param maxResults
+     *            maximum number of records read.
+     * @return entities.
+     */
+    public <E> List<E> executeQuery(Class<E> entityClass, OracleNoSQLQueryInterpreter interpreter,
+            Set<Object> primaryKeys, int maxResults)
+    {
         if (primaryKeys == null)
         {
             primaryKeys = new HashSet<Object>();
@@ -661,34 +892,45 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
             // Select Query with where clause (requires search within inverted
             // index)
             primaryKeys.addAll(((OracleNoSQLInvertedIndexer) getIndexManager().getIndexer()).executeQuery(interpreter,
-                    entityClass));
+                    entityClass, maxResults));
 
+            return findAll(entityClass, interpreter.getSelectColumns(), primaryKeys.toArray());
         }
-        else
-        {
-            EntityMetadata m = KunderaMetadataManager.getEntityMetadata(entityClass);
-
-            ArrayList<String> majorComponents = new ArrayList<String>();
-            majorComponents.add(m.getTableName());
 
-            Key key = Key.createKey(majorComponents);
+        List<E> results = findAll(entityClass, interpreter.getSelectColumns(), primaryKeys.toArray());
+        int remaining = maxResults - results.size();
 
-            Iterator<KeyValueVersion> iterator = kvStore.storeIterator(Direction.UNORDERED, 0, key, null, null);
+        EntityMetadata m = KunderaMetadataManager.getEntityMetadata(entityClass);
+        Key key = Key.createKey(m.getTableName());
 
-            Set<Object> keySet = new HashSet<Object>();
+        // Keys only, records are read by findAll in batches as keys stream in.
+        // Keys come unordered, each record once per minor key, so ids seen
+        // are kept, converted to id type as given primary keys are.
+        Iterator<Key> iterator = kvStore.storeKeysIterator(Direction.UNORDERED, 0, key, null, null);
+        Class<?> idClass = m.getIdAttribute().getJavaType();
+        Set<Object> seen = new HashSet<Object>(primaryKeys);
 
-            while (iterator.hasNext())
+        List<Object> batch = new ArrayList<Object>(OracleNOSQLConstants.KEY_BATCH_SIZE);
+        while (remaining > 0 && iterator.hasNext())
+        {
+            Object id = PropertyAccessorHelper.fromSourceToTargetClass(idClass, String.class, iterator.next()
+                    .getMajorPath().get(1));
+            if (seen.add(id))
             {
-                KeyValueVersion keyValueVersion = iterator.next();
-
-                String majorKeySecondPart = keyValueVersion.getKey().getMajorPath().get(1);
-                keySet.add(majorKeySecondPart);
+                batch.add(id);
+                remaining--;
             }
 
-            primaryKeys.addAll(keySet);
+            if (batch.size() == OracleNOSQLConstants.KEY_BATCH_SIZE)
+            {
+                results.addAll(findAll(entityClass, interpreter.getSelectColumns(), batch.toArray()));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty())
+        {
+            results.addAll(findAll(entityClass, interpreter.getSelectColumns(), batch.toArray()));
         }
-
-        results = findAll(entityClass, interpreter.getSelectColumns(), primaryKeys.toArray());
 
         return results;
     }
@@ -887,31 +1129,168 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
         return handler;
     }
 
+    /**
+     * Collects put and delete operations of all dirty nodes, grouped by major
+     * key, only last operation on a key being kept. Each group is executed
+     * atomically by {@link KVStore#execute(List)} in chunks of at most
+     * {@link OracleNOSQLConstants#MAX_EXECUTE_OPERATIONS}, and at most
+     * {@link #getWriteParallelism()} groups are executed concurrently. LOBs
+     * are not part of operations, they are written once all groups are
+     * executed.
+     */
     @Override
     public int executeBatch()
     {
+        Map<List<String>, Map<Key, Operation>> groups = new LinkedHashMap<List<String>, Map<Key, Operation>>();
+        Map<Key, Object> lobs = new LinkedHashMap<Key, Object>();
+        List<Node> removed = new ArrayList<Node>();
+        List<Node> dirty = new ArrayList<Node>();
+
         for (Node node : nodes)
         {
             if (node.isDirty())
             {
                 node.handlePreEvent();
-                // delete can not be executed in batch
+                EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
+                List<Operation> operations;
                 if (node.isInState(RemovedState.class))
                 {
-                    delete(node.getData(), node.getEntityId());
+                    // Earlier writes to record in this batch are superseded.
+                    discard(groups, lobs, metadata.getTableName(), node.getEntityId());
+                    operations = getDeleteOperations(metadata, node.getEntityId(), lobs);
+                    removed.add(node);
                 }
                 else
                 {
-                    EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
                     List<RelationHolder> relationHolders = getRelationHolders(node);
-                    onPersist(metadata, node.getData(), node.getEntityId(), relationHolders);
+                    operations = getPersistOperations(metadata, node.getData(), node.getEntityId(), relationHolders,
+                            lobs);
                 }
-                node.handlePostEvent();
+                addToGroups(groups, operations);
+                dirty.add(node);
             }
         }
+
+        List<List<Operation>> operations = new ArrayList<List<Operation>>(groups.size());
+        for (Map<Key, Operation> group : groups.values())
+        {
+            operations.add(new ArrayList<Operation>(group.values()));
+        }
+        executeGroups(operations);
+        writeLOBs(lobs);
+
+        for (Node node : removed)
+        {
+            EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
+            getIndexManager().remove(metadata, node.getData(), node.getEntityId().toString());
+        }
+        for (Node node : dirty)
+        {
+            node.handlePostEvent();
+        }
         return nodes.size();
     }
 
+    /**
+     * Adds operations to the group of their major key. An operation replaces
+     * an earlier one on the same key, as {@link KVStore#execute(List)} does
+     * not accept two operations on one key.
+     * 
+     * @param groups
+     *            operations by key, per major key path.
+     * @param operations
+     *            operations to add.
+     */
+    private void addToGroups(Map<List<String>, Map<Key, Operation>> groups, List<Operation> operations)
+    {
+        for (Operation operation : operations)
+        {
+            List<String> majorPath = operation.getKey().getMajorPath();
+            Map<Key, Operation> group = groups.get(majorPath);
+            if (group == null)
+            {
+                group = new LinkedHashMap<Key, Operation>();
+                groups.put(majorPath, group);
+            }
+            group.remove(operation.getKey());
+            group.put(operation.getKey(), operation);
+        }
+    }
+
+    /**
+     * Discards operations and LOBs collected so far for given record.
+     * 
+     * @param groups
+     *            operations by key, per major key path.
+     * @param lobs
+     *            LOBs to write, by key.
+     * @param table
+     *            table of record.
+     * @param id
+     *            id of record.
+     */
+    private void discard(Map<List<String>, Map<Key, Operation>> groups, Map<Key, Object> lobs, String table,
+            Object id)
+    {
+        List<String> majorPath = Arrays.asList(table, PropertyAccessorHelper.getString(id));
+        groups.remove(majorPath);
+        Iterator<Key> keys = lobs.keySet().iterator();
+        while (keys.hasNext())
+        {
+            if (keys.next().getMajorPath().equals(majorPath))
+            {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Executes groups of operations, at most {@link #getWriteParallelism()}
+     * of them concurrently.
+     * 
+     * @param groups
+     *            operations sharing a major key, per group.
+     */
+    private void executeGroups(final List<List<Operation>> groups)
+    {
+        final int tasks = Math.min(writeParallelism, groups.size());
+        if (tasks <= 1 || executor == null)
+        {
+            for (List<Operation> group : groups)
+            {
+                executeGroup(group);
+            }
+            return;
+        }
+
+        List<Future<?>> futures = new ArrayList<Future<?>>(tasks);
+        for (int t = 0; t < tasks; t++)
+        {
+            final int offset = t;
+            futures.add(executor.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for (int i = offset; i < groups.size(); i += tasks)
+                    {
+                        executeGroup(groups.get(i));
+                    }
+                }
+            }));
+        }
+        awaitTasks(futures);
+    }
+
+    private void executeGroup(List<Operation> group)
+    {
+        for (int from = 0; from < group.size(); from += OracleNOSQLConstants.MAX_EXECUTE_OPERATIONS)
+        {
+            int to = Math.min(from + OracleNOSQLConstants.MAX_EXECUTE_OPERATIONS, group.size());
+            handler.execute(new ArrayList<Operation>(group.subList(from, to)));
+        }
+    }
+
     @Override
     public int getBatchSize()
     {
@@ -1011,6 +1390,41 @@ public class OracleNoSQLClient extends ClientBase implements Client<OracleNoSQLQ
         this.consistency = consistency;
     }
 
+    /**
+     * @param readParallelism
+     *            number of records read concurrently by findAll
+     */
+    public void setReadParallelism(int readParallelism)
+    {
+        this.readParallelism = readParallelism;
+    }
+
+    /**
+     * @return number of records read concurrently by findAll
+     */
+    public int getReadParallelism()
+    {
+        return readParallelism;
+    }
+
+    /**
+     * @param writeParallelism
+     *            number of operation groups written concurrently by
+     *            executeBatch
+     */
+    public void setWriteParallelism(int writeParallelism)
+    {
+        this.writeParallelism = writeParallelism;
+    }
+
+    /**
+     * @return number of operation groups written concurrently by executeBatch
+     */
+    public int getWriteParallelism()
+    {
+        return writeParallelism;
+    }
+
     /**
      * @return the timeout
      */
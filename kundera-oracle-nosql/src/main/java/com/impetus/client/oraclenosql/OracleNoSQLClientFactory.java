@@ -17,6 +17,10 @@ package com.impetus.client.oraclenosql;
 
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import oracle.kv.KVStore;
 import oracle.kv.KVStoreConfig;
@@ -51,6 +55,9 @@ public class OracleNoSQLClientFactory extends GenericClientFactory
     /** The kvstore db. */
     private KVStore kvStore;
 
+    /** Executor shared by clients to read and write records concurrently. */
+    private ExecutorService executor;
+
     @Override
     public SchemaManager getSchemaManager(Map<String, Object> puProperties)
     {
@@ -63,6 +70,7 @@ public class OracleNoSQLClientFactory extends GenericClientFactory
         initializePropertyReader();
         setExternalProperties(puProperties);
         reader = new OracleNoSQLEntityReader();
+        executor = Executors.newCachedThreadPool(new WorkerThreadFactory());
     }
 
     @Override
@@ -73,7 +81,7 @@ public class OracleNoSQLClientFactory extends GenericClientFactory
                 .getProperty(PersistenceProperties.KUNDERA_INDEXER_CLASS);
 
         Client client = new OracleNoSQLClient(this, reader, indexManager, kvStore, externalProperties,
-                getPersistenceUnit());
+                getPersistenceUnit(), executor);
         populateIndexer(indexerClass, client);
 
         return client;
@@ -106,6 +114,12 @@ public class OracleNoSQLClientFactory extends GenericClientFactory
         {
             logger.warn("Can't close connection to kvStore, it was already disconnected");
         }
+
+        if (executor != null)
+        {
+            executor.shutdown();
+            executor = null;
+        }
     }
 
     @Override
@@ -161,6 +175,23 @@ public class OracleNoSQLClientFactory extends GenericClientFactory
         return KVStoreFactory.getStore(new KVStoreConfig(storeName, hostName + ":" + defaultPort));
     }
 
+    /**
+     * Creates daemon threads, so that a factory which is never destroyed does
+     * not keep the JVM alive.
+     */
+    private static class WorkerThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread thread = new Thread(r, "kundera-oraclenosql-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     @Override
     protected void initializeLoadBalancer(String loadBalancingPolicyName)
     {
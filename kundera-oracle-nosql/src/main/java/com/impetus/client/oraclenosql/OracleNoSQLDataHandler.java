@@ -37,7 +37,6 @@ import oracle.kv.Key;
 import oracle.kv.KeyValueVersion;
 import oracle.kv.Operation;
 import oracle.kv.OperationExecutionException;
-import oracle.kv.Version;
 import oracle.kv.lob.InputStreamVersion;
 
 import org.apache.commons.logging.Log;
@@ -112,6 +111,8 @@ public class OracleNoSQLDataHandler
     }
 
     /**
+     * Copies LOB into a local file, only used for {@link File} attributes.
+     * 
      * @param keyValueVersion
      * @param fileName
      * @return
@@ -125,16 +126,40 @@ public class OracleNoSQLDataHandler
         InputStream is = istreamVersion.getInputStream();
 
         File lobFile = new File(fileName);
-        OutputStream os = new FileOutputStream(lobFile);
-        int read = 0;
-        byte[] bytes = new byte[OracleNOSQLConstants.OUTPUT_BUFFER_SIZE];
-        while ((read = is.read(bytes)) != -1)
+        OutputStream os = null;
+        try
         {
-            os.write(bytes, 0, read);
+            os = new FileOutputStream(lobFile);
+            int read = 0;
+            byte[] bytes = new byte[OracleNOSQLConstants.OUTPUT_BUFFER_SIZE];
+            while ((read = is.read(bytes)) != -1)
+            {
+                os.write(bytes, 0, read);
+            }
+        }
+        finally
+        {
+            is.close();
+            if (os != null)
+            {
+                os.close();
+            }
         }
         return lobFile;
     }
 
+    /**
+     * Returns a lazy stream on LOB, opened on first read.
+     * 
+     * @param key
+     *            key of the LOB.
+     * @return LOB stream.
+     */
+    public InputStream getLOBStream(Key key)
+    {
+        return new LOBInputStream(kvStore, key, client.getConsistency(), client.getTimeout(), client.getTimeUnit());
+    }
+
     /**
      * @param minorKey
      * @return
@@ -162,8 +187,14 @@ public class OracleNoSQLDataHandler
         try
         {
             FileInputStream fis = new FileInputStream(lobFile);
-            Version version = kvStore.putLOB(key, fis, client.getDurability(), client.getTimeout(),
-                    client.getTimeUnit());
+            try
+            {
+                kvStore.putLOB(key, fis, client.getDurability(), client.getTimeout(), client.getTimeUnit());
+            }
+            finally
+            {
+                fis.close();
+            }
         }
         catch (FileNotFoundException e)
         {
@@ -175,4 +206,36 @@ public class OracleNoSQLDataHandler
         }
     }
 
+    /**
+     * Streams LOB to Oracle KV Store. Stream is consumed and closed, a lazy
+     * LOB stream read from the same key is left untouched as it would be
+     * overwritten by itself.
+     * 
+     * @param key
+     * @param lobStream
+     */
+    public void saveLOBStream(Key key, InputStream lobStream)
+    {
+        if (lobStream instanceof LOBInputStream && ((LOBInputStream) lobStream).getKey().equals(key))
+        {
+            return;
+        }
+
+        try
+        {
+            try
+            {
+                kvStore.putLOB(key, lobStream, client.getDurability(), client.getTimeout(), client.getTimeUnit());
+            }
+            finally
+            {
+                lobStream.close();
+            }
+        }
+        catch (IOException e)
+        {
+            log.warn("IOException while writing LOB " + key + ". This is being omitted. Caused by:" + e + ".");
+        }
+    }
+
 }
\ No newline at end of file
@@ -48,6 +48,10 @@ public class OracleNoSQLClientProperties
 
     private static final String CONSISTENCY = "consistency";
 
+    private static final String READ_PARALLELISM = "read.parallelism";
+
+    private static final String WRITE_PARALLELISM = "write.parallelism";
+
     public void populateClientProperties(Client client, Map<String, Object> properties)
     {
         OracleNoSQLClient oracleNoSQLClient = (OracleNoSQLClient) client;
@@ -76,6 +80,16 @@ public class OracleNoSQLClientProperties
                     oracleNoSQLClient.setConsistency((Consistency) value);
                 }
 
+                else if (key.equals(READ_PARALLELISM) && value instanceof Integer)
+                {
+                    oracleNoSQLClient.setReadParallelism((Integer) value);
+                }
+
+                else if (key.equals(WRITE_PARALLELISM) && value instanceof Integer)
+                {
+                    oracleNoSQLClient.setWriteParallelism((Integer) value);
+                }
+
                 // Add more properties as needed
             }
         }
@@ -16,9 +16,12 @@
 package com.impetus.client.oraclenosql.index;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -33,6 +36,7 @@ import oracle.kv.Key;
 import oracle.kv.KeyRange;
 import oracle.kv.KeyValueVersion;
 import oracle.kv.Value;
+import oracle.kv.ValueVersion;
 
 import com.impetus.client.oraclenosql.OracleNOSQLConstants;
 import com.impetus.client.oraclenosql.OracleNoSQLDataHandler;
@@ -54,6 +58,8 @@ import com.impetus.kundera.query.KunderaQuery.FilterClause;
  */
 public class OracleNoSQLInvertedIndexer implements Indexer
 {
+    /** Candidate keys above this are intersected with next clause instead of probed */
+    private static final int MAX_PROBED_KEYS = 1000;
 
     private KVStore kvStore;
 
@@ -129,11 +135,84 @@ public class OracleNoSQLInvertedIndexer implements Indexer
     }
 
     public <E> Set<E> executeQuery(OracleNoSQLQueryInterpreter interpreter, Class<?> entityClass)
+    {
+        return executeQuery(interpreter, entityClass, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds keys of entities matching where clause of a query, at most
+     * maxResults of them. Clauses of a query joined by AND only are evaluated
+     * by estimated selectivity: the most selective one is read from index
+     * and remaining ones are probed for its keys only, unless it yields too
+     * many keys to probe. A clause matching no key thus empties the result,
+     * where clause by clause evaluation used to skip it. Other queries are
+     * evaluated clause by clause.
+     * 
+     * @param interpreter
+     *            query interpreter.
+     * @param entityClass
+     *            entity class.
+     * @param maxResults
+     *            maximum number of keys.
+     * @return matching keys.
+     */
+    public <E> Set<E> executeQuery(OracleNoSQLQueryInterpreter interpreter, Class<?> entityClass, int maxResults)
     {
         EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entityClass);
-        String idColumnName = ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName();
-        String secIndexName = getIndexTableName(entityMetadata);
+        final String idColumnName = ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName();
+
+        List<FilterClause> clauses = getConjunctiveClauses(interpreter.getClauseQueue(), entityMetadata);
+        if (clauses == null || clauses.isEmpty())
+        {
+            return (Set<E>) limit(executeClauseByClause(interpreter, entityMetadata), maxResults);
+        }
+
+        // Stable, clauses of same rank keep query order
+        Collections.sort(clauses, new Comparator<FilterClause>()
+        {
+            @Override
+            public int compare(FilterClause c1, FilterClause c2)
+            {
+                return getSelectivityRank(c1, idColumnName) - getSelectivityRank(c2, idColumnName);
+            }
+        });
+
+        Set<Object> candidates = findKeys(clauses.get(0), entityMetadata, clauses.size() == 1 ? maxResults
+                : Integer.MAX_VALUE);
+
+        int next = 1;
+        while (next < clauses.size() && candidates.size() > MAX_PROBED_KEYS)
+        {
+            candidates.retainAll(findKeys(clauses.get(next++), entityMetadata, Integer.MAX_VALUE));
+        }
+
+        List<FilterClause> clausesToProbe = clauses.subList(next, clauses.size());
+        if (clausesToProbe.isEmpty())
+        {
+            return (Set<E>) limit(candidates, maxResults);
+        }
 
+        Set<Object> results = new LinkedHashSet<Object>();
+        for (Object key : candidates)
+        {
+            if (results.size() >= maxResults)
+            {
+                break;
+            }
+            if (matches(key, clausesToProbe, entityMetadata))
+            {
+                results.add(key);
+            }
+        }
+        return (Set<E>) results;
+    }
+
+    /**
+     * Evaluates each clause into a set of keys, combined by inter clause
+     * operators.
+     */
+    private Set<Object> executeClauseByClause(OracleNoSQLQueryInterpreter interpreter, EntityMetadata entityMetadata)
+    {
         Set<Object> results = new HashSet<Object>();
         Set<Object> foundKeys = new HashSet<Object>();
         String interClauseOperator = null;
@@ -144,86 +223,241 @@ public class OracleNoSQLInvertedIndexer implements Indexer
         {
             if (clause instanceof FilterClause)
             {
-                foundKeys = new HashSet<Object>();
+                foundKeys = findKeys((FilterClause) clause, entityMetadata, Integer.MAX_VALUE);
+            }
+            else if (clause instanceof String)
+            {
+                interClauseOperator = clause.toString();
+            }
 
-                String columnName = ((FilterClause) clause).getProperty();
-                String condition = ((FilterClause) clause).getCondition();
-                Object value = ((FilterClause) clause).getValue();
+            addToResults(results, foundKeys, interClauseOperator);
+        }
+
+        return results;
+    }
 
-                if (columnName.equals(((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName())
-                        && condition.equals("="))
+    /**
+     * Returns filter clauses of given queue if they are all joined by AND and
+     * can be probed for a key, null otherwise.
+     */
+    private List<FilterClause> getConjunctiveClauses(Queue clauseQueue, EntityMetadata entityMetadata)
+    {
+        String idColumnName = ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName();
+        List<FilterClause> clauses = new ArrayList<FilterClause>();
+        for (Object clause : clauseQueue)
+        {
+            if (clause instanceof FilterClause)
+            {
+                String columnName = ((FilterClause) clause).getProperty();
+                if (!columnName.equals(idColumnName) && entityMetadata.getFieldName(columnName) == null)
                 {
-                    Object idValue = PropertyAccessorHelper.fromSourceToTargetClass(entityMetadata.getIdAttribute()
-                            .getJavaType(), String.class, value);
-                    foundKeys.add(idValue);
+                    return null;
                 }
-                else
-                {
-                    List<String> majorComponents = new ArrayList<String>();
-                    majorComponents.add(secIndexName);
-                    majorComponents.add(columnName);
+                clauses.add((FilterClause) clause);
+            }
+            else if (clause instanceof String && !clause.toString().trim().equalsIgnoreCase("AND"))
+            {
+                return null;
+            }
+        }
+        return clauses;
+    }
 
-                    KeyRange range = null;
-                    Iterator<KeyValueVersion> iterator = null;
+    /**
+     * Estimated selectivity, lower is more selective: equality on id matches
+     * a single key, equality on a column reads a single index partition,
+     * ranges scan the column's index.
+     */
+    private int getSelectivityRank(FilterClause clause, String idColumnName)
+    {
+        if (clause.getCondition().equals("="))
+        {
+            return clause.getProperty().equals(idColumnName) ? 0 : 1;
+        }
+        return 2;
+    }
 
-                    if (condition.equals("="))
-                    {
-                        majorComponents.add(PropertyAccessorHelper.getString(value));
-                        Key majorKeyToFind = Key.createKey(majorComponents);
-                        iterator = kvStore.multiGetIterator(Direction.FORWARD, 0, majorKeyToFind, range, null);
-                    }
-                    else if (condition.equals(">"))
-                    {
-                        range = new KeyRange(value.toString(), false, null, true);
-                        Key majorKeyToFind = Key.createKey(majorComponents);
-                        iterator = kvStore.storeIterator(Direction.UNORDERED, 0, majorKeyToFind, range, null);
-                    }
-                    else if (condition.equals("<"))
-                    {
-                        range = new KeyRange(null, true, value.toString(), false);
-                        Key majorKeyToFind = Key.createKey(majorComponents);
-                        iterator = kvStore.storeIterator(Direction.UNORDERED, 0, majorKeyToFind, range, null);
-                    }
-                    else if (condition.equals(">="))
-                    {
-                        range = new KeyRange(value.toString(), true, null, true);
-                        Key majorKeyToFind = Key.createKey(majorComponents);
-                        iterator = kvStore.storeIterator(Direction.UNORDERED, 0, majorKeyToFind, range, null);
-                    }
-                    else if (condition.equals("<="))
-                    {
-                        range = new KeyRange(null, true, value.toString(), true);
-                        Key majorKeyToFind = Key.createKey(majorComponents);
-                        iterator = kvStore.storeIterator(Direction.UNORDERED, 0, majorKeyToFind, range, null);
-                    }
+    /**
+     * Reads keys matching given clause from index, at most limit of them.
+     */
+    private Set<Object> findKeys(FilterClause clause, EntityMetadata entityMetadata, int limit)
+    {
+        Set<Object> foundKeys = new LinkedHashSet<Object>();
+        String secIndexName = getIndexTableName(entityMetadata);
 
-                    while (iterator.hasNext())
-                    {
-                        KeyValueVersion keyValueVersion = iterator.next();
-                        String minorKey = keyValueVersion.getKey().getMinorPath().get(0);
+        String columnName = clause.getProperty();
+        String condition = clause.getCondition();
+        Object value = clause.getValue();
+
+        if (columnName.equals(((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName())
+                && condition.equals("="))
+        {
+            Object idValue = PropertyAccessorHelper.fromSourceToTargetClass(entityMetadata.getIdAttribute()
+                    .getJavaType(), String.class, value);
+            foundKeys.add(idValue);
+            return foundKeys;
+        }
 
-                        PropertyAccessor accessor = PropertyAccessorFactory.getPropertyAccessor(entityMetadata
-                                .getIdAttribute().getBindableJavaType());
+        List<String> majorComponents = new ArrayList<String>();
+        majorComponents.add(secIndexName);
+        majorComponents.add(columnName);
 
-                        byte[] idByteArr = keyValueVersion.getValue().getValue();
-                        Object keyObj = accessor.fromBytes(entityMetadata.getIdAttribute().getBindableJavaType(),
-                                idByteArr);
+        KeyRange range = null;
+        Iterator<KeyValueVersion> iterator = null;
 
-                        foundKeys.add(keyObj);
-                    }
+        if (condition.equals("="))
+        {
+            majorComponents.add(PropertyAccessorHelper.getString(value));
+            Key majorKeyToFind = Key.createKey(majorComponents);
+            iterator = kvStore.multiGetIterator(Direction.FORWARD, 0, majorKeyToFind, range, null);
+        }
+        else if (condition.equals(">"))
+        {
+            range = new KeyRange(value.toString(), false, null, true);
+            Key majorKeyToFind = Key.createKey(majorComponents);
+            iterator = kvStore.storeIterator(Direction.UNORDERED, 0, majorKeyToFind, range, null);
+        }
+        else if (condition.equals("<"))
+        {
+            range = new KeyRange(null, true, value.toString(), false);
+            Key majorKeyToFind = Key.createKey(majorComponents);
+            iterator = kvStore.storeIterator(Direction.UNORDERED, 0, majorKeyToFind, range, null);
+        }
+        else if (condition.equals(">="))
+        {
+            range = new KeyRange(value.toString(), true, null, true);
+            Key majorKeyToFind = Key.createKey(majorComponents);
+            iterator = kvStore.storeIterator(Direction.UNORDERED, 0, majorKeyToFind, range, null);
+        }
+        else if (condition.equals("<="))
+        {
+            range = new KeyRange(null, true, value.toString(), true);
+            Key majorKeyToFind = Key.createKey(majorComponents);
+            iterator = kvStore.storeIterator(Direction.UNORDERED, 0, majorKeyToFind, range, null);
+        }
+        else
+        {
+            throw new UnsupportedOperationException("Condition " + condition + " is not supported for OracleNoSQL.");
+        }
+
+        PropertyAccessor accessor = PropertyAccessorFactory.getPropertyAccessor(entityMetadata.getIdAttribute()
+                .getBindableJavaType());
+
+        while (iterator.hasNext() && foundKeys.size() < limit)
+        {
+            KeyValueVersion keyValueVersion = iterator.next();
+
+            byte[] idByteArr = keyValueVersion.getValue().getValue();
+            Object keyObj = accessor.fromBytes(entityMetadata.getIdAttribute().getBindableJavaType(), idByteArr);
 
+            foundKeys.add(keyObj);
+        }
+        return foundKeys;
+    }
+
+    /**
+     * Whether record of given key matches all clauses. Equality is checked by
+     * a single get on index entry, other conditions by reading the record's
+     * column and comparing it as the index range would.
+     */
+    private boolean matches(Object key, List<FilterClause> clauses, EntityMetadata entityMetadata)
+    {
+        String idString = PropertyAccessorHelper.getString(key);
+        String idColumnName = ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName();
+
+        for (FilterClause clause : clauses)
+        {
+            String columnName = clause.getProperty();
+            String condition = clause.getCondition();
+            Object value = clause.getValue();
+
+            if (columnName.equals(idColumnName))
+            {
+                String idValue = condition.equals("=") ? PropertyAccessorHelper.getString(value) : value.toString();
+                if (!compare(idString, condition, idValue))
+                {
+                    return false;
                 }
             }
-            else if (clause instanceof String)
+            else if (condition.equals("="))
             {
-                interClauseOperator = clause.toString();
+                List<String> majorComponents = new ArrayList<String>();
+                majorComponents.add(getIndexTableName(entityMetadata));
+                majorComponents.add(columnName);
+                majorComponents.add(PropertyAccessorHelper.getString(value));
+                if (kvStore.get(Key.createKey(majorComponents, idString)) == null)
+                {
+                    return false;
+                }
             }
+            else
+            {
+                List<String> majorComponents = new ArrayList<String>();
+                majorComponents.add(entityMetadata.getTableName());
+                majorComponents.add(idString);
+                ValueVersion valueVersion = kvStore.get(Key.createKey(majorComponents, columnName));
+                if (valueVersion == null)
+                {
+                    return false;
+                }
 
-            addToResults(results, foundKeys, interClauseOperator);
+                MetamodelImpl metamodel = (MetamodelImpl) KunderaMetadataManager.getMetamodel(entityMetadata
+                        .getPersistenceUnit());
+                Attribute attribute = metamodel.entity(entityMetadata.getEntityClazz()).getAttribute(
+                        entityMetadata.getFieldName(columnName));
+                Object columnValue = PropertyAccessorHelper.getObject(
+                        ((AbstractAttribute) attribute).getBindableJavaType(), valueVersion.getValue().getValue());
+                if (!compare(PropertyAccessorHelper.getString(columnValue), condition, value.toString()))
+                {
+                    return false;
+                }
+            }
         }
+        return true;
+    }
 
-        return (Set<E>) results;
+    private boolean compare(String actual, String condition, String value)
+    {
+        int result = actual.compareTo(value);
+        if (condition.equals("="))
+        {
+            return result == 0;
+        }
+        else if (condition.equals(">"))
+        {
+            return result > 0;
+        }
+        else if (condition.equals("<"))
+        {
+            return result < 0;
+        }
+        else if (condition.equals(">="))
+        {
+            return result >= 0;
+        }
+        else if (condition.equals("<="))
+        {
+            return result <= 0;
+        }
+        throw new UnsupportedOperationException("Condition " + condition + " is not supported for OracleNoSQL.");
+    }
 
+    private Set<Object> limit(Set<Object> keys, int maxResults)
+    {
+        if (keys.size() <= maxResults)
+        {
+            return keys;
+        }
+        Set<Object> limited = new LinkedHashSet<Object>();
+        for (Object key : keys)
+        {
+            if (limited.size() >= maxResults)
+            {
+                break;
+            }
+            limited.add(key);
+        }
+        return limited;
     }
 
     @Override
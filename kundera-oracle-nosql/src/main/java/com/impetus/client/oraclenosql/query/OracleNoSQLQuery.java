@@ -103,7 +103,7 @@ public class OracleNoSQLQuery extends QueryImpl
         {
 
             results.addAll((List<Object>) ((OracleNoSQLClient) client).executeQuery(m.getEntityClazz(), interpreter,
-                    null));
+                    null, maxResult));
         }
 
         List<Object> output = new ArrayList<Object>();
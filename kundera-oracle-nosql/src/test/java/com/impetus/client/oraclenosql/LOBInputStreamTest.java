@@ -0,0 +1,109 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.oraclenosql;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import oracle.kv.Consistency;
+import oracle.kv.KVStore;
+import oracle.kv.Key;
+import oracle.kv.lob.InputStreamVersion;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for lazy reads of {@link LOBInputStream}, against a store which
+ * counts LOBs opened.
+ * 
+ * @author impetus
+ */
+public class LOBInputStreamTest
+{
+    private static final byte[] CONTENT = "lazy LOB".getBytes();
+
+    private Key key = Key.createKey("USER_DOCUMENT", "CONTENT.lob");
+
+    private int opened;
+
+    private KVStore kvStore;
+
+    @Before
+    public void setUp()
+    {
+        opened = 0;
+        kvStore = (KVStore) Proxy.newProxyInstance(KVStore.class.getClassLoader(), new Class[] { KVStore.class },
+                new InvocationHandler()
+                {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+                    {
+                        if (!method.getName().equals("getLOB"))
+                        {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        Assert.assertEquals(key, args[0]);
+                        opened++;
+                        return new InputStreamVersion(new ByteArrayInputStream(CONTENT), null);
+                    }
+                });
+    }
+
+    @Test
+    public void testOpenedOnFirstRead() throws IOException
+    {
+        LOBInputStream lob = new LOBInputStream(kvStore, key, Consistency.NONE_REQUIRED, 5, TimeUnit.SECONDS);
+        Assert.assertEquals(key, lob.getKey());
+        Assert.assertEquals(0, lob.available());
+        Assert.assertEquals(0, opened);
+
+        Assert.assertEquals(CONTENT[0], lob.read());
+        Assert.assertEquals(1, opened);
+
+        byte[] bytes = new byte[CONTENT.length];
+        int read = lob.read(bytes, 1, CONTENT.length - 1);
+        Assert.assertEquals(CONTENT.length - 1, read);
+        Assert.assertEquals(-1, lob.read());
+
+        // stream is opened once.
+        Assert.assertEquals(1, opened);
+        lob.close();
+    }
+
+    @Test
+    public void testNeverOpenedIfNotRead() throws IOException
+    {
+        LOBInputStream lob = new LOBInputStream(kvStore, key, Consistency.NONE_REQUIRED, 5, TimeUnit.SECONDS);
+        lob.close();
+        Assert.assertEquals(0, opened);
+
+        try
+        {
+            lob.read();
+            Assert.fail("Closed LOB stream must not be read");
+        }
+        catch (IOException e)
+        {
+            Assert.assertEquals(0, opened);
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.impetus.client.oraclenosql;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -32,10 +33,12 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.impetus.client.oraclenosql.entities.PersonKVStore;
 import com.impetus.client.oraclenosql.entities.PersonOTOOracleNoSQL;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.persistence.context.jointable.JoinTableData;
 import com.impetus.kundera.persistence.context.jointable.JoinTableData.OPERATION;
+import com.impetus.kundera.property.PropertyAccessorHelper;
 
 /**
  * Test case for {@link OracleNoSQLClient}
@@ -128,4 +131,85 @@ public class OracleNoSQLClientTest
 
         Assert.assertTrue(columns.isEmpty());
     }
+
+    /**
+     * Records read concurrently by findAll come back in order of keys, and a
+     * select all query returns each record once.
+     */
+    @Test
+    public void testConcurrentFindAll()
+    {
+        EntityManager em = emf.createEntityManager();
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        OracleNoSQLClient client = (OracleNoSQLClient) clients.get(PU);
+        client.setReadParallelism(4);
+
+        List<String> ids = new ArrayList<String>();
+        for (int i = 1; i <= 20; i++)
+        {
+            em.persist(preparePerson(i + "", "vivek" + i, 10 + i));
+            ids.add(i + "");
+        }
+        em.clear();
+
+        List<PersonKVStore> persons = client.findAll(PersonKVStore.class, null, ids.toArray());
+        Assert.assertEquals(20, persons.size());
+        for (int i = 0; i < 20; i++)
+        {
+            Assert.assertEquals(ids.get(i), persons.get(i).getPersonId());
+            Assert.assertEquals("vivek" + ids.get(i), persons.get(i).getPersonName());
+        }
+
+        javax.persistence.Query query = em.createQuery("Select p from PersonKVStore p");
+        query.setMaxResults(30);
+        List<PersonKVStore> results = query.getResultList();
+        Assert.assertEquals(20, results.size());
+        Set<String> found = new HashSet<String>();
+        for (PersonKVStore person : results)
+        {
+            Assert.assertTrue(found.add(person.getPersonId()));
+        }
+
+        for (PersonKVStore person : persons)
+        {
+            em.remove(person);
+        }
+        em.close();
+    }
+
+    /**
+     * Selecting columns reads only minor keys within their range.
+     */
+    @Test
+    public void testFindAllSelectedColumns() throws Exception
+    {
+        EntityManager em = emf.createEntityManager();
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        OracleNoSQLClient client = (OracleNoSQLClient) clients.get(PU);
+
+        em.persist(preparePerson("1", "vivek", 10));
+        em.clear();
+
+        List<PersonKVStore> persons = client.findAll(PersonKVStore.class, new String[] { "PERSON_NAME" }, "1");
+        Assert.assertEquals(1, persons.size());
+        Assert.assertEquals("vivek", persons.get(0).getPersonName());
+        Assert.assertNull(PropertyAccessorHelper.getObject(persons.get(0),
+                PersonKVStore.class.getDeclaredField("age")));
+
+        persons = client.findAll(PersonKVStore.class, new String[] { "AGE", "PERSON_NAME" }, "1");
+        Assert.assertEquals("vivek", persons.get(0).getPersonName());
+        Assert.assertEquals(10, persons.get(0).getAge());
+
+        em.remove(em.find(PersonKVStore.class, "1"));
+        em.close();
+    }
+
+    private PersonKVStore preparePerson(String id, String name, int age)
+    {
+        PersonKVStore person = new PersonKVStore();
+        person.setPersonId(id);
+        person.setPersonName(name);
+        person.setAge(age);
+        return person;
+    }
 }
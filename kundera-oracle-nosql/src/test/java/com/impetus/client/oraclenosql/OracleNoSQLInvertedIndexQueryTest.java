@@ -0,0 +1,186 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.oraclenosql;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.oraclenosql.entities.PersonKVStore;
+
+/**
+ * Test case for multi clause queries served by inverted index
+ * 
+ * @author impetus
+ */
+public class OracleNoSQLInvertedIndexQueryTest extends OracleNoSQLTestBase
+{
+
+    @Before
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        persistPerson("1", "person1", 10);
+        persistPerson("2", "person2", 20);
+        persistPerson("3", "person3", 30);
+        persistPerson("4", "person4", 40);
+        persistPerson("5", "person2", 20);
+        clearEm();
+    }
+
+    @After
+    public void tearDown()
+    {
+        executeDMLQuery("Delete from PersonKVStore p");
+        super.tearDown();
+    }
+
+    @Test
+    public void testMultiClauseAnd()
+    {
+        if (isLuceneIndexingEnabled())
+        {
+            return;
+        }
+
+        // Equality is read from index, ranges are probed
+        String query = "Select p from PersonKVStore p where p.age>=:min AND p.personName=:personName AND p.age<:max";
+        Map<Object, Object> params = new HashMap<Object, Object>();
+        params.put("min", 15);
+        params.put("personName", "person2");
+        params.put("max", 25);
+        List<PersonKVStore> results = executeSelectQuery(query, params);
+        Assert.assertEquals(2, results.size());
+        for (PersonKVStore person : results)
+        {
+            Assert.assertEquals("person2", person.getPersonName());
+            Assert.assertEquals(20, person.getAge());
+        }
+
+        // Clause on id is most selective
+        clearEm();
+        query = "Select p from PersonKVStore p where p.personName=:personName AND p.personId=:personId AND p.age=:age";
+        params = new HashMap<Object, Object>();
+        params.put("personName", "person2");
+        params.put("personId", "5");
+        params.put("age", 20);
+        results = executeSelectQuery(query, params);
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("5", results.get(0).getPersonId());
+
+        // A clause matching nothing empties the result
+        clearEm();
+        query = "Select p from PersonKVStore p where p.personName=:personName AND p.age=:age";
+        params = new HashMap<Object, Object>();
+        params.put("personName", "nobody");
+        params.put("age", 20);
+        results = executeSelectQuery(query, params);
+        Assert.assertTrue(results.isEmpty());
+
+        clearEm();
+        query = "Select p from PersonKVStore p where p.age>:min AND p.age<:max";
+        params = new HashMap<Object, Object>();
+        params.put("min", 20);
+        params.put("max", 30);
+        results = executeSelectQuery(query, params);
+        Assert.assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void testMultiClauseOr()
+    {
+        if (isLuceneIndexingEnabled())
+        {
+            return;
+        }
+
+        String query = "Select p from PersonKVStore p where p.personName=:personName OR p.age>:min OR p.personId=:personId";
+        Map<Object, Object> params = new HashMap<Object, Object>();
+        params.put("personName", "person2");
+        params.put("min", 30);
+        params.put("personId", "1");
+        List<PersonKVStore> results = executeSelectQuery(query, params);
+        Assert.assertEquals(4, results.size());
+        for (PersonKVStore person : results)
+        {
+            Assert.assertFalse("3".equals(person.getPersonId()));
+        }
+
+        // Clause matching nothing leaves others
+        clearEm();
+        query = "Select p from PersonKVStore p where p.personName=:personName OR p.age=:age";
+        params = new HashMap<Object, Object>();
+        params.put("personName", "nobody");
+        params.put("age", 30);
+        results = executeSelectQuery(query, params);
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("3", results.get(0).getPersonId());
+    }
+
+    @Test
+    public void testMaxResults()
+    {
+        if (isLuceneIndexingEnabled())
+        {
+            return;
+        }
+
+        // Single clause
+        String query = "Select p from PersonKVStore p where p.age>=:min";
+        Map<Object, Object> params = new HashMap<Object, Object>();
+        params.put("min", 20);
+        List<PersonKVStore> results = executeSelectQuery(query, params, 2);
+        Assert.assertEquals(2, results.size());
+
+        // Probed AND clauses
+        clearEm();
+        query = "Select p from PersonKVStore p where p.personName=:personName AND p.age>=:min";
+        params = new HashMap<Object, Object>();
+        params.put("personName", "person2");
+        params.put("min", 20);
+        results = executeSelectQuery(query, params, 1);
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("person2", results.get(0).getPersonName());
+
+        // OR clauses
+        clearEm();
+        query = "Select p from PersonKVStore p where p.age=:age OR p.age>:min";
+        params = new HashMap<Object, Object>();
+        params.put("age", 10);
+        params.put("min", 20);
+        results = executeSelectQuery(query, params, 3);
+        Assert.assertEquals(3, results.size());
+
+        // Without where clause
+        clearEm();
+        results = executeSelectQuery("Select p from PersonKVStore p", null, 4);
+        Assert.assertEquals(4, results.size());
+    }
+
+    private void persistPerson(String personId, String personName, int age)
+    {
+        PersonKVStore person = new PersonKVStore();
+        person.setPersonId(personId);
+        person.setPersonName(personName);
+        person.setAge(age);
+        persist(person);
+    }
+}
@@ -15,7 +15,11 @@
  */
 package com.impetus.client.oraclenosql;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.concurrent.TimeUnit;
 
 import oracle.kv.Consistency;
@@ -26,6 +30,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.impetus.client.oraclenosql.entities.UserDocument;
 import com.impetus.client.oraclenosql.entities.UserProfile;
 
 /**
@@ -75,4 +80,55 @@ public class OracleNoSQLLOBTest extends OracleNoSQLTestBase
         Assert.assertNull(find(UserProfile.class, 1));
 
     }
+
+    @Test
+    public void executeStreamedLOBTest() throws IOException
+    {
+        byte[] content = "Kundera streams LOBs from Oracle NoSQL".getBytes();
+
+        // Save Record
+        persist(new UserDocument(1, "readme", new ByteArrayInputStream(content)));
+
+        // Find Record, LOB is read lazily from store
+        clearEm();
+        UserDocument doc = (UserDocument) find(UserDocument.class, 1);
+        Assert.assertNotNull(doc);
+        Assert.assertEquals("readme", doc.getDocumentName());
+        Assert.assertTrue(doc.getContent() instanceof LOBInputStream);
+        Assert.assertArrayEquals(content, read(doc.getContent()));
+
+        // Update other attribute, unchanged LOB is kept
+        clearEm();
+        doc = (UserDocument) find(UserDocument.class, 1);
+        doc.setDocumentName("notes");
+        update(doc);
+        clearEm();
+        doc = (UserDocument) find(UserDocument.class, 1);
+        Assert.assertEquals("notes", doc.getDocumentName());
+        Assert.assertArrayEquals(content, read(doc.getContent()));
+
+        // Delete Record
+        clearEm();
+        delete(doc);
+        Assert.assertNull(find(UserDocument.class, 1));
+    }
+
+    private byte[] read(InputStream is) throws IOException
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try
+        {
+            byte[] bytes = new byte[1024];
+            int read = 0;
+            while ((read = is.read(bytes)) != -1)
+            {
+                os.write(bytes, 0, read);
+            }
+        }
+        finally
+        {
+            is.close();
+        }
+        return os.toByteArray();
+    }
 }
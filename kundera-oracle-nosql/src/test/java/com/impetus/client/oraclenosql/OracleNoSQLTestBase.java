@@ -101,6 +101,14 @@ public class OracleNoSQLTestBase
         return query.getResultList();
     }
 
+    protected List executeSelectQuery(String jpaQuery, Map<Object, Object> params, int maxResults)
+    {
+        Query query = em.createQuery(jpaQuery);
+        setParams(params, query);
+        query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
     protected int executeDMLQuery(String jpaQuery)
     {
         Query query = em.createQuery(jpaQuery);
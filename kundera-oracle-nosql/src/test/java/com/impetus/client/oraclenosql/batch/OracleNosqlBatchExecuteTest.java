@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.oraclenosql.batch;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import oracle.kv.KVStore;
+import oracle.kv.Key;
+import oracle.kv.Operation;
+import oracle.kv.Value;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.oraclenosql.OracleNoSQLClient;
+import com.impetus.kundera.client.Client;
+
+/**
+ * Grouping, chunking and concurrency of operations executed by
+ * {@link OracleNoSQLClient#executeBatch()}.
+ *
+ * @author impetus
+ */
+public class OracleNosqlBatchExecuteTest
+{
+    private static final String PERSISTENCE_UNIT = "oracleNosqlBatchTest";
+
+    /** The emf. */
+    private EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    private OracleNoSQLClient client;
+
+    private KVStore kvStore;
+
+    private RecordingStore store;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        Map<String, String> propertyMap = new HashMap<String, String>();
+        propertyMap.put("kundera.batch.size", "100");
+        emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, propertyMap);
+        em = emf.createEntityManager();
+
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        client = (OracleNoSQLClient) clients.get(PERSISTENCE_UNIT);
+        kvStore = (KVStore) getField(client, "kvStore");
+        store = new RecordingStore(kvStore);
+        KVStore proxy = (KVStore) Proxy.newProxyInstance(KVStore.class.getClassLoader(),
+                new Class[] { KVStore.class }, store);
+        setField(client, "kvStore", proxy);
+        setField(client.getHandler(), "kvStore", proxy);
+    }
+
+    /**
+     * Operations of a batch are executed once per record, only last write of
+     * a key is sent, and a record removed after being persisted in the same
+     * batch is not written.
+     */
+    @Test
+    public void testGrouping()
+    {
+        PersonBatchOracleNosqlEntity person = prepareData("1", "vivek");
+        em.persist(person);
+        em.persist(prepareData("2", "kuldeep"));
+        person.setPersonName("amresh");
+        em.merge(person);
+        PersonBatchOracleNosqlEntity removed = prepareData("3", "vijay");
+        em.persist(removed);
+        em.remove(removed);
+        em.flush();
+
+        Assert.assertEquals(2, store.executed.size());
+        for (List<Operation> operations : store.executed)
+        {
+            Set<Key> keys = new HashSet<Key>();
+            for (Operation operation : operations)
+            {
+                Assert.assertTrue(keys.add(operation.getKey()));
+                Assert.assertEquals(operations.get(0).getKey().getMajorPath(), operation.getKey().getMajorPath());
+            }
+        }
+
+        em.clear();
+        Assert.assertEquals("amresh", em.find(PersonBatchOracleNosqlEntity.class, "1").getPersonName());
+        Assert.assertEquals("kuldeep", em.find(PersonBatchOracleNosqlEntity.class, "2").getPersonName());
+        Assert.assertNull(em.find(PersonBatchOracleNosqlEntity.class, "3"));
+
+        em.remove(em.find(PersonBatchOracleNosqlEntity.class, "1"));
+        em.remove(em.find(PersonBatchOracleNosqlEntity.class, "2"));
+        em.flush();
+    }
+
+    /**
+     * A group larger than maximum operations per execute call is sent in
+     * chunks.
+     */
+    @Test
+    public void testChunking() throws Exception
+    {
+        List<Operation> group = createPuts("1", 2500);
+        executeGroups(Collections.singletonList(group));
+
+        Assert.assertEquals(3, store.executed.size());
+        Assert.assertEquals(1000, store.executed.get(0).size());
+        Assert.assertEquals(1000, store.executed.get(1).size());
+        Assert.assertEquals(500, store.executed.get(2).size());
+
+        kvStore.multiDelete(Key.createKey(Arrays.asList("PERSON_BATCH_CHUNK", "1")), null, null);
+    }
+
+    /**
+     * Groups are executed by at most write parallelism threads, or by the
+     * calling thread if it is one.
+     */
+    @Test
+    public void testWriteParallelism() throws Exception
+    {
+        List<List<Operation>> groups = new ArrayList<List<Operation>>();
+        for (int i = 0; i < 9; i++)
+        {
+            groups.add(createPuts(i + "", 1));
+        }
+
+        client.setWriteParallelism(3);
+        executeGroups(groups);
+        Assert.assertEquals(9, store.executed.size());
+        Assert.assertTrue(store.threads.size() <= 3);
+        Assert.assertFalse(store.threads.contains(Thread.currentThread().getName()));
+
+        store.executed.clear();
+        store.threads.clear();
+        client.setWriteParallelism(1);
+        executeGroups(groups);
+        Assert.assertEquals(9, store.executed.size());
+        Assert.assertEquals(Collections.singleton(Thread.currentThread().getName()), store.threads);
+
+        for (int i = 0; i < 9; i++)
+        {
+            kvStore.multiDelete(Key.createKey(Arrays.asList("PERSON_BATCH_CHUNK", i + "")), null, null);
+        }
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception
+    {
+        em.close();
+        emf.close();
+    }
+
+    private List<Operation> createPuts(String id, int count)
+    {
+        List<Operation> operations = new ArrayList<Operation>(count);
+        for (int i = 0; i < count; i++)
+        {
+            Key key = Key.createKey(Arrays.asList("PERSON_BATCH_CHUNK", id), "COLUMN" + i);
+            operations.add(kvStore.getOperationFactory().createPut(key, Value.createValue(new byte[] { 1 })));
+        }
+        return operations;
+    }
+
+    private void executeGroups(List<List<Operation>> groups) throws Exception
+    {
+        Method m = OracleNoSQLClient.class.getDeclaredMethod("executeGroups", List.class);
+        m.setAccessible(true);
+        m.invoke(client, groups);
+    }
+
+    private Object getField(Object target, String name) throws Exception
+    {
+        Field f = target.getClass().getDeclaredField(name);
+        f.setAccessible(true);
+        return f.get(target);
+    }
+
+    private void setField(Object target, String name, Object value) throws Exception
+    {
+        Field f = target.getClass().getDeclaredField(name);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+
+    private PersonBatchOracleNosqlEntity prepareData(String id, String name)
+    {
+        PersonBatchOracleNosqlEntity o = new PersonBatchOracleNosqlEntity();
+        o.setPersonId(id);
+        o.setPersonName(name);
+        o.setAge(10);
+        return o;
+    }
+
+    /**
+     * Records operations passed to execute, and threads executing them.
+     */
+    private static class RecordingStore implements InvocationHandler
+    {
+        private final KVStore target;
+
+        private final List<List<Operation>> executed = Collections.synchronizedList(new ArrayList<List<Operation>>());
+
+        private final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+
+        private RecordingStore(KVStore target)
+        {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            if (method.getName().equals("execute"))
+            {
+                executed.add(new ArrayList<Operation>((List<Operation>) args[0]));
+                threads.add(Thread.currentThread().getName());
+            }
+            try
+            {
+                return method.invoke(target, args);
+            }
+            catch (InvocationTargetException e)
+            {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.oraclenosql.entities;
+
+import java.io.InputStream;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * UserDocument entity class, holds LOB as {@link InputStream}
+ * 
+ * @author impetus
+ */
+@Entity
+@Table(name = "USER_DOCUMENT", schema = "KunderaTests@twikvstore")
+public class UserDocument
+{
+    @Id
+    @Column(name = "USER_ID")
+    private int userId;
+
+    @Column(name = "DOCUMENT_NAME")
+    private String documentName;
+
+    @Column(name = "CONTENT")
+    private InputStream content;
+
+    public UserDocument()
+    {
+
+    }
+
+    public UserDocument(int userId, String documentName, InputStream content)
+    {
+        super();
+        this.userId = userId;
+        this.documentName = documentName;
+        this.content = content;
+    }
+
+    /**
+     * @return the userId
+     */
+    public int getUserId()
+    {
+        return userId;
+    }
+
+    /**
+     * @param userId
+     *            the userId to set
+     */
+    public void setUserId(int userId)
+    {
+        this.userId = userId;
+    }
+
+    /**
+     * @return the documentName
+     */
+    public String getDocumentName()
+    {
+        return documentName;
+    }
+
+    /**
+     * @param documentName
+     *            the documentName to set
+     */
+    public void setDocumentName(String documentName)
+    {
+        this.documentName = documentName;
+    }
+
+    /**
+     * @return the content
+     */
+    public InputStream getContent()
+    {
+        return content;
+    }
+
+    /**
+     * @param content
+     *            the content to set
+     */
+    public void setContent(InputStream content)
+    {
+        this.content = content;
+    }
+
+}
@@ -35,6 +35,8 @@ import org.apache.commons.lang.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.HibernateException;
 import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.StatelessSession;
@@ -44,19 +46,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.impetus.client.rdbms.query.RDBMSQuery;
+import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.ClientBase;
 import com.impetus.kundera.client.EnhanceEntity;
 import com.impetus.kundera.db.RelationHolder;
+import com.impetus.kundera.graph.Node;
 import com.impetus.kundera.index.IndexManager;
+import com.impetus.kundera.lifecycle.states.RemovedState;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.MetadataUtils;
 import com.impetus.kundera.metadata.model.ClientMetadata;
 import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
 import com.impetus.kundera.metadata.model.Relation;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.EntityReaderException;
+import com.impetus.kundera.persistence.api.Batcher;
 import com.impetus.kundera.persistence.context.jointable.JoinTableData;
 import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessor;
@@ -69,7 +76,7 @@ import com.impetus.kundera.proxy.ProxyHelper;
  * 
  * @author vivek.mishra
  */
-public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
+public class HibernateClient extends ClientBase implements Client<RDBMSQuery>, Batcher
 {
     /** The sf. */
     private SessionFactory sf;
@@ -82,6 +89,12 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
 
     private Map<String, Object> puProperties;
 
+    /** list of nodes for batch processing. */
+    private List<Node> nodes = new ArrayList<Node>();
+
+    /** batch size. */
+    private int batchSize;
+
     /** The Constant log. */
     private static final Logger log = LoggerFactory.getLogger(HibernateClient.class);
 
@@ -108,6 +121,7 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
         this.reader = reader;
         this.puProperties = puProperties;
         this.clientMetadata = clientMetadata;
+        setBatchSize(persistenceUnit, puProperties);
     }
 
     /*
@@ -125,6 +139,7 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
             s = null;
         }
         puProperties = null;
+        nodes.clear();
     }
 
     /*
@@ -136,10 +151,19 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
     @Override
     public void delete(Object entity, Object pKey)
     {
-        s = getSessionFactory().openStatelessSession();
-        Transaction tx = s.beginTransaction();
-        s.delete(entity);
-        tx.commit();
+        s = getStatelessSession();
+        Transaction tx = beginTransaction(s);
+        try
+        {
+            s.delete(entity);
+            tx.commit();
+        }
+        catch (HibernateException e)
+        {
+            tx.rollback();
+            log.error("Error while deleting object of {}", entity.getClass(), e);
+            throw new PersistenceException(e);
+        }
 
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(entity.getClass());
         if (!MetadataUtils.useSecondryIndex(getClientMetadata()))
@@ -159,12 +183,7 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
     {
         EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(getPersistenceUnit(), clazz);
 
-        if (s == null)
-        {
-            s = getSessionFactory().openStatelessSession();
-            //
-            // s.beginTransaction();
-        }
+        s = getStatelessSession();
 
         Object result = null;
         try
@@ -215,21 +234,46 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
     @Override
     protected void onPersist(EntityMetadata metadata, Object entity, Object id, List<RelationHolder> relationHolders)
     {
-        boolean proxyRemoved = removeKunderaProxies(metadata, entity, relationHolders);
+        s = getStatelessSession();
+        Transaction tx = beginTransaction(s);
+        try
+        {
+            write(metadata, entity, id, relationHolders, isUpdate);
+            tx.commit();
+        }
+        catch (HibernateException e)
+        {
+            tx.rollback();
+            log.error("Error while persisting object of {}", metadata.getEntityClazz(), e);
+            throw new PersistenceException(e);
+        }
+    }
 
-        Transaction tx = null;
+    /**
+     * Inserts or updates entity within current transaction of the stateless
+     * session. Statements must not be batched by JDBC, constraint violation of
+     * an already inserted many to one parent is only raised per statement.
+     * 
+     * @param metadata
+     * @param entity
+     * @param id
+     * @param relationHolders
+     * @param update
+     *            whether entity already exists.
+     */
+    private void write(EntityMetadata metadata, Object entity, Object id, List<RelationHolder> relationHolders,
+            boolean update)
+    {
+        boolean proxyRemoved = removeKunderaProxies(metadata, entity, relationHolders);
 
-        s = getSessionFactory().openStatelessSession();
-        tx = s.beginTransaction();
         try
         {
-            if (!isUpdate)
+            if (!update)
             {
                 id = s.insert(entity);
 
                 // Update foreign Keys
                 updateForeignKeys(metadata, id, relationHolders);
-                tx.commit();
             }
             else
             {
@@ -239,8 +283,6 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
                 {
                     updateForeignKeys(metadata, id, relationHolders);
                 }
-
-                tx.commit();
             }
         }
         // TODO: Bad code, get rid of these exceptions, currently necessary for
@@ -249,13 +291,138 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
         {
             s.update(entity);
             log.info(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes all dirty nodes of batch in a single transaction of the reused
+     * stateless session, so that they are committed once. Stateless session
+     * executes each statement as soon as it is issued, statements are not
+     * grouped into JDBC batches.
+     */
+    @Override
+    public int executeBatch()
+    {
+        List<Node> dirty = new ArrayList<Node>();
+        s = getStatelessSession();
+        Transaction tx = beginTransaction(s);
+        try
+        {
+            for (Node node : nodes)
+            {
+                if (node.isDirty())
+                {
+                    node.handlePreEvent();
+                    EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
+                    if (node.isInState(RemovedState.class))
+                    {
+                        s.delete(node.getData());
+                    }
+                    else
+                    {
+                        List<RelationHolder> relationHolders = getRelationHolders(node);
+                        write(metadata, node.getData(), node.getEntityId(), relationHolders, node.isUpdate());
+                    }
+                    dirty.add(node);
+                }
+            }
             tx.commit();
         }
         catch (HibernateException e)
         {
-            log.error("Error while persisting object of {}", metadata.getEntityClazz(), e);
+            tx.rollback();
+            log.error("Error while executing batch of {} nodes", nodes.size(), e);
             throw new PersistenceException(e);
         }
+
+        for (Node node : dirty)
+        {
+            EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
+            if (node.isInState(RemovedState.class))
+            {
+                if (!MetadataUtils.useSecondryIndex(getClientMetadata()))
+                {
+                    getIndexManager().remove(metadata, node.getData(), node.getEntityId().toString());
+                }
+            }
+            else
+            {
+                indexNode(node, metadata);
+            }
+            node.handlePostEvent();
+        }
+        return nodes.size();
+    }
+
+    @Override
+    public void addBatch(Node node)
+    {
+        if (node != null)
+        {
+            nodes.add(node);
+        }
+        onBatchLimit();
+    }
+
+    @Override
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    @Override
+    public void clear()
+    {
+        if (nodes != null)
+        {
+            nodes.clear();
+            nodes = null;
+            nodes = new ArrayList<Node>();
+        }
+    }
+
+    /**
+     * Check on batch limit.
+     */
+    private void onBatchLimit()
+    {
+        if (batchSize > 0 && batchSize == nodes.size())
+        {
+            try
+            {
+                executeBatch();
+            }
+            finally
+            {
+                nodes.clear();
+            }
+        }
+    }
+
+    /**
+     * @param persistenceUnit
+     * @param puProperties
+     */
+    private void setBatchSize(String persistenceUnit, Map<String, Object> puProperties)
+    {
+        String batch_Size = null;
+        if (puProperties != null)
+        {
+            batch_Size = (String) puProperties.get(PersistenceProperties.KUNDERA_BATCH_SIZE);
+            if (batch_Size != null)
+            {
+                batchSize = Integer.valueOf(batch_Size);
+                if (batchSize == 0)
+                {
+                    throw new IllegalArgumentException("kundera.batch.size property must be numeric and > 0");
+                }
+            }
+        }
+        if (batch_Size == null)
+        {
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(persistenceUnit);
+            batchSize = puMetadata != null ? puMetadata.getBatchSize() : 0;
+        }
     }
 
     /**
@@ -348,7 +515,7 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
                 .append("=").append("'").append(columnValue).append("'");
 
         s = getStatelessSession();
-        Transaction tx = s.beginTransaction();
+        Transaction tx = beginTransaction(s);
         s.createSQLQuery(query.toString()).executeUpdate();
         tx.commit();
     }
@@ -373,8 +540,8 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
     private void insertRecordInJoinTable(String schemaName, String joinTableName, String joinColumnName,
             String inverseJoinColumnName, Object parentId, Set<Object> childrenIds)
     {
-        s = getSessionFactory().openStatelessSession();
-        Transaction tx = s.beginTransaction();
+        s = getStatelessSession();
+        Transaction tx = beginTransaction(s);
         for (Object childId : childrenIds)
         {
             StringBuffer query = new StringBuffer();
@@ -409,13 +576,34 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
     }
 
     /**
-     * Gets the session instance.
+     * Gets the session instance, reused by writes until client is closed.
      * 
      * @return the session instance
      */
     private StatelessSession getStatelessSession()
     {
-        return s != null ? s : getSessionFactory().openStatelessSession();
+        if (s == null)
+        {
+            s = getSessionFactory().openStatelessSession();
+        }
+        return s;
+    }
+
+    /**
+     * Begins transaction on session, or joins the one left active on it.
+     * 
+     * @param session
+     *            stateless session.
+     * @return transaction.
+     */
+    private Transaction beginTransaction(StatelessSession session)
+    {
+        Transaction tx = session.getTransaction();
+        if (!tx.isActive())
+        {
+            tx.begin();
+        }
+        return tx;
     }
 
     /**
@@ -431,12 +619,80 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
      */
     public List find(String nativeQuery, List<String> relations, EntityMetadata m)
     {
-        List<Object[]> result = new ArrayList<Object[]>();
+        s = getStatelessSession();
 
-        s = getSessionFactory().openStatelessSession();
+        // reads within a transaction left active leave it to its owner.
+        boolean isOwnTransaction = !s.getTransaction().isActive();
+        Transaction tx = beginTransaction(s);
+        try
+        {
+            List results = createQuery(s, nativeQuery, relations, m).list();
+            if (isOwnTransaction)
+            {
+                tx.commit();
+            }
+            return results;
+        }
+        catch (HibernateException e)
+        {
+            if (isOwnTransaction)
+            {
+                tx.rollback();
+            }
+            throw e;
+        }
+    }
 
-        s.beginTransaction();
-        SQLQuery q = s.createSQLQuery(nativeQuery).addEntity(m.getEntityClazz());
+    /**
+     * Opens a forward only cursor over results of native query, rows are
+     * fetched by JDBC fetchSize at a time instead of being listed at once.
+     * Cursor runs in a transaction of given session, which stays open until
+     * cursor is closed.
+     * 
+     * @param session
+     *            session dedicated to the cursor.
+     * @param nativeQuery
+     *            the native query
+     * @param relations
+     *            the relations
+     * @param m
+     *            the entity metadata
+     * @param fetchSize
+     *            JDBC fetch size, may be null.
+     * @param maxResults
+     *            maximum number of rows.
+     * @return the cursor.
+     */
+    public ScrollableResults scroll(StatelessSession session, String nativeQuery, List<String> relations,
+            EntityMetadata m, Integer fetchSize, int maxResults)
+    {
+        SQLQuery q = createQuery(session, nativeQuery, relations, m);
+        if (fetchSize != null)
+        {
+            q.setFetchSize(fetchSize);
+        }
+        q.setMaxResults(maxResults);
+        return q.scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    /**
+     * Opens a stateless session, to be closed by caller.
+     * 
+     * @return stateless session.
+     */
+    public StatelessSession openStatelessSession()
+    {
+        return getSessionFactory().openStatelessSession();
+    }
+
+    /**
+     * Creates native query selecting entity and foreign keys of given
+     * relations.
+     */
+    private SQLQuery createQuery(StatelessSession session, String nativeQuery, List<String> relations,
+            EntityMetadata m)
+    {
+        SQLQuery q = session.createSQLQuery(nativeQuery).addEntity(m.getEntityClazz());
         if (relations != null)
         {
             for (String r : relations)
@@ -456,8 +712,7 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
                 }
             }
         }
-        s.getTransaction().commit();
-        return q.list();
+        return q;
     }
 
     /*
@@ -484,8 +739,6 @@ public class HibernateClient extends ClientBase implements Client<RDBMSQuery>
         queryBuilder.append("'");
         queryBuilder.append(colValue);
         queryBuilder.append("'");
-        s = getSessionFactory().openStatelessSession();
-        s.beginTransaction();
 
         List results = find(queryBuilder.toString(), m.getRelationNames(), m);
         return populateEnhanceEntities(m, m.getRelationNames(), results);
@@ -19,6 +19,10 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.hibernate.HibernateException;
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +53,9 @@ public class RDBMSQuery extends QueryImpl
     /** The reader. */
     private EntityReader reader;
 
+    /** Iterators opened by this query, closed along with it. */
+    private List<ResultIterator> iterators = new ArrayList<ResultIterator>();
+
     /**
      * Instantiates a new rDBMS query.
      * 
@@ -180,15 +187,64 @@ public class RDBMSQuery extends QueryImpl
     @Override
     public void close()
     {
-        // TODO Auto-generated method stub
-        
+        for (ResultIterator iterator : iterators)
+        {
+            iterator.close();
+        }
+        iterators.clear();
     }
 
+    /**
+     * Returns an iterator over a forward only cursor, up to max results, rows
+     * are fetched by fetch size at a time. Cursor and its session are
+     * released once exhausted, or along with this query. Queries relying on
+     * lucene are iterated over their result list.
+     */
     @Override
     public Iterator iterate()
     {
-        // TODO Auto-generated method stub
-        return null;
+        EntityMetadata m = getEntityMetadata();
+        Client client = persistenceDelegeator.getClient(m);
+
+        if (!MetadataUtils.useSecondryIndex(((ClientBase) client).getClientMetadata()))
+        {
+            return getResultList().iterator();
+        }
+
+        initializeReader();
+
+        // Foreign keys are selected for child entities only, as in
+        // populateRelation
+        List<String> relations = new ArrayList<String>();
+        if (!m.isParent() && m.getRelationNames() != null)
+        {
+            relations.addAll(m.getRelationNames());
+        }
+        String sqlQuery = ((RDBMSEntityReader) getReader()).getSqlQueryFromJPA(m, relations, null);
+
+        HibernateClient hibernateClient = (HibernateClient) client;
+        StatelessSession session = hibernateClient.openStatelessSession();
+        Transaction tx = null;
+        try
+        {
+            tx = session.beginTransaction();
+            ScrollableResults results = hibernateClient.scroll(session, sqlQuery, relations, m, getFetchSize(),
+                    maxResult);
+            ResultIterator iterator = new ResultIterator(m, getReader(), persistenceDelegeator, relations, session,
+                    tx, results);
+            iterators.add(iterator);
+            return iterator;
+        }
+        catch (HibernateException e)
+        {
+            if (tx != null)
+            {
+                tx.rollback();
+            }
+            session.close();
+            log.error("Error during query execution ", e);
+            throw new QueryHandlerException(e);
+        }
     }
 
 }
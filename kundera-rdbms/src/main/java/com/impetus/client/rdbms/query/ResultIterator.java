@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.rdbms.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import com.impetus.kundera.client.EnhanceEntity;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.persistence.EntityReader;
+import com.impetus.kundera.persistence.PersistenceDelegator;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.query.IResultIterator;
+
+/**
+ * Implementation of RDBMS result iteration over a forward only cursor. Rows
+ * are fetched by JDBC in chunks of query's fetch size and mapped into entities
+ * only as they are iterated. The cursor runs on a stateless session of its
+ * own, released once results are exhausted or the iterator is closed.
+ *
+ * @author impetus
+ *
+ * @param <E>
+ */
+class ResultIterator<E> implements IResultIterator<E>
+{
+    private EntityMetadata m;
+
+    private EntityReader reader;
+
+    private PersistenceDelegator persistenceDelegator;
+
+    private List<String> relations;
+
+    private StatelessSession session;
+
+    private Transaction tx;
+
+    private ScrollableResults results;
+
+    private Object[] next;
+
+    /**
+     * @param m
+     *            entity metadata.
+     * @param reader
+     *            reader resolving associations.
+     * @param pd
+     *            persistence delegator.
+     * @param relations
+     *            relation columns selected after entity, may be empty.
+     * @param session
+     *            session running the cursor.
+     * @param tx
+     *            transaction the cursor is open in.
+     * @param results
+     *            forward only cursor.
+     */
+    ResultIterator(EntityMetadata m, EntityReader reader, PersistenceDelegator pd, List<String> relations,
+            StatelessSession session, Transaction tx, ScrollableResults results)
+    {
+        this.m = m;
+        this.reader = reader;
+        this.persistenceDelegator = pd;
+        this.relations = relations;
+        this.session = session;
+        this.tx = tx;
+        this.results = results;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if (next == null && results != null)
+        {
+            if (results.next())
+            {
+                next = results.get();
+            }
+            else
+            {
+                close();
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public E next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException("Nothing to scroll further for:" + m.getEntityClazz());
+        }
+        Object[] row = next;
+        next = null;
+        return setRelationEntities(row);
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException("remove method is not supported over pagination");
+    }
+
+    @Override
+    public List<E> next(int chunkSize)
+    {
+        List<E> entities = new ArrayList<E>(chunkSize);
+        while (entities.size() < chunkSize && hasNext())
+        {
+            entities.add(next());
+        }
+        return entities;
+    }
+
+    /**
+     * Closes cursor and releases its session.
+     */
+    void close()
+    {
+        if (results != null)
+        {
+            try
+            {
+                results.close();
+                tx.commit();
+            }
+            finally
+            {
+                session.close();
+                results = null;
+                session = null;
+            }
+        }
+        next = null;
+    }
+
+    private E setRelationEntities(Object[] row)
+    {
+        Object entity = row[0];
+        if (m.getRelationNames() == null || m.getRelationNames().isEmpty())
+        {
+            return (E) entity;
+        }
+
+        Map<String, Object> relationValues = null;
+        if (row.length > 1)
+        {
+            relationValues = new HashMap<String, Object>(relations.size());
+            int counter = 1;
+            for (String r : relations)
+            {
+                if (counter >= row.length)
+                {
+                    break;
+                }
+                relationValues.put(r, row[counter++]);
+            }
+        }
+        EnhanceEntity ee = new EnhanceEntity(entity, PropertyAccessorHelper.getId(entity, m), relationValues);
+        return (E) reader.recursivelyFindEntities(ee.getEntity(), ee.getRelations(), m, persistenceDelegator, false);
+    }
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.crud;
+
+import javax.persistence.CascadeType;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+/**
+ * Employee with a many to one {@link AddressRDBMS}.
+ * 
+ * @author impetus
+ */
+@Entity
+@Table(name = "EMPLOYEE", schema = "testdb")
+public class EmployeeRDBMS
+{
+
+    /** The employee id. */
+    @Id
+    @Column(name = "EMPLOYEE_ID")
+    private String employeeId;
+
+    /** The employee name. */
+    @Column(name = "EMPLOYEE_NAME")
+    private String employeeName;
+
+    /** The address. */
+    @ManyToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @JoinColumn(name = "ADDRESS_ID")
+    private AddressRDBMS address;
+
+    /**
+     * Gets the employee id.
+     * 
+     * @return the employee id
+     */
+    public String getEmployeeId()
+    {
+        return employeeId;
+    }
+
+    /**
+     * Sets the employee id.
+     * 
+     * @param employeeId
+     *            the new employee id
+     */
+    public void setEmployeeId(String employeeId)
+    {
+        this.employeeId = employeeId;
+    }
+
+    /**
+     * Gets the employee name.
+     * 
+     * @return the employee name
+     */
+    public String getEmployeeName()
+    {
+        return employeeName;
+    }
+
+    /**
+     * Sets the employee name.
+     * 
+     * @param employeeName
+     *            the new employee name
+     */
+    public void setEmployeeName(String employeeName)
+    {
+        this.employeeName = employeeName;
+    }
+
+    /**
+     * Gets the address.
+     * 
+     * @return the address
+     */
+    public AddressRDBMS getAddress()
+    {
+        return address;
+    }
+
+    /**
+     * Sets the address.
+     * 
+     * @param address
+     *            the new address
+     */
+    public void setAddress(AddressRDBMS address)
+    {
+        this.address = address;
+    }
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.crud;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.kundera.PersistenceProperties;
+
+/**
+ * Batched persist and persist of entities sharing a many to one parent
+ * through {@link com.impetus.client.rdbms.HibernateClient}.
+ * 
+ * @author impetus
+ */
+public class HibernateClientWriteTest extends BaseTest
+{
+
+    /** The emf. */
+    private EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    private RDBMSCli cli;
+
+    /**
+     * Sets the up.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        cli = new RDBMSCli("testdb");
+        try
+        {
+            cli.createSchema("testdb");
+        }
+        catch (Exception e)
+        {
+            // schema left by an earlier test.
+        }
+        cli.update("CREATE TABLE TESTDB.PERSON (PERSON_ID VARCHAR(9) PRIMARY KEY, PERSON_NAME VARCHAR(256), AGE INTEGER)");
+        cli.update("CREATE TABLE TESTDB.ADDRESS (ADDRESS_ID VARCHAR(9) PRIMARY KEY, STREET VARCHAR(256))");
+        cli.update("CREATE TABLE TESTDB.EMPLOYEE (EMPLOYEE_ID VARCHAR(9) PRIMARY KEY, EMPLOYEE_NAME VARCHAR(256), ADDRESS_ID VARCHAR(9))");
+    }
+
+    /**
+     * Persists more entities than kundera.batch.size, so that two batches
+     * are flushed, and reads every one of them back.
+     */
+    @Test
+    public void testBatchedPersist()
+    {
+        Map<String, String> props = new HashMap<String, String>();
+        props.put(PersistenceProperties.KUNDERA_BATCH_SIZE, "5");
+        emf = Persistence.createEntityManagerFactory("testHibernate", props);
+        em = emf.createEntityManager();
+
+        for (int i = 0; i < 10; i++)
+        {
+            em.persist(prepareRDBMSInstance(String.valueOf(i), 10 + i));
+        }
+        em.clear();
+
+        for (int i = 0; i < 10; i++)
+        {
+            PersonRDBMS person = findById(PersonRDBMS.class, String.valueOf(i), em);
+            Assert.assertNotNull(person);
+            Assert.assertEquals("vivek", person.getPersonName());
+            Assert.assertEquals(10 + i, person.getAge());
+        }
+    }
+
+    /**
+     * Persists two employees sharing one address, second insert of address
+     * must fall back to an update instead of failing the persist.
+     */
+    @Test
+    public void testPersistSharedManyToOneParent()
+    {
+        emf = Persistence.createEntityManagerFactory("testHibernate");
+        em = emf.createEntityManager();
+
+        AddressRDBMS address = new AddressRDBMS();
+        address.setAddressId("a1");
+        address.setStreet("sector 20");
+
+        EmployeeRDBMS first = new EmployeeRDBMS();
+        first.setEmployeeId("e1");
+        first.setEmployeeName("vivek");
+        first.setAddress(address);
+
+        EmployeeRDBMS second = new EmployeeRDBMS();
+        second.setEmployeeId("e2");
+        second.setEmployeeName("kuldeep");
+        second.setAddress(address);
+
+        em.persist(first);
+        em.persist(second);
+        em.clear();
+
+        EmployeeRDBMS found = em.find(EmployeeRDBMS.class, "e1");
+        Assert.assertNotNull(found);
+        Assert.assertNotNull(found.getAddress());
+        Assert.assertEquals("a1", found.getAddress().getAddressId());
+
+        found = em.find(EmployeeRDBMS.class, "e2");
+        Assert.assertNotNull(found);
+        Assert.assertNotNull(found.getAddress());
+        Assert.assertEquals("a1", found.getAddress().getAddressId());
+        Assert.assertEquals("sector 20", found.getAddress().getStreet());
+    }
+
+    /**
+     * Tear down.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @After
+    public void tearDown() throws Exception
+    {
+        if (em != null)
+        {
+            em.close();
+        }
+        if (emf != null)
+        {
+            emf.close();
+        }
+        try
+        {
+            cli.update("DROP TABLE TESTDB.EMPLOYEE");
+            cli.update("DROP TABLE TESTDB.ADDRESS");
+            cli.update("DROP TABLE TESTDB.PERSON");
+            cli.update("DROP SCHEMA TESTDB");
+            cli.closeConnection();
+        }
+        catch (Exception e)
+        {
+            // Nothing to do
+        }
+    }
+}
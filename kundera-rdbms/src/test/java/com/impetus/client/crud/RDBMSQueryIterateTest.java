@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.crud;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.kundera.query.Query;
+
+/**
+ * Iteration of {@link com.impetus.client.rdbms.query.RDBMSQuery} results over
+ * a forward only cursor.
+ * 
+ * @author impetus
+ */
+public class RDBMSQueryIterateTest extends BaseTest
+{
+    private static final int ROWS = 10;
+
+    /** The emf. */
+    private EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    private RDBMSCli cli;
+
+    /**
+     * Sets the up.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        cli = new RDBMSCli("testdb");
+        try
+        {
+            cli.createSchema("testdb");
+        }
+        catch (Exception e)
+        {
+            // schema left by an earlier test.
+        }
+        cli.update("CREATE TABLE TESTDB.PERSON (PERSON_ID VARCHAR(9) PRIMARY KEY, PERSON_NAME VARCHAR(256), AGE INTEGER)");
+
+        emf = Persistence.createEntityManagerFactory("testHibernate");
+        em = emf.createEntityManager();
+        for (int i = 0; i < ROWS; i++)
+        {
+            em.persist(prepareRDBMSInstance(String.valueOf(i), 10 + i));
+        }
+        em.clear();
+    }
+
+    /**
+     * Iterates all rows with a fetch size smaller than result, cursor is
+     * closed once exhausted.
+     */
+    @Test
+    public void testIterateToEnd() throws Exception
+    {
+        Query query = (Query) em.createQuery("Select p from PersonRDBMS p");
+        query.setFetchSize(3);
+        Iterator<PersonRDBMS> iter = query.iterate();
+
+        Set<String> ids = new HashSet<String>();
+        while (iter.hasNext())
+        {
+            PersonRDBMS person = iter.next();
+            Assert.assertEquals("vivek", person.getPersonName());
+            Assert.assertTrue(ids.add(person.getPersonId()));
+        }
+        Assert.assertEquals(ROWS, ids.size());
+        assertClosed(iter);
+
+        try
+        {
+            iter.next();
+            Assert.fail();
+        }
+        catch (NoSuchElementException nsex)
+        {
+            Assert.assertNotNull(nsex.getMessage());
+        }
+    }
+
+    /**
+     * Iterates with a where clause and max results.
+     */
+    @Test
+    public void testIterateWithClauseAndMaxResults() throws Exception
+    {
+        javax.persistence.Query jpaQuery = em.createQuery("Select p from PersonRDBMS p where p.age >= 15");
+        jpaQuery.setMaxResults(3);
+        Query query = (Query) jpaQuery;
+        query.setFetchSize(2);
+        Iterator<PersonRDBMS> iter = query.iterate();
+
+        int count = 0;
+        while (iter.hasNext())
+        {
+            Assert.assertTrue(iter.next().getAge() >= 15);
+            count++;
+        }
+        Assert.assertEquals(3, count);
+        assertClosed(iter);
+    }
+
+    /**
+     * Stops iterating halfway, closing the query closes the cursor.
+     */
+    @Test
+    public void testCloseBeforeEnd() throws Exception
+    {
+        Query query = (Query) em.createQuery("Select p from PersonRDBMS p");
+        query.setFetchSize(2);
+        Iterator<PersonRDBMS> iter = query.iterate();
+
+        Assert.assertTrue(iter.hasNext());
+        Assert.assertNotNull(iter.next());
+        Assert.assertNotNull(getField(iter, "session"));
+
+        query.close();
+        assertClosed(iter);
+        Assert.assertFalse(iter.hasNext());
+    }
+
+    /**
+     * Tear down.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @After
+    public void tearDown() throws Exception
+    {
+        if (em != null)
+        {
+            em.close();
+        }
+        if (emf != null)
+        {
+            emf.close();
+        }
+        try
+        {
+            cli.update("DROP TABLE TESTDB.PERSON");
+            cli.update("DROP SCHEMA TESTDB");
+            cli.closeConnection();
+        }
+        catch (Exception e)
+        {
+            // Nothing to do
+        }
+    }
+
+    private void assertClosed(Iterator<PersonRDBMS> iter) throws Exception
+    {
+        Assert.assertNull(getField(iter, "results"));
+        Assert.assertNull(getField(iter, "session"));
+    }
+
+    private Object getField(Iterator<PersonRDBMS> iter, String name) throws Exception
+    {
+        Field f = iter.getClass().getDeclaredField(name);
+        if (!f.isAccessible())
+        {
+            f.setAccessible(true);
+        }
+        return f.get(iter);
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.redis;
+
+import java.util.List;
+
+import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.Client;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+/**
+ * Pipeline returning hash replies as raw bytes. Jedis pipeline decodes hash
+ * replies into strings, which corrupts binary encoded field values.
+ *
+ * @author impetus
+ */
+class BinaryPipeline extends Pipeline
+{
+    private Client client;
+
+    /**
+     * Opens a pipeline over given connection.
+     *
+     * @param connection
+     *            jedis connection.
+     */
+    BinaryPipeline(Jedis connection)
+    {
+        setClient(connection.getClient());
+    }
+
+    @Override
+    public void setClient(Client client)
+    {
+        super.setClient(client);
+        this.client = client;
+    }
+
+    /**
+     * Queues HGETALL, reply holds field names and values alternately.
+     *
+     * @param key
+     *            hash key.
+     * @return response.
+     */
+    Response<List<byte[]>> hgetAllRaw(byte[] key)
+    {
+        client.hgetAll(key);
+        return getResponse(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+
+    /**
+     * Queues HMGET, reply holds values in order of given fields.
+     *
+     * @param key
+     *            hash key.
+     * @param fields
+     *            field names.
+     * @return response.
+     */
+    Response<List<byte[]>> hmgetRaw(byte[] key, byte[]... fields)
+    {
+        client.hmget(key, fields);
+        return getResponse(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+}
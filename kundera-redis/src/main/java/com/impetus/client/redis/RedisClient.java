@@ -22,10 +22,14 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.UUID;
 
 import javax.persistence.PersistenceException;
 import javax.persistence.metamodel.Attribute;
@@ -40,6 +44,7 @@ import redis.clients.jedis.Jedis;
 import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.Response;
 import redis.clients.jedis.Transaction;
+import redis.clients.jedis.Tuple;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 
 import com.impetus.client.redis.RedisQueryInterpreter.Clause;
@@ -102,7 +107,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
     private static final String COMPOSITE_KEY_SEPERATOR = "\001";
 
-    private Jedis connection;
+    /** connections, per shard. */
+    private Map<String, Jedis> connections = new HashMap<String, Jedis>();
 
     RedisClient(final RedisClientFactory factory, final String persistenceUnit)
     {
@@ -125,7 +131,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
     {
-        Object connection = getConnection();
+        Object connection = getConnection(getRoutingKey(entityMetadata, id));
         // Create a hashset and populate data into it
         //
 
@@ -158,17 +164,11 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
     }
 
-    private double getDouble(String valueAsStr)
-    {
-        return StringUtils.isNumeric(valueAsStr) ? Double.parseDouble(valueAsStr) : Double
-                .parseDouble(((Integer) valueAsStr.hashCode()).toString());
-    }
-
     @Override
     public Object find(Class entityClass, Object key)
     {
         Object result = null;
-        Object connection = getConnection();
+        Object connection = getConnection(getRoutingKey(KunderaMetadataManager.getEntityMetadata(entityClass), key));
         try
         {
             result = fetch(entityClass, key, connection, null);
@@ -215,25 +215,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
         EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(clazz);
 
-        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
-                entityMetadata.getPersistenceUnit());
-
-        String rowKey = null;
-        if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
-        {
-            rowKey = KunderaCoreUtils.prepareCompositeKey(entityMetadata, metaModel, key);
-        }
-        else
-        {
-            ObjectAccessor accessor = new ObjectAccessor();
-
-            rowKey = accessor.toString(key);/*
-                                             * PropertyAccessorHelper.getString(key
-                                             * );
-                                             */
-        }
-
-        String hashKey = getHashKey(entityMetadata.getTableName(), rowKey);
+        String hashKey = getHashKey(entityMetadata.getTableName(), getRowKey(entityMetadata, key));
 
         try
         {
@@ -281,6 +263,174 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         return result;
     }
 
+    /**
+     * Retrieves entity instances of given class for given row keys, out of
+     * shards holding them. Keys are grouped per shard, so that each shard is
+     * read in a single round trip.
+     * 
+     * @param clazz
+     *            entity class
+     * @param keys
+     *            row keys
+     * @param fields
+     *            fields to fetch, null for all.
+     * @return entity instances found.
+     * @throws InstantiationException
+     *             throws in case of runtime exception
+     * @throws IllegalAccessException
+     *             throws in case of runtime exception
+     */
+    private List fetchAll(Class clazz, Collection<?> keys, byte[][] fields) throws InstantiationException,
+            IllegalAccessException
+    {
+        if (!factory.isSharded())
+        {
+            return fetchAll(clazz, keys, getConnection(null), fields);
+        }
+
+        EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(clazz);
+        Map<String, List<Object>> keysByShard = new LinkedHashMap<String, List<Object>>();
+        for (Object key : keys)
+        {
+            String shard = factory.getShard(getRoutingKey(entityMetadata, key));
+            List<Object> shardKeys = keysByShard.get(shard);
+            if (shardKeys == null)
+            {
+                shardKeys = new ArrayList<Object>();
+                keysByShard.put(shard, shardKeys);
+            }
+            shardKeys.add(key);
+        }
+
+        List results = new ArrayList();
+        for (Map.Entry<String, List<Object>> shardKeys : keysByShard.entrySet())
+        {
+            results.addAll(fetchAll(clazz, shardKeys.getValue(), getShardConnection(shardKeys.getKey()), fields));
+        }
+        return results;
+    }
+
+    /**
+     * Retrieves entity instances of given class for given row keys. Outside
+     * of a transaction, all hashes are fetched over a single pipeline and
+     * decoded once it is synced, instead of one round trip per key.
+     * 
+     * @param clazz
+     *            entity class
+     * @param keys
+     *            row keys
+     * @param connection
+     *            connection instance.
+     * @param fields
+     *            fields to fetch, null for all.
+     * @return entity instances found.
+     * @throws InstantiationException
+     *             throws in case of runtime exception
+     * @throws IllegalAccessException
+     *             throws in case of runtime exception
+     */
+    private List fetchAll(Class clazz, Collection<?> keys, Object connection, byte[][] fields)
+            throws InstantiationException, IllegalAccessException
+    {
+        List results = new ArrayList();
+
+        if (resource != null && resource.isActive())
+        {
+            for (Object key : keys)
+            {
+                Object result = fetch(clazz, key, connection, fields);
+                if (result != null)
+                {
+                    results.add(result);
+                }
+            }
+            return results;
+        }
+
+        EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(clazz);
+
+        BinaryPipeline pipeline = new BinaryPipeline((Jedis) connection);
+        List<Response<List<byte[]>>> responses = new ArrayList<Response<List<byte[]>>>(keys.size());
+        for (Object key : keys)
+        {
+            byte[] hashKey = getEncodedBytes(getHashKey(entityMetadata.getTableName(), getRowKey(entityMetadata, key)));
+            responses.add(fields != null ? pipeline.hmgetRaw(hashKey, fields) : pipeline.hgetAllRaw(hashKey));
+        }
+        pipeline.sync();
+
+        Iterator<?> keyIter = keys.iterator();
+        for (Response<List<byte[]>> response : responses)
+        {
+            Object key = keyIter.next();
+            List<byte[]> values = response.get();
+            Map<byte[], byte[]> columns = new HashMap<byte[], byte[]>();
+            if (values != null)
+            {
+                if (fields != null)
+                {
+                    for (int i = 0; i < fields.length && i < values.size(); i++)
+                    {
+                        if (values.get(i) != null)
+                        {
+                            columns.put(fields[i], values.get(i));
+                        }
+                    }
+                }
+                else
+                {
+                    // HGETALL replies with field and value alternately.
+                    for (int i = 0; i + 1 < values.size(); i += 2)
+                    {
+                        columns.put(values.get(i), values.get(i + 1));
+                    }
+                }
+            }
+
+            Object result = unwrap(entityMetadata, columns, key);
+            if (result != null)
+            {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns row key for given entity id.
+     * 
+     * @param entityMetadata
+     *            entity metadata.
+     * @param key
+     *            entity id.
+     * @return row key.
+     */
+    private String getRowKey(EntityMetadata entityMetadata, Object key)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+
+        if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
+        {
+            return KunderaCoreUtils.prepareCompositeKey(entityMetadata, metaModel, key);
+        }
+        return new ObjectAccessor().toString(key);
+    }
+
+    /**
+     * Returns key on which shard of a record is chosen, that is its hash key.
+     * Inverted index entries of a record go to the same shard.
+     * 
+     * @param entityMetadata
+     *            entity metadata.
+     * @param key
+     *            entity id.
+     * @return routing key.
+     */
+    private String getRoutingKey(EntityMetadata entityMetadata, Object key)
+    {
+        return getHashKey(entityMetadata.getTableName(), getRowKey(entityMetadata, key));
+    }
+
     private Map<byte[], byte[]> getColumns(Object connection, String hashKey, Map<byte[], byte[]> columns)
     {
         if (resource != null && resource.isActive())
@@ -314,18 +464,10 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     public <E> List<E> findAll(Class<E> entityClass, String[] columnsToSelect, Object... keys)
     {
-        Object connection = getConnection();
         List results = new ArrayList();
         try
         {
-            for (Object key : keys)
-            {
-                Object result = fetch(entityClass, key, connection, null);
-                if (result != null)
-                {
-                    results.add(result);
-                }
-            }
+            results = fetchAll(entityClass, Arrays.asList(keys), null);
         }
         catch (InstantiationException e)
         {
@@ -355,12 +497,12 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             settings = null;
         }
 
-        if (connection != null)
+        for (Jedis connection : connections.values())
         {
             // System.out.println("Closing" + this.connection);
             connection.disconnect();
-            connection = null;
         }
+        connections.clear();
 
         reader = null;
     }
@@ -374,7 +516,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     public void delete(Object entity, Object pKey)
     {
-        Object connection = getConnection();
+        Object connection = getConnection(getRoutingKey(KunderaMetadataManager.getEntityMetadata(entity.getClass()),
+                pKey));
         Pipeline pipeLine = null;
         try
         {
@@ -454,8 +597,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         String joinColumn = joinTableData.getJoinColumnName();
 
         Map<Object, Set<Object>> joinTableRecords = joinTableData.getJoinTableRecords();
-        Object connection = null;
-        Pipeline pipeline = null;
+        Map<Object, Pipeline> pipelines = new LinkedHashMap<Object, Pipeline>();
         /**
          * Example: join table : PERSON_ADDRESS join column : PERSON_ID (1_p)
          * inverse join column : ADDRESS_ID (1_a) store in REDIS:
@@ -464,11 +606,6 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         // String rowKey =
         try
         {
-            connection = getConnection();
-            if (resource == null)
-            {
-                pipeline = ((Jedis) connection).pipelined();
-            }
             Set<Object> joinKeys = joinTableRecords.keySet();
 
             for (Object joinKey : joinKeys)
@@ -492,25 +629,27 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                                                                                                                // column
                                                                                                                // field
 
-                    // add to hash table.
+                    // add to hash table, on shard of join table row along with
+                    // its indexes.
+                    Object connection = getPipeline(pipelines, getConnection(redisKey));
 
                     if (resource != null && resource.isActive())
                     {
                         ((Transaction) connection).hmset(getEncodedBytes(redisKey), redisFields);
                         // add index
                         ((Transaction) connection).zadd(getHashKey(tableName, inverseJoinKeyAsStr),
-                                getDouble(inverseJoinKeyAsStr), redisKey);
-                        ((Transaction) connection).zadd(getHashKey(tableName, joinKeyAsStr), getDouble(joinKeyAsStr),
+                                RedisIndexScore.getLexicalScore(inverseJoinKeyAsStr), redisKey);
+                        ((Transaction) connection).zadd(getHashKey(tableName, joinKeyAsStr), RedisIndexScore.getLexicalScore(joinKeyAsStr),
                                 redisKey);
 
                     }
                     else
                     {
-                        ((Jedis) connection).hmset(getEncodedBytes(redisKey), redisFields);
+                        ((Pipeline) connection).hmset(getEncodedBytes(redisKey), redisFields);
                         // add index
-                        ((Jedis) connection).zadd(getHashKey(tableName, inverseJoinKeyAsStr),
-                                getDouble(inverseJoinKeyAsStr), redisKey);
-                        ((Jedis) connection).zadd(getHashKey(tableName, joinKeyAsStr), getDouble(joinKeyAsStr),
+                        ((Pipeline) connection).zadd(getHashKey(tableName, inverseJoinKeyAsStr),
+                                RedisIndexScore.getLexicalScore(inverseJoinKeyAsStr), redisKey);
+                        ((Pipeline) connection).zadd(getHashKey(tableName, joinKeyAsStr), RedisIndexScore.getLexicalScore(joinKeyAsStr),
                                 redisKey);
 
                     }
@@ -522,11 +661,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         }
         finally
         {
-            if (pipeline != null)
-            {
-                pipeline.sync();
-            }
-            onCleanup(connection);
+            sync(pipelines);
         }
 
     }
@@ -540,46 +675,28 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     public <E> List<E> getColumnsById(String schemaName, String tableName, String pKeyColumnName, String columnName,
             Object pKeyColumnValue, Class columnJavaType)
     {
-        Object connection = null;
-
         List results = new ArrayList();
 
-        try
-        {
-            connection = getConnection();
-
-            String valueAsStr = PropertyAccessorHelper.getString(pKeyColumnValue);
+        String valueAsStr = PropertyAccessorHelper.getString(pKeyColumnValue);
 
-            Double score = getDouble(valueAsStr);
-
-            Set<String> resultKeys = null;
-            if (resource != null && resource.isActive())
+        // each shard indexes join table rows it holds.
+        for (Object connection : getConnections())
+        {
+            try
             {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score,
-                        score);
-                ((Transaction) connection).exec();
-                // ((Transaction)
-                // connection).zrangeByScore(getHashKey(tableName, valueAsStr),
-                // score, score);
-                resultKeys = (Set<String>) response.get();
+                Set<String> resultKeys = getMembers(connection, getHashKey(tableName, valueAsStr));
+
+                results = fetchColumn(columnName, connection, results, resultKeys);
 
+                // return connection.hmget(getEncodedBytes(redisKey),
+                // getEncodedBytes(columnName));
             }
-            else
+            finally
             {
-
-                resultKeys = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score, score);
+                onCleanup(connection);
             }
-
-            results= fetchColumn(columnName, connection, results, resultKeys);
-
-            // return connection.hmget(getEncodedBytes(redisKey),
-            // getEncodedBytes(columnName));
-            return results;
-        }
-        finally
-        {
-            onCleanup(connection);
         }
+        return results;
     }
 
     /**
@@ -622,80 +739,51 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     public Object[] findIdsByColumn(String schemaName, String tableName, String pKeyName, String columnName,
             Object columnValue, Class entityClazz)
     {
-        Object connection = null;
+        String valueAsStr = PropertyAccessorHelper.getString(columnValue);
 
-        try
+        List returnResults = new ArrayList();
+        for (Object connection : getConnections())
         {
-            connection = getConnection();
-            String valueAsStr = PropertyAccessorHelper.getString(columnValue);
-
-            Set<String> results = null;
-
-            if (resource != null && resource.isActive())
+            try
             {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr),
-                        getDouble(valueAsStr), getDouble(valueAsStr));
-                ((Transaction) connection).exec();
+                Set<String> results = getMembers(connection, getHashKey(tableName, valueAsStr));
 
-                results = (Set<String>) response.get();
+                returnResults = fetchColumn(pKeyName, connection, returnResults, results);
             }
-            else
+            finally
             {
-                results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr), getDouble(valueAsStr),
-                        getDouble(valueAsStr));
-
-            }
-
-            List returnResults = new ArrayList();
-            returnResults = fetchColumn(pKeyName, connection, returnResults, results);
-            if (returnResults != null)
-            {
-
-                return returnResults.toArray(new Object[0]);
+                onCleanup(connection);
             }
-
-        }
-        finally
-        {
-            onCleanup(connection);
         }
 
-        return null;
+        return returnResults.toArray(new Object[0]);
     }
 
     @Override
     public void deleteByColumn(String schemaName, String tableName, String columnName, Object columnValue)
     {
-        Object connection = null;
+        // each shard indexes join table rows it holds.
+        for (Object connection : getConnections())
+        {
+            deleteByColumn(connection, tableName, columnValue);
+        }
+    }
+
+    /**
+     * Deletes join table rows holding given value, out of a single shard.
+     */
+    private void deleteByColumn(Object connection, String tableName, Object columnValue)
+    {
         Pipeline pipeLine = null;
         try
         {
-
-            connection = getConnection();
-
             if (resource == null)
             {
                 pipeLine = ((Jedis) connection).pipelined();
             }
 
             String valueAsStr = PropertyAccessorHelper.getString(columnValue);
-            Double score = getDouble(valueAsStr);
-            Set<String> results = null;
-            if (resource != null && resource.isActive())
-            {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score,
-                        score);
-                ((Transaction) connection).exec();
-
-                results = (Set<String>) response.get();
-            }
-            else
-            {
-                results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score, score);
-            }
-            // Set<String> results =
-            // connection.zrangeByScore(getHashKey(tableName, valueAsStr),
-            // score, score);
+            Set<String> results = getMembers(connection, getHashKey(tableName, valueAsStr));
 
             if (results != null)
             {
@@ -757,11 +845,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         if (ids != null)
         {
             // just to insure uniqueness.
-
-            for (Object id : new HashSet(Arrays.asList(ids)))
-            {
-                resultSet.add(find(entityClazz, id));
-            }
+            resultSet.addAll(findAll(entityClazz, null, new HashSet(Arrays.asList(ids)).toArray()));
         }
 
         return resultSet;
@@ -814,13 +898,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     public int executeBatch()
     {
-        Object connection = getConnection();
-        // Create a hashset and populate data into it
-        Pipeline pipeLine = null;
-        if (resource == null)
-        {
-            pipeLine = ((Jedis) connection).pipelined();
-        }
+        // Create a hashset and populate data into it, a pipeline per shard.
+        Map<Object, Pipeline> pipelines = new LinkedHashMap<Object, Pipeline>();
         try
         {
             for (Node node : nodes)
@@ -828,19 +907,20 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                 if (node.isDirty())
                 {
                     node.handlePreEvent();
+                    EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
+                    Object connection = getPipeline(pipelines,
+                            getConnection(getRoutingKey(metadata, node.getEntityId())));
                     // delete can not be executed in batch
                     if (node.isInState(RemovedState.class))
                     {
-                        onDelete(node.getData(), node.getEntityId(), pipeLine != null ? pipeLine : connection);
+                        onDelete(node.getData(), node.getEntityId(), connection);
                     }
                     else
                     {
 
                         List<RelationHolder> relationHolders = getRelationHolders(node);
-                        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
 
-                        onPersist(metadata, node.getData(), node.getEntityId(), relationHolders,
-                                pipeLine != null ? pipeLine : connection);
+                        onPersist(metadata, node.getData(), node.getEntityId(), relationHolders, connection);
                     }
                     node.handlePostEvent();
                 }
@@ -848,14 +928,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         }
         finally
         {
-            //
-            if (pipeLine != null)
-            {
-                pipeLine.sync(); // send I/O.. as persist call. so no need to
-                                 // read
-                // response?
-            }
-            onCleanup(connection);
+            // send I/O.. as persist call. so no need to read response?
+            sync(pipelines);
         }
 
         return nodes.size();
@@ -890,41 +964,27 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
     private Object[] findIdsByColumn(String tableName, String columnName, Object columnValue)
     {
-        Object connection = null;
+        String valueAsStr = PropertyAccessorHelper.getString(columnValue);
 
-        try
+        Set<String> results = new LinkedHashSet<String>();
+        for (Object connection : getConnections())
         {
-            connection = getConnection();
-            String valueAsStr = PropertyAccessorHelper.getString(columnValue);
-
-            Set<String> results = null;
-
-            if (resource != null && resource.isActive())
+            try
             {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, columnName),
-                        getDouble(valueAsStr), getDouble(valueAsStr));
-                ((Transaction) connection).exec();
-
-                results = (Set<String>) response.get();
-            }
-            else
-            {
-                results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, columnName), getDouble(valueAsStr),
-                        getDouble(valueAsStr));
-
+                // per value index holds exact matches only.
+                Set<String> members = getMembers(connection, getHashKey(tableName, getHashKey(columnName, valueAsStr)));
+                if (members != null)
+                {
+                    results.addAll(members);
+                }
             }
-            if (results != null)
+            finally
             {
-                return results.toArray(new Object[0]);
+                onCleanup(connection);
             }
-
-        }
-        finally
-        {
-            onCleanup(connection);
         }
 
-        return null;
+        return results.toArray(new Object[0]);
     }
 
     /**
@@ -1090,6 +1150,47 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         }
     }
 
+    /**
+     * Returns pipeline over given connection, opened once per connection so
+     * that writes to a shard go in a single round trip. Returns connection as
+     * is if a transaction is in progress.
+     * 
+     * @param pipelines
+     *            pipelines opened so far, per connection.
+     * @param connection
+     *            redis connection instance.
+     * @return pipeline or transaction.
+     */
+    private Object getPipeline(Map<Object, Pipeline> pipelines, Object connection)
+    {
+        if (resource != null)
+        {
+            return connection;
+        }
+        Pipeline pipeline = pipelines.get(connection);
+        if (pipeline == null)
+        {
+            pipeline = ((Jedis) connection).pipelined();
+            pipelines.put(connection, pipeline);
+        }
+        return pipeline;
+    }
+
+    /**
+     * Syncs given pipelines and releases their connections.
+     * 
+     * @param pipelines
+     *            pipelines, per connection.
+     */
+    private void sync(Map<Object, Pipeline> pipelines)
+    {
+        for (Map.Entry<Object, Pipeline> pipeline : pipelines.entrySet())
+        {
+            pipeline.getValue().sync();
+            onCleanup(pipeline.getKey());
+        }
+    }
+
     /**
      * On release connection.
      * 
@@ -1250,6 +1351,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         byte[] name;
         if (value != null)
         {
+            double score = RedisIndexScore.getScore(((Field) attrib.getJavaMember()).getType(), valueAsStr);
             if (embeddedAttrib == null)
             {
                 name = getEncodedBytes(((AbstractAttribute) attrib).getJPAColumnName());
@@ -1261,15 +1363,13 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             }
             // add column name as key and value as value
             wrapper.addColumn(name, value);
-            // // {tablename:columnname,hashcode} for value
+            // {tablename:columnname,score} for value
             wrapper.addIndex(
-                    getHashKey(entityMetadata.getTableName(), ((AbstractAttribute) attrib).getJPAColumnName()),
-                    getDouble(valueAsStr));
+                    getHashKey(entityMetadata.getTableName(), ((AbstractAttribute) attrib).getJPAColumnName()), score);
 
             wrapper.addIndex(
                     getHashKey(entityMetadata.getTableName(),
-                            getHashKey(((AbstractAttribute) attrib).getJPAColumnName(), valueAsStr)),
-                    getDouble(valueAsStr));
+                            getHashKey(((AbstractAttribute) attrib).getJPAColumnName(), valueAsStr)), score);
         }
     }
 
@@ -1394,201 +1494,376 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         /**
          * Find a list of id's and then call findById for each!
          */
-        Object connection = null;
+        List<Object> connections = getConnections();
         List<Object> results = new ArrayList<Object>();
         try
         {
-            connection = getConnection();
-            Set<String> rowKeys = new HashSet<String>();
             EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entityClazz);
-            if (queryParameter.getClause() != null && !queryParameter.isByRange())
+            byte[][] columns = queryParameter.getColumns() != null ? queryParameter.getColumns().toArray(
+                    new byte[][] {}) : null;
+            if (queryParameter.getClause() == null && !queryParameter.isByRange() && queryParameter.isById())
             {
-                String destStore = entityClazz.getSimpleName() + System.currentTimeMillis();
-
                 Map<String, Object> fieldSets = queryParameter.getFields();
 
-                Set<String> keySets = new HashSet<String>(fieldSets.size());
-                // byte[][] keys = new byte[][fieldSets.size()];
-                for (String column : fieldSets.keySet())
+                results = findAllColumns(entityClazz, columns, fieldSets.values().toArray());
+                return results;
+            }
+
+            Set<String> rowKeys = null;
+            if (connections.size() == 1)
+            {
+                rowKeys = findRowKeys(connections.get(0), entityMetadata, queryParameter,
+                        queryParameter.getFirstResult(), getLastIndex(queryParameter));
+            }
+            else
+            {
+                // each shard indexes records it holds, so ranks are known once
+                // row keys of all shards are merged.
+                rowKeys = new LinkedHashSet<String>();
+                for (Object connection : connections)
                 {
-                    String valueAsStr = PropertyAccessorHelper.getString(fieldSets.get(column));
-                    String key = getHashKey(entityMetadata.getTableName(), getHashKey(column, valueAsStr));
-                    keySets.add(key);
+                    rowKeys.addAll(findRowKeys(connection, entityMetadata, queryParameter, 0,
+                            getLastIndex(queryParameter)));
                 }
+                rowKeys = slice(rowKeys, queryParameter.getFirstResult(), getLastIndex(queryParameter));
+            }
 
-                if (queryParameter.getClause().equals(Clause.INTERSECT))
-                {
-                    if (resource != null && resource.isActive())
-                    {
-                        ((Transaction) connection).zinterstore(destStore, keySets.toArray(new String[] {}));
+            // fetch all records in one go.
+            results = fetchAll(entityClazz, rowKeys, columns);
 
-                    }
-                    else
-                    {
-                        ((Jedis) connection).zinterstore(destStore, keySets.toArray(new String[] {}));
-                    }
-                }
-                else
-                {
-                    if (resource != null && resource.isActive())
-                    {
-                        ((Transaction) connection).zunionstore(destStore, keySets.toArray(new String[] {}));
-                    }
-                    else
-                    {
-                        ((Jedis) connection).zunionstore(destStore, keySets.toArray(new String[] {}));
-                    }
+        }
+        catch (InstantiationException e)
+        {
+            logger.error("Error during persist, Caused by:", e);
+            throw new PersistenceException(e);
+        }
+        catch (IllegalAccessException e)
+        {
+            logger.error("Error during persist, Caused by:", e);
+            throw new PersistenceException(e);
+        }
+        finally
+        {
+            for (Object connection : connections)
+            {
+                onCleanup(connection);
+            }
+        }
 
-                }
+        return results;
+    }
 
-                if (resource != null && resource.isActive())
-                {
-                    Response response = ((Transaction) connection).zrange(destStore, 0, -1);
-                    ((Transaction) connection).exec();
+    /**
+     * Returns row keys of records matching given query, out of indexes over a
+     * single shard.
+     * 
+     * @param connection
+     *            connection instance.
+     * @param entityMetadata
+     *            entity metadata.
+     * @param queryParameter
+     *            query interpreter.
+     * @param start
+     *            rank of first row key to return.
+     * @param end
+     *            rank of last row key to return, -1 for last one.
+     * @return row keys.
+     */
+    private Set<String> findRowKeys(Object connection, EntityMetadata entityMetadata,
+            RedisQueryInterpreter queryParameter, int start, int end)
+    {
+        Set<String> rowKeys = new HashSet<String>();
+        if (queryParameter.getClause() != null && !queryParameter.isByRange())
+        {
+            // unique per query, so that concurrent queries do not share
+            // intermediate store.
+            String destStore = getHashKey(entityMetadata.getEntityClazz().getSimpleName(), UUID.randomUUID()
+                    .toString());
 
-                    rowKeys = (Set<String>) response.get();
-                    //
-                    // ((Transaction) connection).del(destStore);
+            Map<String, Object> fieldSets = queryParameter.getFields();
 
+            Set<String> keySets = new HashSet<String>(fieldSets.size());
+            // byte[][] keys = new byte[][fieldSets.size()];
+            for (String column : fieldSets.keySet())
+            {
+                String valueAsStr = PropertyAccessorHelper.getString(fieldSets.get(column));
+                String key = getHashKey(entityMetadata.getTableName(), getHashKey(column, valueAsStr));
+                keySets.add(key);
+            }
+
+            if (resource != null && resource.isActive())
+            {
+                if (queryParameter.getClause().equals(Clause.INTERSECT))
+                {
+                    ((Transaction) connection).zinterstore(destStore, keySets.toArray(new String[] {}));
                 }
                 else
                 {
-
-                    rowKeys = ((Jedis) connection).zrange(destStore, 0, -1);
-                    ((Jedis) connection).del(destStore);
+                    ((Transaction) connection).zunionstore(destStore, keySets.toArray(new String[] {}));
                 }
-
+                Response response = ((Transaction) connection).zrange(destStore, start, end);
                 // delete intermediate store after find.
-                //
-                // means it is a query over sorted set.
+                ((Transaction) connection).del(destStore);
+                ((Transaction) connection).exec();
+
+                rowKeys = (Set<String>) response.get();
             }
-            else if (queryParameter.isByRange())
+            else
             {
-                // means query over a single sorted set with range
-                Map<String, Double> minimum = queryParameter.getMin();
-                Map<String, Double> maximum = queryParameter.getMax();
-
-                String column = minimum.keySet().iterator().next();
-
-                if (resource != null && resource.isActive())
+                // store, paged read and delete of intermediate store go
+                // in a single round trip.
+                Pipeline pipeline = ((Jedis) connection).pipelined();
+                if (queryParameter.getClause().equals(Clause.INTERSECT))
                 {
-                    Response response = ((Transaction) connection)
-                            .zrangeByScore(getHashKey(entityMetadata.getTableName(), column), minimum.get(column),
-                                    maximum.get(column));
-                    ((Transaction) connection).exec();
-
-                    rowKeys = (Set<String>) response.get();
-
+                    pipeline.zinterstore(destStore, keySets.toArray(new String[] {}));
                 }
                 else
                 {
-                    rowKeys = ((Jedis) connection).zrangeByScore(getHashKey(entityMetadata.getTableName(), column),
-                            minimum.get(column), maximum.get(column));
-
+                    pipeline.zunionstore(destStore, keySets.toArray(new String[] {}));
                 }
+                Response<Set<String>> response = pipeline.zrange(destStore, start, end);
+                pipeline.del(destStore);
+                pipeline.sync();
 
+                rowKeys = response.get();
             }
-            else if (queryParameter.isById())
-            {
-                Map<String, Object> fieldSets = queryParameter.getFields();
+            // means it is a query over sorted set.
+        }
+        else if (queryParameter.isByRange())
+        {
+            // means query over a single sorted set with range
+            rowKeys = slice(getRowKeysByRange(connection, entityMetadata, queryParameter), start, end);
+        }
+        else if (queryParameter.getFields() != null)
+        {
+            Set<String> columns = queryParameter.getFields().keySet();
 
-                results = findAllColumns(entityClazz, (byte[][]) (queryParameter.getColumns() != null ? queryParameter
-                        .getColumns().toArray() : null), fieldSets.values().toArray());
-                return results;
-            }
-            else if (queryParameter.getFields() != null)
+            for (String column : columns)
             {
-                Set<String> columns = queryParameter.getFields().keySet();
+                // ideally it will always be 1 value in map, else it will go
+                // it queryParameter.getClause() will not be null!
+                String valueAsStr = PropertyAccessorHelper.getString(queryParameter.getFields().get(column));
+
+                // per value index holds exact matches only, no need to
+                // compare scores.
+                rowKeys = getMembers(connection,
+                        getHashKey(entityMetadata.getTableName(), getHashKey(column, valueAsStr)), start, end);
+            }
 
-                for (String column : columns)
-                {
-                    // ideally it will always be 1 value in map, else it will go
-                    // it queryParameter.getClause() will not be null!
-                    Double value = getDouble(PropertyAccessorHelper.getString(queryParameter.getFields().get(column)));
-                    if (resource != null && resource.isActive())
-                    {
-                        Response response = ((Transaction) connection).zrangeByScore(
-                                getHashKey(entityMetadata.getTableName(), column), value, value);
-                        ((Transaction) connection).exec();
+        }
+        else
+        {
+            rowKeys = getMembers(connection, getHashKey(entityMetadata.getTableName(),
+                    ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()), start, end);
+        }
+        return rowKeys;
+    }
 
-                        rowKeys = (Set<String>) response.get();
+    /**
+     * Returns row keys of records whose indexed column falls in range (or
+     * matches prefix) of given query. Non numeric scores only hold leading
+     * bytes of values, so records sharing score with a bound are checked
+     * against their actual column value.
+     * 
+     * @param connection
+     *            connection instance.
+     * @param entityMetadata
+     *            entity metadata.
+     * @param queryParameter
+     *            query interpreter holding range.
+     * @return row keys, in order of column value.
+     */
+    private Set<String> getRowKeysByRange(Object connection, EntityMetadata entityMetadata,
+            RedisQueryInterpreter queryParameter)
+    {
+        String column = queryParameter.getFieldName();
+        String indexKey = getHashKey(entityMetadata.getTableName(), column);
 
-                    }
-                    else
-                    {
-                        rowKeys = ((Jedis) connection).zrangeByScore(getHashKey(entityMetadata.getTableName(), column),
-                                value, value);
+        Set<Tuple> members = null;
+        if (resource != null && resource.isActive())
+        {
+            Response response = ((Transaction) connection).zrangeByScoreWithScores(indexKey,
+                    queryParameter.getMinScore(), queryParameter.getMaxScore());
+            ((Transaction) connection).exec();
 
-                    }
-                }
+            members = (Set<Tuple>) response.get();
+        }
+        else
+        {
+            members = ((Jedis) connection).zrangeByScoreWithScores(indexKey, queryParameter.getMinScore(),
+                    queryParameter.getMaxScore());
+        }
 
-            }
-            else
+        Set<String> rowKeys = new LinkedHashSet<String>();
+        List<String> boundaryKeys = new ArrayList<String>();
+        if (members != null)
+        {
+            for (Tuple member : members)
             {
-                if (resource != null && resource.isActive())
+                if (queryParameter.isNumericIndex())
                 {
-                    Response response = ((Transaction) connection).zrange(
-                            getHashKey(entityMetadata.getTableName(),
-                                    ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()), 0, -1);
-                    ((Transaction) connection).exec();
-
-                    rowKeys = new HashSet<String>((Collection<? extends String>) response.get());
+                    if (queryParameter.isInRange(member.getScore()))
+                    {
+                        rowKeys.add(member.getElement());
+                    }
                 }
                 else
                 {
-                    rowKeys = new HashSet<String>(((Jedis) connection).zrange(
-                            getHashKey(entityMetadata.getTableName(),
-                                    ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()), 0, -1));
+                    if (queryParameter.isBoundary(member.getScore()))
+                    {
+                        boundaryKeys.add(member.getElement());
+                    }
+                    rowKeys.add(member.getElement());
                 }
             }
+        }
 
-            // fetch fr
-            for (String k : rowKeys)
+        if (!boundaryKeys.isEmpty())
+        {
+            List<byte[]> values = getColumnValues(connection, entityMetadata.getTableName(), column, boundaryKeys);
+            for (int i = 0; i < boundaryKeys.size(); i++)
             {
-
-                Object record = fetch(entityClazz, k, connection, (queryParameter.getColumns() != null ? queryParameter
-                        .getColumns().toArray(new byte[][] {}) : null));
-                if (record != null)
+                byte[] value = values.get(i);
+                if (value == null
+                        || !queryParameter.isInRange(PropertyAccessorHelper.getString(PropertyAccessorHelper.getObject(
+                                queryParameter.getIndexType(), value))))
                 {
-                    results.add(record);
+                    rowKeys.remove(boundaryKeys.get(i));
                 }
             }
-
         }
-        catch (InstantiationException e)
+        return rowKeys;
+    }
+
+    /**
+     * Returns value of a column for each of given row keys.
+     * 
+     * @param connection
+     *            connection instance.
+     * @param tableName
+     *            table name.
+     * @param column
+     *            column name.
+     * @param rowKeys
+     *            row keys.
+     * @return column values, in order of row keys.
+     */
+    private List<byte[]> getColumnValues(Object connection, String tableName, String column, List<String> rowKeys)
+    {
+        List<byte[]> values = new ArrayList<byte[]>(rowKeys.size());
+        byte[] field = getEncodedBytes(column);
+        if (resource != null && resource.isActive())
         {
-            logger.error("Error during persist, Caused by:", e);
-            throw new PersistenceException(e);
+            for (String rowKey : rowKeys)
+            {
+                Response response = ((Transaction) connection).hmget(getEncodedBytes(getHashKey(tableName, rowKey)),
+                        field);
+                ((Transaction) connection).exec();
+
+                List<byte[]> fieldValues = (List<byte[]>) response.get();
+                values.add(fieldValues != null && !fieldValues.isEmpty() ? fieldValues.get(0) : null);
+            }
         }
-        catch (IllegalAccessException e)
+        else
         {
-            logger.error("Error during persist, Caused by:", e);
-            throw new PersistenceException(e);
+            BinaryPipeline pipeline = new BinaryPipeline((Jedis) connection);
+            List<Response<List<byte[]>>> responses = new ArrayList<Response<List<byte[]>>>(rowKeys.size());
+            for (String rowKey : rowKeys)
+            {
+                responses.add(pipeline.hmgetRaw(getEncodedBytes(getHashKey(tableName, rowKey)), field));
+            }
+            pipeline.sync();
+
+            for (Response<List<byte[]>> response : responses)
+            {
+                List<byte[]> fieldValues = response.get();
+                values.add(fieldValues != null && !fieldValues.isEmpty() ? fieldValues.get(0) : null);
+            }
         }
-        finally
+        return values;
+    }
+
+    /**
+     * Returns all members of a sorted set.
+     * 
+     * @param connection
+     *            connection instance.
+     * @param key
+     *            sorted set key.
+     * @return members.
+     */
+    private Set<String> getMembers(Object connection, String key)
+    {
+        return getMembers(connection, key, 0, -1);
+    }
+
+    /**
+     * Returns members of a sorted set between given ranks.
+     * 
+     * @param connection
+     *            connection instance.
+     * @param key
+     *            sorted set key.
+     * @param start
+     *            first rank.
+     * @param end
+     *            last rank, -1 for last member.
+     * @return members.
+     */
+    private Set<String> getMembers(Object connection, String key, int start, int end)
+    {
+        if (resource != null && resource.isActive())
         {
-            onCleanup(connection);
+            Response response = ((Transaction) connection).zrange(key, start, end);
+            ((Transaction) connection).exec();
 
+            return (Set<String>) response.get();
         }
+        return ((Jedis) connection).zrange(key, start, end);
+    }
 
-        return results;
+    /**
+     * Returns rank of last record to be fetched as per first and max result of
+     * query, -1 if unbounded.
+     */
+    private int getLastIndex(RedisQueryInterpreter queryParameter)
+    {
+        return queryParameter.getMaxResult() > 0 ? queryParameter.getFirstResult() + queryParameter.getMaxResult()
+                - 1 : -1;
+    }
+
+    /**
+     * Applies ranks of query over row keys computed on client.
+     */
+    private Set<String> slice(Set<String> rowKeys, int start, int end)
+    {
+        if (start <= 0 && (end < 0 || rowKeys.size() <= end + 1))
+        {
+            return rowKeys;
+        }
+
+        Set<String> slice = new LinkedHashSet<String>();
+        int index = 0;
+        for (String rowKey : rowKeys)
+        {
+            if (end >= 0 && index > end)
+            {
+                break;
+            }
+            if (index++ >= start)
+            {
+                slice.add(rowKey);
+            }
+        }
+        return slice;
     }
 
     private <E> List<E> findAllColumns(Class<E> entityClass, byte[][] columns, Object... keys)
     {
-        Object connection = getConnection();
-        // connection.co
         List results = new ArrayList();
         try
         {
-            for (Object key : keys)
-            {
-                Object result = fetch(entityClass, key, connection, columns);
-                if (result != null)
-                {
-                    results.add(result);
-                }
-            }
+            results = fetchAll(entityClass, Arrays.asList(keys), columns);
         }
         catch (InstantiationException e)
         {
@@ -1632,11 +1907,41 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     }
 
     /**
-     * Returns jedis connection.
+     * Returns jedis connection to shard holding record of given hash key.
      * 
+     * @param key
+     *            hash key of record, ignored if records are not sharded.
      * @return jedis resource.
      */
-    private Object getConnection()
+    private Object getConnection(String key)
+    {
+        return getShardConnection(factory.getShard(key));
+    }
+
+    /**
+     * Returns jedis connections to all shards, for queries over inverted
+     * indexes.
+     * 
+     * @return jedis resources.
+     */
+    private List<Object> getConnections()
+    {
+        List<Object> shardConnections = new ArrayList<Object>();
+        for (String shard : factory.getShards())
+        {
+            shardConnections.add(getShardConnection(shard));
+        }
+        return shardConnections;
+    }
+
+    /**
+     * Returns jedis connection to given shard.
+     * 
+     * @param shard
+     *            shard name.
+     * @return jedis resource.
+     */
+    private Object getShardConnection(String shard)
     {
         /*
          * Jedis connection = factory.getConnection();
@@ -1650,12 +1955,13 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
          * ((RedisTransaction) resource).bindResource(connection); } else {
          * return connection; }
          */
-        if (resource == null && this.connection != null)
+        Jedis connection = connections.get(shard);
+        if (resource == null && connection != null)
         {
-            return this.connection;
+            return connection;
         }
 
-        Jedis conn = factory.getConnection();
+        Jedis conn = factory.getConnection(shard);
 
         // If resource is not null means a transaction in progress.
 
@@ -1669,11 +1975,11 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
         if (resource != null && resource.isActive())
         {
-            return ((RedisTransaction) resource).bindResource(conn);
+            return ((RedisTransaction) resource).bindResource(shard, conn);
         }
         else
         {
-            this.connection = conn;
+            connections.put(shard, conn);
             return conn;
         }
     }
@@ -1722,14 +2028,14 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                 byte[] valueInBytes = PropertyAccessorHelper.getBytes(value);
                 byte[] nameInBytes = getEncodedBytes(name);
                 String valueAsStr = PropertyAccessorHelper.getString(value);
+                double score = RedisIndexScore.getScore(value.getClass(), valueAsStr);
                 wrapper.addColumn(nameInBytes, valueInBytes);
-                wrapper.addIndex(getHashKey(entityMetadata.getTableName(), name), getDouble(valueAsStr));
+                wrapper.addIndex(getHashKey(entityMetadata.getTableName(), name), score);
 
                 // this index is required to work for UNION/INTERSECT
                 // support.
 
-                wrapper.addIndex(getHashKey(entityMetadata.getTableName(), getHashKey(name, valueAsStr)),
-                        getDouble(valueAsStr));
+                wrapper.addIndex(getHashKey(entityMetadata.getTableName(), getHashKey(name, valueAsStr)), score);
             }
         }
 
@@ -1752,6 +2058,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         }
 
         String hashKey = getHashKey(entityMetadata.getTableName(), rowKey);
+        double score = RedisIndexScore.getScore(entityMetadata.getIdAttribute().getBindableJavaType(), rowKey);
 
         // Add row key to list(Required for wild search over table).
 
@@ -1762,7 +2069,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             ((Transaction) connection).zadd(
                     getHashKey(entityMetadata.getTableName(),
                             ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()),
-                    getDouble(rowKey), rowKey);
+                    score, rowKey);
 
             // Add row-key as inverted index as well needed for multiple clause
             // search with key and non row key.
@@ -1771,7 +2078,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                     .zadd(getHashKey(
                             entityMetadata.getTableName(),
                             getHashKey(((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName(), rowKey)),
-                            getDouble(rowKey), rowKey);
+                            score, rowKey);
         }
         else
         {
@@ -1780,7 +2087,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             ((Pipeline) connection).zadd(
                     getHashKey(entityMetadata.getTableName(),
                             ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()),
-                    getDouble(rowKey), rowKey);
+                    score, rowKey);
 
             // Add row-key as inverted index as well needed for multiple clause
             // search with key and non row key.
@@ -1789,7 +2096,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                     .zadd(getHashKey(
                             entityMetadata.getTableName(),
                             getHashKey(((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName(), rowKey)),
-                            getDouble(rowKey), rowKey);
+                            score, rowKey);
         }
 
         // Add inverted indexes for column based search.
@@ -1860,7 +2167,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     public Object generate(SequenceGeneratorDiscriptor discriptor)
     {
-        Jedis jedis = factory.getConnection();
+        Jedis jedis = factory.getConnection(factory.getShard(discriptor.getSequenceName()));
 
         Long latestCount = jedis.incr(getEncodedBytes(discriptor.getSequenceName()));
         if (latestCount == 1)
@@ -16,6 +16,8 @@
 
 package com.impetus.client.redis;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Properties;
 
@@ -26,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
 
 import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
@@ -46,6 +49,9 @@ public class RedisClientFactory extends GenericClientFactory
     /** The logger. */
     private static Logger logger = LoggerFactory.getLogger(RedisClientFactory.class);
 
+    /** Name of the only shard, if a single node is configured. */
+    static final String DEFAULT_SHARD = "default";
+
     /*
      * (non-Javadoc)
      * 
@@ -138,6 +144,16 @@ public class RedisClientFactory extends GenericClientFactory
         JedisPoolConfig poolConfig = onPoolConfig(WHEN_EXHAUSTED_FAIL, maxActivePerNode, maxIdlePerNode,
                 minIdlePerNode, maxTotal);
 
+        // more than one node means records are sharded over nodes.
+        String[] nodes = contactNode != null ? StringUtils.split(contactNode, ',') : null;
+        if (nodes != null && nodes.length > 1)
+        {
+            logger.info("Initializing Redis connection pools over " + nodes.length + " shards");
+            return new RedisShardPool(nodes, defaultPort, poolConfig != null ? poolConfig : new JedisPoolConfig(),
+                    txTimeOut != null && StringUtils.isNumeric(txTimeOut) ? Integer.parseInt(txTimeOut)
+                            : Protocol.DEFAULT_TIMEOUT, password);
+        }
+
         JedisPool pool = null;
         onValidation(contactNode, defaultPort);
 
@@ -219,6 +235,10 @@ public class RedisClientFactory extends GenericClientFactory
         {
             ((JedisPool) getConnectionPoolOrConnection()).destroy();
         }
+        else if (getConnectionPoolOrConnection() != null && getConnectionPoolOrConnection() instanceof RedisShardPool)
+        {
+            ((RedisShardPool) getConnectionPoolOrConnection()).destroy();
+        }
         else if (getConnectionPoolOrConnection() != null && getConnectionPoolOrConnection() instanceof Jedis)
         {
             ((Jedis) getConnectionPoolOrConnection()).disconnect();
@@ -241,17 +261,7 @@ public class RedisClientFactory extends GenericClientFactory
 
             Jedis connection = ((JedisPool) getConnectionPoolOrConnection()).getResource();
 
-            Map props = RedisPropertyReader.rsmd.getProperties();
-
-            // set external xml properties.
-            if (props != null)
-            {
-                // props.
-                for (Object key : props.keySet())
-                {
-                    connection.configSet(key.toString(), props.get(key).toString());
-                }
-            }
+            onConfig(connection);
             return connection;
         }
         else
@@ -285,6 +295,80 @@ public class RedisClientFactory extends GenericClientFactory
         }
     }
 
+    /**
+     * Retrieving connection to given shard from its connection pool.
+     * 
+     * @param shard
+     *            shard name, as returned by {@link #getShard(String)}.
+     * @return returns jedis instance.
+     */
+    Jedis getConnection(String shard)
+    {
+        Object poolOrConnection = getConnectionPoolOrConnection();
+        if (poolOrConnection instanceof RedisShardPool)
+        {
+            if (logger.isDebugEnabled())
+                logger.info("borrowing connection from pool of shard " + shard);
+            Jedis connection = ((RedisShardPool) poolOrConnection).getResource(shard);
+            onConfig(connection);
+            return connection;
+        }
+        return getConnection();
+    }
+
+    /**
+     * Returns name of the shard holding record of given hash key.
+     * 
+     * @param key
+     *            hash key of record.
+     * @return shard name.
+     */
+    String getShard(String key)
+    {
+        Object poolOrConnection = getConnectionPoolOrConnection();
+        return poolOrConnection instanceof RedisShardPool ? ((RedisShardPool) poolOrConnection).getShard(key)
+                : DEFAULT_SHARD;
+    }
+
+    /**
+     * Returns names of all shards, queries over inverted indexes fan out over
+     * all of them.
+     * 
+     * @return shard names.
+     */
+    Collection<String> getShards()
+    {
+        Object poolOrConnection = getConnectionPoolOrConnection();
+        return poolOrConnection instanceof RedisShardPool ? ((RedisShardPool) poolOrConnection).getShards()
+                : Collections.singletonList(DEFAULT_SHARD);
+    }
+
+    /**
+     * Returns whether records are sharded over more than one node.
+     */
+    boolean isSharded()
+    {
+        return getConnectionPoolOrConnection() instanceof RedisShardPool;
+    }
+
+    /**
+     * Sets external xml properties over connection.
+     */
+    private void onConfig(Jedis connection)
+    {
+        Map props = RedisPropertyReader.rsmd.getProperties();
+
+        // set external xml properties.
+        if (props != null)
+        {
+            // props.
+            for (Object key : props.keySet())
+            {
+                connection.configSet(key.toString(), props.get(key).toString());
+            }
+        }
+    }
+
     /**
      * Release/return connection to pool.
      * 
@@ -300,6 +384,10 @@ public class RedisClientFactory extends GenericClientFactory
         {
             ((JedisPool) poolOrConnection).returnResource(res);
         }
+        else if (poolOrConnection instanceof RedisShardPool)
+        {
+            ((RedisShardPool) poolOrConnection).returnResource(res);
+        }
     }
 
     IndexManager getIndexManager()
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.redis;
+
+import java.io.UnsupportedEncodingException;
+
+import javax.persistence.PersistenceException;
+
+import com.impetus.kundera.Constants;
+
+/**
+ * Computes sorted set scores of inverted indexes. Numeric columns are scored
+ * with their value. Other columns are scored with their leading
+ * {@link #PREFIX_BYTES} UTF-8 bytes, so that score order follows
+ * lexicographic order of values and range or prefix lookups can be served by
+ * ZRANGEBYSCORE. Values sharing their leading bytes share a score, hence
+ * members on a boundary score must be checked against actual value.
+ *
+ * @author impetus
+ */
+final class RedisIndexScore
+{
+    /** Number of leading bytes encoded in a score, fits a double mantissa. */
+    static final int PREFIX_BYTES = 6;
+
+    private RedisIndexScore()
+    {
+    }
+
+    /**
+     * Returns whether index over given type is scored with its numeric value.
+     *
+     * @param type
+     *            column java type.
+     * @return true for numeric types.
+     */
+    static boolean isNumeric(Class<?> type)
+    {
+        return type != null
+                && (Number.class.isAssignableFrom(type) || (type.isPrimitive() && !type.equals(boolean.class) && !type
+                        .equals(char.class)));
+    }
+
+    /**
+     * Returns index score of a value.
+     *
+     * @param type
+     *            column java type.
+     * @param value
+     *            value in string form.
+     * @return score.
+     */
+    static double getScore(Class<?> type, String value)
+    {
+        if (value == null)
+        {
+            return 0;
+        }
+        return isNumeric(type) ? Double.parseDouble(value) : getLexicalScore(value);
+    }
+
+    /**
+     * Returns order preserving score of a string, out of its leading bytes.
+     *
+     * @param value
+     *            string value.
+     * @return score.
+     */
+    static double getLexicalScore(String value)
+    {
+        return encode(getBytes(value), 0);
+    }
+
+    /**
+     * Returns highest score a string starting with given prefix may have.
+     *
+     * @param prefix
+     *            string prefix.
+     * @return score.
+     */
+    static double getLexicalUpperBound(String prefix)
+    {
+        return encode(getBytes(prefix), 0xff);
+    }
+
+    /**
+     * Compares two strings over their UTF-8 bytes, which is the order scores
+     * follow.
+     *
+     * @param left
+     *            string value.
+     * @param right
+     *            string value.
+     * @return comparison result.
+     */
+    static int compare(String left, String right)
+    {
+        byte[] leftBytes = getBytes(left);
+        byte[] rightBytes = getBytes(right);
+        for (int i = 0; i < leftBytes.length && i < rightBytes.length; i++)
+        {
+            int diff = (leftBytes[i] & 0xff) - (rightBytes[i] & 0xff);
+            if (diff != 0)
+            {
+                return diff;
+            }
+        }
+        return leftBytes.length - rightBytes.length;
+    }
+
+    private static double encode(byte[] bytes, int padding)
+    {
+        long score = 0;
+        for (int i = 0; i < PREFIX_BYTES; i++)
+        {
+            score = (score << 8) | (i < bytes.length ? bytes[i] & 0xff : padding);
+        }
+        return score;
+    }
+
+    private static byte[] getBytes(String value)
+    {
+        try
+        {
+            return value.getBytes(Constants.CHARSET_UTF8);
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            throw new PersistenceException(e);
+        }
+    }
+}
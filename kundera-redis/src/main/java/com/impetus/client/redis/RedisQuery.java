@@ -21,11 +21,15 @@ import java.util.List;
 import java.util.Queue;
 
 import javax.persistence.Query;
+import javax.persistence.metamodel.Attribute;
 
 import com.impetus.client.redis.RedisQueryInterpreter.Clause;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.EnhanceEntity;
+import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.PersistenceDelegator;
@@ -42,6 +46,7 @@ import com.impetus.kundera.query.QueryImpl;
  */
 public class RedisQuery extends QueryImpl
 {
+    private int firstResult;
 
     public RedisQuery(String jpaQuery, KunderaQuery kunderaQuery, PersistenceDelegator persistenceDelegator)
     {
@@ -49,6 +54,29 @@ public class RedisQuery extends QueryImpl
         this.kunderaQuery = kunderaQuery;
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#setFirstResult(int)
+     */
+    @Override
+    public Query setFirstResult(int startPosition)
+    {
+        this.firstResult = startPosition;
+        return this;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#getFirstResult()
+     */
+    @Override
+    public int getFirstResult()
+    {
+        return firstResult;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -131,6 +159,8 @@ public class RedisQuery extends QueryImpl
     {
         RedisQueryInterpreter interpreter = new RedisQueryInterpreter(getColumns(getKunderaQuery().getResult(),
                 entityMetadata));
+        interpreter.setFirstResult(firstResult);
+        interpreter.setMaxResult(maxResult);
 
         // If there is no clause present, means we might need to scan complete
         // table.
@@ -156,37 +186,30 @@ public class RedisQuery extends QueryImpl
                     interpreter.setFieldName(columnName);
                     interpreter.setValue(value);
                 }
-                // TODO:: this is not possible. REDIS does not provide a way for
-                // this even for numeric values, reason: it includes boundary
-                // values by default.
-                /*
-                 * else if (condition.equals(">")) {
-                 * interpreter.setMin(columnName,value); // these can only work
-                 * for // numeric values.
-                 * 
-                 * } else if (condition.equals("<")) {
-                 * interpreter.setMax(columnName,value); // these can only work
-                 * for // numeric values.
-                 * 
-                 * }
-                 */else if (condition.equals(">="))
+                // Boundary values are included by REDIS, exclusive bounds are
+                // filtered out by client.
+                else if (condition.equals(">=") || condition.equals(">"))
                 {
                     validateClause(interpreter, condition, columnName);
-                    interpreter.setMin(columnName, value);
-                    if (interpreter.getMax() == null)
-                    {
-                        interpreter.setMax(columnName, -1D);
-                    }
-                    // interp
+                    interpreter.setMin(columnName, value, condition.equals(">="),
+                            getIndexType(entityMetadata, columnName));
                 }
-                else if (condition.equals("<="))
+                else if (condition.equals("<=") || condition.equals("<"))
                 {
                     validateClause(interpreter, condition, columnName);
-                    interpreter.setMax(columnName, value);
-                    if (interpreter.getMin() == null)
+                    interpreter.setMax(columnName, value, condition.equals("<="),
+                            getIndexType(entityMetadata, columnName));
+                }
+                else if (condition.equalsIgnoreCase("LIKE"))
+                {
+                    validateClause(interpreter, condition, columnName);
+                    Class<?> type = getIndexType(entityMetadata, columnName);
+                    if (RedisIndexScore.isNumeric(type))
                     {
-                        interpreter.setMin(columnName, 0D);
+                        throw new QueryHandlerException("Condition:" + condition
+                                + " not supported for REDIS over numeric column:" + columnName);
                     }
+                    interpreter.setPrefix(columnName, getPrefix(value, columnName), type);
                 }
                 else if (interpreter.getClause() != null)
                 {
@@ -235,6 +258,47 @@ public class RedisQuery extends QueryImpl
         return interpreter;
     }
 
+    /**
+     * Returns prefix out of a LIKE pattern, only 'prefix%' patterns can be
+     * served by index.
+     */
+    private String getPrefix(Object value, String columnName)
+    {
+        String pattern = value != null ? value.toString() : "";
+        String prefix = pattern.endsWith("%") ? pattern.substring(0, pattern.length() - 1) : pattern;
+        if (prefix.indexOf('%') >= 0 || prefix.indexOf('_') >= 0)
+        {
+            throw new QueryHandlerException("Only prefix LIKE pattern is supported for REDIS, but was:" + pattern
+                    + " for column:" + columnName);
+        }
+        return prefix;
+    }
+
+    /**
+     * Returns java type of given column, used to compute its index score.
+     */
+    private Class<?> getIndexType(EntityMetadata entityMetadata, String columnName)
+    {
+        if (columnName.equals(((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()))
+        {
+            return entityMetadata.getIdAttribute().getBindableJavaType();
+        }
+
+        String fieldName = entityMetadata.getFieldName(columnName);
+        if (fieldName != null)
+        {
+            MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                    entityMetadata.getPersistenceUnit());
+            Attribute attribute = metaModel.entity(entityMetadata.getEntityClazz()).getAttribute(fieldName);
+            Class<?> type = ((AbstractAttribute) attribute).getBindableJavaType();
+
+            // relations are indexed over id of associated entity.
+            return attribute.isAssociation() ? KunderaMetadataManager.getEntityMetadata(type).getIdAttribute()
+                    .getBindableJavaType() : type;
+        }
+        return String.class;
+    }
+
     private void validateClause(RedisQueryInterpreter interpreter, String condition, String columnName)
     {
         if (interpreter.getClause() != null)
@@ -20,8 +20,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.lang.StringUtils;
-
 import com.impetus.kundera.property.PropertyAccessorHelper;
 
 /**
@@ -50,6 +48,23 @@ class RedisQueryInterpreter
 
     private String[] columns;
 
+    /** Java type of range field. */
+    private Class<?> indexType;
+
+    private String minValue;
+
+    private String maxValue;
+
+    private boolean minInclusive = true;
+
+    private boolean maxInclusive = true;
+
+    private String prefix;
+
+    private int firstResult;
+
+    private int maxResult;
+
     private static Map<String, Clause> clauseMapper = new HashMap<String, Clause>();
     static
     {
@@ -75,6 +90,30 @@ class RedisQueryInterpreter
         this.columns = columns;
     }
 
+    int getFirstResult()
+    {
+        return firstResult;
+    }
+
+    void setFirstResult(int firstResult)
+    {
+        this.firstResult = firstResult;
+    }
+
+    /**
+     * @return maximum number of records to be fetched, 0 or less if
+     *         unbounded.
+     */
+    int getMaxResult()
+    {
+        return maxResult;
+    }
+
+    void setMaxResult(int maxResult)
+    {
+        this.maxResult = maxResult;
+    }
+
     boolean isById()
     {
         return isById;
@@ -119,13 +158,13 @@ class RedisQueryInterpreter
         return min;
     }
 
-    void setMin(String field, Object fieldValue)
+    void setMin(String field, Object fieldValue, boolean inclusive, Class<?> type)
     {
+        this.indexType = type;
+        this.minValue = PropertyAccessorHelper.getString(fieldValue);
+        this.minInclusive = inclusive;
         this.min = new HashMap<String, Double>(1);
-        this.min.put(
-                field,
-                !StringUtils.isNumeric(fieldValue.toString()) ? Double.valueOf(PropertyAccessorHelper.getString(
-                        fieldValue).hashCode()) : Double.valueOf(fieldValue.toString()));
+        this.min.put(field, RedisIndexScore.getScore(type, minValue));
     }
 
     Map<String, Double> getMax()
@@ -133,13 +172,108 @@ class RedisQueryInterpreter
         return max;
     }
 
-    void setMax(String field, Object fieldValue)
+    void setMax(String field, Object fieldValue, boolean inclusive, Class<?> type)
+    {
+        this.indexType = type;
+        this.maxValue = PropertyAccessorHelper.getString(fieldValue);
+        this.maxInclusive = inclusive;
+        this.max = new HashMap<String, Double>(1);
+        this.max.put(field, RedisIndexScore.getScore(type, maxValue));
+    }
+
+    /**
+     * Sets prefix to be matched by a non numeric field (LIKE 'prefix%').
+     */
+    void setPrefix(String field, String prefix, Class<?> type)
     {
+        this.indexType = type;
+        this.prefix = prefix;
+        this.min = new HashMap<String, Double>(1);
+        this.min.put(field, RedisIndexScore.getLexicalScore(prefix));
         this.max = new HashMap<String, Double>(1);
-        this.max.put(
-                field,
-                !StringUtils.isNumeric(fieldValue.toString()) ? Double.valueOf(PropertyAccessorHelper.getString(
-                        fieldValue).hashCode()) : Double.valueOf(fieldValue.toString()));
+        this.max.put(field, RedisIndexScore.getLexicalUpperBound(prefix));
+    }
+
+    /**
+     * @return lowest score of range, lowest possible score if unbounded.
+     */
+    double getMinScore()
+    {
+        if (min != null)
+        {
+            return min.values().iterator().next();
+        }
+        return isNumericIndex() ? -Double.MAX_VALUE : 0D;
+    }
+
+    /**
+     * @return highest score of range, highest possible score if unbounded.
+     */
+    double getMaxScore()
+    {
+        return max != null ? max.values().iterator().next() : Double.MAX_VALUE;
+    }
+
+    /**
+     * @return true if range field is scored with its numeric value.
+     */
+    boolean isNumericIndex()
+    {
+        return prefix == null && RedisIndexScore.isNumeric(indexType);
+    }
+
+    Class<?> getIndexType()
+    {
+        return indexType;
+    }
+
+    /**
+     * Checks whether a member with given score may fall out of a non numeric
+     * range, as it shares leading bytes with a bound.
+     */
+    boolean isBoundary(double score)
+    {
+        return score == getMinScore() || score == getMaxScore();
+    }
+
+    /**
+     * Checks score of a numeric field against range bounds.
+     */
+    boolean isInRange(double score)
+    {
+        if (min != null && !minInclusive && score == getMinScore())
+        {
+            return false;
+        }
+        return !(max != null && !maxInclusive && score == getMaxScore());
+    }
+
+    /**
+     * Checks value of a non numeric field against range bounds and prefix.
+     */
+    boolean isInRange(String value)
+    {
+        if (prefix != null && !value.startsWith(prefix))
+        {
+            return false;
+        }
+        if (minValue != null)
+        {
+            int result = RedisIndexScore.compare(value, minValue);
+            if (result < 0 || (result == 0 && !minInclusive))
+            {
+                return false;
+            }
+        }
+        if (maxValue != null)
+        {
+            int result = RedisIndexScore.compare(value, maxValue);
+            if (result > 0 || (result == 0 && !maxInclusive))
+            {
+                return false;
+            }
+        }
+        return true;
     }
 
     String getFieldName()
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.redis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.util.Hashing;
+import redis.clients.util.ShardInfo;
+import redis.clients.util.Sharded;
+
+/**
+ * Connection pools over a set of redis nodes. Each record is placed on a node
+ * by consistent hashing of its hash key, and its inverted index entries are
+ * written to the same node, so that the hash key acts as hash tag of all keys
+ * of a record. Row keys holding a <code>{tag}</code> are placed by tag only.
+ *
+ * @author impetus
+ */
+final class RedisShardPool
+{
+    private final Sharded<JedisPool, Shard> sharded;
+
+    private final Map<String, JedisPool> pools = new LinkedHashMap<String, JedisPool>();
+
+    /**
+     * Creates a pool per node.
+     *
+     * @param nodes
+     *            nodes as host or host:port.
+     * @param defaultPort
+     *            port of nodes not specifying one, may be null.
+     * @param poolConfig
+     *            pool configuration, shared by all nodes.
+     * @param timeout
+     *            socket timeout.
+     * @param password
+     *            password, may be null.
+     */
+    RedisShardPool(String[] nodes, String defaultPort, JedisPoolConfig poolConfig, int timeout, String password)
+    {
+        List<Shard> shards = new ArrayList<Shard>(nodes.length);
+        for (String node : nodes)
+        {
+            String host = StringUtils.substringBefore(node, ":").trim();
+            String port = node.indexOf(':') > 0 ? StringUtils.substringAfter(node, ":").trim() : defaultPort;
+            if (StringUtils.isBlank(host) || StringUtils.isBlank(port) || !StringUtils.isNumeric(port))
+            {
+                throw new IllegalArgumentException("Host or port should not be null / port should be numeric for node: "
+                        + node);
+            }
+            shards.add(new Shard(host, Integer.parseInt(port), poolConfig, timeout, password));
+        }
+
+        sharded = new Sharded<JedisPool, Shard>(shards, Hashing.MURMUR_HASH, Sharded.DEFAULT_KEY_TAG_PATTERN);
+        for (Shard shard : shards)
+        {
+            pools.put(shard.getName(), shard.pool);
+        }
+    }
+
+    /**
+     * Returns name of the shard holding given key.
+     *
+     * @param key
+     *            routing key.
+     * @return shard name.
+     */
+    String getShard(String key)
+    {
+        return sharded.getShardInfo(key).getName();
+    }
+
+    /**
+     * @return names of all shards.
+     */
+    Collection<String> getShards()
+    {
+        return Collections.unmodifiableCollection(pools.keySet());
+    }
+
+    /**
+     * Borrows a connection to given shard.
+     *
+     * @param shard
+     *            shard name.
+     * @return jedis connection.
+     */
+    Jedis getResource(String shard)
+    {
+        return pools.get(shard).getResource();
+    }
+
+    /**
+     * Returns connection to pool of the shard it is connected to.
+     *
+     * @param resource
+     *            jedis connection.
+     */
+    void returnResource(Jedis resource)
+    {
+        JedisPool pool = pools.get(getName(resource.getClient().getHost(), resource.getClient().getPort()));
+        if (pool != null)
+        {
+            pool.returnResource(resource);
+        }
+    }
+
+    /**
+     * Destroys pools of all shards.
+     */
+    void destroy()
+    {
+        for (JedisPool pool : pools.values())
+        {
+            pool.destroy();
+        }
+        pools.clear();
+    }
+
+    private static String getName(String host, int port)
+    {
+        return host + ":" + port;
+    }
+
+    /**
+     * A node, named after its address so that placement does not depend on
+     * order of nodes.
+     */
+    private static class Shard extends ShardInfo<JedisPool>
+    {
+        private final String host;
+
+        private final int port;
+
+        private final JedisPoolConfig poolConfig;
+
+        private final int timeout;
+
+        private final String password;
+
+        private JedisPool pool;
+
+        private Shard(String host, int port, JedisPoolConfig poolConfig, int timeout, String password)
+        {
+            super(Sharded.DEFAULT_WEIGHT);
+            this.host = host;
+            this.port = port;
+            this.poolConfig = poolConfig;
+            this.timeout = timeout;
+            this.password = password;
+        }
+
+        @Override
+        protected JedisPool createResource()
+        {
+            if (pool == null)
+            {
+                pool = new JedisPool(poolConfig, host, port, timeout, password);
+            }
+            return pool;
+        }
+
+        @Override
+        public String getName()
+        {
+            return RedisShardPool.getName(host, port);
+        }
+    }
+}
@@ -17,7 +17,9 @@
 package com.impetus.client.redis;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import redis.clients.jedis.BinaryTransaction;
 import redis.clients.jedis.Jedis;
@@ -37,6 +39,9 @@ public class RedisTransaction implements TransactionResource
 
     private List<Transaction> resources = new ArrayList<Transaction>();
 
+    /** transaction per shard. */
+    private Map<String, Transaction> shardResources = new HashMap<String, Transaction>();
+
     private boolean isTransactionInProgress;
 
     /**
@@ -89,6 +94,7 @@ public class RedisTransaction implements TransactionResource
 
         resources.clear();
         resources = new ArrayList<Transaction>();
+        shardResources.clear();
         isTransactionInProgress = false;
 
     }
@@ -126,17 +132,23 @@ public class RedisTransaction implements TransactionResource
         return isTransactionInProgress;
     }
 
-    Transaction bindResource(Jedis resource)
+    /**
+     * Binds connection to given shard, a transaction is opened per shard.
+     * 
+     * @param shard
+     *            shard name.
+     * @param resource
+     *            connection to shard.
+     * @return transaction over shard.
+     */
+    Transaction bindResource(String shard, Jedis resource)
     {
-        Transaction tx = null;
-        if (resources.isEmpty())
+        Transaction tx = shardResources.get(shard);
+        if (tx == null)
         {
             tx = resource.multi();
             resources.add(tx);
-        }
-        else
-        {
-            tx = resources.get(0);
+            shardResources.put(shard, tx);
         }
         return tx;
     }
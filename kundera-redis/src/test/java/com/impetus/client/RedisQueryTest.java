@@ -96,6 +96,16 @@ public class RedisQueryTest
         List<PersonRedis> results = query.getResultList();
         Assert.assertEquals(3, results.size());
 
+        // paged over multi clause query.
+        String findByNameOrAge = "Select p from PersonRedis p where p.personName=:name OR p.age=:age";
+        query = em.createQuery(findByNameOrAge);
+        query.setParameter("name", originalName);
+        query.setParameter("age", 29);
+        query.setFirstResult(1);
+        query.setMaxResults(1);
+        results = query.getResultList();
+        Assert.assertEquals(1, results.size());
+
         // find by key.
         String findById = "Select p from PersonRedis p where p.personId=:personId";
         query = em.createQuery(findById);
@@ -154,6 +164,27 @@ public class RedisQueryTest
         Assert.assertEquals(2, results.size());
         Assert.assertEquals(originalName, results.get(0).getPersonName());
 
+        // Find by greater than clause, boundary value is excluded
+        String findAgeByGTClause = "Select p from PersonRedis p where p.age >:min";
+        query = em.createQuery(findAgeByGTClause);
+        query.setParameter("min", 32);
+
+        results = query.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(new Integer(34), results.get(0).getAge());
+
+        // Find by prefix over string column
+        String findByNamePrefix = "Select p from PersonRedis p where p.personName LIKE :name";
+        query = em.createQuery(findByNamePrefix);
+        query.setParameter("name", "viv%");
+
+        results = query.getResultList();
+        Assert.assertEquals(3, results.size());
+
+        query.setParameter("name", "vix%");
+        results = query.getResultList();
+        Assert.assertTrue(results.isEmpty());
+
         String q = "select p.personId from PersonRedis p";
         query = em.createQuery(q);
         results = query.getResultList();
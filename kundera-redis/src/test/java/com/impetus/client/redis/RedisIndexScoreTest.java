@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.redis;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Test case for {@link RedisIndexScore} and range checks of
+ * {@link RedisQueryInterpreter}.
+ *
+ * @author impetus
+ */
+public class RedisIndexScoreTest
+{
+    @Test
+    public void testNumericScore()
+    {
+        Assert.assertTrue(RedisIndexScore.isNumeric(int.class));
+        Assert.assertTrue(RedisIndexScore.isNumeric(Double.class));
+        Assert.assertFalse(RedisIndexScore.isNumeric(String.class));
+        Assert.assertFalse(RedisIndexScore.isNumeric(boolean.class));
+
+        Assert.assertEquals(-5.5D, RedisIndexScore.getScore(Double.class, "-5.5"));
+        Assert.assertEquals(32D, RedisIndexScore.getScore(int.class, "32"));
+    }
+
+    @Test
+    public void testLexicalScoreOrder()
+    {
+        String[] values = { "", "a", "aa", "ab", "abcdefg", "b", "vivek", "z" };
+        for (int i = 1; i < values.length; i++)
+        {
+            Assert.assertTrue(RedisIndexScore.getLexicalScore(values[i - 1]) <= RedisIndexScore
+                    .getLexicalScore(values[i]));
+            Assert.assertTrue(RedisIndexScore.compare(values[i - 1], values[i]) < 0);
+        }
+
+        // values longer than prefix share score.
+        Assert.assertEquals(RedisIndexScore.getLexicalScore("abcdefg"), RedisIndexScore.getLexicalScore("abcdefz"));
+        Assert.assertEquals(RedisIndexScore.getLexicalScore("32"), RedisIndexScore.getScore(String.class, "32"));
+    }
+
+    @Test
+    public void testPrefixBounds()
+    {
+        double min = RedisIndexScore.getLexicalScore("ab");
+        double max = RedisIndexScore.getLexicalUpperBound("ab");
+        Assert.assertTrue(min < max);
+        for (String value : new String[] { "ab", "abc", "abzzzzzz" })
+        {
+            double score = RedisIndexScore.getLexicalScore(value);
+            Assert.assertTrue(score >= min && score <= max);
+        }
+        Assert.assertTrue(RedisIndexScore.getLexicalScore("ac") > max);
+        Assert.assertTrue(RedisIndexScore.getLexicalScore("aa") < min);
+    }
+
+    @Test
+    public void testNumericRange()
+    {
+        RedisQueryInterpreter interpreter = new RedisQueryInterpreter(null);
+        interpreter.setMin("AGE", "10", false, int.class);
+
+        Assert.assertTrue(interpreter.isNumericIndex());
+        Assert.assertEquals(10D, interpreter.getMinScore());
+        Assert.assertEquals(Double.MAX_VALUE, interpreter.getMaxScore());
+        Assert.assertFalse(interpreter.isInRange(10D));
+        Assert.assertTrue(interpreter.isInRange(11D));
+
+        interpreter.setMax("AGE", 20, true, int.class);
+        Assert.assertTrue(interpreter.isInRange(20D));
+    }
+
+    @Test
+    public void testLexicalRange()
+    {
+        RedisQueryInterpreter interpreter = new RedisQueryInterpreter(null);
+        interpreter.setMin("NAME", "abcdefgh", true, String.class);
+        interpreter.setMax("NAME", "m", false, String.class);
+
+        Assert.assertFalse(interpreter.isNumericIndex());
+        Assert.assertTrue(interpreter.isBoundary(RedisIndexScore.getLexicalScore("abcdefaa")));
+        Assert.assertFalse(interpreter.isInRange("abcdefaa"));
+        Assert.assertTrue(interpreter.isInRange("abcdefgh"));
+        Assert.assertTrue(interpreter.isInRange("kuldeep"));
+        Assert.assertFalse(interpreter.isInRange("m"));
+    }
+
+    @Test
+    public void testPrefix()
+    {
+        RedisQueryInterpreter interpreter = new RedisQueryInterpreter(null);
+        interpreter.setPrefix("NAME", "viv", String.class);
+
+        Assert.assertTrue(interpreter.isByRange());
+        Assert.assertTrue(interpreter.isInRange("vivek"));
+        Assert.assertFalse(interpreter.isInRange("vikas"));
+    }
+}
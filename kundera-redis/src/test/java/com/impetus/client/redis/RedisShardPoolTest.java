@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.redis;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.JedisPoolConfig;
+
+/**
+ * Test case for {@link RedisShardPool}, pools connect lazily so no server is
+ * needed.
+ *
+ * @author impetus
+ */
+public class RedisShardPoolTest
+{
+    private RedisShardPool pool;
+
+    @Before
+    public void setUp()
+    {
+        pool = new RedisShardPool(new String[] { "localhost", "localhost:6380", " localhost:6381" }, "6379",
+                new JedisPoolConfig(), 2000, null);
+    }
+
+    @After
+    public void tearDown()
+    {
+        pool.destroy();
+    }
+
+    @Test
+    public void testShards()
+    {
+        Assert.assertEquals(3, pool.getShards().size());
+        Assert.assertTrue(pool.getShards().contains("localhost:6379"));
+        Assert.assertTrue(pool.getShards().contains("localhost:6381"));
+    }
+
+    @Test
+    public void testPlacement()
+    {
+        Set<String> shards = new HashSet<String>();
+        for (int i = 0; i < 100; i++)
+        {
+            String shard = pool.getShard("PERSON:" + i);
+            Assert.assertEquals(shard, pool.getShard("PERSON:" + i));
+            shards.add(shard);
+        }
+        // records are spread over all nodes.
+        Assert.assertEquals(3, shards.size());
+    }
+
+    @Test
+    public void testHashTag()
+    {
+        String shard = pool.getShard("PERSON:{1}");
+        for (int i = 0; i < 20; i++)
+        {
+            Assert.assertEquals(shard, pool.getShard("ADDRESS:" + i + "{1}"));
+        }
+    }
+
+    @Test
+    public void testPlacementIndependentOfNodeOrder()
+    {
+        RedisShardPool reordered = new RedisShardPool(new String[] { "localhost:6381", "localhost:6380",
+                "localhost:6379" }, null, new JedisPoolConfig(), 2000, null);
+        try
+        {
+            for (int i = 0; i < 100; i++)
+            {
+                Assert.assertEquals(pool.getShard("PERSON:" + i), reordered.getShard("PERSON:" + i));
+            }
+        }
+        finally
+        {
+            reordered.destroy();
+        }
+    }
+
+    @Test
+    public void testInvalidPort()
+    {
+        try
+        {
+            new RedisShardPool(new String[] { "localhost", "localhost:abc" }, "6379", new JedisPoolConfig(), 2000,
+                    null);
+            Assert.fail("Must have thrown illegal argument exception!");
+        }
+        catch (IllegalArgumentException iaex)
+        {
+            Assert.assertNotNull(iaex);
+        }
+    }
+}
@@ -31,11 +31,25 @@ public interface Constants
 
     public static final String SESSION_TOKEN_PREFIX = "ST";
 
+    public static final String CURSOR_TOKEN_PREFIX = "CT";
+
     /** Header Names */
     public static final String APPLICATION_TOKEN_HEADER_NAME = "x-at";
 
     public static final String SESSION_TOKEN_HEADER_NAME = "x-st";
 
+    /** Continuation token of next page, set on paged query responses */
+    public static final String CURSOR_TOKEN_HEADER_NAME = "x-ct";
+
+    /** Query parameters of paged queries and result range */
+    public static final String PAGE_SIZE_PARAM = "pageSize";
+
+    public static final String CURSOR_PARAM = "cursor";
+
+    public static final String FIRST_RESULT_PARAM = "firstResult";
+
+    public static final String MAX_RESULTS_PARAM = "maxResults";
+
     /** Resources */
     public static final String APPLICATION_RESOURCE_PATH = "/application";
 
@@ -53,4 +67,19 @@ public interface Constants
 
     public static final String NAMED_QUERY_ALL = "all";
 
+    /** System properties bounding sessions, timeouts in milliseconds */
+    public static final String SESSION_IDLE_TIMEOUT = "kundera.rest.session.idle.timeout";
+
+    public static final String SESSION_ABSOLUTE_TIMEOUT = "kundera.rest.session.absolute.timeout";
+
+    public static final String MAX_SESSIONS = "kundera.rest.session.max";
+
+    public static final String APPLICATION_IDLE_TIMEOUT = "kundera.rest.application.idle.timeout";
+
+    public static final String MAX_APPLICATIONS = "kundera.rest.application.max";
+
+    public static final String EVICTION_INTERVAL = "kundera.rest.eviction.interval";
+
+    public static final long DEFAULT_EVICTION_INTERVAL = 60 * 1000L;
+
 }
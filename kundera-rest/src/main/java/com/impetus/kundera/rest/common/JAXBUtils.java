@@ -17,6 +17,8 @@ package com.impetus.kundera.rest.common;
 
 import java.io.InputStream;
 import java.io.StringWriter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.ws.rs.core.MediaType;
 import javax.xml.bind.JAXBContext;
@@ -31,10 +33,14 @@ import org.slf4j.LoggerFactory;
 
 import com.sun.jersey.api.json.JSONConfiguration;
 import com.sun.jersey.api.json.JSONJAXBContext;
+import com.sun.jersey.api.json.JSONMarshaller;
 import com.sun.jersey.api.json.JSONUnmarshaller;
 
 /**
- * Utility for converting objects into XML and vice versa
+ * Utility for converting objects into XML and vice versa. JAXB contexts are
+ * expensive to create and thread safe, so one is created per class and media
+ * type and cached; marshallers and unmarshallers are not thread safe and are
+ * created from it on each use.
  * 
  * @author amresh.singh
  */
@@ -42,6 +48,107 @@ public class JAXBUtils
 {
     private static Logger log = LoggerFactory.getLogger(JAXBUtils.class);
 
+    /** XML contexts, per class. */
+    private static final ConcurrentMap<Class<?>, JAXBContext> xmlContexts = new ConcurrentHashMap<Class<?>, JAXBContext>();
+
+    /** JSON contexts, per class. */
+    private static final ConcurrentMap<Class<?>, JSONJAXBContext> jsonContexts = new ConcurrentHashMap<Class<?>, JSONJAXBContext>();
+
+    /**
+     * Returns cached XML context of given class, creates it on first use.
+     * 
+     * @param objectClass
+     * @return
+     * @throws JAXBException
+     */
+    public static JAXBContext getJAXBContext(Class<?> objectClass) throws JAXBException
+    {
+        JAXBContext context = xmlContexts.get(objectClass);
+        if (context == null)
+        {
+            context = JAXBContext.newInstance(objectClass);
+            JAXBContext existing = xmlContexts.putIfAbsent(objectClass, context);
+            context = existing != null ? existing : context;
+        }
+        return context;
+    }
+
+    /**
+     * Returns cached JSON context of given class, creates it on first use.
+     * 
+     * @param objectClass
+     * @return
+     * @throws JAXBException
+     */
+    public static JSONJAXBContext getJSONJAXBContext(Class<?> objectClass) throws JAXBException
+    {
+        JSONJAXBContext context = jsonContexts.get(objectClass);
+        if (context == null)
+        {
+            context = new JSONJAXBContext(JSONConfiguration.mappedJettison().build(), objectClass);
+            JSONJAXBContext existing = jsonContexts.putIfAbsent(objectClass, context);
+            context = existing != null ? existing : context;
+        }
+        return context;
+    }
+
+    /**
+     * Creates a marshaller of given class for given media type, writing
+     * objects as fragments of an enclosing document.
+     * 
+     * @param objectClass
+     * @param mediaType
+     * @return XML marshaller, or null if media type is not XML
+     * @throws JAXBException
+     */
+    public static Marshaller createFragmentMarshaller(Class<?> objectClass, String mediaType) throws JAXBException
+    {
+        if (MediaType.APPLICATION_XML.equals(mediaType))
+        {
+            Marshaller marshaller = getJAXBContext(objectClass).createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            return marshaller;
+        }
+        return null;
+    }
+
+    /**
+     * Creates a JSON marshaller of given class.
+     * 
+     * @param objectClass
+     * @return
+     * @throws JAXBException
+     */
+    public static JSONMarshaller createJSONMarshaller(Class<?> objectClass) throws JAXBException
+    {
+        return getJSONJAXBContext(objectClass).createJSONMarshaller();
+    }
+
+    /**
+     * Creates an unmarshaller of given class for given media type.
+     * 
+     * @param objectClass
+     * @param mediaType
+     * @return XML unmarshaller, or null if media type is not XML
+     * @throws JAXBException
+     */
+    public static Unmarshaller createUnmarshaller(Class<?> objectClass, String mediaType) throws JAXBException
+    {
+        return MediaType.APPLICATION_XML.equals(mediaType) ? getJAXBContext(objectClass).createUnmarshaller() : null;
+    }
+
+    /**
+     * Creates a JSON unmarshaller of given class.
+     * 
+     * @param objectClass
+     * @return
+     * @throws JAXBException
+     */
+    public static JSONUnmarshaller createJSONUnmarshaller(Class<?> objectClass) throws JAXBException
+    {
+        return getJSONJAXBContext(objectClass).createJSONUnmarshaller();
+    }
+
     /**
      * Converts <code>InputStream</code> to Object using JAXB
      * 
@@ -59,7 +166,7 @@ public class JAXBUtils
 
             if (MediaType.APPLICATION_XML.equals(mediaType))
             {
-                JAXBContext jaxbContext = JAXBContext.newInstance(objectClass);
+                JAXBContext jaxbContext = getJAXBContext(objectClass);
 
                 Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
 
@@ -68,7 +175,7 @@ public class JAXBUtils
             else if (MediaType.APPLICATION_JSON.equals(mediaType))
             {
 
-                JSONJAXBContext context = new JSONJAXBContext(JSONConfiguration.mappedJettison().build(), objectClass);
+                JSONJAXBContext context = getJSONJAXBContext(objectClass);
                 JSONUnmarshaller jsonUnmarshaller = context.createJSONUnmarshaller();
 
                 output = jsonUnmarshaller.unmarshalFromJSON(is, objectClass);
@@ -99,7 +206,7 @@ public class JAXBUtils
         {
             if (MediaType.APPLICATION_XML.equals(mediaType))
             {
-                JAXBContext jaxbContext = JAXBContext.newInstance(objectClass);
+                JAXBContext jaxbContext = getJAXBContext(objectClass);
                 Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
 
                 StringWriter writer = new StringWriter();
@@ -110,7 +217,9 @@ public class JAXBUtils
             }
             else if (MediaType.APPLICATION_JSON.equals(mediaType))
             {
-                return null;
+                StringWriter writer = new StringWriter();
+                createJSONMarshaller(objectClass).marshallToJSON(object, writer);
+                return writer.toString();
             }
             else
             {
@@ -22,6 +22,8 @@ package com.impetus.kundera.rest.common;
  */
 public interface Response
 {
+    public static final String GET_AT_FAILED = "APPLICATION_TOKEN_ GET_FAILED";
+
     public static final String DELETE_AT_SUCCESS = "APPLICATION_TOKEN_ DELETE_SUCCESS";
 
     public static final String DELETE_AT_FAILED = "APPLICATION_TOKEN_ DELETE_FAILED";
@@ -44,4 +44,14 @@ public class TokenUtils
         return Constants.SESSION_TOKEN_PREFIX + "_" + UUID.randomUUID();
     }
 
+    /**
+     * Generates Cursor Token
+     * 
+     * @return
+     */
+    public static String generateCursorToken()
+    {
+        return Constants.CURSOR_TOKEN_PREFIX + "_" + UUID.randomUUID();
+    }
+
 }
@@ -15,6 +15,9 @@
  ******************************************************************************/
 package com.impetus.kundera.rest.converters;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.util.Collection;
 
 import javax.ws.rs.core.MediaType;
@@ -39,7 +42,8 @@ public class CollectionConverter
 
     /**
      * Converts a collection of <code>genericClass</code> objects to String
-     * representation
+     * representation. Responses should rather stream it using
+     * {@link #toStreamingOutput(Iterable, Class, String)}.
      * 
      * @param input
      * @param genericClass
@@ -50,23 +54,22 @@ public class CollectionConverter
     {
         if (MediaType.APPLICATION_XML.equals(mediaType))
         {
-            StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>")
-                    .append("<").append(genericClass.getSimpleName().toLowerCase()).append("s>");
-            for (Object obj : input)
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            try
             {
-                if (obj != null)
-                {
-                    String s = JAXBUtils.toString(genericClass, obj, mediaType);
-
-                    if (s.startsWith("<?xml"))
-                    {
-                        s = s.substring(s.indexOf(">") + 1, s.length());
-                    }
-                    sb.append(s);
-                }
+                toStreamingOutput(input, genericClass, mediaType).write(os);
+                return os.toString("UTF-8");
+            }
+            catch (UnsupportedEncodingException e)
+            {
+                log.error("Error during translation, Caused by:" + e.getMessage() + ", returning null");
+                return null;
+            }
+            catch (IOException e)
+            {
+                log.error("Error during translation, Caused by:" + e.getMessage() + ", returning null");
+                return null;
             }
-            sb.append("<").append(genericClass.getSimpleName().toLowerCase()).append("s>");
-            return sb.toString();
         }
         else
         {
@@ -74,6 +77,21 @@ public class CollectionConverter
         }
     }
 
+    /**
+     * Converts a collection of <code>genericClass</code> objects to an output
+     * writing them one by one into response body.
+     * 
+     * @param input
+     * @param genericClass
+     * @param mediaType
+     * @return
+     */
+    public static CollectionStreamingOutput toStreamingOutput(Iterable<?> input, Class<?> genericClass,
+            String mediaType)
+    {
+        return new CollectionStreamingOutput(input, genericClass, mediaType);
+    }
+
     /**
      * Converts a String representation to collection of
      * <code>genericClass</code> objects
@@ -98,7 +116,7 @@ public class CollectionConverter
                     input = input.substring(input.indexOf(">") + 1, input.length());
                 }
 
-                input = input.replaceAll("<" + genericClass.getSimpleName().toLowerCase() + "s>", "");
+                input = input.replaceAll("</?" + genericClass.getSimpleName().toLowerCase() + "s>", "");
 
                 while (!input.equals(""))
                 {
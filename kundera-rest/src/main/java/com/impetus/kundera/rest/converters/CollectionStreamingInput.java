@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.rest.converters;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response.Status;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.impetus.kundera.rest.common.JAXBUtils;
+import com.sun.jersey.api.json.JSONUnmarshaller;
+
+/**
+ * Reads a collection of <code>genericClass</code> objects from request body
+ * one object at a time, in representation written by
+ * {@link CollectionStreamingOutput}: an XML element enclosing one element per
+ * object, or a JSON array of objects. Malformed input fails with
+ * {@link WebApplicationException} of status bad request.
+ * 
+ * @author impetus
+ */
+public class CollectionStreamingInput
+{
+    private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+    private final Class<?> genericClass;
+
+    private final String mediaType;
+
+    private XMLStreamReader xmlReader;
+
+    private Unmarshaller unmarshaller;
+
+    private Reader jsonReader;
+
+    private JSONUnmarshaller jsonUnmarshaller;
+
+    private boolean started;
+
+    private boolean ended;
+
+    /**
+     * @param input
+     *            request body.
+     * @param genericClass
+     *            class of objects.
+     * @param mediaType
+     *            XML or JSON media type.
+     */
+    public CollectionStreamingInput(InputStream input, Class<?> genericClass, String mediaType)
+    {
+        this.genericClass = genericClass;
+        this.mediaType = mediaType;
+        try
+        {
+            if (MediaType.APPLICATION_XML.equals(mediaType))
+            {
+                xmlReader = xmlInputFactory.createXMLStreamReader(input);
+                unmarshaller = JAXBUtils.createUnmarshaller(genericClass, mediaType);
+            }
+            else if (MediaType.APPLICATION_JSON.equals(mediaType))
+            {
+                jsonReader = new BufferedReader(new InputStreamReader(input, "UTF-8"));
+                jsonUnmarshaller = JAXBUtils.createJSONUnmarshaller(genericClass);
+            }
+            else
+            {
+                throw new WebApplicationException(Status.UNSUPPORTED_MEDIA_TYPE);
+            }
+        }
+        catch (XMLStreamException e)
+        {
+            throw new WebApplicationException(e, Status.BAD_REQUEST);
+        }
+        catch (JAXBException e)
+        {
+            throw new WebApplicationException(e, Status.INTERNAL_SERVER_ERROR);
+        }
+        catch (IOException e)
+        {
+            throw new WebApplicationException(e, Status.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Reads next object.
+     * 
+     * @return next object, or null once all are read
+     */
+    public Object next()
+    {
+        if (ended)
+        {
+            return null;
+        }
+        try
+        {
+            Object next = xmlReader != null ? nextXML() : nextJSON();
+            ended = next == null;
+            return next;
+        }
+        catch (XMLStreamException e)
+        {
+            throw new WebApplicationException(e, Status.BAD_REQUEST);
+        }
+        catch (JAXBException e)
+        {
+            throw new WebApplicationException(e, Status.BAD_REQUEST);
+        }
+        catch (IOException e)
+        {
+            throw new WebApplicationException(e, Status.BAD_REQUEST);
+        }
+    }
+
+    private Object nextXML() throws XMLStreamException, JAXBException
+    {
+        if (!started)
+        {
+            // moves on enclosing element.
+            xmlReader.nextTag();
+            started = true;
+            xmlReader.nextTag();
+        }
+        while (!xmlReader.isStartElement() && !xmlReader.isEndElement())
+        {
+            xmlReader.next();
+        }
+        if (xmlReader.isEndElement())
+        {
+            return null;
+        }
+        // leaves reader past end of object element.
+        return unmarshaller.unmarshal(xmlReader, genericClass).getValue();
+    }
+
+    private Object nextJSON() throws IOException, JAXBException
+    {
+        int c = nextNonWhitespace();
+        if (!started)
+        {
+            if (c != '[')
+            {
+                throw new IOException("Expected JSON array of " + genericClass.getSimpleName());
+            }
+            started = true;
+            c = nextNonWhitespace();
+        }
+        else if (c == ',')
+        {
+            c = nextNonWhitespace();
+        }
+
+        if (c == ']')
+        {
+            return null;
+        }
+        if (c != '{')
+        {
+            throw new IOException("Expected JSON object, found:" + (c < 0 ? "end of input" : (char) c));
+        }
+        return jsonUnmarshaller.unmarshalFromJSON(new StringReader(readObject()), genericClass);
+    }
+
+    /**
+     * Reads a JSON object whose opening brace has been read.
+     */
+    private String readObject() throws IOException
+    {
+        StringBuilder sb = new StringBuilder("{");
+        int depth = 1;
+        boolean inString = false;
+        boolean escaped = false;
+        while (depth > 0)
+        {
+            int c = jsonReader.read();
+            if (c < 0)
+            {
+                throw new IOException("Unexpected end of JSON input");
+            }
+            sb.append((char) c);
+            if (inString)
+            {
+                if (escaped)
+                {
+                    escaped = false;
+                }
+                else if (c == '\\')
+                {
+                    escaped = true;
+                }
+                else if (c == '"')
+                {
+                    inString = false;
+                }
+            }
+            else if (c == '"')
+            {
+                inString = true;
+            }
+            else if (c == '{' || c == '[')
+            {
+                depth++;
+            }
+            else if (c == '}' || c == ']')
+            {
+                depth--;
+            }
+        }
+        return sb.toString();
+    }
+
+    private int nextNonWhitespace() throws IOException
+    {
+        int c = jsonReader.read();
+        while (c >= 0 && Character.isWhitespace(c))
+        {
+            c = jsonReader.read();
+        }
+        return c;
+    }
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.rest.converters;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.rest.common.JAXBUtils;
+import com.sun.jersey.api.json.JSONMarshaller;
+
+/**
+ * Writes a collection of <code>genericClass</code> objects to response body
+ * one object at a time, so that no string representation of whole collection
+ * is built. XML is written as a <code>genericClass</code> plural element
+ * enclosing one element per object, JSON as an array of objects.
+ * 
+ * @author impetus
+ */
+public class CollectionStreamingOutput implements StreamingOutput
+{
+    private static Logger log = LoggerFactory.getLogger(CollectionStreamingOutput.class);
+
+    private static final String UTF_8 = "UTF-8";
+
+    private final Iterable<?> input;
+
+    private final Class<?> genericClass;
+
+    private final String mediaType;
+
+    /**
+     * @param input
+     *            objects to write.
+     * @param genericClass
+     *            class of objects.
+     * @param mediaType
+     *            XML or JSON media type.
+     */
+    public CollectionStreamingOutput(Iterable<?> input, Class<?> genericClass, String mediaType)
+    {
+        this.input = input;
+        this.genericClass = genericClass;
+        this.mediaType = mediaType;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.ws.rs.core.StreamingOutput#write(java.io.OutputStream)
+     */
+    @Override
+    public void write(OutputStream output) throws IOException, WebApplicationException
+    {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+        try
+        {
+            if (MediaType.APPLICATION_XML.equals(mediaType))
+            {
+                writeXML(writer);
+            }
+            else if (MediaType.APPLICATION_JSON.equals(mediaType))
+            {
+                writeJSON(writer);
+            }
+            writer.flush();
+        }
+        catch (JAXBException e)
+        {
+            log.error("Error while writing " + genericClass + " collection, Caused by:" + e.getMessage());
+            throw new WebApplicationException(e);
+        }
+    }
+
+    private void writeXML(Writer writer) throws IOException, JAXBException
+    {
+        String element = genericClass.getSimpleName().toLowerCase() + "s";
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        writer.write("<" + element + ">");
+
+        Marshaller marshaller = JAXBUtils.createFragmentMarshaller(genericClass, mediaType);
+        for (Object obj : input)
+        {
+            if (obj != null)
+            {
+                marshaller.marshal(obj, writer);
+            }
+        }
+        writer.write("</" + element + ">");
+    }
+
+    private void writeJSON(Writer writer) throws IOException, JAXBException
+    {
+        writer.write("[");
+
+        JSONMarshaller marshaller = JAXBUtils.createJSONMarshaller(genericClass);
+        boolean first = true;
+        for (Object obj : input)
+        {
+            if (obj != null)
+            {
+                if (!first)
+                {
+                    writer.write(",");
+                }
+                marshaller.marshallToJSON(obj, writer);
+                first = false;
+            }
+        }
+        writer.write("]");
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.rest.dto;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Holds status of an entity of a bulk operation
+ * 
+ * @author impetus
+ */
+
+@XmlRootElement
+public class BulkItemResult
+{
+    public static final String OK = "OK";
+
+    public static final String FAILED = "FAILED";
+
+    private int index;
+
+    private String id;
+
+    private String status;
+
+    private String message;
+
+    public BulkItemResult()
+    {
+    }
+
+    public BulkItemResult(int index, Object id, String status, String message)
+    {
+        this.index = index;
+        this.id = id != null ? id.toString() : null;
+        this.status = status;
+        this.message = message;
+    }
+
+    /**
+     * @return position of entity in request
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * @param index
+     *            the index to set
+     */
+    public void setIndex(int index)
+    {
+        this.index = index;
+    }
+
+    /**
+     * @return the id
+     */
+    public String getId()
+    {
+        return id;
+    }
+
+    /**
+     * @param id
+     *            the id to set
+     */
+    public void setId(String id)
+    {
+        this.id = id;
+    }
+
+    /**
+     * @return the status
+     */
+    public String getStatus()
+    {
+        return status;
+    }
+
+    /**
+     * @param status
+     *            the status to set
+     */
+    public void setStatus(String status)
+    {
+        this.status = status;
+    }
+
+    /**
+     * @return the message
+     */
+    public String getMessage()
+    {
+        return message;
+    }
+
+    /**
+     * @param message
+     *            the message to set
+     */
+    public void setMessage(String message)
+    {
+        this.message = message;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.rest.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Holds outcome of a bulk operation, with status of each entity
+ * 
+ * @author impetus
+ */
+
+@XmlRootElement
+public class BulkResult
+{
+    private int succeeded;
+
+    private int failed;
+
+    private List<BulkItemResult> items;
+
+    /**
+     * @return the succeeded
+     */
+    public int getSucceeded()
+    {
+        return succeeded;
+    }
+
+    /**
+     * @param succeeded
+     *            the succeeded to set
+     */
+    public void setSucceeded(int succeeded)
+    {
+        this.succeeded = succeeded;
+    }
+
+    /**
+     * @return the failed
+     */
+    public int getFailed()
+    {
+        return failed;
+    }
+
+    /**
+     * @param failed
+     *            the failed to set
+     */
+    public void setFailed(int failed)
+    {
+        this.failed = failed;
+    }
+
+    /**
+     * @return the items
+     */
+    public List<BulkItemResult> getItems()
+    {
+        if (items == null)
+        {
+            items = new ArrayList<BulkItemResult>();
+        }
+        return items;
+    }
+
+    /**
+     * @param items
+     *            the items to set
+     */
+    public void setItems(List<BulkItemResult> items)
+    {
+        this.items = items;
+    }
+
+    public void addItem(BulkItemResult item)
+    {
+        getItems().add(item);
+        if (BulkItemResult.OK.equals(item.getStatus()))
+        {
+            succeeded++;
+        }
+        else
+        {
+            failed++;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.rest.dto;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.impetus.kundera.rest.repository.ExpiringRegistry;
+
+/**
+ * Holds metrics of sessions and applications
+ * 
+ * @author impetus
+ */
+
+@XmlRootElement
+public class SessionMetrics
+{
+    private int activeSessions;
+
+    private long createdSessions;
+
+    private long expiredSessions;
+
+    private long rejectedSessions;
+
+    private int openCursors;
+
+    private int activeApplications;
+
+    private long expiredApplications;
+
+    public SessionMetrics()
+    {
+    }
+
+    public SessionMetrics(ExpiringRegistry<?> sessions, int openCursors, ExpiringRegistry<?> applications)
+    {
+        this.activeSessions = sessions.getActiveCount();
+        this.createdSessions = sessions.getRegisteredCount();
+        this.expiredSessions = sessions.getEvictedCount();
+        this.rejectedSessions = sessions.getRejectedCount();
+        this.openCursors = openCursors;
+        this.activeApplications = applications.getActiveCount();
+        this.expiredApplications = applications.getEvictedCount();
+    }
+
+    /**
+     * @return the activeSessions
+     */
+    public int getActiveSessions()
+    {
+        return activeSessions;
+    }
+
+    /**
+     * @param activeSessions
+     *            the activeSessions to set
+     */
+    public void setActiveSessions(int activeSessions)
+    {
+        this.activeSessions = activeSessions;
+    }
+
+    /**
+     * @return the createdSessions
+     */
+    public long getCreatedSessions()
+    {
+        return createdSessions;
+    }
+
+    /**
+     * @param createdSessions
+     *            the createdSessions to set
+     */
+    public void setCreatedSessions(long createdSessions)
+    {
+        this.createdSessions = createdSessions;
+    }
+
+    /**
+     * @return the expiredSessions
+     */
+    public long getExpiredSessions()
+    {
+        return expiredSessions;
+    }
+
+    /**
+     * @param expiredSessions
+     *            the expiredSessions to set
+     */
+    public void setExpiredSessions(long expiredSessions)
+    {
+        this.expiredSessions = expiredSessions;
+    }
+
+    /**
+     * @return the rejectedSessions
+     */
+    public long getRejectedSessions()
+    {
+        return rejectedSessions;
+    }
+
+    /**
+     * @param rejectedSessions
+     *            the rejectedSessions to set
+     */
+    public void setRejectedSessions(long rejectedSessions)
+    {
+        this.rejectedSessions = rejectedSessions;
+    }
+
+    /**
+     * @return the openCursors
+     */
+    public int getOpenCursors()
+    {
+        return openCursors;
+    }
+
+    /**
+     * @param openCursors
+     *            the openCursors to set
+     */
+    public void setOpenCursors(int openCursors)
+    {
+        this.openCursors = openCursors;
+    }
+
+    /**
+     * @return the activeApplications
+     */
+    public int getActiveApplications()
+    {
+        return activeApplications;
+    }
+
+    /**
+     * @param activeApplications
+     *            the activeApplications to set
+     */
+    public void setActiveApplications(int activeApplications)
+    {
+        this.activeApplications = activeApplications;
+    }
+
+    /**
+     * @return the expiredApplications
+     */
+    public long getExpiredApplications()
+    {
+        return expiredApplications;
+    }
+
+    /**
+     * @param expiredApplications
+     *            the expiredApplications to set
+     */
+    public void setExpiredApplications(long expiredApplications)
+    {
+        this.expiredApplications = expiredApplications;
+    }
+}
@@ -15,13 +15,17 @@
  */
 package com.impetus.kundera.rest.repository;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import javax.persistence.EntityManagerFactory;
 
+import com.impetus.kundera.rest.common.Constants;
+
 /**
- * Repository for holding Application Tokens and {@link EntityManagerFactory}
+ * Repository for holding Application Tokens and {@link EntityManagerFactory}.
+ * Applications do not expire unless {@link Constants#APPLICATION_IDLE_TIMEOUT}
+ * is set, the {@link EntityManagerFactory} of expired ones being closed
+ * along with sessions opened from it.
  * 
  * @author amresh.singh
  */
@@ -31,14 +35,37 @@ public class EMFRepository
     /** The Constant INSTANCE. */
     public static final EMFRepository INSTANCE = new EMFRepository();
 
-    private Map<String, EntityManagerFactory> emfMap;
+    private final ExpiringRegistry<EntityManagerFactory> applications;
+
+    private EMFRepository()
+    {
+        applications = new ExpiringRegistry<EntityManagerFactory>("kundera-rest-applications", Long.getLong(
+                Constants.APPLICATION_IDLE_TIMEOUT, 0), 0, Integer.getInteger(Constants.MAX_APPLICATIONS, 0),
+                Long.getLong(Constants.EVICTION_INTERVAL, Constants.DEFAULT_EVICTION_INTERVAL))
+        {
+            @Override
+            protected void close(String applicationToken, EntityManagerFactory emf)
+            {
+                EMRepository.INSTANCE.removeEms(emf);
+                emf.close();
+            }
+        };
+    }
 
     /**
-     * @return the emfMap
+     * @return copy of application tokens and their EMF
      */
     public Map<String, EntityManagerFactory> getEmfMap()
     {
-        return emfMap;
+        return applications.toMap();
+    }
+
+    /**
+     * @return registry of applications, giving their metrics
+     */
+    public ExpiringRegistry<EntityManagerFactory> getApplications()
+    {
+        return applications;
     }
 
     /**
@@ -49,14 +76,7 @@ public class EMFRepository
      */
     public EntityManagerFactory getEMF(String applicationToken)
     {
-        if (emfMap == null)
-        {
-            return null;
-        }
-        else
-        {
-            return emfMap.get(applicationToken);
-        }
+        return applications.get(applicationToken);
     }
 
     /**
@@ -65,20 +85,22 @@ public class EMFRepository
      */
     public void setEmfMap(Map<String, EntityManagerFactory> emfMap)
     {
-        this.emfMap = emfMap;
+        for (Map.Entry<String, EntityManagerFactory> entry : emfMap.entrySet())
+        {
+            applications.put(entry.getKey(), entry.getValue());
+        }
     }
 
     /**
-     * @param emfMap
-     *            the emfMap to set
+     * Adds EMF
+     * 
+     * @param applicationToken
+     * @param emf
+     * @return false if maximum number of applications is reached
      */
-    public void addEmf(String applicationToken, EntityManagerFactory emf)
+    public boolean addEmf(String applicationToken, EntityManagerFactory emf)
     {
-        if (emfMap == null)
-        {
-            emfMap = new HashMap<String, EntityManagerFactory>();
-        }
-        emfMap.put(applicationToken, emf);
+        return applications.put(applicationToken, emf);
     }
 
     /**
@@ -88,15 +110,7 @@ public class EMFRepository
      */
     public void removeEMF(String applicationToken)
     {
-        if (emfMap != null)
-        {
-            EntityManagerFactory emf = emfMap.get(applicationToken);
-            if (emf != null)
-            {
-                emf.close();
-            }
-            emfMap.remove(applicationToken);
-        }
+        applications.remove(applicationToken);
     }
 
 }
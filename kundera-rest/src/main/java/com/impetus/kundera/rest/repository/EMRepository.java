@@ -15,13 +15,22 @@
  */
 package com.impetus.kundera.rest.repository;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import com.impetus.kundera.rest.common.Constants;
+import com.impetus.kundera.rest.common.TokenUtils;
 
 /**
- * Repository for holding Session Tokens and {@link EntityManager}
+ * Repository for holding Session Tokens and {@link EntityManager}, along with
+ * query cursors opened by sessions. Sessions idle or open for longer than
+ * session timeouts are evicted and their {@link EntityManager} closed, see
+ * {@link Constants#SESSION_IDLE_TIMEOUT}. Cursors idle for longer than cursor
+ * idle timeout are closed and discarded.
  * 
  * @author amresh.singh
  */
@@ -31,14 +40,70 @@ public class EMRepository
     /** The Constant INSTANCE. */
     public static final EMRepository INSTANCE = new EMRepository();
 
-    private Map<String, EntityManager> emMap;
+    /** Default cursor idle timeout, in milliseconds. */
+    public static final long DEFAULT_CURSOR_IDLE_TIMEOUT = 5 * 60 * 1000L;
+
+    /** Default session idle timeout, in milliseconds. */
+    public static final long DEFAULT_SESSION_IDLE_TIMEOUT = 30 * 60 * 1000L;
+
+    /** Default session absolute timeout, in milliseconds. */
+    public static final long DEFAULT_SESSION_ABSOLUTE_TIMEOUT = 24 * 60 * 60 * 1000L;
+
+    /** Default maximum number of sessions. */
+    public static final int DEFAULT_MAX_SESSIONS = 10000;
+
+    private final ExpiringRegistry<EntityManager> sessions;
+
+    private final ConcurrentMap<String, QueryCursor> cursors = new ConcurrentHashMap<String, QueryCursor>();
+
+    private volatile long cursorIdleTimeout = DEFAULT_CURSOR_IDLE_TIMEOUT;
+
+    private EMRepository()
+    {
+        sessions = new ExpiringRegistry<EntityManager>("kundera-rest-sessions", Long.getLong(
+                Constants.SESSION_IDLE_TIMEOUT, DEFAULT_SESSION_IDLE_TIMEOUT), Long.getLong(
+                Constants.SESSION_ABSOLUTE_TIMEOUT, DEFAULT_SESSION_ABSOLUTE_TIMEOUT), Integer.getInteger(
+                Constants.MAX_SESSIONS, DEFAULT_MAX_SESSIONS), Long.getLong(Constants.EVICTION_INTERVAL,
+                Constants.DEFAULT_EVICTION_INTERVAL))
+        {
+            @Override
+            protected void close(String sessionToken, EntityManager em)
+            {
+                removeCursors(sessionToken);
+                em.close();
+            }
+
+            @Override
+            public void evict()
+            {
+                super.evict();
+                evictIdleCursors();
+            }
+        };
+    }
 
     /**
-     * @return the emMap
+     * @return copy of session tokens and their EM
      */
     public Map<String, EntityManager> getEmMap()
     {
-        return emMap;
+        return sessions.toMap();
+    }
+
+    /**
+     * @return registry of sessions, giving their metrics
+     */
+    public ExpiringRegistry<EntityManager> getSessions()
+    {
+        return sessions;
+    }
+
+    /**
+     * @return number of open cursors
+     */
+    public int getCursorCount()
+    {
+        return cursors.size();
     }
 
     /**
@@ -49,14 +114,7 @@ public class EMRepository
      */
     public EntityManager getEM(String sessionToken)
     {
-        if (emMap == null)
-        {
-            return null;
-        }
-        else
-        {
-            return emMap.get(sessionToken);
-        }
+        return sessions.get(sessionToken);
     }
 
     /**
@@ -65,7 +123,10 @@ public class EMRepository
      */
     public void setEmMap(Map<String, EntityManager> emMap)
     {
-        this.emMap = emMap;
+        for (Map.Entry<String, EntityManager> entry : emMap.entrySet())
+        {
+            sessions.put(entry.getKey(), entry.getValue());
+        }
     }
 
     /**
@@ -73,14 +134,11 @@ public class EMRepository
      * 
      * @param sessionToken
      * @param em
+     * @return false if maximum number of sessions is reached
      */
-    public void addEm(String sessionToken, EntityManager em)
+    public boolean addEm(String sessionToken, EntityManager em)
     {
-        if (emMap == null)
-        {
-            emMap = new HashMap<String, EntityManager>();
-        }
-        emMap.put(sessionToken, em);
+        return sessions.put(sessionToken, em);
     }
 
     /**
@@ -90,15 +148,130 @@ public class EMRepository
      */
     public void removeEm(String sessionToken)
     {
-        if (emMap != null)
+        sessions.remove(sessionToken);
+        removeCursors(sessionToken);
+    }
+
+    /**
+     * Removes sessions opened from given factory, closing their EM and
+     * cursors.
+     * 
+     * @param emf
+     */
+    public void removeEms(EntityManagerFactory emf)
+    {
+        for (Map.Entry<String, EntityManager> entry : sessions.toMap().entrySet())
         {
-            EntityManager em = emMap.get(sessionToken);
-            if (em != null)
+            if (isOpenedFrom(entry.getValue(), emf))
             {
-                em.close();
+                removeEm(entry.getKey());
             }
-            emMap.remove(sessionToken);
         }
     }
 
+    /**
+     * Adds cursor, discarding idle ones.
+     * 
+     * @param cursor
+     * @return continuation token of cursor
+     */
+    public String addCursor(QueryCursor cursor)
+    {
+        evictIdleCursors();
+        String cursorToken = TokenUtils.generateCursorToken();
+        cursors.put(cursorToken, cursor);
+        return cursorToken;
+    }
+
+    /**
+     * Retrieves cursor of a session.
+     * 
+     * @param sessionToken
+     * @param cursorToken
+     * @return cursor, or null if unknown, idle for too long or opened by
+     *         another session
+     */
+    public QueryCursor getCursor(String sessionToken, String cursorToken)
+    {
+        QueryCursor cursor = cursorToken != null ? cursors.get(cursorToken) : null;
+        if (cursor == null || !cursor.getSessionToken().equals(sessionToken))
+        {
+            return null;
+        }
+        if (isIdle(cursor, System.currentTimeMillis()))
+        {
+            removeCursor(cursorToken);
+            return null;
+        }
+        return cursor;
+    }
+
+    /**
+     * Removes and closes cursor.
+     * 
+     * @param cursorToken
+     */
+    public void removeCursor(String cursorToken)
+    {
+        QueryCursor cursor = cursors.remove(cursorToken);
+        if (cursor != null)
+        {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Removes and closes cursors idle for longer than cursor idle timeout.
+     */
+    public void evictIdleCursors()
+    {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, QueryCursor> entry : cursors.entrySet())
+        {
+            if (isIdle(entry.getValue(), now) && cursors.remove(entry.getKey(), entry.getValue()))
+            {
+                entry.getValue().close();
+            }
+        }
+    }
+
+    /**
+     * @param cursorIdleTimeout
+     *            idle time after which cursors are discarded, in milliseconds
+     */
+    public void setCursorIdleTimeout(long cursorIdleTimeout)
+    {
+        this.cursorIdleTimeout = cursorIdleTimeout;
+    }
+
+    private void removeCursors(String sessionToken)
+    {
+        for (Map.Entry<String, QueryCursor> entry : cursors.entrySet())
+        {
+            if (entry.getValue().getSessionToken().equals(sessionToken)
+                    && cursors.remove(entry.getKey(), entry.getValue()))
+            {
+                entry.getValue().close();
+            }
+        }
+    }
+
+    private boolean isOpenedFrom(EntityManager em, EntityManagerFactory emf)
+    {
+        try
+        {
+            return em.isOpen() && em.getEntityManagerFactory() == emf;
+        }
+        catch (IllegalStateException e)
+        {
+            // closed meanwhile.
+            return false;
+        }
+    }
+
+    private boolean isIdle(QueryCursor cursor, long now)
+    {
+        return now - cursor.getLastAccessTime() > cursorIdleTimeout;
+    }
+
 }
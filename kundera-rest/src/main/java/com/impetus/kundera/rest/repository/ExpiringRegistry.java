@@ -0,0 +1,350 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.rest.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Concurrent registry of values held against tokens, expiring values idle or
+ * registered for longer than configured timeouts. Expired values are evicted
+ * and closed when accessed and by a background thread, at eviction interval.
+ * Registry is bounded, registration fails once it is full of live values.
+ * 
+ * @author impetus
+ * 
+ * @param <V>
+ *            registered value
+ */
+public abstract class ExpiringRegistry<V>
+{
+    private static Logger log = LoggerFactory.getLogger(ExpiringRegistry.class);
+
+    private final String name;
+
+    private final long idleTimeout;
+
+    private final long absoluteTimeout;
+
+    private final int maxSize;
+
+    private final ConcurrentMap<String, Entry<V>> entries = new ConcurrentHashMap<String, Entry<V>>();
+
+    /** Slots taken, reserved before an entry is put and released after it is removed. */
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong registeredCount = new AtomicLong();
+
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * @param name
+     *            name of registry, naming its eviction thread.
+     * @param idleTimeout
+     *            idle time after which values expire in milliseconds, 0 for
+     *            none.
+     * @param absoluteTimeout
+     *            time after registration at which values expire in
+     *            milliseconds, 0 for none.
+     * @param maxSize
+     *            maximum number of values, 0 for unbounded.
+     * @param evictionInterval
+     *            interval between background evictions in milliseconds, 0 to
+     *            evict only on access.
+     */
+    protected ExpiringRegistry(final String name, long idleTimeout, long absoluteTimeout, int maxSize,
+            long evictionInterval)
+    {
+        this.name = name;
+        this.idleTimeout = idleTimeout;
+        this.absoluteTimeout = absoluteTimeout;
+        this.maxSize = maxSize;
+
+        if (evictionInterval > 0)
+        {
+            evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, name + "-evictor");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            evictor.scheduleWithFixedDelay(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        evict();
+                    }
+                    catch (RuntimeException e)
+                    {
+                        log.error("Error while evicting expired entries of " + name + ", Caused by:", e);
+                    }
+                }
+            }, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+        }
+        else
+        {
+            evictor = null;
+        }
+    }
+
+    /**
+     * Closes a value removed from registry.
+     * 
+     * @param token
+     * @param value
+     */
+    protected abstract void close(String token, V value);
+
+    /**
+     * Registers value.
+     * 
+     * @param token
+     * @param value
+     * @return false if registry is full
+     */
+    public boolean put(String token, V value)
+    {
+        if (!reserve())
+        {
+            evict();
+            if (!reserve())
+            {
+                rejectedCount.incrementAndGet();
+                log.warn(name + " is full with " + maxSize + " entries, rejecting " + token);
+                return false;
+            }
+        }
+
+        Entry<V> previous = entries.put(token, new Entry<V>(value));
+        registeredCount.incrementAndGet();
+        if (previous != null)
+        {
+            // token already held a slot.
+            size.decrementAndGet();
+            if (previous.value != value)
+            {
+                closeQuietly(token, previous.value);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves value, marking it accessed.
+     * 
+     * @param token
+     * @return value, or null if not registered or expired
+     */
+    public V get(String token)
+    {
+        Entry<V> entry = token != null ? entries.get(token) : null;
+        if (entry == null)
+        {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (isExpired(entry, now))
+        {
+            evict(token, entry);
+            return null;
+        }
+        entry.lastAccessTime = now;
+        return entry.value;
+    }
+
+    /**
+     * Removes and closes value.
+     * 
+     * @param token
+     */
+    public void remove(String token)
+    {
+        Entry<V> entry = token != null ? entries.remove(token) : null;
+        if (entry != null)
+        {
+            size.decrementAndGet();
+            closeQuietly(token, entry.value);
+        }
+    }
+
+    /**
+     * Evicts and closes expired values.
+     */
+    public void evict()
+    {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Entry<V>> entry : entries.entrySet())
+        {
+            if (isExpired(entry.getValue(), now))
+            {
+                evict(entry.getKey(), entry.getValue());
+            }
+        }
+        if (log.isDebugEnabled())
+            log.debug(name + ": active:" + entries.size() + ", registered:" + registeredCount + ", evicted:"
+                    + evictedCount + ", rejected:" + rejectedCount);
+    }
+
+    /**
+     * @return copy of registered values
+     */
+    public Map<String, V> toMap()
+    {
+        Map<String, V> map = new HashMap<String, V>();
+        for (Map.Entry<String, Entry<V>> entry : entries.entrySet())
+        {
+            map.put(entry.getKey(), entry.getValue().value);
+        }
+        return map;
+    }
+
+    /**
+     * Stops background eviction.
+     */
+    public void shutdown()
+    {
+        if (evictor != null)
+        {
+            evictor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return number of values registered
+     */
+    public int getActiveCount()
+    {
+        return entries.size();
+    }
+
+    /**
+     * @return number of values registered since start
+     */
+    public long getRegisteredCount()
+    {
+        return registeredCount.get();
+    }
+
+    /**
+     * @return number of values expired since start
+     */
+    public long getEvictedCount()
+    {
+        return evictedCount.get();
+    }
+
+    /**
+     * @return number of values rejected since start, registry being full
+     */
+    public long getRejectedCount()
+    {
+        return rejectedCount.get();
+    }
+
+    private void evict(String token, Entry<V> entry)
+    {
+        // only one of concurrent evictions removes it.
+        if (entries.remove(token, entry))
+        {
+            size.decrementAndGet();
+            evictedCount.incrementAndGet();
+            if (log.isDebugEnabled())
+                log.debug(name + ": evicting expired " + token);
+            closeQuietly(token, entry.value);
+        }
+    }
+
+    /**
+     * Takes a slot, unless registry is full. Slots are counted apart from
+     * entries, so that concurrent registrations can't all pass a size check
+     * before any of them is put.
+     */
+    private boolean reserve()
+    {
+        while (true)
+        {
+            int count = size.get();
+            if (maxSize > 0 && count >= maxSize)
+            {
+                return false;
+            }
+            if (size.compareAndSet(count, count + 1))
+            {
+                return true;
+            }
+        }
+    }
+
+    private void closeQuietly(String token, V value)
+    {
+        try
+        {
+            close(token, value);
+        }
+        catch (RuntimeException e)
+        {
+            log.warn("Error while closing " + token + " of " + name + ", Caused by:" + e.getMessage());
+        }
+    }
+
+    private boolean isExpired(Entry<V> entry, long now)
+    {
+        return (idleTimeout > 0 && now - entry.lastAccessTime > idleTimeout)
+                || (absoluteTimeout > 0 && now - entry.creationTime > absoluteTimeout);
+    }
+
+    /**
+     * Registered value along with its access times.
+     */
+    private static class Entry<V>
+    {
+        private final V value;
+
+        private final long creationTime;
+
+        private volatile long lastAccessTime;
+
+        Entry(V value)
+        {
+            this.value = value;
+            this.creationTime = System.currentTimeMillis();
+            this.lastAccessTime = creationTime;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.rest.repository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.impetus.kundera.query.Query;
+
+/**
+ * Server side cursor over results of a query, paged through by subsequent
+ * requests of a session with its continuation token. Rows a query could not
+ * skip itself are skipped on first read, and rows beyond max results are not
+ * returned, for stores whose iterators ignore them. Iteration and closing are
+ * serialized on the cursor.
+ * 
+ * @author impetus
+ */
+public class QueryCursor implements Iterator<Object>
+{
+    private final String sessionToken;
+
+    private final Query query;
+
+    private final Iterator<?> iterator;
+
+    private final Class<?> entityClass;
+
+    private final int maxResults;
+
+    private int skip;
+
+    private int returned;
+
+    private volatile long lastAccessTime;
+
+    /**
+     * @param sessionToken
+     *            session the cursor belongs to.
+     * @param query
+     *            query to close along with cursor, may be null.
+     * @param iterator
+     *            iterator over query results.
+     * @param entityClass
+     *            class of results.
+     */
+    public QueryCursor(String sessionToken, Query query, Iterator<?> iterator, Class<?> entityClass)
+    {
+        this(sessionToken, query, iterator, entityClass, 0, -1);
+    }
+
+    /**
+     * @param sessionToken
+     *            session the cursor belongs to.
+     * @param query
+     *            query to close along with cursor, may be null.
+     * @param iterator
+     *            iterator over query results.
+     * @param entityClass
+     *            class of results.
+     * @param skip
+     *            number of rows to skip before first page.
+     * @param maxResults
+     *            maximum number of rows returned, negative for unbounded.
+     */
+    public QueryCursor(String sessionToken, Query query, Iterator<?> iterator, Class<?> entityClass, int skip,
+            int maxResults)
+    {
+        this.sessionToken = sessionToken;
+        this.query = query;
+        this.iterator = iterator;
+        this.entityClass = entityClass;
+        this.skip = skip;
+        this.maxResults = maxResults;
+        this.lastAccessTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns next page of results.
+     * 
+     * @param pageSize
+     *            maximum number of results.
+     * @return results, fewer than page size once exhausted.
+     */
+    public synchronized List<?> next(int pageSize)
+    {
+        lastAccessTime = System.currentTimeMillis();
+        List<Object> page = new ArrayList<Object>(pageSize);
+        while (page.size() < pageSize && hasNext())
+        {
+            page.add(iterator.next());
+            returned++;
+        }
+        return page;
+    }
+
+    /**
+     * Returns next result.
+     * 
+     * @return result.
+     */
+    @Override
+    public synchronized Object next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException("No more results for " + entityClass);
+        }
+        lastAccessTime = System.currentTimeMillis();
+        returned++;
+        return iterator.next();
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException("remove method is not supported over query cursor");
+    }
+
+    /**
+     * @return whether more results remain.
+     */
+    @Override
+    public synchronized boolean hasNext()
+    {
+        while (skip > 0 && iterator.hasNext())
+        {
+            iterator.next();
+            skip--;
+        }
+        return (maxResults < 0 || returned < maxResults) && iterator.hasNext();
+    }
+
+    /**
+     * Releases resources held by query.
+     */
+    public synchronized void close()
+    {
+        if (query != null)
+        {
+            query.close();
+        }
+    }
+
+    /**
+     * @return the sessionToken
+     */
+    public String getSessionToken()
+    {
+        return sessionToken;
+    }
+
+    /**
+     * @return the entityClass
+     */
+    public Class<?> getEntityClass()
+    {
+        return entityClass;
+    }
+
+    /**
+     * @return the lastAccessTime
+     */
+    public long getLastAccessTime()
+    {
+        return lastAccessTime;
+    }
+}
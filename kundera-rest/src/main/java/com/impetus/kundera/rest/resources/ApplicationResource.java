@@ -67,7 +67,11 @@ public class ApplicationResource
 
         String applicationToken = TokenUtils.generateApplicationToken();
 
-        EMFRepository.INSTANCE.addEmf(applicationToken, emf);
+        if (!EMFRepository.INSTANCE.addEmf(applicationToken, emf))
+        {
+            emf.close();
+            return Response.GET_AT_FAILED;
+        }
 
         return applicationToken;
     }
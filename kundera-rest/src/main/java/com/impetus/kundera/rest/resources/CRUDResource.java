@@ -17,8 +17,11 @@ package com.impetus.kundera.rest.resources;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -28,6 +31,7 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
@@ -45,6 +49,9 @@ import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.rest.common.Constants;
 import com.impetus.kundera.rest.common.EntityUtils;
 import com.impetus.kundera.rest.common.JAXBUtils;
+import com.impetus.kundera.rest.converters.CollectionStreamingInput;
+import com.impetus.kundera.rest.dto.BulkItemResult;
+import com.impetus.kundera.rest.dto.BulkResult;
 import com.impetus.kundera.rest.repository.EMRepository;
 
 /**
@@ -59,6 +66,17 @@ public class CRUDResource
     /** log for this class. */
     private static Logger log = LoggerFactory.getLogger(CRUDResource.class);
 
+    /** entities written per transaction of bulk requests, unless batch size is set. */
+    private static final int DEFAULT_BULK_CHUNK_SIZE = 100;
+
+    /**
+     * Write operations of bulk requests.
+     */
+    private enum BulkOperation
+    {
+        PERSIST, MERGE, REMOVE
+    }
+
     @Context
     UriInfo uriInfo;
 
@@ -240,4 +258,225 @@ public class CRUDResource
 
     }
 
+    /**
+     * Handler for POST method requests of bulk resource Inserts entities read
+     * one by one from request body into datastore, chunk by chunk
+     * 
+     * @param sessionToken
+     * @param entityClassName
+     * @param in
+     * @return status of each entity
+     */
+    @POST
+    @Consumes({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @Produces({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @Path("/bulk")
+    public Response bulkInsert(@HeaderParam(Constants.SESSION_TOKEN_HEADER_NAME) String sessionToken,
+            @PathParam("entityClass") String entityClassName, @Context HttpHeaders headers, InputStream in)
+    {
+        return executeBulk(sessionToken, entityClassName, headers, in, BulkOperation.PERSIST);
+    }
+
+    /**
+     * Handler for PUT method requests of bulk resource Updates entities read
+     * one by one from request body into datastore, chunk by chunk
+     * 
+     * @param sessionToken
+     * @param entityClassName
+     * @param in
+     * @return status of each entity
+     */
+    @PUT
+    @Consumes({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @Produces({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @Path("/bulk")
+    public Response bulkUpdate(@HeaderParam(Constants.SESSION_TOKEN_HEADER_NAME) String sessionToken,
+            @PathParam("entityClass") String entityClassName, @Context HttpHeaders headers, InputStream in)
+    {
+        return executeBulk(sessionToken, entityClassName, headers, in, BulkOperation.MERGE);
+    }
+
+    /**
+     * Handler for POST method requests of bulk delete resource Deletes
+     * entities, identified by entities read one by one from request body,
+     * from datastore chunk by chunk
+     * 
+     * @param sessionToken
+     * @param entityClassName
+     * @param in
+     * @return status of each entity
+     */
+    @POST
+    @Consumes({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @Produces({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @Path("/bulk/delete")
+    public Response bulkDelete(@HeaderParam(Constants.SESSION_TOKEN_HEADER_NAME) String sessionToken,
+            @PathParam("entityClass") String entityClassName, @Context HttpHeaders headers, InputStream in)
+    {
+        return executeBulk(sessionToken, entityClassName, headers, in, BulkOperation.REMOVE);
+    }
+
+    /**
+     * Writes entities of request body as they are read, in chunks of
+     * kundera.batch.size entities, or of {@link #DEFAULT_BULK_CHUNK_SIZE} if no
+     * batch size is set. Each chunk runs in a transaction of its own, so that a
+     * batching client sends it as one batch, and is cleared from persistence
+     * context once committed, so that memory held is bounded by chunk size
+     * rather than by request size. Entities are reported OK once their chunk
+     * is committed. If a chunk fails, its entities are reported failed and the
+     * rest of request is not read; chunks committed before it stay written,
+     * and a datastore without transactions may have written part of failed
+     * chunk. Bulk requests are refused while session has a transaction in
+     * progress, as its entities could neither be cleared nor reported written.
+     */
+    private Response executeBulk(String sessionToken, String entityClassName, HttpHeaders headers, InputStream in,
+            BulkOperation operation)
+    {
+        String mediaType = headers.getRequestHeader("content-type").get(0);
+        if (log.isDebugEnabled())
+            log.debug("Bulk " + operation + ": SessionToken: " + sessionToken + ", entityClass: " + entityClassName
+                    + ", Media Type:" + mediaType);
+
+        EntityManager em;
+        Class<?> entityClass;
+        EntityMetadata m;
+        try
+        {
+            em = EMRepository.INSTANCE.getEM(sessionToken);
+            entityClass = EntityUtils.getEntityClass(entityClassName, em);
+            m = KunderaMetadataManager.getEntityMetadata(entityClass);
+        }
+        catch (Exception e)
+        {
+            log.error(e.getMessage());
+            return Response.serverError().build();
+        }
+
+        EntityTransaction tx = em.getTransaction();
+        if (tx.isActive())
+        {
+            log.error("Bulk " + operation + " refused, session " + sessionToken + " has a transaction in progress");
+            return Response.status(Response.Status.CONFLICT).build();
+        }
+
+        int chunkSize = getBulkChunkSize(m);
+        BulkResult result = new BulkResult();
+        List<BulkItemResult> chunk = new ArrayList<BulkItemResult>(chunkSize);
+        try
+        {
+            CollectionStreamingInput input = new CollectionStreamingInput(in, entityClass, mediaType);
+            int index = 0;
+            for (Object entity = input.next(); entity != null; entity = input.next())
+            {
+                if (!tx.isActive())
+                {
+                    tx.begin();
+                }
+                chunk.add(write(em, m, entity, index++, operation));
+                if (chunk.size() >= chunkSize)
+                {
+                    commit(em, tx, chunk, result);
+                }
+            }
+
+            if (!chunk.isEmpty())
+            {
+                commit(em, tx, chunk, result);
+            }
+        }
+        catch (WebApplicationException e)
+        {
+            log.error("Error while reading " + entityClassName + " entities, Caused by:" + e.getMessage());
+            rollback(em, tx, chunk, result, "Chunk rolled back: " + e.getMessage());
+            return Response.status(e.getResponse().getStatus()).entity(result).build();
+        }
+        catch (Exception e)
+        {
+            log.error("Error while writing " + entityClassName + " entities, Caused by:" + e.getMessage());
+            rollback(em, tx, chunk, result, "Chunk failed: " + e.getMessage());
+            return Response.serverError().entity(result).build();
+        }
+
+        return Response.ok(result).build();
+    }
+
+    /**
+     * Returns number of entities written per transaction, batch size of
+     * persistence unit if set.
+     */
+    private int getBulkChunkSize(EntityMetadata m)
+    {
+        int batchSize = KunderaMetadataManager.getPersistenceUnitMetadata(m.getPersistenceUnit()).getBatchSize();
+        return batchSize > 0 ? batchSize : DEFAULT_BULK_CHUNK_SIZE;
+    }
+
+    /**
+     * Commits chunk, reports its entities and clears them from persistence
+     * context.
+     */
+    private void commit(EntityManager em, EntityTransaction tx, List<BulkItemResult> chunk, BulkResult result)
+    {
+        tx.commit();
+        em.clear();
+        for (BulkItemResult item : chunk)
+        {
+            result.addItem(item);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Rolls back chunk not committed and reports its entities failed.
+     */
+    private void rollback(EntityManager em, EntityTransaction tx, List<BulkItemResult> chunk, BulkResult result,
+            String message)
+    {
+        if (tx.isActive())
+        {
+            tx.rollback();
+        }
+        em.clear();
+        for (BulkItemResult item : chunk)
+        {
+            if (BulkItemResult.OK.equals(item.getStatus()))
+            {
+                item.setStatus(BulkItemResult.FAILED);
+                item.setMessage(message);
+            }
+            result.addItem(item);
+        }
+        chunk.clear();
+    }
+
+    private BulkItemResult write(EntityManager em, EntityMetadata m, Object entity, int index,
+            BulkOperation operation)
+    {
+        Object id = null;
+        try
+        {
+            id = PropertyAccessorHelper.getId(entity, m);
+            switch (operation)
+            {
+            case PERSIST:
+                em.persist(entity);
+                break;
+
+            case MERGE:
+                em.merge(entity);
+                break;
+
+            case REMOVE:
+                // removed by id of entity read, without looking it up.
+                em.remove(entity);
+                break;
+            }
+            return new BulkItemResult(index, id, BulkItemResult.OK, null);
+        }
+        catch (Exception e)
+        {
+            log.warn("Error while writing entity " + index + " of bulk request, Caused by:" + e.getMessage());
+            return new BulkItemResult(index, id, BulkItemResult.FAILED, e.getMessage());
+        }
+    }
+
 }
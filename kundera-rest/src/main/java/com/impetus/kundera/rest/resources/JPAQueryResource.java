@@ -15,8 +15,6 @@
  ******************************************************************************/
 package com.impetus.kundera.rest.resources;
 
-import java.util.List;
-
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
 import javax.ws.rs.DELETE;
@@ -30,6 +28,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.commons.logging.Log;
@@ -40,7 +39,6 @@ import org.slf4j.LoggerFactory;
 import com.impetus.kundera.query.QueryImpl;
 import com.impetus.kundera.rest.common.Constants;
 import com.impetus.kundera.rest.common.EntityUtils;
-import com.impetus.kundera.rest.converters.CollectionConverter;
 import com.impetus.kundera.rest.repository.EMRepository;
 
 /**
@@ -82,7 +80,12 @@ public class JPAQueryResource
             log.debug("GET: sessionToken:" + sessionToken + ", entityClass:" + entityClassName + ", Named Query:"
                     + namedQueryName + ", Media Type:" + mediaType);
 
-        List result = null;
+        if (QueryPager.isContinuation(info))
+        {
+            return QueryPager.nextPage(sessionToken, info, mediaType);
+        }
+
+        StreamingOutput output = null;
         Class<?> entityClass = null;
         try
         {
@@ -99,7 +102,12 @@ public class JPAQueryResource
                         .append(entityClassName).append(" ").append(alias);
 
                 Query q = em.createQuery(sb.toString());
-                result = q.getResultList();
+                int skip = QueryPager.setResultRange(q, info);
+                if (QueryPager.isPaged(info))
+                {
+                    return QueryPager.firstPage(sessionToken, q, entityClass, info, mediaType, skip);
+                }
+                output = QueryPager.stream(sessionToken, q, entityClass, info, mediaType, skip);
             }
             else
             {
@@ -120,8 +128,13 @@ public class JPAQueryResource
                 }
 
                 EntityUtils.setQueryParameters(queryPart, paramPart, q);
+                int skip = QueryPager.setResultRange(q, info);
+                if (QueryPager.isPaged(info))
+                {
+                    return QueryPager.firstPage(sessionToken, q, entityClass, info, mediaType, skip);
+                }
 
-                result = q.getResultList();
+                output = QueryPager.stream(sessionToken, q, entityClass, info, mediaType, skip);
             }
 
         }
@@ -131,16 +144,6 @@ public class JPAQueryResource
             return Response.serverError().build();
         }
 
-        if (log.isDebugEnabled())
-            log.debug("GET: Result of " + namedQueryName + " Query : " + result);
-
-        if (result == null)
-        {
-            return Response.noContent().build();
-        }
-
-        String output = CollectionConverter.toString(result, entityClass, mediaType);
-
         return Response.ok(output).build();
 
     }
@@ -211,7 +214,12 @@ public class JPAQueryResource
             return Response.noContent().build();
         }
 
-        List result = null;
+        if (QueryPager.isContinuation(info))
+        {
+            return QueryPager.nextPage(sessionToken, info, mediaType);
+        }
+
+        StreamingOutput output = null;
         Query q = null;
         try
         {
@@ -227,8 +235,15 @@ public class JPAQueryResource
             }
 
             EntityUtils.setQueryParameters(queryPart, paramPart, q);
+            int skip = QueryPager.setResultRange(q, info);
+            if (QueryPager.isPaged(info))
+            {
+                return QueryPager.firstPage(sessionToken, q, ((QueryImpl) q).getKunderaQuery().getEntityClass(),
+                        info, mediaType, skip);
+            }
 
-            result = q.getResultList();
+            output = QueryPager.stream(sessionToken, q, ((QueryImpl) q).getKunderaQuery().getEntityClass(), info,
+                    mediaType, skip);
         }
         catch (Exception e)
         {
@@ -236,17 +251,6 @@ public class JPAQueryResource
             return Response.serverError().build();
         }
 
-        if (log.isDebugEnabled())
-            log.debug("GET: Result for JPA Query: " + result);
-
-        if (result == null)
-        {
-            return Response.noContent().build();
-        }
-
-        Class<?> genericClass = ((QueryImpl) q).getKunderaQuery().getEntityClass();
-        String output = CollectionConverter.toString(result, genericClass, mediaType);
-
         return Response.ok(output).build();
     }
 
@@ -15,8 +15,6 @@
  */
 package com.impetus.kundera.rest.resources;
 
-import java.util.List;
-
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
 import javax.ws.rs.DELETE;
@@ -29,6 +27,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.commons.logging.Log;
@@ -38,7 +37,6 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.kundera.rest.common.Constants;
 import com.impetus.kundera.rest.common.EntityUtils;
-import com.impetus.kundera.rest.converters.CollectionConverter;
 import com.impetus.kundera.rest.repository.EMRepository;
 
 /**
@@ -185,7 +183,12 @@ public class NativeQueryResource
             log.debug("GET:: Session Token:" + sessionToken + ", Entity Class Name:" + entityClassName
                     + ", Native Query:" + nativeQueryName + ", Media Type:" + mediaType);
 
-        List result = null;
+        if (QueryPager.isContinuation(info))
+        {
+            return QueryPager.nextPage(sessionToken, info, mediaType);
+        }
+
+        StreamingOutput output = null;
         Class<?> entityClass = null;
         Query q;
         try
@@ -201,7 +204,12 @@ public class NativeQueryResource
             }
 
             q = em.createNativeQuery(nativeQueryName, entityClass);
-            result = q.getResultList();
+            int skip = QueryPager.setResultRange(q, info);
+            if (QueryPager.isPaged(info))
+            {
+                return QueryPager.firstPage(sessionToken, q, entityClass, info, mediaType, skip);
+            }
+            output = QueryPager.stream(sessionToken, q, entityClass, info, mediaType, skip);
         }
         catch (Exception e)
         {
@@ -209,15 +217,6 @@ public class NativeQueryResource
             return Response.serverError().build();
         }
 
-        if (result == null)
-        {
-            return Response.noContent().build();
-        }
-
-        if (log.isDebugEnabled())
-            log.debug("GET: Media Type:" + mediaType);
-
-        String output = CollectionConverter.toString(result, entityClass, mediaType);
         return Response.ok(output).build();
     }
 
@@ -239,8 +238,13 @@ public class NativeQueryResource
             log.debug("GET:: Session Token:" + sessionToken + ", Entity Class Name:" + entityClassName
                     + ", Named Native Query:" + namedNativeQueryName + ", Media Type:" + mediaType);
 
+        if (QueryPager.isContinuation(info))
+        {
+            return QueryPager.nextPage(sessionToken, info, mediaType);
+        }
+
         Class<?> entityClass = null;
-        List result = null;
+        StreamingOutput output = null;
 
         try
         {
@@ -255,7 +259,12 @@ public class NativeQueryResource
             }
 
             Query q = em.createNamedQuery(namedNativeQueryName);
-            result = q.getResultList();
+            int skip = QueryPager.setResultRange(q, info);
+            if (QueryPager.isPaged(info))
+            {
+                return QueryPager.firstPage(sessionToken, q, entityClass, info, mediaType, skip);
+            }
+            output = QueryPager.stream(sessionToken, q, entityClass, info, mediaType, skip);
         }
         catch (Exception e)
         {
@@ -263,12 +272,6 @@ public class NativeQueryResource
             return Response.serverError().build();
         }
 
-        if (result == null)
-        {
-            return Response.noContent().build();
-        }
-
-        String output = CollectionConverter.toString(result, entityClass, mediaType);
         return Response.ok(output).build();
     }
 
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.rest.resources;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.persistence.Query;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.rest.common.Constants;
+import com.impetus.kundera.rest.converters.CollectionConverter;
+import com.impetus.kundera.rest.repository.EMRepository;
+import com.impetus.kundera.rest.repository.QueryCursor;
+
+/**
+ * Pages query results for query resources. A query is paged when requested
+ * with <code>pageSize</code> parameter: its first page is returned along with
+ * a continuation token in <code>x-ct</code> header, as long as more results
+ * remain. Next pages are requested with this token in <code>cursor</code>
+ * parameter, results being read from the query iterator kept by
+ * {@link EMRepository} instead of running the query again. Queries requested
+ * without page size are streamed from the same iterator in one response.
+ * 
+ * @author impetus
+ */
+final class QueryPager
+{
+    private static Logger log = LoggerFactory.getLogger(QueryPager.class);
+
+    /** Page size of continuations requested without page size. */
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    private QueryPager()
+    {
+    }
+
+    /**
+     * @param info
+     * @return whether a query is requested paged
+     */
+    static boolean isPaged(UriInfo info)
+    {
+        return getPageSize(info) > 0;
+    }
+
+    /**
+     * @param info
+     * @return whether next page of a paged query is requested
+     */
+    static boolean isContinuation(UriInfo info)
+    {
+        return info.getQueryParameters().getFirst(Constants.CURSOR_PARAM) != null;
+    }
+
+    /**
+     * Sets first result and max results requested, if any, on query. Most
+     * clients don't support first result, rows to skip are then left to
+     * caller. Paged queries without max results are set unbounded, instead of
+     * default max results some clients stop iterating at.
+     * 
+     * @param q
+     * @param info
+     * @return number of rows to skip, query could not skip
+     */
+    static int setResultRange(Query q, UriInfo info)
+    {
+        int firstResult = getIntParameter(info, Constants.FIRST_RESULT_PARAM, 0);
+        int maxResults = getIntParameter(info, Constants.MAX_RESULTS_PARAM, -1);
+
+        int skip = 0;
+        if (firstResult > 0)
+        {
+            try
+            {
+                q.setFirstResult(firstResult);
+            }
+            catch (UnsupportedOperationException e)
+            {
+                skip = firstResult;
+            }
+        }
+
+        if (maxResults >= 0)
+        {
+            q.setMaxResults((int) Math.min((long) skip + maxResults, Integer.MAX_VALUE));
+        }
+        else if (isPaged(info))
+        {
+            q.setMaxResults(Integer.MAX_VALUE);
+        }
+        return skip;
+    }
+
+    /**
+     * Returns an output writing all results of query as they are iterated,
+     * without holding them in memory. Query is closed once they are written.
+     * 
+     * @param sessionToken
+     * @param q
+     * @param entityClass
+     * @param info
+     * @param mediaType
+     * @param skip
+     *            number of leading rows to skip.
+     * @return
+     */
+    static StreamingOutput stream(String sessionToken, Query q, Class<?> entityClass, UriInfo info,
+            String mediaType, int skip)
+    {
+        final QueryCursor cursor = openCursor(sessionToken, q, entityClass, info, skip, DEFAULT_PAGE_SIZE);
+        final StreamingOutput output = CollectionConverter.toStreamingOutput(new Iterable<Object>()
+        {
+            @Override
+            public Iterator<Object> iterator()
+            {
+                return cursor;
+            }
+        }, entityClass, mediaType);
+
+        return new StreamingOutput()
+        {
+            @Override
+            public void write(OutputStream os) throws IOException, WebApplicationException
+            {
+                try
+                {
+                    output.write(os);
+                }
+                finally
+                {
+                    cursor.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Opens a cursor on query and returns its first page.
+     * 
+     * @param sessionToken
+     * @param q
+     * @param entityClass
+     * @param info
+     * @param mediaType
+     * @param skip
+     *            number of leading rows to skip.
+     * @return
+     */
+    static Response firstPage(String sessionToken, Query q, Class<?> entityClass, UriInfo info, String mediaType,
+            int skip)
+    {
+        int pageSize = getPageSize(info);
+        QueryCursor cursor = openCursor(sessionToken, q, entityClass, info, skip, pageSize);
+        try
+        {
+            return page(null, cursor, pageSize, mediaType);
+        }
+        catch (RuntimeException e)
+        {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns next page of cursor requested.
+     * 
+     * @param sessionToken
+     * @param info
+     * @param mediaType
+     * @return
+     */
+    static Response nextPage(String sessionToken, UriInfo info, String mediaType)
+    {
+        String cursorToken = info.getQueryParameters().getFirst(Constants.CURSOR_PARAM);
+        QueryCursor cursor = EMRepository.INSTANCE.getCursor(sessionToken, cursorToken);
+        if (cursor == null)
+        {
+            log.warn("Cursor " + cursorToken + " doesn't exist or has expired");
+            return Response.status(Response.Status.GONE).build();
+        }
+
+        int pageSize = getPageSize(info);
+        try
+        {
+            return page(cursorToken, cursor, pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE, mediaType);
+        }
+        catch (RuntimeException e)
+        {
+            EMRepository.INSTANCE.removeCursor(cursorToken);
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a cursor over query iterator, fetching given number of rows at a
+     * time, or over its result list if query can't be iterated.
+     */
+    private static QueryCursor openCursor(String sessionToken, Query q, Class<?> entityClass, UriInfo info,
+            int skip, int fetchSize)
+    {
+        com.impetus.kundera.query.Query kunderaQuery = null;
+        Iterator<?> iterator = null;
+        if (q instanceof com.impetus.kundera.query.Query)
+        {
+            kunderaQuery = (com.impetus.kundera.query.Query) q;
+            kunderaQuery.setFetchSize(fetchSize);
+            try
+            {
+                iterator = kunderaQuery.iterate();
+            }
+            catch (UnsupportedOperationException e)
+            {
+                log.warn("Query iteration is not supported for " + entityClass + ", reading its result list.");
+            }
+        }
+        if (iterator == null)
+        {
+            iterator = q.getResultList().iterator();
+        }
+
+        return new QueryCursor(sessionToken, kunderaQuery, iterator, entityClass, skip, getIntParameter(info,
+                Constants.MAX_RESULTS_PARAM, -1));
+    }
+
+    private static Response page(String cursorToken, QueryCursor cursor, int pageSize, String mediaType)
+    {
+        List<?> results = cursor.next(pageSize);
+        ResponseBuilder builder = Response.ok(CollectionConverter.toStreamingOutput(results,
+                cursor.getEntityClass(), mediaType));
+
+        if (cursor.hasNext())
+        {
+            if (cursorToken == null)
+            {
+                cursorToken = EMRepository.INSTANCE.addCursor(cursor);
+            }
+            builder.header(Constants.CURSOR_TOKEN_HEADER_NAME, cursorToken);
+        }
+        else if (cursorToken != null)
+        {
+            EMRepository.INSTANCE.removeCursor(cursorToken);
+        }
+        else
+        {
+            cursor.close();
+        }
+        return builder.build();
+    }
+
+    private static int getPageSize(UriInfo info)
+    {
+        return getIntParameter(info, Constants.PAGE_SIZE_PARAM, 0);
+    }
+
+    private static int getIntParameter(UriInfo info, String name, int defaultValue)
+    {
+        String value = info.getQueryParameters().getFirst(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+}
@@ -34,6 +34,7 @@ import org.slf4j.LoggerFactory;
 import com.impetus.kundera.rest.common.Constants;
 import com.impetus.kundera.rest.common.Response;
 import com.impetus.kundera.rest.common.TokenUtils;
+import com.impetus.kundera.rest.dto.SessionMetrics;
 import com.impetus.kundera.rest.repository.EMFRepository;
 import com.impetus.kundera.rest.repository.EMRepository;
 
@@ -76,7 +77,18 @@ public class SessionResource
         String sessionToken = TokenUtils.generateSessionToken();
         EntityManager em = emf.createEntityManager();
 
-        EMRepository.INSTANCE.addEm(sessionToken, em);
+        if (!EMRepository.INSTANCE.addEm(sessionToken, em))
+        {
+            em.close();
+            return Response.GET_ST_FAILED;
+        }
+
+        // application evicted meanwhile, its sessions already removed.
+        if (!emf.isOpen())
+        {
+            EMRepository.INSTANCE.removeEm(sessionToken);
+            return Response.GET_ST_FAILED;
+        }
         return sessionToken;
     }
 
@@ -142,4 +154,20 @@ public class SessionResource
         return Response.DELETE_ST_SUCCESS;
     }
 
+    /**
+     * Handler for GET method requests for metrics of this resource Returns
+     * number of active, created, expired and rejected sessions along with
+     * open cursors and applications
+     * 
+     * @return
+     */
+    @GET
+    @Produces({ MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON })
+    @Path("/metrics")
+    public SessionMetrics getMetrics()
+    {
+        return new SessionMetrics(EMRepository.INSTANCE.getSessions(), EMRepository.INSTANCE.getCursorCount(),
+                EMFRepository.INSTANCE.getApplications());
+    }
+
 }
@@ -15,8 +15,10 @@
  ******************************************************************************/
 package com.impetus.kundera.rest.converters;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.ws.rs.core.MediaType;
@@ -79,6 +81,41 @@ public class CollectionConverterTest
         Assert.assertNotNull(s);
     }
 
+    @Test
+    public void testToStreamingOutput() throws Exception
+    {
+        List books = new ArrayList();
+
+        Book book1 = new Book();
+        book1.setIsbn("11111111111");
+        book1.setAuthor("Amresh");
+        book1.setPublication("AAA");
+
+        Book book2 = new Book();
+        book2.setIsbn("22222222222");
+        book2.setAuthor("Vivek");
+        book2.setPublication("BBB");
+
+        books.add(book1);
+        books.add(book2);
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        CollectionConverter.toStreamingOutput(books, Book.class, MediaType.APPLICATION_XML).write(os);
+        String s = os.toString("UTF-8");
+        Assert.assertTrue(s.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><books><book>"));
+        Assert.assertTrue(s.endsWith("</book></books>"));
+
+        Collection c = CollectionConverter.toCollection(s, ArrayList.class, Book.class, MediaType.APPLICATION_XML);
+        Assert.assertEquals(2, c.size());
+
+        os = new ByteArrayOutputStream();
+        CollectionConverter.toStreamingOutput(books, Book.class, MediaType.APPLICATION_JSON).write(os);
+        s = os.toString("UTF-8");
+        Assert.assertTrue(s.startsWith("[{"));
+        Assert.assertTrue(s.contains("22222222222"));
+        Assert.assertTrue(s.endsWith("}]"));
+    }
+
     @Test
     public void testToCollection()
     {
@@ -91,4 +128,33 @@ public class CollectionConverterTest
 
     }
 
+    /**
+     * Plural element used to be written unclosed, as
+     * <code>&lt;books&gt;...&lt;books&gt;</code>. It is now closed, and both
+     * forms are read into same collection.
+     */
+    @Test
+    public void testToCollectionUnclosedPlural()
+    {
+        String books = "<book><author>Saurabh</author><isbn>1111111111111</isbn><publication>Willey</publication></book>"
+                + "<book><author>Vivek</author><isbn>2222222222222</isbn><publication>OReilly</publication></book>";
+        String header = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+
+        Collection c = CollectionConverter.toCollection(header + "<books>" + books + "<books>", ArrayList.class,
+                Book.class, MediaType.APPLICATION_XML);
+        Assert.assertEquals(2, c.size());
+
+        String s = CollectionConverter.toString(c, Book.class, MediaType.APPLICATION_XML);
+        Assert.assertTrue(s.endsWith("</book></books>"));
+
+        Collection closed = CollectionConverter.toCollection(s, ArrayList.class, Book.class,
+                MediaType.APPLICATION_XML);
+        Assert.assertEquals(2, closed.size());
+        Iterator it = c.iterator();
+        for (Object book : closed)
+        {
+            Assert.assertEquals(((Book) it.next()).getIsbn(), ((Book) book).getIsbn());
+        }
+    }
+
 }
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.rest.converters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.impetus.kundera.rest.common.Book;
+import com.impetus.kundera.rest.common.StreamUtils;
+
+/**
+ * Test case for {@link CollectionStreamingInput}
+ * 
+ * @author impetus
+ */
+public class CollectionStreamingInputTest
+{
+    @Test
+    public void testXML() throws Exception
+    {
+        assertRoundTrip(MediaType.APPLICATION_XML);
+    }
+
+    @Test
+    public void testJSON() throws Exception
+    {
+        assertRoundTrip(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        Assert.assertNull(new CollectionStreamingInput(StreamUtils.toInputStream("<books></books>"), Book.class,
+                MediaType.APPLICATION_XML).next());
+        Assert.assertNull(new CollectionStreamingInput(StreamUtils.toInputStream(" [ ] "), Book.class,
+                MediaType.APPLICATION_JSON).next());
+    }
+
+    @Test
+    public void testMalformedJSON()
+    {
+        CollectionStreamingInput input = new CollectionStreamingInput(
+                StreamUtils.toInputStream("[{\"book\":{\"isbn\":\"1\",\"author\":\"A}\"}}, {\"book\":"), Book.class,
+                MediaType.APPLICATION_JSON);
+        Book book = (Book) input.next();
+        Assert.assertEquals("A}", book.getAuthor());
+        try
+        {
+            input.next();
+            Assert.fail("Truncated input must fail");
+        }
+        catch (WebApplicationException e)
+        {
+            Assert.assertEquals(400, e.getResponse().getStatus());
+        }
+    }
+
+    private void assertRoundTrip(String mediaType) throws Exception
+    {
+        List<Book> books = new ArrayList<Book>();
+        for (int i = 0; i < 3; i++)
+        {
+            Book book = new Book();
+            book.setIsbn("isbn" + i);
+            book.setAuthor("author" + i);
+            book.setPublication("publication" + i);
+            books.add(book);
+        }
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        CollectionConverter.toStreamingOutput(books, Book.class, mediaType).write(os);
+
+        CollectionStreamingInput input = new CollectionStreamingInput(new ByteArrayInputStream(os.toByteArray()),
+                Book.class, mediaType);
+        for (int i = 0; i < 3; i++)
+        {
+            Book book = (Book) input.next();
+            Assert.assertNotNull(book);
+            Assert.assertEquals("isbn" + i, book.getIsbn());
+            Assert.assertEquals("author" + i, book.getAuthor());
+        }
+        Assert.assertNull(input.next());
+        Assert.assertNull(input.next());
+    }
+}
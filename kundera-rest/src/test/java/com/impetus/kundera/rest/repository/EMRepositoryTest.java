@@ -0,0 +1,236 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.rest.repository;
+
+import java.util.ArrayList;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.impetus.kundera.query.IResultIterator;
+
+/**
+ * Test case for query cursors held by {@link EMRepository}
+ * 
+ * @author impetus
+ */
+public class EMRepositoryTest
+{
+    @After
+    public void tearDown() throws Exception
+    {
+        EMRepository.INSTANCE.setCursorIdleTimeout(EMRepository.DEFAULT_CURSOR_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Returns a factory of entity managers, each only tracking whether it is
+     * open.
+     */
+    private EntityManagerFactory createEMF()
+    {
+        final boolean[] emfOpen = { true };
+        return (EntityManagerFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] { EntityManagerFactory.class }, new InvocationHandler()
+                {
+                    @Override
+                    public Object invoke(final Object emf, Method method, Object[] args)
+                    {
+                        if (method.getName().equals("createEntityManager"))
+                        {
+                            final boolean[] emOpen = { true };
+                            return Proxy.newProxyInstance(getClass().getClassLoader(),
+                                    new Class[] { EntityManager.class }, new InvocationHandler()
+                                    {
+                                        @Override
+                                        public Object invoke(Object em, Method method, Object[] args)
+                                        {
+                                            return invokeOnState(emOpen, emf, method);
+                                        }
+                                    });
+                        }
+                        return invokeOnState(emfOpen, null, method);
+                    }
+                });
+    }
+
+    private Object invokeOnState(boolean[] open, Object emf, Method method)
+    {
+        if (method.getName().equals("close"))
+        {
+            open[0] = false;
+        }
+        else if (method.getName().equals("isOpen"))
+        {
+            return open[0];
+        }
+        else if (method.getName().equals("getEntityManagerFactory"))
+        {
+            return emf;
+        }
+        return null;
+    }
+
+    @Test
+    public void testCursor()
+    {
+        QueryCursor cursor = new QueryCursor("ST_1", null, Arrays.asList("a", "b", "c").iterator(), String.class);
+        String cursorToken = EMRepository.INSTANCE.addCursor(cursor);
+        Assert.assertNotNull(cursorToken);
+
+        Assert.assertNull(EMRepository.INSTANCE.getCursor("ST_2", cursorToken));
+        Assert.assertSame(cursor, EMRepository.INSTANCE.getCursor("ST_1", cursorToken));
+
+        List<?> page = cursor.next(2);
+        Assert.assertEquals(Arrays.asList("a", "b"), page);
+        Assert.assertTrue(cursor.hasNext());
+        page = cursor.next(2);
+        Assert.assertEquals(Arrays.asList("c"), page);
+        Assert.assertFalse(cursor.hasNext());
+
+        EMRepository.INSTANCE.removeCursor(cursorToken);
+        Assert.assertNull(EMRepository.INSTANCE.getCursor("ST_1", cursorToken));
+    }
+
+    @Test
+    public void testCursorRange()
+    {
+        QueryCursor cursor = new QueryCursor("ST_1", null, Arrays.asList("a", "b", "c", "d", "e").iterator(),
+                String.class, 1, 3);
+        Assert.assertEquals(Arrays.asList("b", "c"), cursor.next(2));
+        Assert.assertTrue(cursor.hasNext());
+        Assert.assertEquals(Arrays.asList("d"), cursor.next(2));
+        Assert.assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void testSessionsRemovedWithApplication()
+    {
+        EntityManagerFactory emf = createEMF();
+        EntityManagerFactory otherEmf = createEMF();
+        EntityManager em1 = emf.createEntityManager();
+        EntityManager em2 = emf.createEntityManager();
+        EntityManager em3 = otherEmf.createEntityManager();
+        EMRepository.INSTANCE.addEm("ST_4", em1);
+        EMRepository.INSTANCE.addEm("ST_5", em2);
+        EMRepository.INSTANCE.addEm("ST_6", em3);
+        QueryCursor cursor = new QueryCursor("ST_4", null, Arrays.asList("a").iterator(), String.class);
+        String cursorToken = EMRepository.INSTANCE.addCursor(cursor);
+
+        EMFRepository.INSTANCE.addEmf("AT_1", emf);
+        EMFRepository.INSTANCE.removeEMF("AT_1");
+
+        Assert.assertFalse(emf.isOpen());
+        Assert.assertFalse(em1.isOpen());
+        Assert.assertFalse(em2.isOpen());
+        Assert.assertNull(EMRepository.INSTANCE.getEM("ST_4"));
+        Assert.assertNull(EMRepository.INSTANCE.getEM("ST_5"));
+        Assert.assertNull(EMRepository.INSTANCE.getCursor("ST_4", cursorToken));
+
+        Assert.assertTrue(em3.isOpen());
+        Assert.assertSame(em3, EMRepository.INSTANCE.getEM("ST_6"));
+        EMRepository.INSTANCE.removeEm("ST_6");
+    }
+
+    @Test
+    public void testCursorIteration()
+    {
+        QueryCursor cursor = new QueryCursor("ST_1", null, Arrays.asList("a", "b", "c", "d", "e").iterator(),
+                String.class, 1, 3);
+        List<Object> results = new ArrayList<Object>();
+        while (cursor.hasNext())
+        {
+            results.add(cursor.next());
+        }
+        Assert.assertEquals(Arrays.asList("b", "c", "d"), results);
+
+        try
+        {
+            cursor.next();
+            Assert.fail();
+        }
+        catch (NoSuchElementException e)
+        {
+            Assert.assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCursorOverChunklessIterator()
+    {
+        final Iterator<String> rows = Arrays.asList("a", "b", "c").iterator();
+        IResultIterator<String> iterator = new IResultIterator<String>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return rows.hasNext();
+            }
+
+            @Override
+            public String next()
+            {
+                return rows.next();
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<String> next(int chunkSize)
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+        QueryCursor cursor = new QueryCursor("ST_1", null, iterator, String.class);
+        Assert.assertEquals(Arrays.asList("a", "b"), cursor.next(2));
+        Assert.assertEquals(Arrays.asList("c"), cursor.next(2));
+        Assert.assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void testIdleCursor() throws Exception
+    {
+        EMRepository.INSTANCE.setCursorIdleTimeout(10);
+        QueryCursor cursor = new QueryCursor("ST_1", null, Arrays.asList("a").iterator(), String.class);
+        String cursorToken = EMRepository.INSTANCE.addCursor(cursor);
+        Thread.sleep(50);
+        Assert.assertNull(EMRepository.INSTANCE.getCursor("ST_1", cursorToken));
+    }
+
+    @Test
+    public void testSessionCursorsRemoved()
+    {
+        QueryCursor cursor = new QueryCursor("ST_3", null, Arrays.asList("a").iterator(), String.class);
+        String cursorToken = EMRepository.INSTANCE.addCursor(cursor);
+        EMRepository.INSTANCE.removeEm("ST_3");
+        Assert.assertNull(EMRepository.INSTANCE.getCursor("ST_3", cursorToken));
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.rest.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test case for {@link ExpiringRegistry}
+ * 
+ * @author impetus
+ */
+public class ExpiringRegistryTest
+{
+    private TestRegistry registry;
+
+    @After
+    public void tearDown() throws Exception
+    {
+        if (registry != null)
+        {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    public void testPutGetRemove()
+    {
+        registry = new TestRegistry(0, 0, 0, 0);
+        Assert.assertTrue(registry.put("T_1", "a"));
+        Assert.assertEquals("a", registry.get("T_1"));
+        Assert.assertNull(registry.get("T_2"));
+        Assert.assertNull(registry.get(null));
+        Assert.assertEquals(1, registry.getActiveCount());
+
+        registry.remove("T_1");
+        Assert.assertNull(registry.get("T_1"));
+        Assert.assertEquals(0, registry.getActiveCount());
+        Assert.assertEquals(1, registry.closed.size());
+        Assert.assertEquals(0, registry.getEvictedCount());
+    }
+
+    @Test
+    public void testIdleTimeout() throws Exception
+    {
+        registry = new TestRegistry(100, 0, 0, 0);
+        registry.put("T_1", "a");
+        registry.put("T_2", "b");
+        Thread.sleep(60);
+        Assert.assertEquals("a", registry.get("T_1"));
+        Thread.sleep(60);
+
+        // T_1 was accessed since.
+        registry.evict();
+        Assert.assertEquals("a", registry.get("T_1"));
+        Assert.assertNull(registry.get("T_2"));
+        Assert.assertEquals(1, registry.getEvictedCount());
+        Assert.assertEquals("b", registry.closed.get(0));
+    }
+
+    @Test
+    public void testAbsoluteTimeout() throws Exception
+    {
+        registry = new TestRegistry(0, 50, 0, 0);
+        registry.put("T_1", "a");
+        Thread.sleep(80);
+        Assert.assertNull(registry.get("T_1"));
+        Assert.assertEquals(1, registry.getEvictedCount());
+        Assert.assertEquals(1, registry.closed.size());
+    }
+
+    @Test
+    public void testMaxSize() throws Exception
+    {
+        registry = new TestRegistry(50, 0, 2, 0);
+        Assert.assertTrue(registry.put("T_1", "a"));
+        Assert.assertTrue(registry.put("T_2", "b"));
+        Assert.assertFalse(registry.put("T_3", "c"));
+        Assert.assertEquals(1, registry.getRejectedCount());
+
+        // expired ones make room.
+        Thread.sleep(80);
+        Assert.assertTrue(registry.put("T_3", "c"));
+        Assert.assertEquals(1, registry.getActiveCount());
+        Assert.assertEquals(3, registry.getRegisteredCount());
+    }
+
+    @Test
+    public void testReplaceKeepsSlot()
+    {
+        registry = new TestRegistry(0, 0, 2, 0);
+        Assert.assertTrue(registry.put("T_1", "a"));
+        Assert.assertTrue(registry.put("T_1", "b"));
+        Assert.assertTrue(registry.put("T_2", "c"));
+        Assert.assertFalse(registry.put("T_3", "d"));
+
+        registry.remove("T_2");
+        Assert.assertTrue(registry.put("T_3", "d"));
+        Assert.assertEquals(2, registry.getActiveCount());
+    }
+
+    @Test
+    public void testConcurrentMaxSize() throws Exception
+    {
+        registry = new TestRegistry(0, 0, 10, 0);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger accepted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 50; i++)
+        {
+            final String token = "T_" + i;
+            Thread thread = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        return;
+                    }
+                    if (registry.put(token, token))
+                    {
+                        accepted.incrementAndGet();
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        Assert.assertEquals(10, accepted.get());
+        Assert.assertEquals(10, registry.getActiveCount());
+        Assert.assertEquals(40, registry.getRejectedCount());
+    }
+
+    @Test
+    public void testBackgroundEviction() throws Exception
+    {
+        registry = new TestRegistry(20, 0, 0, 10);
+        registry.put("T_1", "a");
+        for (int i = 0; i < 100 && registry.getActiveCount() > 0; i++)
+        {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, registry.getActiveCount());
+        Assert.assertEquals(1, registry.closed.size());
+    }
+
+    private static class TestRegistry extends ExpiringRegistry<String>
+    {
+        private final List<String> closed = new ArrayList<String>();
+
+        TestRegistry(long idleTimeout, long absoluteTimeout, int maxSize, long evictionInterval)
+        {
+            super("test-registry", idleTimeout, absoluteTimeout, maxSize, evictionInterval);
+        }
+
+        @Override
+        protected synchronized void close(String token, String value)
+        {
+            closed.add(value);
+        }
+    }
+}